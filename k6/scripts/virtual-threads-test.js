@@ -0,0 +1,126 @@
+// Virtual Threads Test - Concurrency ceiling of the mobile and put wall endpoints
+//
+// Scanners come online in waves of increasing size, as at shift start. Every scanner
+// polls its assigned and available work and looks at the put walls, with a short pause
+// between rounds. Run it once against the service on platform threads and once with
+// VIRTUAL_THREADS_ENABLED=true, then compare the ceilings printed at the end:
+//
+//   MODE=platform k6 run scripts/virtual-threads-test.js
+//   MODE=virtual  k6 run scripts/virtual-threads-test.js
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Rate, Trend } from 'k6/metrics';
+import { getEnvironment, config } from '../config/environments.js';
+import { commonHeaders, selectRandom, sleepWithJitter } from './utils.js';
+
+const MODE = __ENV.MODE || 'platform';
+// Concurrent scanners per wave; Tomcat has 200 platform threads by default
+const LEVELS = (__ENV.LEVELS || '50,100,200,400,800,1600').split(',').map(Number);
+const WAVE_DURATION_SECONDS = parseInt(__ENV.WAVE_DURATION_SECONDS || '60');
+const P95_LIMIT_MS = parseInt(__ENV.P95_LIMIT_MS || '1000');
+const MAX_ERROR_RATE = 0.01;
+
+const scanErrors = new Rate('scanner_errors');
+const scanRoundTime = new Trend('scanner_round_time');
+
+function waves() {
+  const scenarios = {};
+  LEVELS.forEach((scanners, index) => {
+    scenarios[`scanners_${scanners}`] = {
+      executor: 'constant-vus',
+      vus: scanners,
+      duration: `${WAVE_DURATION_SECONDS}s`,
+      // A few seconds between waves for the previous one to drain
+      startTime: `${index * (WAVE_DURATION_SECONDS + 5)}s`,
+      gracefulStop: '5s',
+      tags: { scanners: String(scanners) },
+    };
+  });
+  return scenarios;
+}
+
+function waveThresholds() {
+  // A threshold per wave makes k6 keep the metrics of each wave for the summary
+  const thresholds = {};
+  LEVELS.forEach((scanners) => {
+    thresholds[`http_req_duration{scanners:${scanners}}`] = ['p(95)>=0'];
+    thresholds[`http_req_failed{scanners:${scanners}}`] = ['rate>=0'];
+  });
+  return thresholds;
+}
+
+export const options = {
+  scenarios: waves(),
+  thresholds: waveThresholds(),
+  summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+  tags: {
+    testType: 'virtual-threads',
+    mode: MODE,
+    environment: __ENV.ENVIRONMENT || 'local'
+  }
+};
+
+const environment = getEnvironment();
+const BASE_URL = environment.baseUrl;
+
+export function setup() {
+  console.log(`🧵 Starting Virtual Threads Test (${MODE} threads) on ${environment.description}`);
+  console.log(`📍 Base URL: ${BASE_URL}`);
+  console.log(`📊 Waves of ${LEVELS.join(', ')} concurrent scanners, ${WAVE_DURATION_SECONDS}s each`);
+  console.log(`🎯 Ceiling: most scanners with p95 < ${P95_LIMIT_MS} ms and < ${MAX_ERROR_RATE * 100}% errors`);
+
+  const healthResponse = http.get(`${BASE_URL}/actuator/health`);
+  if (healthResponse.status !== 200) {
+    throw new Error(`❌ Service not healthy before virtual threads test`);
+  }
+  return { testData: config.testData };
+}
+
+export default function (data) {
+  const workerId = selectRandom(data.testData.pickerIds);
+  const params = { headers: commonHeaders, timeout: '30s' };
+  const start = Date.now();
+
+  const responses = http.batch([
+    ['GET', `${BASE_URL}/api/v1/mobile/work/assigned/${workerId}`, null,
+      Object.assign({ tags: { endpoint: 'mobile-assigned' } }, params)],
+    ['GET', `${BASE_URL}/api/v1/mobile/work/available/${workerId}?limit=10`, null,
+      Object.assign({ tags: { endpoint: 'mobile-available' } }, params)],
+    ['GET', `${BASE_URL}/api/v1/putwalls`, null,
+      Object.assign({ tags: { endpoint: 'putwalls' } }, params)],
+  ]);
+
+  responses.forEach((response) => {
+    const ok = check(response, {
+      'status is 2xx': (r) => r.status >= 200 && r.status < 300,
+    });
+    scanErrors.add(!ok);
+  });
+  scanRoundTime.add(Date.now() - start);
+
+  // Scanners poll about every half second
+  sleep(sleepWithJitter(0.5, 20));
+}
+
+export function handleSummary(data) {
+  const waves = LEVELS.map((scanners) => {
+    const duration = data.metrics[`http_req_duration{scanners:${scanners}}`];
+    const failed = data.metrics[`http_req_failed{scanners:${scanners}}`];
+    const p95 = duration ? duration.values['p(95)'] : NaN;
+    const errorRate = failed ? failed.values.rate : NaN;
+    return { scanners, p95, errorRate, ok: p95 < P95_LIMIT_MS && errorRate < MAX_ERROR_RATE };
+  });
+  const ceiling = waves.filter((wave) => wave.ok).reduce((max, wave) => Math.max(max, wave.scanners), 0);
+
+  const lines = [
+    '',
+    `🧵 Concurrency ceiling with ${MODE} threads: ${ceiling} scanners`,
+    ...waves.map((wave) => `   ${wave.ok ? '✅' : '❌'} ${String(wave.scanners).padStart(5)} scanners: ` +
+      `p95 ${wave.p95.toFixed(0)} ms, errors ${(wave.errorRate * 100).toFixed(2)}%`),
+    '',
+  ];
+  return {
+    stdout: lines.join('\n'),
+    [`reports/virtual-threads-${MODE}.json`]: JSON.stringify({ mode: MODE, ceiling, waves }, null, 2),
+  };
+}
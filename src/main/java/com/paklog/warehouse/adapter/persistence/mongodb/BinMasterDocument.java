@@ -0,0 +1,70 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "bin_master")
+public class BinMasterDocument {
+    @Id
+    private String id;
+    private String aisle;
+    private String rack;
+    private String level;
+    @Indexed
+    private String zone;
+    private String accessibility;
+    private double capacity;
+    private boolean hazmatCompatible;
+    private Double temperature;
+
+    public BinMasterDocument() {}
+
+    public BinMasterDocument(BinMasterRecord record) {
+        BinLocation location = record.getLocation();
+        this.id = location.toString();
+        this.aisle = location.getAisle();
+        this.rack = location.getRack();
+        this.level = location.getLevel();
+        this.zone = record.getZone();
+        this.accessibility = record.getAccessibility();
+        this.capacity = record.getCapacity();
+        this.hazmatCompatible = record.isHazmatCompatible();
+        this.temperature = record.getTemperature();
+    }
+
+    public BinMasterRecord toDomain() {
+        return new BinMasterRecord(BinLocation.of(aisle, rack, level), zone, accessibility,
+                                   capacity, hazmatCompatible, temperature);
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getAisle() { return aisle; }
+    public void setAisle(String aisle) { this.aisle = aisle; }
+
+    public String getRack() { return rack; }
+    public void setRack(String rack) { this.rack = rack; }
+
+    public String getLevel() { return level; }
+    public void setLevel(String level) { this.level = level; }
+
+    public String getZone() { return zone; }
+    public void setZone(String zone) { this.zone = zone; }
+
+    public String getAccessibility() { return accessibility; }
+    public void setAccessibility(String accessibility) { this.accessibility = accessibility; }
+
+    public double getCapacity() { return capacity; }
+    public void setCapacity(double capacity) { this.capacity = capacity; }
+
+    public boolean isHazmatCompatible() { return hazmatCompatible; }
+    public void setHazmatCompatible(boolean hazmatCompatible) { this.hazmatCompatible = hazmatCompatible; }
+
+    public Double getTemperature() { return temperature; }
+    public void setTemperature(Double temperature) { this.temperature = temperature; }
+}
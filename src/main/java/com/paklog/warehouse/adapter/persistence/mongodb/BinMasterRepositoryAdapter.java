@@ -0,0 +1,53 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class BinMasterRepositoryAdapter implements BinMasterRepository {
+    private static final Logger logger = LoggerFactory.getLogger(BinMasterRepositoryAdapter.class);
+
+    private final SpringBinMasterRepository springRepository;
+
+    public BinMasterRepositoryAdapter(SpringBinMasterRepository springRepository) {
+        this.springRepository = springRepository;
+    }
+
+    @Override
+    public void save(BinMasterRecord record) {
+        logger.debug("Saving bin master record: {}", record.getLocation());
+        springRepository.save(new BinMasterDocument(record));
+    }
+
+    @Override
+    public void saveAll(List<BinMasterRecord> records) {
+        logger.debug("Saving {} bin master records", records.size());
+        springRepository.saveAll(records.stream().map(BinMasterDocument::new).toList());
+    }
+
+    @Override
+    public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+        return springRepository.findById(location.toString()).map(BinMasterDocument::toDomain);
+    }
+
+    @Override
+    public List<BinMasterRecord> findAll() {
+        List<BinMasterRecord> records = springRepository.findAll().stream()
+            .map(BinMasterDocument::toDomain)
+            .toList();
+        logger.debug("Loaded {} bin master records", records.size());
+        return records;
+    }
+
+    @Override
+    public long count() {
+        return springRepository.count();
+    }
+}
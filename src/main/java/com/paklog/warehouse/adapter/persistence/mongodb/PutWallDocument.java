@@ -21,6 +21,14 @@ public class PutWallDocument {
     private String location;
     private int capacity;
     private List<PutWallSlotDocument> slots;
+    // Kept with every write so walls with room are found without reading their slots
+    private Integer freeSlotCount;
+    // Sequence number of the last change included
+    private Long sequence;
+    // Token of the instance holding the wall in memory, the only one whose slot writes apply
+    private String owner;
+    // Raised by every write; walls stored before it was introduced have none
+    private Long version;
 
     public PutWallDocument() {}
 
@@ -36,12 +44,16 @@ public class PutWallDocument {
             .map(entry -> PutWallSlotDocument.fromDomain(entry.getKey(), entry.getValue()))
             .collect(Collectors.toList());
 
-        return new PutWallDocument(
+        PutWallDocument document = new PutWallDocument(
             putWall.getPutWallId().getValue(),
             putWall.getLocation(),
             putWall.getCapacity(),
             slotDocuments
         );
+        document.setFreeSlotCount(putWall.getAvailableCapacity());
+        document.setVersion(putWall.getVersion());
+        document.setSequence(putWall.getSequence());
+        return document;
     }
 
     public PutWall toDomain() {
@@ -61,10 +73,11 @@ public class PutWallDocument {
                         entry -> Quantity.of(entry.getValue())
                     ));
 
-                putWall.assignOrderToSlot(orderId, requiredItems);
+                // Back into its own slot, not the first free one
+                PutWallSlotId slotId = PutWallSlotId.of(slotDoc.getSlotId());
+                putWall.assignOrderToSlot(slotId, orderId, requiredItems);
 
                 // Place existing items
-                PutWallSlotId slotId = PutWallSlotId.of(slotDoc.getSlotId());
                 for (Map.Entry<String, Integer> entry : slotDoc.getItemsPlaced().entrySet()) {
                     if (entry.getValue() > 0) {
                         putWall.placeItemInSlot(slotId, SkuCode.of(entry.getKey()), Quantity.of(entry.getValue()));
@@ -74,6 +87,9 @@ public class PutWallDocument {
         }
 
         putWall.clearDomainEvents(); // Clear events from reconstruction
+        putWall.setVersion(version != null ? version : 0L);
+        // Rebuilding the slots above numbered changes of its own
+        putWall.setSequence(sequence != null ? sequence : 0L);
         return putWall;
     }
 
@@ -86,6 +102,14 @@ public class PutWallDocument {
     public void setCapacity(int capacity) { this.capacity = capacity; }
     public List<PutWallSlotDocument> getSlots() { return slots; }
     public void setSlots(List<PutWallSlotDocument> slots) { this.slots = slots; }
+    public Integer getFreeSlotCount() { return freeSlotCount; }
+    public void setFreeSlotCount(Integer freeSlotCount) { this.freeSlotCount = freeSlotCount; }
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     public static class PutWallSlotDocument {
         private String slotId;
@@ -1,14 +1,30 @@
 package com.paklog.warehouse.adapter.persistence.mongodb;
 
+import com.mongodb.client.result.UpdateResult;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
 import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallCapacity;
+import com.paklog.warehouse.domain.putwall.PutWallException;
 import com.paklog.warehouse.domain.putwall.PutWallId;
 import com.paklog.warehouse.domain.putwall.PutWallRepository;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotStatus;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -46,8 +62,109 @@ public class PutWallRepositoryAdapter implements PutWallRepository {
 
     @Override
     public void save(PutWall putWall) {
+        // Stored whole and without an owner, so an instance holding the wall in memory can
+        // no longer write its slots over it
         PutWallDocument document = PutWallDocument.fromDomain(putWall);
-        mongoTemplate.save(document);
+        document.setVersion(putWall.getVersion() + 1);
+        try {
+            // A new wall is inserted; one stored since it was read is not matched, and the
+            // insert then collides with it
+            mongoTemplate.replace(atReadVersion(putWall), document, ReplaceOptions.replaceOptions().upsert());
+        } catch (DuplicateKeyException e) {
+            throw new PutWallException.PutWallConcurrentModificationException(putWall.getPutWallId());
+        }
+        putWall.setVersion(document.getVersion());
+    }
+
+    @Override
+    public void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+        if (placements.isEmpty()) {
+            return;
+        }
+        UpdateResult result = mongoTemplate.updateFirst(atReadVersion(putWall),
+                                                        placementUpdate(putWall, placements),
+                                                        PutWallDocument.class);
+        if (result.getMatchedCount() == 0) {
+            throw new PutWallException.PutWallConcurrentModificationException(putWall.getPutWallId());
+        }
+        putWall.setVersion(putWall.getVersion() + 1);
+    }
+
+    /**
+     * Increments the placed quantities of each slot the placements went to and sets the
+     * status it reached, addressing the slot through an array filter. A placement neither
+     * takes nor frees a slot, so the free slot count stays as it is.
+     */
+    static Update placementUpdate(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+        Map<PutWallSlotId, Map<SkuCode, Integer>> placedBySlot = new LinkedHashMap<>();
+        for (ItemPlacedInSlotEvent placement : placements) {
+            placedBySlot.computeIfAbsent(placement.getSlotId(), slotId -> new LinkedHashMap<>())
+                .merge(placement.getSkuCode(), placement.getQuantity().getValue(), Integer::sum);
+        }
+
+        Update update = new Update();
+        int filter = 0;
+        for (Map.Entry<PutWallSlotId, Map<SkuCode, Integer>> entry : placedBySlot.entrySet()) {
+            PutWallSlotId slotId = entry.getKey();
+            String identifier = "s" + filter++;
+            String element = "slots.$[" + identifier + "]";
+            update.filterArray(Criteria.where(identifier + ".slotId").is(slotId.getValue()));
+
+            PutWallSlot slot = putWall.getSlotById(slotId);
+            if (entry.getValue().keySet().stream().allMatch(PutWallRepositoryAdapter::isFieldName)) {
+                entry.getValue().forEach((skuCode, quantity) ->
+                    update.inc(element + ".itemsPlaced." + skuCode.getValue(), quantity));
+            } else {
+                // A SKU that is no valid field name cannot be addressed on its own
+                update.set(element + ".itemsPlaced",
+                           PutWallDocument.PutWallSlotDocument.fromDomain(slotId, slot).getItemsPlaced());
+            }
+            update.set(element + ".status", slot.getStatus().name());
+        }
+        return update.set("sequence", putWall.getSequence()).inc("version", 1);
+    }
+
+    private static boolean isFieldName(SkuCode skuCode) {
+        String value = skuCode.getValue();
+        return !value.isEmpty() && !value.startsWith("$") && value.indexOf('.') < 0;
+    }
+
+    private static Query atReadVersion(PutWall putWall) {
+        Criteria criteria = Criteria.where("_id").is(putWall.getPutWallId().getValue());
+        if (putWall.getVersion() == 0) {
+            return new Query(criteria.and("version").exists(false));
+        }
+        return new Query(criteria.and("version").is(putWall.getVersion()));
+    }
+
+    @Override
+    public Optional<PutWall> claim(PutWallId putWallId, String ownerToken) {
+        PutWallDocument document = mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(putWallId.getValue())),
+            new Update().set("owner", ownerToken),
+            FindAndModifyOptions.options().returnNew(true),
+            PutWallDocument.class);
+        return Optional.ofNullable(document).map(PutWallDocument::toDomain);
+    }
+
+    @Override
+    public void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount, long sequence,
+                          String ownerToken) {
+        // One update of the document, fenced by the owner: none of it applies once another
+        // owner claimed the wall
+        Update update = new Update();
+        int filter = 0;
+        for (PutWallSlot slot : slots) {
+            String identifier = "s" + filter++;
+            update.filterArray(Criteria.where(identifier + ".slotId").is(slot.getSlotId().getValue()));
+            update.set("slots.$[" + identifier + "]",
+                       PutWallDocument.PutWallSlotDocument.fromDomain(slot.getSlotId(), slot));
+        }
+        update.set("freeSlotCount", freeSlotCount).set("sequence", sequence).inc("version", 1);
+        Query query = new Query(Criteria.where("_id").is(putWallId.getValue()).and("owner").is(ownerToken));
+        if (mongoTemplate.updateFirst(query, update, PutWallDocument.class).getMatchedCount() == 0) {
+            throw new PutWallException.PutWallOwnedElsewhereException(putWallId);
+        }
     }
 
     @Override
@@ -58,13 +175,48 @@ public class PutWallRepositoryAdapter implements PutWallRepository {
 
     @Override
     public List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity) {
-        List<PutWallDocument> documents = mongoTemplate.findAll(PutWallDocument.class);
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("freeSlotCount").gt(minCapacity), uncounted()));
+        List<PutWallDocument> documents = mongoTemplate.find(query, PutWallDocument.class);
         return documents.stream()
             .map(PutWallDocument::toDomain)
             .filter(putWall -> putWall.getAvailableCapacity() > minCapacity)
             .collect(Collectors.toList());
     }
 
+    @Override
+    public List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity) {
+        // Answered from the free slot count index alone
+        Query query = new Query(Criteria.where("freeSlotCount").gt(minCapacity));
+        query.fields().include("location", "capacity", "freeSlotCount");
+        List<PutWallCapacity> capacities = new ArrayList<>();
+        for (PutWallDocument document : mongoTemplate.find(query, PutWallDocument.class)) {
+            capacities.add(toCapacity(document, document.getFreeSlotCount()));
+        }
+
+        Query uncountedQuery = new Query(uncounted());
+        uncountedQuery.fields().include("location", "capacity", "slots.status");
+        for (PutWallDocument document : mongoTemplate.find(uncountedQuery, PutWallDocument.class)) {
+            int freeSlotCount = (int) document.getSlots().stream()
+                .filter(slot -> PutWallSlotStatus.FREE.name().equals(slot.getStatus()))
+                .count();
+            if (freeSlotCount > minCapacity) {
+                capacities.add(toCapacity(document, freeSlotCount));
+            }
+        }
+        return capacities;
+    }
+
+    // Walls stored before their free slots were counted, until they are next written
+    private static Criteria uncounted() {
+        return Criteria.where("freeSlotCount").is(null);
+    }
+
+    private static PutWallCapacity toCapacity(PutWallDocument document, int freeSlotCount) {
+        return new PutWallCapacity(PutWallId.of(document.getPutWallId()), document.getLocation(),
+                                   document.getCapacity(), freeSlotCount);
+    }
+
     @Override
     public boolean exists(PutWallId putWallId) {
         Query query = new Query(Criteria.where("_id").is(putWallId.getValue()));
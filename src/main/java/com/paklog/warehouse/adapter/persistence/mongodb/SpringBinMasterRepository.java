@@ -0,0 +1,12 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SpringBinMasterRepository extends MongoRepository<BinMasterDocument, String> {
+
+    List<BinMasterDocument> findByZone(String zone);
+}
@@ -6,6 +6,10 @@ import com.paklog.warehouse.domain.wave.WaveId;
 import com.paklog.warehouse.domain.wave.WaveRepository;
 import com.paklog.warehouse.domain.wave.WaveStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -18,18 +22,36 @@ import java.util.stream.Collectors;
 public class WaveRepositoryAdapter implements WaveRepository {
 
     private final SpringWaveRepository springWaveRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
-    public WaveRepositoryAdapter(SpringWaveRepository springWaveRepository) {
+    public WaveRepositoryAdapter(SpringWaveRepository springWaveRepository, MongoTemplate mongoTemplate) {
         this.springWaveRepository = springWaveRepository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
     public void save(Wave wave) {
         WaveDocument document = new WaveDocument(wave);
+        if (wave.getVersion() == 0 && !springWaveRepository.existsById(document.getId())) {
+            // A set version marks the document as stored, so save would update nothing and fail
+            mongoTemplate.insert(document);
+            return;
+        }
         springWaveRepository.save(document);
     }
 
+    @Override
+    public boolean markReleased(WaveId waveId, Instant releaseDate) {
+        Query query = new Query(Criteria.where("_id").is(waveId.getValue().toString())
+                                        .and("status").is(WaveStatus.PLANNED));
+        Update update = new Update()
+                .set("status", WaveStatus.RELEASED)
+                .set("releaseDate", Date.from(releaseDate))
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, WaveDocument.class).getMatchedCount() > 0;
+    }
+
     @Override
     public Optional<Wave> findById(WaveId waveId) {
         Optional<WaveDocument> document = springWaveRepository.findById(waveId.getValue().toString());
@@ -1,7 +1,9 @@
 package com.paklog.warehouse.adapter.rest;
 
 import com.paklog.warehouse.application.service.PutWallApplicationService;
+import com.paklog.warehouse.application.service.PutWallAssignmentService;
 import com.paklog.warehouse.domain.putwall.*;
+import com.paklog.warehouse.domain.shared.BinLocation;
 import com.paklog.warehouse.domain.shared.OrderId;
 import com.paklog.warehouse.domain.shared.Quantity;
 import com.paklog.warehouse.domain.shared.SkuCode;
@@ -30,9 +32,12 @@ import java.util.stream.Collectors;
 public class PutWallController {
 
     private final PutWallApplicationService putWallService;
+    private final PutWallAssignmentService putWallAssignmentService;
 
-    public PutWallController(PutWallApplicationService putWallService) {
+    public PutWallController(PutWallApplicationService putWallService,
+                             PutWallAssignmentService putWallAssignmentService) {
         this.putWallService = putWallService;
+        this.putWallAssignmentService = putWallAssignmentService;
     }
 
     @PostMapping
@@ -97,6 +102,39 @@ public class PutWallController {
         }
     }
 
+    @PostMapping("/assignments")
+    @Operation(summary = "Assign order to a put wall",
+               description = "Assigns an order to a slot on the put wall with the most room, nearest the induct point and sharing the most SKUs")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order assigned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "409", description = "No put wall has an available slot")
+    })
+    public ResponseEntity<PutWallAssignmentResponse> assignOrderToPutWall(
+            @RequestBody @Valid AssignOrderToPutWallRequest request) {
+
+        try {
+            AssignOrderToPutWallCommand command = new AssignOrderToPutWallCommand(
+                OrderId.of(request.getOrderId()),
+                mapToRequiredItems(request.getRequiredItems()),
+                request.getInductLocation() != null ? BinLocation.of(request.getInductLocation()) : null
+            );
+
+            PutWallAssignment assignment = putWallAssignmentService.assignOrderToPutWall(command);
+            return ResponseEntity.ok(new PutWallAssignmentResponse(
+                assignment.getPutWallId().getValue().toString(),
+                assignment.getSlotId().getValue(),
+                request.getOrderId(),
+                "Order assigned successfully"
+            ));
+        } catch (PutWallException.PutWallCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new PutWallAssignmentResponse(null, null, request.getOrderId(), "No available slots"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{putWallId}/scan")
     @Operation(summary = "Scan item for sortation", description = "Scans an item to determine target slot")
     @ApiResponses(value = {
@@ -137,7 +175,8 @@ public class PutWallController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Item placed successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid placement"),
-        @ApiResponse(responseCode = "404", description = "Put wall or slot not found")
+        @ApiResponse(responseCode = "404", description = "Put wall or slot not found"),
+        @ApiResponse(responseCode = "409", description = "Put wall changed concurrently")
     })
     public ResponseEntity<String> confirmPutInSlot(
             @PathVariable @Parameter(description = "Put wall ID") String putWallId,
@@ -217,6 +256,23 @@ public class PutWallController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/available")
+    @Operation(summary = "Get put walls with room", description = "Retrieves the capacity of put walls with more free slots than requested")
+    public ResponseEntity<List<PutWallCapacityResponse>> getAvailablePutWalls(
+            @RequestParam(defaultValue = "0") @Parameter(description = "Free slots the walls must exceed") int minCapacity) {
+        List<PutWallCapacityResponse> responses = putWallService.getAvailablePutWallCapacities(minCapacity).stream()
+            .map(PutWallCapacityResponse::fromDomain)
+            .collect(Collectors.toList());
+
+        return ResponseEntity.ok(responses);
+    }
+
+    @ExceptionHandler(PutWallException.PutWallOwnedElsewhereException.class)
+    public ResponseEntity<String> handlePutWallOwnedElsewhere(PutWallException.PutWallOwnedElsewhereException e) {
+        // Held in memory by another instance; the request has to go there
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
     private Map<SkuCode, Quantity> mapToRequiredItems(Map<String, Integer> requiredItems) {
         return requiredItems.entrySet().stream()
             .collect(Collectors.toMap(
@@ -254,6 +310,25 @@ public class PutWallController {
         public void setRequiredItems(Map<String, Integer> requiredItems) { this.requiredItems = requiredItems; }
     }
 
+    public static class AssignOrderToPutWallRequest {
+        @NotBlank(message = "Order ID is required")
+        private String orderId;
+
+        @NotEmpty(message = "Required items cannot be empty")
+        private Map<@NotBlank String, @Positive Integer> requiredItems;
+
+        // Aisle-Rack-Level the order's items are inducted at, if known
+        private String inductLocation;
+
+        // Getters and setters
+        public String getOrderId() { return orderId; }
+        public void setOrderId(String orderId) { this.orderId = orderId; }
+        public Map<String, Integer> getRequiredItems() { return requiredItems; }
+        public void setRequiredItems(Map<String, Integer> requiredItems) { this.requiredItems = requiredItems; }
+        public String getInductLocation() { return inductLocation; }
+        public void setInductLocation(String inductLocation) { this.inductLocation = inductLocation; }
+    }
+
     public static class ScanItemRequest {
         @NotBlank(message = "SKU code is required")
         private String skuCode;
@@ -299,6 +374,26 @@ public class PutWallController {
         public String getMessage() { return message; }
     }
 
+    public static class PutWallAssignmentResponse {
+        private final String putWallId;
+        private final String slotId;
+        private final String orderId;
+        private final String message;
+
+        public PutWallAssignmentResponse(String putWallId, String slotId, String orderId, String message) {
+            this.putWallId = putWallId;
+            this.slotId = slotId;
+            this.orderId = orderId;
+            this.message = message;
+        }
+
+        // Getters
+        public String getPutWallId() { return putWallId; }
+        public String getSlotId() { return slotId; }
+        public String getOrderId() { return orderId; }
+        public String getMessage() { return message; }
+    }
+
     public static class SortationResponse {
         private final String targetSlotId;
         private final String orderId;
@@ -318,4 +413,33 @@ public class PutWallController {
         public int getQuantityNeeded() { return quantityNeeded; }
         public String getMessage() { return message; }
     }
+
+    public static class PutWallCapacityResponse {
+        private final String putWallId;
+        private final String location;
+        private final int capacity;
+        private final int availableCapacity;
+
+        public PutWallCapacityResponse(String putWallId, String location, int capacity, int availableCapacity) {
+            this.putWallId = putWallId;
+            this.location = location;
+            this.capacity = capacity;
+            this.availableCapacity = availableCapacity;
+        }
+
+        public static PutWallCapacityResponse fromDomain(PutWallCapacity capacity) {
+            return new PutWallCapacityResponse(
+                capacity.getPutWallId().getValue().toString(),
+                capacity.getLocation(),
+                capacity.getCapacity(),
+                capacity.getAvailableCapacity()
+            );
+        }
+
+        // Getters
+        public String getPutWallId() { return putWallId; }
+        public String getLocation() { return location; }
+        public int getCapacity() { return capacity; }
+        public int getAvailableCapacity() { return availableCapacity; }
+    }
 }
\ No newline at end of file
@@ -260,7 +260,7 @@ public class MobileWorkflowService {
             String aisle = parts[0].substring(0, 1);
             String bay = parts[0].substring(1);
             String level = parts[1];
-            BinLocation location = new BinLocation(aisle, bay, level);
+            BinLocation location = BinLocation.of(aisle, bay, level);
             WorkType workType = WorkType.valueOf(request.getWorkType());
             SkuCode item = new SkuCode(request.getItem());
             Quantity quantity = new Quantity(request.getQuantity());
@@ -5,9 +5,14 @@ import com.paklog.warehouse.domain.shared.OrderId;
 import com.paklog.warehouse.domain.shared.Quantity;
 import com.paklog.warehouse.domain.shared.SkuCode;
 import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import com.paklog.warehouse.infrastructure.putwall.HotPutWallStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,13 +24,31 @@ public class PutWallApplicationService {
     private final PutWallRepository putWallRepository;
     private final PutWallService putWallService;
     private final DomainEventPublisher eventPublisher;
+    // Set when put walls are held in memory; scans and changes then go through it
+    private final HotPutWallStore hotPutWallStore;
 
     public PutWallApplicationService(PutWallRepository putWallRepository,
                                    PutWallService putWallService,
                                    DomainEventPublisher eventPublisher) {
+        this(putWallRepository, putWallService, eventPublisher, (HotPutWallStore) null);
+    }
+
+    @Autowired
+    public PutWallApplicationService(PutWallRepository putWallRepository,
+                                   PutWallService putWallService,
+                                   DomainEventPublisher eventPublisher,
+                                   ObjectProvider<HotPutWallStore> hotPutWallStore) {
+        this(putWallRepository, putWallService, eventPublisher, hotPutWallStore.getIfAvailable());
+    }
+
+    public PutWallApplicationService(PutWallRepository putWallRepository,
+                                   PutWallService putWallService,
+                                   DomainEventPublisher eventPublisher,
+                                   HotPutWallStore hotPutWallStore) {
         this.putWallRepository = putWallRepository;
         this.putWallService = putWallService;
         this.eventPublisher = eventPublisher;
+        this.hotPutWallStore = hotPutWallStore;
     }
 
     public PutWallId createPutWall(List<PutWallSlotId> slotIds, String location) {
@@ -39,6 +62,10 @@ public class PutWallApplicationService {
     }
 
     public Optional<PutWallSlotId> assignOrderToSlot(AssignOrderToSlotCommand command) {
+        if (hotPutWallStore != null) {
+            return hotPutWallStore.update(command.getPutWallId(), putWall ->
+                putWall.assignOrderToSlot(command.getOrderId(), command.getRequiredItems()));
+        }
         PutWall putWall = getPutWallById(command.getPutWallId());
 
         Optional<PutWallSlotId> assignedSlot = putWall.assignOrderToSlot(
@@ -54,14 +81,58 @@ public class PutWallApplicationService {
         return assignedSlot;
     }
 
+    @Transactional(readOnly = true)
     public PutWallService.SortationResult scanItemForSortation(ScanItemForSortationCommand command) {
+        if (hotPutWallStore != null) {
+            return hotPutWallStore.read(command.getPutWallId(), putWall ->
+                putWallService.determineSortationTarget(putWall, command.getSkuCode()));
+        }
         PutWall putWall = getPutWallById(command.getPutWallId());
 
         return putWallService.determineSortationTarget(putWall, command.getSkuCode());
     }
 
     public void confirmPutInSlot(ConfirmPutInSlotCommand command) {
+        if (hotPutWallStore != null) {
+            hotPutWallStore.update(command.getPutWallId(), putWall -> {
+                placeItem(putWall, command);
+                return null;
+            });
+            return;
+        }
         PutWall putWall = getPutWallById(command.getPutWallId());
+        placeItem(putWall, command);
+
+        putWallRepository.savePlacements(putWall, placementsOf(putWall));
+        publishEvents(putWall);
+    }
+
+    /**
+     * Confirms several puts at once, writing the puts on each wall in a single update.
+     */
+    public void confirmPutsInSlots(List<ConfirmPutInSlotCommand> commands) {
+        Map<PutWallId, List<ConfirmPutInSlotCommand>> commandsByWall = new LinkedHashMap<>();
+        for (ConfirmPutInSlotCommand command : commands) {
+            commandsByWall.computeIfAbsent(command.getPutWallId(), id -> new ArrayList<>()).add(command);
+        }
+
+        commandsByWall.forEach((putWallId, wallCommands) -> {
+            if (hotPutWallStore != null) {
+                hotPutWallStore.update(putWallId, putWall -> {
+                    wallCommands.forEach(command -> placeItem(putWall, command));
+                    return null;
+                });
+                return;
+            }
+            PutWall putWall = getPutWallById(putWallId);
+            wallCommands.forEach(command -> placeItem(putWall, command));
+
+            putWallRepository.savePlacements(putWall, placementsOf(putWall));
+            publishEvents(putWall);
+        });
+    }
+
+    private void placeItem(PutWall putWall, ConfirmPutInSlotCommand command) {
 
         putWallService.validateItemPlacement(
             putWall,
@@ -75,12 +146,16 @@ public class PutWallApplicationService {
             command.getSkuCode(),
             command.getQuantity()
         );
-
-        putWallRepository.save(putWall);
-        publishEvents(putWall);
     }
 
     public void releaseSlot(PutWallId putWallId, PutWallSlotId slotId) {
+        if (hotPutWallStore != null) {
+            hotPutWallStore.update(putWallId, putWall -> {
+                putWall.releaseSlot(slotId);
+                return null;
+            });
+            return;
+        }
         PutWall putWall = getPutWallById(putWallId);
 
         putWall.releaseSlot(slotId);
@@ -106,12 +181,18 @@ public class PutWallApplicationService {
 
     @Transactional(readOnly = true)
     public List<PutWallSlotId> getReadyForPackSlots(PutWallId putWallId) {
+        if (hotPutWallStore != null) {
+            return hotPutWallStore.read(putWallId, PutWall::getReadyForPackSlots);
+        }
         PutWall putWall = getPutWallById(putWallId);
         return putWall.getReadyForPackSlots();
     }
 
     @Transactional(readOnly = true)
     public Optional<PutWallSlotId> findSlotForOrder(PutWallId putWallId, OrderId orderId) {
+        if (hotPutWallStore != null) {
+            return hotPutWallStore.read(putWallId, putWall -> putWall.findSlotForOrder(orderId));
+        }
         PutWall putWall = getPutWallById(putWallId);
         return putWall.findSlotForOrder(orderId);
     }
@@ -121,11 +202,23 @@ public class PutWallApplicationService {
         return putWallRepository.findByAvailableCapacityGreaterThan(minCapacity);
     }
 
+    @Transactional(readOnly = true)
+    public List<PutWallCapacity> getAvailablePutWallCapacities(int minCapacity) {
+        return putWallRepository.findCapacitiesGreaterThan(minCapacity);
+    }
+
     private PutWall getPutWallById(PutWallId putWallId) {
         return putWallRepository.findById(putWallId)
             .orElseThrow(() -> new PutWallException.PutWallNotFoundException(putWallId));
     }
 
+    private static List<ItemPlacedInSlotEvent> placementsOf(PutWall putWall) {
+        return putWall.getDomainEvents().stream()
+            .filter(ItemPlacedInSlotEvent.class::isInstance)
+            .map(ItemPlacedInSlotEvent.class::cast)
+            .toList();
+    }
+
     private void publishEvents(PutWall putWall) {
         putWall.getDomainEvents().forEach(eventPublisher::publish);
         putWall.clearDomainEvents();
@@ -0,0 +1,28 @@
+package com.paklog.warehouse.application.service;
+
+import com.paklog.warehouse.domain.putwall.AssignOrderToPutWallCommand;
+import com.paklog.warehouse.domain.putwall.PutWallAssignment;
+import com.paklog.warehouse.domain.putwall.PutWallLoadBalancer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Assigns orders to the put wall the {@link PutWallLoadBalancer} picks. Not transactional
+ * itself: each wall tried is assigned in a transaction of its own, so a wall that cannot
+ * take the order does not spoil the attempt on the next one.
+ */
+@Service
+public class PutWallAssignmentService {
+
+    private final PutWallApplicationService putWallApplicationService;
+    private final PutWallLoadBalancer loadBalancer;
+
+    public PutWallAssignmentService(PutWallApplicationService putWallApplicationService,
+                                    PutWallLoadBalancer loadBalancer) {
+        this.putWallApplicationService = putWallApplicationService;
+        this.loadBalancer = loadBalancer;
+    }
+
+    public PutWallAssignment assignOrderToPutWall(AssignOrderToPutWallCommand command) {
+        return loadBalancer.assign(command, putWallApplicationService::assignOrderToSlot);
+    }
+}
@@ -0,0 +1,57 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.domain.layout.BinOccupancyLedger;
+import com.paklog.warehouse.domain.licenseplate.LicensePlate;
+import com.paklog.warehouse.domain.licenseplate.LicensePlateRepository;
+import com.paklog.warehouse.domain.licenseplate.LicensePlateStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the {@link BinOccupancyLedger}'s stored stock from the license plates in the
+ * warehouse at startup, after the layout is loaded so occupied bins reach its spatial
+ * index. Putaway reservations are not persisted and are not rebuilt.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "warehouse.location.occupancy.preload", havingValue = "true", matchIfMissing = true)
+public class BinOccupancyLoader implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BinOccupancyLoader.class);
+
+    private final BinOccupancyLedger occupancyLedger;
+    private final LicensePlateRepository licensePlateRepository;
+
+    public BinOccupancyLoader(BinOccupancyLedger occupancyLedger, LicensePlateRepository licensePlateRepository) {
+        this.occupancyLedger = occupancyLedger;
+        this.licensePlateRepository = licensePlateRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            long start = System.nanoTime();
+            int loaded = 0;
+            for (LicensePlateStatus status : LicensePlateStatus.values()) {
+                if (!status.isActive()) {
+                    continue;
+                }
+                for (LicensePlate plate : licensePlateRepository.findByStatus(status)) {
+                    if (plate.getCurrentLocation() != null
+                            && occupancyLedger.loadPlate(plate.getLicensePlateId(), plate.getCurrentLocation(),
+                                                         plate.getTotalQuantity())) {
+                        loaded++;
+                    }
+                }
+            }
+            logger.info("Rebuilt bin occupancy from {} license plates in {} ms", loaded,
+                       (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            // Occupancy then fills in from license plate events only
+            logger.warn("Failed to rebuild bin occupancy: {}", e.getMessage());
+        }
+    }
+}
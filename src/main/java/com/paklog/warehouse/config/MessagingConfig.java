@@ -1,11 +1,20 @@
 package com.paklog.warehouse.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.warehouse.infrastructure.messaging.KafkaOutboxSender;
+import com.paklog.warehouse.infrastructure.messaging.MongoOutboxShardLeases;
+import com.paklog.warehouse.infrastructure.messaging.OutboxChangeStreamListener;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRelay;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRepository;
+import com.paklog.warehouse.infrastructure.messaging.OutboxShardAssignment;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -13,8 +22,11 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableKafka
@@ -35,6 +47,9 @@ public class MessagingConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        // The outbox relay sends whole batches without waiting; let the producer group them
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -43,6 +58,48 @@ public class MessagingConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    @Bean
+    public KafkaOutboxSender kafkaOutboxSender(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+        return new KafkaOutboxSender(kafkaTemplate, objectMapper, warehouseEventsTopic);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public OutboxRelay outboxRelay(
+            OutboxRepository outboxRepository,
+            KafkaOutboxSender kafkaOutboxSender,
+            MongoTemplate mongoTemplate,
+            @Value("${warehouse.outbox.relay.sharding.enabled:true}") boolean shardingEnabled,
+            @Value("${warehouse.outbox.relay.sharding.lease:15s}") Duration shardLease,
+            @Value("${warehouse.outbox.relay.batch-size:200}") int batchSize,
+            @Value("${warehouse.outbox.relay.max-in-flight-batches:4}") int maxInFlightBatches,
+            @Value("${warehouse.outbox.relay.lease:30s}") Duration lease,
+            @Value("${warehouse.outbox.relay.ack-timeout:10s}") Duration ackTimeout,
+            @Value("${warehouse.outbox.relay.idle-poll-interval:500ms}") Duration idlePollInterval) {
+        OutboxShardAssignment shardAssignment = null;
+        if (shardingEnabled) {
+            // Unique per process, readable in the lease collection
+            String relayId = System.getenv().getOrDefault("HOSTNAME", "relay") + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+            shardAssignment = new OutboxShardAssignment(new MongoOutboxShardLeases(mongoTemplate), relayId,
+                                                        shardLease, Clock.systemUTC());
+        }
+        return new OutboxRelay(outboxRepository, kafkaOutboxSender, shardAssignment, Clock.systemUTC(), batchSize,
+                               maxInFlightBatches, lease, ackTimeout, idlePollInterval);
+    }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "warehouse.outbox.relay.change-stream.enabled", havingValue = "true",
+                           matchIfMissing = true)
+    public OutboxChangeStreamListener outboxChangeStreamListener(
+            MongoTemplate mongoTemplate,
+            OutboxRelay outboxRelay,
+            @Value("${warehouse.outbox.relay.change-stream.name:${HOSTNAME:warehouse-operations}}") String name,
+            @Value("${warehouse.outbox.relay.change-stream.recovery-poll-interval:10s}") Duration recoveryPollInterval,
+            @Value("${warehouse.outbox.relay.change-stream.reconnect-delay:30s}") Duration reconnectDelay) {
+        return new OutboxChangeStreamListener(mongoTemplate, outboxRelay, name, recoveryPollInterval, reconnectDelay,
+                                              Clock.systemUTC());
+    }
+
     @Bean
     public NewTopic warehouseEventsTopic() {
         return TopicBuilder.name(warehouseEventsTopic)
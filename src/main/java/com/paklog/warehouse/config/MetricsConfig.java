@@ -0,0 +1,310 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.domain.location.LocationDirectivePlanCache;
+import com.paklog.warehouse.domain.putwall.PutWallLoadBalancer;
+import com.paklog.warehouse.domain.wave.WaveReleaseScheduler;
+import com.paklog.warehouse.infrastructure.diagnostics.VirtualThreadPinningMonitor;
+import com.paklog.warehouse.infrastructure.events.DomainEventDispatcher;
+import com.paklog.warehouse.infrastructure.messaging.OutboxChangeStreamListener;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRelay;
+import com.paklog.warehouse.infrastructure.putwall.HotPutWallStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the counters kept by domain components through Micrometer, so they show up
+ * on the actuator metrics and prometheus endpoints without the domain depending on it.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder locationDirectivePlanCacheMetrics(LocationDirectivePlanCache planCache) {
+        return registry -> {
+            FunctionCounter.builder("warehouse.location.directive.plan.cache.requests", planCache,
+                    cache -> cache.getStatistics().getHits())
+                .tag("result", "hit")
+                .description("Directive plan lookups served from the cache")
+                .register(registry);
+            FunctionCounter.builder("warehouse.location.directive.plan.cache.requests", planCache,
+                    cache -> cache.getStatistics().getMisses())
+                .tag("result", "miss")
+                .description("Directive plan lookups that went to the repository")
+                .register(registry);
+            FunctionCounter.builder("warehouse.location.directive.plan.cache.rebuilds", planCache,
+                    cache -> cache.getStatistics().getRebuilds())
+                .description("Directive plans compiled because the directive set changed")
+                .register(registry);
+            FunctionCounter.builder("warehouse.location.directive.plan.cache.invalidations", planCache,
+                    cache -> cache.getStatistics().getInvalidations())
+                .description("Directive plans dropped after a directive save")
+                .register(registry);
+            Gauge.builder("warehouse.location.directive.plan.cache.size", planCache,
+                    cache -> cache.getStatistics().getCachedPlans())
+                .description("Work types with a cached directive plan")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder waveReleaseSchedulerMetrics(WaveReleaseScheduler scheduler) {
+        return registry -> {
+            FunctionCounter.builder("warehouse.wave.release.count", scheduler,
+                    s -> s.getStatistics().getReleasedWaves())
+                .tag("result", "released")
+                .description("Waves released by the scheduler")
+                .register(registry);
+            FunctionCounter.builder("warehouse.wave.release.count", scheduler,
+                    s -> s.getStatistics().getSkippedReleases())
+                .tag("result", "skipped")
+                .description("Scheduled releases of waves no longer planned")
+                .register(registry);
+            FunctionCounter.builder("warehouse.wave.release.count", scheduler,
+                    s -> s.getStatistics().getFailedReleases())
+                .tag("result", "failed")
+                .description("Release attempts that failed; each is retried after a backoff")
+                .register(registry);
+            FunctionCounter.builder("warehouse.wave.release.rebuilds", scheduler,
+                    s -> s.getStatistics().getRebuilds())
+                .description("Reloads of the release schedule from the planned waves")
+                .register(registry);
+            FunctionCounter.builder("warehouse.wave.release.lag.total", scheduler,
+                    s -> s.getStatistics().getTotalLagMillis() / 1000.0)
+                .baseUnit("seconds")
+                .description("Summed delay of releases past their target; divide by released count for the mean")
+                .register(registry);
+            Gauge.builder("warehouse.wave.release.lag.max", scheduler,
+                    s -> s.getStatistics().getMaxLagMillis())
+                .baseUnit("milliseconds")
+                .description("Largest delay of a release past its target")
+                .register(registry);
+            Gauge.builder("warehouse.wave.release.lag.last", scheduler,
+                    s -> s.getStatistics().getLastLagMillis())
+                .baseUnit("milliseconds")
+                .description("Delay of the latest release past its target")
+                .register(registry);
+            Gauge.builder("warehouse.wave.release.pending", scheduler, WaveReleaseScheduler::getPendingCount)
+                .description("Planned waves waiting for their release time")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder outboxRelayMetrics(OutboxRelay outboxRelay,
+                                          ObjectProvider<OutboxChangeStreamListener> changeStreamListener) {
+        return registry -> {
+            FunctionCounter.builder("warehouse.outbox.relay.events", outboxRelay,
+                    relay -> relay.getStatistics().getPublishedEvents())
+                .tag("result", "published")
+                .description("Outbox events acknowledged by the broker and marked processed")
+                .register(registry);
+            FunctionCounter.builder("warehouse.outbox.relay.events", outboxRelay,
+                    relay -> relay.getStatistics().getFailedEvents())
+                .tag("result", "failed")
+                .description("Outbox event sends that failed or timed out, to be retried")
+                .register(registry);
+            FunctionCounter.builder("warehouse.outbox.relay.events", outboxRelay,
+                    relay -> relay.getStatistics().getDeferredEvents())
+                .tag("result", "deferred")
+                .description("Outbox events held back unsent behind an earlier failed event of their aggregate")
+                .register(registry);
+            Gauge.builder("warehouse.outbox.relay.shards", outboxRelay, OutboxRelay::getShardCount)
+                .description("Outbox shards this instance publishes")
+                .register(registry);
+            FunctionCounter.builder("warehouse.outbox.relay.batches", outboxRelay,
+                    relay -> relay.getStatistics().getClaimedBatches())
+                .description("Outbox batches claimed by the relay")
+                .register(registry);
+            Gauge.builder("warehouse.outbox.relay.throughput", outboxRelay,
+                    relay -> relay.getStatistics().getEventsPerSecond())
+                .baseUnit("events/s")
+                .description("Outbox events published per second over the last second")
+                .register(registry);
+            FunctionCounter.builder("warehouse.outbox.relay.lag.total", outboxRelay,
+                    relay -> relay.getStatistics().getTotalLagMillis() / 1000.0)
+                .baseUnit("seconds")
+                .description("Summed time from outbox write to broker acknowledgement; divide by published events for the mean")
+                .register(registry);
+            Gauge.builder("warehouse.outbox.relay.lag.max", outboxRelay,
+                    relay -> relay.getStatistics().getMaxLagMillis())
+                .baseUnit("milliseconds")
+                .description("Longest time from outbox write to broker acknowledgement")
+                .register(registry);
+            Gauge.builder("warehouse.outbox.relay.lag.last", outboxRelay,
+                    relay -> relay.getStatistics().getLastLagMillis())
+                .baseUnit("milliseconds")
+                .description("Time from outbox write to broker acknowledgement of the latest event")
+                .register(registry);
+            changeStreamListener.ifAvailable(listener ->
+                Gauge.builder("warehouse.outbox.relay.change.stream.connected", listener,
+                        stream -> stream.isConnected() ? 1 : 0)
+                    .description("1 while outbox inserts wake the relay through a change stream, 0 while it polls")
+                    .register(registry));
+        };
+    }
+
+    @Bean
+    public MeterBinder domainEventDispatcherMetrics(DomainEventDispatcher eventDispatcher) {
+        return registry -> {
+            Map<String, Timer> handlerTimers = new ConcurrentHashMap<>();
+            eventDispatcher.setObserver(new DomainEventDispatcher.Observer() {
+                @Override
+                public void queueCreated(DomainEventDispatcher.EventQueue queue) {
+                    Gauge.builder("warehouse.events.dispatch.queue.depth", queue,
+                            DomainEventDispatcher.EventQueue::getQueueDepth)
+                        .tag("event", queue.getEventType())
+                        .description("Events waiting for their handlers")
+                        .register(registry);
+                    FunctionCounter.builder("warehouse.events.dispatch.events", queue,
+                            DomainEventDispatcher.EventQueue::getDispatchedEvents)
+                        .tag("event", queue.getEventType())
+                        .tag("result", "dispatched")
+                        .description("Events handed to the async handlers")
+                        .register(registry);
+                    FunctionCounter.builder("warehouse.events.dispatch.events", queue,
+                            DomainEventDispatcher.EventQueue::getDroppedEvents)
+                        .tag("event", queue.getEventType())
+                        .tag("result", "dropped")
+                        .description("Events dropped because the queue of their type was full")
+                        .register(registry);
+                    FunctionCounter.builder("warehouse.events.dispatch.events", queue,
+                            DomainEventDispatcher.EventQueue::getCallerRunsEvents)
+                        .tag("event", queue.getEventType())
+                        .tag("result", "caller-runs")
+                        .description("Events handled on the publishing thread because the queue was full")
+                        .register(registry);
+                    FunctionCounter.builder("warehouse.events.dispatch.events", queue,
+                            DomainEventDispatcher.EventQueue::getThrottledEvents)
+                        .tag("event", queue.getEventType())
+                        .tag("result", "throttled")
+                        .description("Events of an aggregate whose publisher waited for room in the full queue")
+                        .register(registry);
+                }
+
+                @Override
+                public void handlerCompleted(String handler, long durationNanos, boolean failed) {
+                    String outcome = failed ? "failure" : "success";
+                    handlerTimers.computeIfAbsent(handler + "/" + outcome, key ->
+                            Timer.builder("warehouse.events.handler.duration")
+                                .tag("handler", handler)
+                                .tag("outcome", outcome)
+                                .publishPercentileHistogram()
+                                .description("Time spent in an async domain event handler")
+                                .register(registry))
+                        .record(durationNanos, TimeUnit.NANOSECONDS);
+                }
+            });
+            Gauge.builder("warehouse.events.dispatch.handlers", eventDispatcher,
+                    dispatcher -> dispatcher.getStatistics().getHandlers())
+                .description("Registered async domain event handlers")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder virtualThreadPinningMetrics(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        return registry -> pinningMonitor.ifAvailable(pinning -> {
+            FunctionCounter.builder("warehouse.threads.virtual.pinned", pinning,
+                    monitor -> monitor.getStatistics().getPinnings())
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(registry);
+            FunctionCounter.builder("warehouse.threads.virtual.pinned.time", pinning,
+                    monitor -> monitor.getStatistics().getTotalPinnedMillis() / 1000.0)
+                .baseUnit("seconds")
+                .description("Summed time virtual threads held their carrier thread while blocked")
+                .register(registry);
+            Gauge.builder("warehouse.threads.virtual.pinned.max", pinning,
+                    monitor -> monitor.getStatistics().getMaxPinnedMillis())
+                .baseUnit("milliseconds")
+                .description("Longest a virtual thread held its carrier thread while blocked")
+                .register(registry);
+            Gauge.builder("warehouse.threads.virtual.pinned.sites", pinning,
+                    monitor -> monitor.getStatistics().getSites())
+                .description("Distinct code locations where virtual threads were pinned")
+                .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder hotPutWallStoreMetrics(ObjectProvider<HotPutWallStore> hotPutWallStore) {
+        return registry -> hotPutWallStore.ifAvailable(store -> {
+            Gauge.builder("warehouse.putwall.hot.walls", store, s -> s.getStatistics().getHotWalls())
+                .description("Put walls held in memory by this instance")
+                .register(registry);
+            Gauge.builder("warehouse.putwall.hot.dirty.slots", store, s -> s.getStatistics().getDirtySlots())
+                .description("Changed slots not written out yet")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.changes", store, s -> s.getStatistics().getChanges())
+                .description("Changes applied to put walls held in memory")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.loads", store, s -> s.getStatistics().getLoads())
+                .description("Put walls loaded into memory")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.replayed", store,
+                    s -> s.getStatistics().getReplayedChanges())
+                .description("Changes replayed from the outbox onto loaded put walls")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.flushed.slots", store,
+                    s -> s.getStatistics().getFlushedSlots())
+                .description("Slots written out behind")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.flushes", store, s -> s.getStatistics().getFlushes())
+                .tag("result", "written")
+                .description("Write-behind flushes of a put wall")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.flushes", store,
+                    s -> s.getStatistics().getFlushFailures())
+                .tag("result", "failed")
+                .description("Write-behind flushes of a put wall")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.hot.evictions", store, s -> s.getStatistics().getEvictions())
+                .description("Put walls dropped from memory: idle, failed changes or lost leases")
+                .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder putWallLoadBalancerMetrics(PutWallLoadBalancer loadBalancer) {
+        return registry -> {
+            Gauge.builder("warehouse.putwall.balancing.walls", loadBalancer,
+                    balancer -> balancer.getStatistics().getWalls())
+                .description("Put walls the balancer assigns orders to")
+                .register(registry);
+            Gauge.builder("warehouse.putwall.balancing.free.slots", loadBalancer,
+                    balancer -> balancer.getStatistics().getFreeSlots())
+                .description("Free slots the balancer counts over all put walls")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.balancing.assignments", loadBalancer,
+                    balancer -> balancer.getStatistics().getAssignments())
+                .tag("result", "assigned")
+                .description("Orders assigned to the put wall picked by the balancer")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.balancing.assignments", loadBalancer,
+                    balancer -> balancer.getStatistics().getRejections())
+                .tag("result", "rejected")
+                .description("Orders assigned to the put wall picked by the balancer")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.balancing.fallbacks", loadBalancer,
+                    balancer -> balancer.getStatistics().getFallbacks())
+                .description("Put walls that could not take an order, after which the next was tried")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.balancing.contended", loadBalancer,
+                    balancer -> balancer.getStatistics().getContendedWaits())
+                .description("Assignments that waited because every wall with room was being assigned to")
+                .register(registry);
+            FunctionCounter.builder("warehouse.putwall.balancing.refreshes", loadBalancer,
+                    balancer -> balancer.getStatistics().getRefreshes())
+                .description("Free slot counts re-read from the put walls")
+                .register(registry);
+        };
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.stereotype.Component;
 import com.paklog.warehouse.adapter.persistence.mongodb.WaveDocument;
 import com.paklog.warehouse.adapter.persistence.mongodb.PickListDocument;
 import com.paklog.warehouse.adapter.persistence.mongodb.PackageDocument;
+import com.paklog.warehouse.adapter.persistence.mongodb.PutWallDocument;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
 
 import org.bson.Document;
 
@@ -30,6 +32,8 @@ public class MongoIndexConfig implements CommandLineRunner {
         createWaveIndexes();
         createPickListIndexes();
         createPackageIndexes();
+        createOutboxIndexes();
+        createPutWallIndexes();
     }
 
     private void createWaveIndexes() {
@@ -148,4 +152,30 @@ public class MongoIndexConfig implements CommandLineRunner {
                 .append("packageSize", 1)
                 .append("status", 1)));
     }
+
+    private void createOutboxIndexes() {
+        // Relay claims: oldest unprocessed events of the relay's shards first
+        mongoTemplate.indexOps(OutboxEvent.class)
+            .ensureIndex(new CompoundIndexDefinition(new Document()
+                .append("processed", 1)
+                .append("shard", 1)
+                .append("createdAt", 1)));
+
+        // An aggregate's events: put wall replay reads those after a sequence number, the
+        // relay's claims look for the leased ones
+        mongoTemplate.indexOps(OutboxEvent.class)
+            .ensureIndex(new CompoundIndexDefinition(new Document()
+                .append("subject", 1)
+                .append("sequence", 1)));
+    }
+
+    private void createPutWallIndexes() {
+        // Walls with room: covers the capacity query, which reads nothing else
+        mongoTemplate.indexOps(PutWallDocument.class)
+            .ensureIndex(new CompoundIndexDefinition(new Document()
+                .append("freeSlotCount", 1)
+                .append("location", 1)
+                .append("capacity", 1)
+                .append("_id", 1)));
+    }
 }
\ No newline at end of file
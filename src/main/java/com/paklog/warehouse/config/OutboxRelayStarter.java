@@ -0,0 +1,30 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.infrastructure.messaging.OutboxChangeStreamListener;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRelay;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts draining the outbox to Kafka once the application is up, woken up by the
+ * outbox change stream when it is enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayStarter implements CommandLineRunner {
+    private final OutboxRelay outboxRelay;
+    private final ObjectProvider<OutboxChangeStreamListener> changeStreamListener;
+
+    public OutboxRelayStarter(OutboxRelay outboxRelay, ObjectProvider<OutboxChangeStreamListener> changeStreamListener) {
+        this.outboxRelay = outboxRelay;
+        this.changeStreamListener = changeStreamListener;
+    }
+
+    @Override
+    public void run(String... args) {
+        outboxRelay.start();
+        changeStreamListener.ifAvailable(OutboxChangeStreamListener::start);
+    }
+}
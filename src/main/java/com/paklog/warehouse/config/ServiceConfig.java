@@ -9,19 +9,38 @@ import com.paklog.warehouse.domain.picklist.ConfirmItemPickHandler;
 import com.paklog.warehouse.domain.picklist.PickListDomainService;
 import com.paklog.warehouse.domain.picklist.PickListRepository;
 import com.paklog.warehouse.domain.picklist.PickRouteOptimizer;
+import com.paklog.warehouse.domain.workload.BatchPickingStrategy;
 import com.paklog.warehouse.domain.workload.ContinuousStrategy;
 import com.paklog.warehouse.domain.workload.IWorkloadReleaseStrategy;
+import com.paklog.warehouse.domain.workload.InventoryPickFaceLocator;
+import com.paklog.warehouse.domain.workload.OrderBatchingEngine;
+import com.paklog.warehouse.domain.workload.StreamingWavePlanner;
+import com.paklog.warehouse.domain.workload.WaveStrategy;
 import com.paklog.warehouse.domain.workload.WorkloadOrchestrator;
 import com.paklog.warehouse.domain.quality.*;
 import com.paklog.warehouse.domain.quality.DefaultQualityWorkIntegrationService;
 import com.paklog.warehouse.domain.quality.DefaultQualityHoldService;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.BinOccupancyLedger;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
 import com.paklog.warehouse.domain.location.*;
 import com.paklog.warehouse.domain.licenseplate.*;
 import com.paklog.warehouse.domain.work.WorkRepository;
 import com.paklog.warehouse.domain.work.WorkTemplateRepository;
+import com.paklog.warehouse.domain.putwall.PutWallLoadBalancer;
+import com.paklog.warehouse.domain.putwall.PutWallRepository;
 import com.paklog.warehouse.domain.putwall.PutWallService;
+import com.paklog.warehouse.domain.wave.WaveReleaseScheduler;
+import com.paklog.warehouse.domain.wave.WaveRepository;
+import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class ServiceConfig {
@@ -44,23 +63,66 @@ public class ServiceConfig {
     }
 
     @Bean
-    public IWorkloadReleaseStrategy workloadReleaseStrategy() {
+    public IWorkloadReleaseStrategy workloadReleaseStrategy(
+            LicensePlateRepository licensePlateRepository,
+            WarehouseLayoutService warehouseLayoutService,
+            PickRouteOptimizer pickRouteOptimizer,
+            StreamingWavePlanner streamingWavePlanner,
+            @Value("${warehouse.picking.batching.enabled:false}") boolean batchingEnabled,
+            @Value("${warehouse.picking.batching.max-totes-per-batch:12}") int maxTotesPerBatch,
+            @Value("${warehouse.wave.planning.enabled:false}") boolean wavePlanningEnabled) {
+        if (batchingEnabled) {
+            return new BatchPickingStrategy(new OrderBatchingEngine(
+                new InventoryPickFaceLocator(licensePlateRepository), warehouseLayoutService,
+                pickRouteOptimizer, maxTotesPerBatch));
+        }
+        if (wavePlanningEnabled) {
+            return new WaveStrategy(streamingWavePlanner);
+        }
         return new ContinuousStrategy();
     }
 
+    @Bean(destroyMethod = "stop")
+    public StreamingWavePlanner streamingWavePlanner(
+            DomainEventPublisher domainEventPublisher,
+            @Value("${warehouse.wave.planning.max-orders-per-wave:50}") int maxOrdersPerWave,
+            @Value("${warehouse.wave.planning.max-wave-age:4h}") Duration maxWaveAge,
+            @Value("${warehouse.wave.planning.cutoff-lead:30m}") Duration cutoffLead) {
+        return new StreamingWavePlanner(maxOrdersPerWave, maxWaveAge, cutoffLead, order -> null,
+                                        domainEventPublisher::publish, Clock.systemUTC());
+    }
+
     @Bean
     public WorkloadOrchestrator workloadOrchestrator(IWorkloadReleaseStrategy workloadReleaseStrategy) {
         return new WorkloadOrchestrator(workloadReleaseStrategy);
     }
 
+    @Bean(destroyMethod = "stop")
+    public WaveReleaseScheduler waveReleaseScheduler(
+            WaveRepository waveRepository,
+            DomainEventPublisher domainEventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${warehouse.wave.release.buffer:15m}") Duration releaseBuffer,
+            @Value("${warehouse.wave.release.pick-time-per-order:2m}") Duration pickTimePerOrder,
+            @Value("${warehouse.wave.release.retry-backoff:5s}") Duration retryBackoff,
+            @Value("${warehouse.wave.release.rebuild-interval:5m}") Duration rebuildInterval) {
+        return new WaveReleaseScheduler(waveRepository,
+            WaveReleaseScheduler.linearEstimate(releaseBuffer, pickTimePerOrder),
+            domainEventPublisher::publish, new TransactionTemplate(transactionManager),
+            retryBackoff, rebuildInterval, Clock.systemUTC());
+    }
+
     @Bean
     public PickListDomainService pickListDomainService(PickRouteOptimizer pickRouteOptimizer) {
         return new PickListDomainService(pickRouteOptimizer);
     }
 
     @Bean
-    public PickRouteOptimizer pickRouteOptimizer() {
-        return new PickRouteOptimizer();
+    public PickRouteOptimizer pickRouteOptimizer(
+            WarehouseLayoutService warehouseLayoutService,
+            @Value("${warehouse.picking.route-optimization.two-opt-max-stops:60}") int twoOptMaxStops,
+            @Value("${warehouse.picking.route-optimization.aisle-pitch:5.0}") double aislePitch) {
+        return new PickRouteOptimizer(warehouseLayoutService, twoOptMaxStops, aislePitch);
     }
 
     @Bean
@@ -88,8 +150,40 @@ public class ServiceConfig {
 
     // Location Domain Services
     @Bean
-    public LocationDirectiveService locationDirectiveService(LocationDirectiveRepository directiveRepository) {
-        return new LocationDirectiveService(directiveRepository);
+    public LocationDirectivePlanCache locationDirectivePlanCache(
+            LocationDirectiveRepository directiveRepository,
+            @Value("${warehouse.location.directive-plan-cache.ttl:30s}") Duration timeToLive) {
+        return new LocationDirectivePlanCache(directiveRepository, timeToLive, Clock.systemUTC());
+    }
+
+    @Bean
+    public WarehouseLayoutService warehouseLayoutService(BinMasterRepository binMasterRepository) {
+        return new WarehouseLayoutService(binMasterRepository);
+    }
+
+    @Bean
+    public BinOccupancyLedger binOccupancyLedger(
+            WarehouseLayoutService warehouseLayoutService,
+            @Value("${warehouse.location.occupancy.reservation-ttl:15m}") Duration reservationTtl,
+            @Value("${warehouse.location.occupancy.lock-stripes:64}") int lockStripes) {
+        return new BinOccupancyLedger(warehouseLayoutService, reservationTtl, lockStripes, Clock.systemUTC());
+    }
+
+    @Bean
+    public LocationScoringEngine locationScoringEngine(
+            @Value("${warehouse.location.scoring.parallelism-threshold:2048}") int parallelismThreshold) {
+        return new LocationScoringEngine(parallelismThreshold);
+    }
+
+    @Bean
+    public LocationDirectiveService locationDirectiveService(
+            LocationDirectiveRepository directiveRepository,
+            LocationDirectivePlanCache locationDirectivePlanCache,
+            WarehouseLayoutService warehouseLayoutService,
+            LocationScoringEngine locationScoringEngine,
+            BinOccupancyLedger binOccupancyLedger) {
+        return new LocationDirectiveService(directiveRepository, locationDirectivePlanCache, warehouseLayoutService,
+                                            locationScoringEngine, binOccupancyLedger);
     }
 
     // License Plate Domain Services
@@ -110,4 +204,15 @@ public class ServiceConfig {
     public PutWallService putWallService() {
         return new PutWallService();
     }
+
+    @Bean
+    public PutWallLoadBalancer putWallLoadBalancer(
+            PutWallRepository putWallRepository,
+            @Value("${warehouse.putwall.balancing.refresh-interval:30s}") Duration refreshInterval,
+            @Value("${warehouse.putwall.balancing.utilization-weight:1.0}") double utilizationWeight,
+            @Value("${warehouse.putwall.balancing.distance-weight:0.5}") double distanceWeight,
+            @Value("${warehouse.putwall.balancing.affinity-weight:0.5}") double affinityWeight) {
+        return new PutWallLoadBalancer(putWallRepository, refreshInterval, utilizationWeight, distanceWeight,
+                                       affinityWeight, Clock.systemUTC());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.domain.workload.StreamingWavePlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Starts closing open waves on their age and cutoff triggers once the application is up,
+ * when orders are released through waves.
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.wave.planning.enabled", havingValue = "true")
+public class StreamingWavePlannerStarter implements CommandLineRunner {
+    private final StreamingWavePlanner streamingWavePlanner;
+    private final Duration checkInterval;
+
+    public StreamingWavePlannerStarter(StreamingWavePlanner streamingWavePlanner,
+                                       @Value("${warehouse.wave.planning.check-interval:1m}") Duration checkInterval) {
+        this.streamingWavePlanner = streamingWavePlanner;
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void run(String... args) {
+        streamingWavePlanner.start(checkInterval);
+    }
+}
@@ -0,0 +1,36 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the warehouse layout index at startup so the first location query does not
+ * pay for reading the bin master.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "warehouse.layout.preload", havingValue = "true", matchIfMissing = true)
+public class WarehouseLayoutLoader implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarehouseLayoutLoader.class);
+
+    private final WarehouseLayoutService warehouseLayoutService;
+
+    public WarehouseLayoutLoader(WarehouseLayoutService warehouseLayoutService) {
+        this.warehouseLayoutService = warehouseLayoutService;
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            warehouseLayoutService.reload();
+        } catch (Exception e) {
+            // Location queries fall back to synthetic candidates until a reload succeeds
+            logger.warn("Failed to preload warehouse layout index: {}", e.getMessage());
+        }
+    }
+}
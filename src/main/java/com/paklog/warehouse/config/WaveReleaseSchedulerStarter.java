@@ -0,0 +1,25 @@
+package com.paklog.warehouse.config;
+
+import com.paklog.warehouse.domain.wave.WaveReleaseScheduler;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts releasing planned waves once the application is up. The scheduler rebuilds its
+ * queue from the repository on its own thread, so startup does not wait for it.
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.wave.release.scheduler-enabled", havingValue = "true", matchIfMissing = true)
+public class WaveReleaseSchedulerStarter implements CommandLineRunner {
+    private final WaveReleaseScheduler waveReleaseScheduler;
+
+    public WaveReleaseSchedulerStarter(WaveReleaseScheduler waveReleaseScheduler) {
+        this.waveReleaseScheduler = waveReleaseScheduler;
+    }
+
+    @Override
+    public void run(String... args) {
+        waveReleaseScheduler.start();
+    }
+}
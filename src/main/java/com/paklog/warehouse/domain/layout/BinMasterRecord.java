@@ -0,0 +1,85 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.Objects;
+
+public class BinMasterRecord {
+    private final BinLocation location;
+    private final String zone;
+    private final String accessibility;
+    private final double capacity;
+    private final boolean hazmatCompatible;
+    private final Double temperature;
+
+    public BinMasterRecord(BinLocation location, String zone, String accessibility, double capacity,
+                           boolean hazmatCompatible, Double temperature) {
+        this.location = Objects.requireNonNull(location, "Location cannot be null");
+        this.zone = zone;
+        this.accessibility = accessibility;
+        this.capacity = capacity;
+        this.hazmatCompatible = hazmatCompatible;
+        this.temperature = temperature;
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+    }
+
+    public BinLocation getLocation() {
+        return location;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public String getAccessibility() {
+        return accessibility;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public boolean isHazmatCompatible() {
+        return hazmatCompatible;
+    }
+
+    public Double getTemperature() {
+        return temperature;
+    }
+
+    public boolean isTemperatureControlled() {
+        return temperature != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BinMasterRecord that = (BinMasterRecord) o;
+        return Double.compare(that.capacity, capacity) == 0 &&
+               hazmatCompatible == that.hazmatCompatible &&
+               location.equals(that.location) &&
+               Objects.equals(zone, that.zone) &&
+               Objects.equals(accessibility, that.accessibility) &&
+               Objects.equals(temperature, that.temperature);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(location, zone, accessibility, capacity, hazmatCompatible, temperature);
+    }
+
+    @Override
+    public String toString() {
+        return "BinMasterRecord{" +
+                "location=" + location +
+                ", zone='" + zone + '\'' +
+                ", capacity=" + capacity +
+                ", hazmatCompatible=" + hazmatCompatible +
+                ", temperature=" + temperature +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BinMasterRepository {
+    void save(BinMasterRecord record);
+
+    void saveAll(List<BinMasterRecord> records);
+
+    Optional<BinMasterRecord> findByLocation(BinLocation location);
+
+    List<BinMasterRecord> findAll();
+
+    long count();
+}
@@ -0,0 +1,506 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.licenseplate.LicensePlateId;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.work.WorkId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory bin occupancy: stock stored per bin, fed by license plate events, and
+ * capacity reserved between location selection and the stock arriving. Bins are spread
+ * over lock stripes so reservations on different bins never contend on one lock.
+ * <p>
+ * Bins in the loaded layout hold up to their bin master capacity. Bins outside it have
+ * no capacity data and are exclusive: one reservation or any stock fills them.
+ * Reservations expire after the configured TTL unless released, consumed by arriving
+ * stock or confirmed for the work created at the bin; confirmed reservations are held
+ * until the stock arrives or the work is completed or cancelled. Bins going from empty
+ * to non-empty and back are mirrored into the layout's {@link BinSpatialIndex}.
+ * <p>
+ * Nothing here is persisted. After a restart stored stock is rebuilt from the license
+ * plates in the warehouse ({@link #loadPlate}), but reservations are lost: bins awaiting
+ * putaway stock show only what they already hold until that stock arrives.
+ */
+public class BinOccupancyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(BinOccupancyLedger.class);
+
+    public static final int DEFAULT_STRIPES = 64;
+    public static final Duration DEFAULT_RESERVATION_TTL = Duration.ofMinutes(15);
+    private static final double EPSILON = 1e-9;
+    private static final long MINIMUM_SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final WarehouseLayoutService layoutService;
+    private final Duration reservationTtl;
+    private final Clock clock;
+    private final Stripe[] stripes;
+    private final long sweepIntervalMillis;
+    private final AtomicLong nextSweepAt;
+    private final Map<LicensePlateId, Plate> plates = new ConcurrentHashMap<>();
+    private final Map<WorkId, List<BinReservation>> confirmed = new ConcurrentHashMap<>();
+
+    public BinOccupancyLedger(WarehouseLayoutService layoutService) {
+        this(layoutService, DEFAULT_RESERVATION_TTL, DEFAULT_STRIPES, Clock.systemUTC());
+    }
+
+    public BinOccupancyLedger(WarehouseLayoutService layoutService, Duration reservationTtl, int stripeCount,
+                              Clock clock) {
+        this.layoutService = Objects.requireNonNull(layoutService, "WarehouseLayoutService cannot be null");
+        this.reservationTtl = Objects.requireNonNull(reservationTtl, "Reservation TTL cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        if (reservationTtl.isNegative() || reservationTtl.isZero()) {
+            throw new IllegalArgumentException("Reservation TTL must be positive");
+        }
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        // Power of two so a stripe is picked with a mask
+        this.stripes = new Stripe[stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.sweepIntervalMillis = Math.max(MINIMUM_SWEEP_INTERVAL_MILLIS, reservationTtl.toMillis() / 4);
+        this.nextSweepAt = new AtomicLong(clock.millis() + sweepIntervalMillis);
+    }
+
+    /**
+     * Reserves {@code volume} in the bin if it has that much capacity left after stored
+     * stock and live reservations.
+     */
+    public Optional<BinReservation> tryReserve(BinLocation location, double volume) {
+        Objects.requireNonNull(location, "Location cannot be null");
+        if (!(volume >= 0)) {
+            throw new IllegalArgumentException("Reservation volume must be non-negative: " + volume);
+        }
+        Instant now = clock.instant();
+        sweepIfDue(now);
+        double capacity = capacityOf(location);
+
+        Stripe stripe = stripeFor(location);
+        stripe.lock.lock();
+        try {
+            stripe.expire(now);
+            BinState bin = stripe.bins.get(location);
+            if (!fits(bin, capacity, volume)) {
+                return Optional.empty();
+            }
+            if (bin == null) {
+                bin = new BinState();
+                stripe.bins.put(location, bin);
+            }
+            boolean wasEmpty = bin.isEmpty();
+            BinReservation reservation = new BinReservation(location, volume, now, now.plus(reservationTtl));
+            bin.reservations.add(reservation);
+            bin.reservedVolume += volume;
+            stripe.pending.addLast(reservation);
+            if (wasEmpty) {
+                publishOccupancy(location, true);
+            }
+            logger.debug("Reserved {} in bin {} until {}", volume, location, reservation.getExpiresAt());
+            return Optional.of(reservation);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the reservation's capacity to the bin; false if it was already released,
+     * consumed or expired.
+     */
+    public boolean release(BinReservation reservation) {
+        Objects.requireNonNull(reservation, "Reservation cannot be null");
+        Stripe stripe = stripeFor(reservation.getLocation());
+        stripe.lock.lock();
+        try {
+            if (reservation.isReleased()) {
+                return false;
+            }
+            stripe.removeReservation(reservation);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Binds the reservation to the work created for its bin, so it is held past the TTL
+     * until the stock arrives or {@link #releaseWork} is called; false if it was already
+     * released, consumed or expired.
+     */
+    public boolean confirm(BinReservation reservation, WorkId workId) {
+        Objects.requireNonNull(reservation, "Reservation cannot be null");
+        Objects.requireNonNull(workId, "Work ID cannot be null");
+        Stripe stripe = stripeFor(reservation.getLocation());
+        stripe.lock.lock();
+        try {
+            stripe.expire(clock.instant());
+            if (reservation.isReleased()) {
+                return false;
+            }
+            reservation.confirm(workId);
+        } finally {
+            stripe.lock.unlock();
+        }
+        confirmed.computeIfAbsent(workId, id -> new CopyOnWriteArrayList<>()).add(reservation);
+        return true;
+    }
+
+    /**
+     * The work was completed or cancelled: returns whatever its confirmed reservations
+     * still hold to their bins.
+     */
+    public int releaseWork(WorkId workId) {
+        Objects.requireNonNull(workId, "Work ID cannot be null");
+        List<BinReservation> reservations = confirmed.remove(workId);
+        if (reservations == null) {
+            return 0;
+        }
+        int released = 0;
+        for (BinReservation reservation : reservations) {
+            if (release(reservation)) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            logger.debug("Released {} bin reservations of work {}", released, workId);
+        }
+        return released;
+    }
+
+    /**
+     * Drops expired reservations in every stripe. Expiry is otherwise applied lazily
+     * when a stripe is next used, plus a sweep from {@link #tryReserve} every quarter TTL.
+     */
+    public int releaseExpired() {
+        Instant now = clock.instant();
+        int expired = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                expired += stripe.expire(now);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (expired > 0) {
+            logger.info("Released {} expired bin reservations", expired);
+        }
+        return expired;
+    }
+
+    public boolean isEmpty(BinLocation location) {
+        return withBin(location, bin -> bin == null || bin.isEmpty());
+    }
+
+    public double availableCapacity(BinLocation location) {
+        double capacity = capacityOf(location);
+        return withBin(location, bin -> available(bin, capacity));
+    }
+
+    public double storedVolume(BinLocation location) {
+        return withBin(location, bin -> bin != null ? bin.storedVolume : 0.0);
+    }
+
+    public double reservedVolume(BinLocation location) {
+        return withBin(location, bin -> bin != null ? bin.reservedVolume : 0.0);
+    }
+
+    public int activeReservationCount() {
+        Instant now = clock.instant();
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.expire(now);
+                for (BinState bin : stripe.bins.values()) {
+                    count += bin.reservations.size();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    public int trackedPlateCount() {
+        return plates.size();
+    }
+
+    /**
+     * A license plate was received at or moved to {@code location}; its stock leaves the
+     * bin it was tracked in.
+     */
+    public void plateMoved(LicensePlateId plateId, BinLocation location) {
+        Objects.requireNonNull(plateId, "License plate ID cannot be null");
+        Objects.requireNonNull(location, "Location cannot be null");
+        Plate plate = plates.computeIfAbsent(plateId, id -> new Plate());
+        plate.lock.lock();
+        try {
+            if (location.equals(plate.location)) {
+                return;
+            }
+            if (plate.location != null) {
+                removeStock(plate.location, plate.volume, 1);
+            }
+            plate.location = location;
+            addStock(location, plate.volume, 1);
+        } finally {
+            plate.lock.unlock();
+        }
+    }
+
+    /**
+     * Tracks a license plate read from the repository while rebuilding occupancy after a
+     * restart; false if events have already placed it, as they are newer than the read.
+     */
+    public boolean loadPlate(LicensePlateId plateId, BinLocation location, double volume) {
+        Objects.requireNonNull(plateId, "License plate ID cannot be null");
+        Objects.requireNonNull(location, "Location cannot be null");
+        Plate plate = plates.computeIfAbsent(plateId, id -> new Plate());
+        plate.lock.lock();
+        try {
+            if (plate.location != null) {
+                return false;
+            }
+            plate.location = location;
+            plate.volume = Math.max(0.0, volume);
+            addStock(location, plate.volume, 1);
+            return true;
+        } finally {
+            plate.lock.unlock();
+        }
+    }
+
+    /**
+     * Inventory was added to (positive delta) or removed from a license plate.
+     */
+    public void inventoryChanged(LicensePlateId plateId, double volumeDelta) {
+        Objects.requireNonNull(plateId, "License plate ID cannot be null");
+        Plate plate = plates.computeIfAbsent(plateId, id -> new Plate());
+        plate.lock.lock();
+        try {
+            double previous = plate.volume;
+            plate.volume = Math.max(0.0, previous + volumeDelta);
+            if (plate.location == null) {
+                return;
+            }
+            if (plate.volume > previous) {
+                addStock(plate.location, plate.volume - previous, 0);
+            } else if (plate.volume < previous) {
+                removeStock(plate.location, previous - plate.volume, 0);
+            }
+        } finally {
+            plate.lock.unlock();
+        }
+    }
+
+    /**
+     * The license plate left the warehouse; its stock no longer occupies a bin.
+     */
+    public void plateRemoved(LicensePlateId plateId) {
+        Objects.requireNonNull(plateId, "License plate ID cannot be null");
+        Plate plate = plates.remove(plateId);
+        if (plate == null) {
+            return;
+        }
+        plate.lock.lock();
+        try {
+            if (plate.location != null) {
+                removeStock(plate.location, plate.volume, 1);
+                plate.location = null;
+            }
+        } finally {
+            plate.lock.unlock();
+        }
+    }
+
+    public Duration getReservationTtl() {
+        return reservationTtl;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private void addStock(BinLocation location, double volume, int plateDelta) {
+        Stripe stripe = stripeFor(location);
+        stripe.lock.lock();
+        try {
+            stripe.expire(clock.instant());
+            BinState bin = stripe.bins.computeIfAbsent(location, key -> new BinState());
+            boolean wasEmpty = bin.isEmpty();
+            bin.plates += plateDelta;
+            bin.storedVolume += volume;
+
+            // Arriving stock fills the oldest reservations it covers
+            double arriving = volume;
+            Iterator<BinReservation> reservations = bin.reservations.iterator();
+            while (reservations.hasNext() && arriving > EPSILON) {
+                BinReservation reservation = reservations.next();
+                if (reservation.getVolume() > arriving + EPSILON) {
+                    break;
+                }
+                reservations.remove();
+                bin.reservedVolume -= reservation.getVolume();
+                reservation.markReleased();
+                arriving -= reservation.getVolume();
+            }
+            if (wasEmpty != bin.isEmpty()) {
+                publishOccupancy(location, !bin.isEmpty());
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void removeStock(BinLocation location, double volume, int plateDelta) {
+        Stripe stripe = stripeFor(location);
+        stripe.lock.lock();
+        try {
+            stripe.expire(clock.instant());
+            BinState bin = stripe.bins.get(location);
+            if (bin == null) {
+                return;
+            }
+            bin.plates = Math.max(0, bin.plates - plateDelta);
+            bin.storedVolume = Math.max(0.0, bin.storedVolume - volume);
+            stripe.removeIfEmpty(location, bin);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private <T> T withBin(BinLocation location, Function<BinState, T> reader) {
+        Objects.requireNonNull(location, "Location cannot be null");
+        Stripe stripe = stripeFor(location);
+        stripe.lock.lock();
+        try {
+            stripe.expire(clock.instant());
+            return reader.apply(stripe.bins.get(location));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void sweepIfDue(Instant now) {
+        long due = nextSweepAt.get();
+        long nowMillis = now.toEpochMilli();
+        // One caller wins the sweep; the rest carry on without waiting
+        if (nowMillis >= due && nextSweepAt.compareAndSet(due, nowMillis + sweepIntervalMillis)) {
+            releaseExpired();
+        }
+    }
+
+    private static boolean fits(BinState bin, double capacity, double volume) {
+        if (Double.isNaN(capacity)) {
+            return bin == null || bin.isEmpty();
+        }
+        return available(bin, capacity) + EPSILON >= volume;
+    }
+
+    private static double available(BinState bin, double capacity) {
+        if (Double.isNaN(capacity)) {
+            return bin == null || bin.isEmpty() ? Double.POSITIVE_INFINITY : 0.0;
+        }
+        return bin == null ? capacity : capacity - bin.storedVolume - bin.reservedVolume;
+    }
+
+    // NaN for bins outside the loaded layout
+    private double capacityOf(BinLocation location) {
+        Optional<WarehouseLayoutIndex> layout = layoutService.getLoadedIndex();
+        if (layout.isEmpty()) {
+            return Double.NaN;
+        }
+        int ordinal = layout.get().ordinalOf(location);
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND ? layout.get().capacityAt(ordinal) : Double.NaN;
+    }
+
+    // Called under the bin's stripe lock so transitions reach the spatial index in order
+    private void publishOccupancy(BinLocation location, boolean occupied) {
+        if (!layoutService.isLoaded()) {
+            return;
+        }
+        if (occupied) {
+            layoutService.markOccupied(location);
+        } else {
+            layoutService.markEmpty(location);
+        }
+    }
+
+    private Stripe stripeFor(BinLocation location) {
+        int hash = location.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<BinLocation, BinState> bins = new HashMap<>();
+        // Reservations in creation order, which is expiry order since the TTL is fixed
+        private final ArrayDeque<BinReservation> pending = new ArrayDeque<>();
+
+        int expire(Instant now) {
+            int expired = 0;
+            BinReservation head;
+            while ((head = pending.peekFirst()) != null
+                   && (head.isReleased() || head.isConfirmed() || head.isExpired(now))) {
+                pending.pollFirst();
+                // Confirmed reservations leave the expiry queue but stay on their bin
+                if (!head.isReleased() && !head.isConfirmed()) {
+                    removeReservation(head);
+                    expired++;
+                }
+            }
+            return expired;
+        }
+
+        void removeReservation(BinReservation reservation) {
+            reservation.markReleased();
+            BinState bin = bins.get(reservation.getLocation());
+            if (bin != null && bin.reservations.remove(reservation)) {
+                bin.reservedVolume = Math.max(0.0, bin.reservedVolume - reservation.getVolume());
+                removeIfEmpty(reservation.getLocation(), bin);
+            }
+        }
+
+        void removeIfEmpty(BinLocation location, BinState bin) {
+            if (bin.isEmpty()) {
+                bins.remove(location);
+                publishOccupancy(location, false);
+            }
+        }
+    }
+
+    private static final class BinState {
+        private final List<BinReservation> reservations = new ArrayList<>(2);
+        private double reservedVolume;
+        private double storedVolume;
+        private int plates;
+
+        boolean isEmpty() {
+            return plates == 0 && storedVolume <= EPSILON && reservations.isEmpty();
+        }
+    }
+
+    private static final class Plate {
+        private final ReentrantLock lock = new ReentrantLock();
+        private BinLocation location;
+        private double volume;
+    }
+}
@@ -0,0 +1,99 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.work.WorkId;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Capacity held in a bin by {@link BinOccupancyLedger} between location selection and
+ * the stock arriving. Released explicitly, consumed by the arriving stock, or expired;
+ * once confirmed for the work created at the bin it no longer expires.
+ */
+public final class BinReservation {
+    private final UUID reservationId;
+    private final BinLocation location;
+    private final double volume;
+    private final Instant reservedAt;
+    private final Instant expiresAt;
+    // Guarded by the ledger stripe owning the location
+    private boolean released;
+    private WorkId workId;
+
+    BinReservation(BinLocation location, double volume, Instant reservedAt, Instant expiresAt) {
+        this.reservationId = UUID.randomUUID();
+        this.location = location;
+        this.volume = volume;
+        this.reservedAt = reservedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public BinLocation getLocation() {
+        return location;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public Instant getReservedAt() {
+        return reservedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Optional<WorkId> getWorkId() {
+        return Optional.ofNullable(workId);
+    }
+
+    boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+
+    void markReleased() {
+        released = true;
+    }
+
+    boolean isConfirmed() {
+        return workId != null;
+    }
+
+    void confirm(WorkId workId) {
+        this.workId = workId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return reservationId.equals(((BinReservation) o).reservationId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(reservationId);
+    }
+
+    @Override
+    public String toString() {
+        return "BinReservation{" +
+                "reservationId=" + reservationId +
+                ", location=" + location +
+                ", volume=" + volume +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,303 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntPredicate;
+
+/**
+ * Grid-bucketed spatial index over the bins of a {@link WarehouseLayoutIndex} that
+ * answers "nearest empty bin accepted by a filter" without visiting every bin.
+ * <p>
+ * Bins are bucketed into cells of one aisle by {@value #RACKS_PER_CELL} racks. A search
+ * walks aisles and cells outward from the reference in order of their distance lower
+ * bound and stops once no remaining cell can beat the best bin found. Occupancy is kept
+ * in a lock-free bitmap with per-cell empty counters, so bins can be filled and emptied
+ * concurrently with searches and fully occupied cells are skipped without a scan.
+ */
+public final class BinSpatialIndex {
+    public static final int RACKS_PER_CELL = 16;
+
+    // Weighted Manhattan distance: crossing an aisle costs far more than moving along one
+    static final int AISLE_WEIGHT = 10;
+    static final int RACK_WEIGHT = 1;
+    static final int LEVEL_WEIGHT = 2;
+
+    private final WarehouseLayoutIndex layout;
+    private final int[] aisleValues;
+    private final int[] aisleMinimumRack;
+    private final int[] aisleFirstCell;
+    private final int[] aisleCellCount;
+    private final int[] cellStart;
+    private final int[] cellOrdinals;
+    private final int[] cellOfOrdinal;
+    private final AtomicIntegerArray emptyBinsPerCell;
+    private final AtomicLongArray occupied;
+
+    public BinSpatialIndex(WarehouseLayoutIndex layout) {
+        this.layout = Objects.requireNonNull(layout, "Layout index cannot be null");
+        int size = layout.size();
+
+        aisleValues = distinctAisles(layout);
+        int aisleCount = aisleValues.length;
+        aisleMinimumRack = new int[aisleCount];
+        int[] aisleMaximumRack = new int[aisleCount];
+        Arrays.fill(aisleMinimumRack, Integer.MAX_VALUE);
+        Arrays.fill(aisleMaximumRack, Integer.MIN_VALUE);
+        int[] aisleOfOrdinal = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int aisle = Arrays.binarySearch(aisleValues, layout.aisleAt(ordinal));
+            aisleOfOrdinal[ordinal] = aisle;
+            aisleMinimumRack[aisle] = Math.min(aisleMinimumRack[aisle], layout.rackAt(ordinal));
+            aisleMaximumRack[aisle] = Math.max(aisleMaximumRack[aisle], layout.rackAt(ordinal));
+        }
+
+        aisleFirstCell = new int[aisleCount];
+        aisleCellCount = new int[aisleCount];
+        int cellCount = 0;
+        for (int aisle = 0; aisle < aisleCount; aisle++) {
+            aisleFirstCell[aisle] = cellCount;
+            aisleCellCount[aisle] = (aisleMaximumRack[aisle] - aisleMinimumRack[aisle]) / RACKS_PER_CELL + 1;
+            cellCount += aisleCellCount[aisle];
+        }
+
+        // Counting sort of ordinals into cells keeps each cell contiguous and in ordinal order
+        cellOfOrdinal = new int[size];
+        cellStart = new int[cellCount + 1];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int aisle = aisleOfOrdinal[ordinal];
+            int cell = aisleFirstCell[aisle] + (layout.rackAt(ordinal) - aisleMinimumRack[aisle]) / RACKS_PER_CELL;
+            cellOfOrdinal[ordinal] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        cellOrdinals = new int[size];
+        int[] fill = Arrays.copyOf(cellStart, cellCount);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            cellOrdinals[fill[cellOfOrdinal[ordinal]]++] = ordinal;
+        }
+
+        emptyBinsPerCell = new AtomicIntegerArray(cellCount);
+        for (int cell = 0; cell < cellCount; cell++) {
+            emptyBinsPerCell.set(cell, cellStart[cell + 1] - cellStart[cell]);
+        }
+        occupied = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Builds an index over a new layout, carrying over the occupancy of bins that exist
+     * in both layouts.
+     */
+    public static BinSpatialIndex rebuild(WarehouseLayoutIndex layout, BinSpatialIndex previous) {
+        BinSpatialIndex index = new BinSpatialIndex(layout);
+        if (previous != null) {
+            WarehouseLayoutIndex previousLayout = previous.layout;
+            for (int ordinal = 0; ordinal < previousLayout.size(); ordinal++) {
+                if (previous.isOccupied(ordinal)) {
+                    index.markOccupied(previousLayout.locationAt(ordinal));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static int[] distinctAisles(WarehouseLayoutIndex layout) {
+        int[] aisles = new int[layout.size()];
+        for (int ordinal = 0; ordinal < aisles.length; ordinal++) {
+            aisles[ordinal] = layout.aisleAt(ordinal);
+        }
+        return Arrays.stream(aisles).sorted().distinct().toArray();
+    }
+
+    /**
+     * Nearest empty bin to {@code reference} accepted by {@code filter}, or
+     * {@link WarehouseLayoutIndex#NOT_FOUND}. Ties go to the lowest ordinal, which makes
+     * the result identical to a linear scan in layout order. The filter is only consulted
+     * for empty bins that would improve on the current best.
+     */
+    public int findNearestEmpty(BinLocation reference, IntPredicate filter) {
+        Objects.requireNonNull(reference, "Reference location cannot be null");
+        Objects.requireNonNull(filter, "Filter cannot be null");
+        int[] coordinates = layout.coordinatesOf(reference);
+        return findNearestEmpty(coordinates[0], coordinates[1], coordinates[2], filter);
+    }
+
+    int findNearestEmpty(int referenceAisle, int referenceRack, int referenceLevel, IntPredicate filter) {
+        Search search = new Search(referenceRack, referenceLevel, filter);
+
+        int right = lowerBound(aisleValues, referenceAisle);
+        int left = right - 1;
+        while (left >= 0 || right < aisleValues.length) {
+            int leftCost = left >= 0 ? AISLE_WEIGHT * (referenceAisle - aisleValues[left]) : Integer.MAX_VALUE;
+            int rightCost = right < aisleValues.length
+                ? AISLE_WEIGHT * (aisleValues[right] - referenceAisle) : Integer.MAX_VALUE;
+            int aisle;
+            int aisleCost;
+            if (leftCost <= rightCost) {
+                aisle = left--;
+                aisleCost = leftCost;
+            } else {
+                aisle = right++;
+                aisleCost = rightCost;
+            }
+            if (aisleCost > search.bestDistance) {
+                break;
+            }
+            searchAisle(aisle, aisleCost, search);
+        }
+        return search.bestOrdinal;
+    }
+
+    private void searchAisle(int aisle, int aisleCost, Search search) {
+        int cells = aisleCellCount[aisle];
+        int minimumRack = aisleMinimumRack[aisle];
+        int home = Math.floorDiv(search.referenceRack - minimumRack, RACKS_PER_CELL);
+        int high = Math.max(0, Math.min(home, cells - 1));
+        int low = high - 1;
+
+        while (low >= 0 || high < cells) {
+            int lowBound = low >= 0 ? rackGap(minimumRack, low, search.referenceRack) : Integer.MAX_VALUE;
+            int highBound = high < cells ? rackGap(minimumRack, high, search.referenceRack) : Integer.MAX_VALUE;
+            int cell;
+            int bound;
+            if (lowBound <= highBound) {
+                cell = low--;
+                bound = lowBound;
+            } else {
+                cell = high++;
+                bound = highBound;
+            }
+            if (aisleCost + bound > search.bestDistance) {
+                return;
+            }
+            int globalCell = aisleFirstCell[aisle] + cell;
+            if (emptyBinsPerCell.get(globalCell) > 0) {
+                searchCell(globalCell, aisleCost, search);
+            }
+        }
+    }
+
+    private static int rackGap(int minimumRack, int cell, int referenceRack) {
+        int first = minimumRack + cell * RACKS_PER_CELL;
+        int last = first + RACKS_PER_CELL - 1;
+        return RACK_WEIGHT * Math.max(0, Math.max(first - referenceRack, referenceRack - last));
+    }
+
+    private void searchCell(int cell, int aisleCost, Search search) {
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int ordinal = cellOrdinals[i];
+            int distance = aisleCost
+                + RACK_WEIGHT * Math.abs(layout.rackAt(ordinal) - search.referenceRack)
+                + LEVEL_WEIGHT * Math.abs(layout.levelAt(ordinal) - search.referenceLevel);
+            if (distance > search.bestDistance
+                    || (distance == search.bestDistance && ordinal > search.bestOrdinal)) {
+                continue;
+            }
+            if (!isOccupied(ordinal) && search.filter.test(ordinal)) {
+                search.bestDistance = distance;
+                search.bestOrdinal = ordinal;
+            }
+        }
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int position = Arrays.binarySearch(values, key);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * Distance between two bins under the index's metric.
+     */
+    public int distance(int fromOrdinal, int toOrdinal) {
+        return AISLE_WEIGHT * Math.abs(layout.aisleAt(fromOrdinal) - layout.aisleAt(toOrdinal))
+            + RACK_WEIGHT * Math.abs(layout.rackAt(fromOrdinal) - layout.rackAt(toOrdinal))
+            + LEVEL_WEIGHT * Math.abs(layout.levelAt(fromOrdinal) - layout.levelAt(toOrdinal));
+    }
+
+    public boolean markOccupied(BinLocation location) {
+        int ordinal = layout.ordinalOf(location);
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND && markOccupied(ordinal);
+    }
+
+    public boolean markEmpty(BinLocation location) {
+        int ordinal = layout.ordinalOf(location);
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND && markEmpty(ordinal);
+    }
+
+    /**
+     * @return true if the bin was empty before this call
+     */
+    public boolean markOccupied(int ordinal) {
+        if (setOccupied(ordinal, true)) {
+            emptyBinsPerCell.decrementAndGet(cellOfOrdinal[ordinal]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the bin was occupied before this call
+     */
+    public boolean markEmpty(int ordinal) {
+        if (setOccupied(ordinal, false)) {
+            emptyBinsPerCell.incrementAndGet(cellOfOrdinal[ordinal]);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean setOccupied(int ordinal, boolean value) {
+        int word = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        while (true) {
+            long current = occupied.get(word);
+            long updated = value ? current | bit : current & ~bit;
+            if (current == updated) {
+                return false;
+            }
+            if (occupied.compareAndSet(word, current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean isOccupied(int ordinal) {
+        return (occupied.get(ordinal >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    public boolean isEmpty(BinLocation location) {
+        int ordinal = layout.ordinalOf(location);
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND && !isOccupied(ordinal);
+    }
+
+    public int emptyBinCount() {
+        int empty = 0;
+        for (int cell = 0; cell < emptyBinsPerCell.length(); cell++) {
+            empty += emptyBinsPerCell.get(cell);
+        }
+        return empty;
+    }
+
+    public WarehouseLayoutIndex getLayout() {
+        return layout;
+    }
+
+    private static final class Search {
+        final int referenceRack;
+        final int referenceLevel;
+        final IntPredicate filter;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestOrdinal = WarehouseLayoutIndex.NOT_FOUND;
+
+        Search(int referenceRack, int referenceLevel, IntPredicate filter) {
+            this.referenceRack = referenceRack;
+            this.referenceLevel = referenceLevel;
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+/**
+ * Result of a {@link WarehouseLayoutIndex} query: a bitmap of bin ordinals. Locations
+ * are only materialised on demand, and then as views over the index's own instances.
+ */
+public final class LayoutCandidates {
+    private final WarehouseLayoutIndex index;
+    private final BitSet bins;
+    private int[] ordinals;
+
+    LayoutCandidates(WarehouseLayoutIndex index, BitSet bins) {
+        this.index = index;
+        this.bins = bins;
+    }
+
+    public int size() {
+        return bins.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return bins.isEmpty();
+    }
+
+    public boolean containsOrdinal(int ordinal) {
+        return ordinal >= 0 && bins.get(ordinal);
+    }
+
+    public boolean contains(BinLocation location) {
+        return containsOrdinal(index.ordinalOf(location));
+    }
+
+    /**
+     * Copy of these candidates without the given ordinals; returns this instance when
+     * nothing would be removed.
+     */
+    public LayoutCandidates excluding(BitSet ordinals) {
+        if (!bins.intersects(ordinals)) {
+            return this;
+        }
+        BitSet remaining = (BitSet) bins.clone();
+        remaining.andNot(ordinals);
+        return new LayoutCandidates(index, remaining);
+    }
+
+    public void forEachOrdinal(IntConsumer consumer) {
+        for (int ordinal = bins.nextSetBit(0); ordinal >= 0; ordinal = bins.nextSetBit(ordinal + 1)) {
+            consumer.accept(ordinal);
+        }
+    }
+
+    public int[] toOrdinalArray() {
+        if (ordinals == null) {
+            ordinals = bins.stream().toArray();
+        }
+        return ordinals;
+    }
+
+    /**
+     * Unmodifiable list view of the candidate locations, in ordinal order.
+     */
+    public List<BinLocation> asLocations() {
+        int[] view = toOrdinalArray();
+        return new LocationView(index, view);
+    }
+
+    public WarehouseLayoutIndex getIndex() {
+        return index;
+    }
+
+    private static final class LocationView extends AbstractList<BinLocation> implements RandomAccess {
+        private final WarehouseLayoutIndex index;
+        private final int[] ordinals;
+
+        LocationView(WarehouseLayoutIndex index, int[] ordinals) {
+            this.index = index;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public BinLocation get(int position) {
+            return index.locationAt(ordinals[position]);
+        }
+
+        @Override
+        public int size() {
+            return ordinals.length;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.paklog.warehouse.domain.layout;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Candidate filter evaluated against the {@link WarehouseLayoutIndex} bitmaps.
+ * Unset criteria do not restrict the result.
+ */
+public class LayoutCriteria {
+    private static final LayoutCriteria ANY = builder().build();
+
+    private final Set<String> zones;
+    private final double minimumCapacity;
+    private final boolean minimumCapacityInclusive;
+    private final Boolean hazmatCompatible;
+    private final int minimumLevel;
+    private final int maximumLevel;
+    private final boolean temperatureControlled;
+
+    private LayoutCriteria(Builder builder) {
+        this.zones = Set.copyOf(builder.zones);
+        this.minimumCapacity = builder.minimumCapacity;
+        this.minimumCapacityInclusive = builder.minimumCapacityInclusive;
+        this.hazmatCompatible = builder.hazmatCompatible;
+        this.minimumLevel = builder.minimumLevel;
+        this.maximumLevel = builder.maximumLevel;
+        this.temperatureControlled = builder.temperatureControlled;
+    }
+
+    public static LayoutCriteria any() {
+        return ANY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Set<String> getZones() {
+        return zones;
+    }
+
+    public boolean hasZoneRestriction() {
+        return !zones.isEmpty();
+    }
+
+    public boolean hasCapacityRestriction() {
+        return !Double.isNaN(minimumCapacity);
+    }
+
+    public double getMinimumCapacity() {
+        return minimumCapacity;
+    }
+
+    public boolean isMinimumCapacityInclusive() {
+        return minimumCapacityInclusive;
+    }
+
+    public boolean acceptsCapacity(double capacity) {
+        return minimumCapacityInclusive ? capacity >= minimumCapacity : capacity > minimumCapacity;
+    }
+
+    public Boolean getHazmatCompatible() {
+        return hazmatCompatible;
+    }
+
+    public boolean hasLevelRestriction() {
+        return minimumLevel != Integer.MIN_VALUE || maximumLevel != Integer.MAX_VALUE;
+    }
+
+    public int getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    public int getMaximumLevel() {
+        return maximumLevel;
+    }
+
+    public boolean requiresTemperatureControl() {
+        return temperatureControlled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LayoutCriteria that = (LayoutCriteria) o;
+        return Double.compare(that.minimumCapacity, minimumCapacity) == 0 &&
+               minimumCapacityInclusive == that.minimumCapacityInclusive &&
+               minimumLevel == that.minimumLevel &&
+               maximumLevel == that.maximumLevel &&
+               temperatureControlled == that.temperatureControlled &&
+               zones.equals(that.zones) &&
+               Objects.equals(hazmatCompatible, that.hazmatCompatible);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(zones, minimumCapacity, minimumCapacityInclusive, hazmatCompatible,
+                            minimumLevel, maximumLevel, temperatureControlled);
+    }
+
+    @Override
+    public String toString() {
+        return "LayoutCriteria{" +
+                "zones=" + zones +
+                ", minimumCapacity=" + minimumCapacity +
+                ", hazmatCompatible=" + hazmatCompatible +
+                ", levels=" + minimumLevel + ".." + maximumLevel +
+                '}';
+    }
+
+    public static class Builder {
+        private final Set<String> zones = new LinkedHashSet<>();
+        private double minimumCapacity = Double.NaN;
+        private boolean minimumCapacityInclusive = true;
+        private Boolean hazmatCompatible;
+        private int minimumLevel = Integer.MIN_VALUE;
+        private int maximumLevel = Integer.MAX_VALUE;
+        private boolean temperatureControlled;
+
+        private Builder() {
+        }
+
+        public Builder withZones(String... zones) {
+            return withZones(Arrays.asList(zones));
+        }
+
+        public Builder withZones(Collection<String> zones) {
+            Objects.requireNonNull(zones, "Zones cannot be null").forEach(zone ->
+                this.zones.add(Objects.requireNonNull(zone, "Zone cannot be null")));
+            return this;
+        }
+
+        public Builder withMinimumCapacity(double minimumCapacity) {
+            return withMinimumCapacity(minimumCapacity, true);
+        }
+
+        public Builder withMinimumCapacity(double minimumCapacity, boolean inclusive) {
+            if (Double.isNaN(minimumCapacity)) {
+                throw new IllegalArgumentException("Minimum capacity must be a number");
+            }
+            this.minimumCapacity = minimumCapacity;
+            this.minimumCapacityInclusive = inclusive;
+            return this;
+        }
+
+        public Builder withHazmatCompatible(boolean hazmatCompatible) {
+            this.hazmatCompatible = hazmatCompatible;
+            return this;
+        }
+
+        public Builder withLevelRange(int minimumLevel, int maximumLevel) {
+            if (minimumLevel > maximumLevel) {
+                throw new IllegalArgumentException("Minimum level cannot exceed maximum level");
+            }
+            this.minimumLevel = minimumLevel;
+            this.maximumLevel = maximumLevel;
+            return this;
+        }
+
+        public Builder withTemperatureControl() {
+            this.temperatureControlled = true;
+            return this;
+        }
+
+        public LayoutCriteria build() {
+            return new LayoutCriteria(this);
+        }
+    }
+}
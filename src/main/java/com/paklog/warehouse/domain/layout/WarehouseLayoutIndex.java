@@ -0,0 +1,434 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.LocationRecord;
+import com.paklog.warehouse.domain.location.LocationSymbols;
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, columnar in-memory copy of the bin master. Each bin has an ordinal; its
+ * coordinates and attributes live in primitive arrays indexed by that ordinal, and
+ * zone, level, hazmat and temperature-control membership are kept as bitmaps so
+ * candidate sets are computed with word-wide set operations instead of object scans.
+ */
+public final class WarehouseLayoutIndex {
+    public static final int NOT_FOUND = -1;
+
+    private final LocationSymbols locationSymbols;
+    private final BinLocation[] locations;
+    private final Map<BinLocation, Integer> ordinals;
+    private final int[] aisles;
+    private final int[] racks;
+    private final int[] levels;
+    private final int[] zones;
+    private final int[] accessibilities;
+    private final double[] capacities;
+    private final double[] temperatures;
+    private final CoordinateAxis aisleAxis;
+    private final CoordinateAxis rackAxis;
+    private final CoordinateAxis levelAxis;
+
+    private final BitSet allBins;
+    private final BitSet hazmatBins;
+    private final BitSet temperatureControlledBins;
+    private final Map<Integer, BitSet> binsByZone;
+    private final TreeMap<Integer, BitSet> binsByLevel;
+    private final int[] ordinalsByCapacity;
+    private final double[] sortedCapacities;
+    private final Instant loadedAt;
+
+    private WarehouseLayoutIndex(List<BinMasterRecord> records, LocationSymbols locationSymbols, Instant loadedAt) {
+        this.locationSymbols = locationSymbols;
+        this.loadedAt = loadedAt;
+        int size = records.size();
+
+        locations = new BinLocation[size];
+        ordinals = new HashMap<>(size * 2);
+        aisles = new int[size];
+        racks = new int[size];
+        levels = new int[size];
+        zones = new int[size];
+        accessibilities = new int[size];
+        capacities = new double[size];
+        temperatures = new double[size];
+        allBins = new BitSet(size);
+        hazmatBins = new BitSet(size);
+        temperatureControlledBins = new BitSet(size);
+        binsByZone = new HashMap<>();
+        binsByLevel = new TreeMap<>();
+
+        aisleAxis = CoordinateAxis.of(records, r -> r.getLocation().getAisle());
+        rackAxis = CoordinateAxis.of(records, r -> r.getLocation().getRack());
+        levelAxis = CoordinateAxis.of(records, r -> r.getLocation().getLevel());
+
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            BinMasterRecord record = records.get(ordinal);
+            BinLocation location = record.getLocation();
+            if (ordinals.putIfAbsent(location, ordinal) != null) {
+                throw new IllegalArgumentException("Duplicate bin in layout: " + location);
+            }
+            locations[ordinal] = location;
+            aisles[ordinal] = aisleAxis.encode(location.getAisle());
+            racks[ordinal] = rackAxis.encode(location.getRack());
+            levels[ordinal] = levelAxis.encode(location.getLevel());
+            zones[ordinal] = locationSymbols.codeOf(record.getZone());
+            accessibilities[ordinal] = locationSymbols.codeOf(record.getAccessibility());
+            capacities[ordinal] = record.getCapacity();
+            temperatures[ordinal] = record.isTemperatureControlled() ? record.getTemperature() : Double.NaN;
+
+            allBins.set(ordinal);
+            if (record.isHazmatCompatible()) {
+                hazmatBins.set(ordinal);
+            }
+            if (record.isTemperatureControlled()) {
+                temperatureControlledBins.set(ordinal);
+            }
+            binsByZone.computeIfAbsent(zones[ordinal], code -> new BitSet(size)).set(ordinal);
+            binsByLevel.computeIfAbsent(levels[ordinal], level -> new BitSet(size)).set(ordinal);
+        }
+
+        Integer[] byCapacity = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            byCapacity[i] = i;
+        }
+        Arrays.sort(byCapacity, Comparator.comparingDouble(i -> capacities[i]));
+        ordinalsByCapacity = new int[size];
+        sortedCapacities = new double[size];
+        for (int i = 0; i < size; i++) {
+            ordinalsByCapacity[i] = byCapacity[i];
+            sortedCapacities[i] = capacities[byCapacity[i]];
+        }
+    }
+
+    public static WarehouseLayoutIndex build(Collection<BinMasterRecord> records) {
+        return build(records, LocationSymbols.shared(), Instant.now());
+    }
+
+    public static WarehouseLayoutIndex build(Collection<BinMasterRecord> records, LocationSymbols locationSymbols,
+                                             Instant loadedAt) {
+        Objects.requireNonNull(records, "Records cannot be null");
+        Objects.requireNonNull(locationSymbols, "LocationSymbols cannot be null");
+        return new WarehouseLayoutIndex(new ArrayList<>(records), locationSymbols, loadedAt);
+    }
+
+    public static WarehouseLayoutIndex empty() {
+        return build(List.of());
+    }
+
+    public LayoutCandidates query(LayoutCriteria criteria) {
+        Objects.requireNonNull(criteria, "Criteria cannot be null");
+
+        BitSet result = (BitSet) allBins.clone();
+        boolean narrowed = false;
+
+        if (criteria.hasZoneRestriction()) {
+            BitSet zoneBins = new BitSet(size());
+            for (String zone : criteria.getZones()) {
+                BitSet bins = binsByZone.get(locationSymbols.codeOf(zone));
+                if (bins != null) {
+                    zoneBins.or(bins);
+                }
+            }
+            result.and(zoneBins);
+            narrowed = true;
+        }
+
+        if (criteria.hasLevelRestriction()) {
+            BitSet levelBins = new BitSet(size());
+            binsByLevel.subMap(criteria.getMinimumLevel(), true, criteria.getMaximumLevel(), true)
+                .values()
+                .forEach(levelBins::or);
+            result.and(levelBins);
+            narrowed = true;
+        }
+
+        if (criteria.getHazmatCompatible() != null) {
+            if (criteria.getHazmatCompatible()) {
+                result.and(hazmatBins);
+            } else {
+                result.andNot(hazmatBins);
+            }
+            narrowed = true;
+        }
+
+        if (criteria.requiresTemperatureControl()) {
+            result.and(temperatureControlledBins);
+            narrowed = true;
+        }
+
+        if (criteria.hasCapacityRestriction()) {
+            int from = firstAcceptedCapacity(criteria);
+            int accepted = ordinalsByCapacity.length - from;
+            if (narrowed && result.cardinality() < accepted) {
+                // Cheaper to check the column for the already narrowed set
+                for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                    if (!criteria.acceptsCapacity(capacities[ordinal])) {
+                        result.clear(ordinal);
+                    }
+                }
+            } else {
+                result.and(binsWithCapacity(from));
+            }
+        }
+
+        return new LayoutCandidates(this, result);
+    }
+
+    private BitSet binsWithCapacity(int from) {
+        BitSet bins = new BitSet(size());
+        for (int i = from; i < ordinalsByCapacity.length; i++) {
+            bins.set(ordinalsByCapacity[i]);
+        }
+        return bins;
+    }
+
+    private int firstAcceptedCapacity(LayoutCriteria criteria) {
+        int low = 0;
+        int high = sortedCapacities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (criteria.acceptsCapacity(sortedCapacities[mid])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public int ordinalOf(BinLocation location) {
+        Integer ordinal = ordinals.get(location);
+        return ordinal != null ? ordinal : NOT_FOUND;
+    }
+
+    public boolean contains(BinLocation location) {
+        return ordinals.containsKey(location);
+    }
+
+    public BinLocation locationAt(int ordinal) {
+        return locations[ordinal];
+    }
+
+    public int aisleAt(int ordinal) {
+        return aisles[ordinal];
+    }
+
+    public int rackAt(int ordinal) {
+        return racks[ordinal];
+    }
+
+    public int levelAt(int ordinal) {
+        return levels[ordinal];
+    }
+
+    /**
+     * Encodes a location that may not be part of the layout onto the same coordinate
+     * axes as the indexed bins, e.g. to use it as a distance reference.
+     */
+    public int[] coordinatesOf(BinLocation location) {
+        int ordinal = ordinalOf(location);
+        if (ordinal != NOT_FOUND) {
+            return new int[]{aisles[ordinal], racks[ordinal], levels[ordinal]};
+        }
+        return new int[]{aisleAxis.encodeNearest(location.getAisle()),
+                         rackAxis.encodeNearest(location.getRack()),
+                         levelAxis.encodeNearest(location.getLevel())};
+    }
+
+    public double capacityAt(int ordinal) {
+        return capacities[ordinal];
+    }
+
+    public String zoneAt(int ordinal) {
+        return locationSymbols.nameOf(zones[ordinal]);
+    }
+
+    public String accessibilityAt(int ordinal) {
+        return locationSymbols.nameOf(accessibilities[ordinal]);
+    }
+
+    public boolean isHazmatCompatible(int ordinal) {
+        return hazmatBins.get(ordinal);
+    }
+
+    public boolean isTemperatureControlled(int ordinal) {
+        return temperatureControlledBins.get(ordinal);
+    }
+
+    public double temperatureAt(int ordinal) {
+        return temperatures[ordinal];
+    }
+
+    /**
+     * Copies the bin's attributes into a record for compiled constraint evaluation.
+     */
+    public LocationRecord loadRecord(int ordinal, LocationRecord record) {
+        return overlayRecord(ordinal, record.clear());
+    }
+
+    /**
+     * Writes the bin's attributes over whatever the record already holds, mirroring how
+     * layout attributes override query parameters in a {@code LocationContext}.
+     */
+    public LocationRecord overlayRecord(int ordinal, LocationRecord record) {
+        if (zones[ordinal] != LocationSymbols.ABSENT) {
+            record.setSymbol(LocationRecord.ZONE, zones[ordinal]);
+        }
+        if (accessibilities[ordinal] != LocationSymbols.ABSENT) {
+            record.setSymbol(LocationRecord.ACCESSIBILITY, accessibilities[ordinal]);
+        }
+        record.setNumeric(LocationRecord.AVAILABLE_CAPACITY, capacities[ordinal])
+            .setHazmatCompatible(hazmatBins.get(ordinal));
+        if (temperatureControlledBins.get(ordinal)) {
+            record.setNumeric(LocationRecord.TEMPERATURE, temperatures[ordinal]);
+        }
+        return record;
+    }
+
+    /**
+     * Attributes of the bin under the keys read by {@code LocationContext}.
+     */
+    public Map<String, Object> attributesOf(int ordinal) {
+        Map<String, Object> attributes = new HashMap<>();
+        String zone = zoneAt(ordinal);
+        if (zone != null) {
+            attributes.put("zone", zone);
+        }
+        String accessibility = accessibilityAt(ordinal);
+        if (accessibility != null) {
+            attributes.put("accessibility", accessibility);
+        }
+        attributes.put("available_capacity", capacities[ordinal]);
+        attributes.put("hazmat_compatible", hazmatBins.get(ordinal));
+        if (temperatureControlledBins.get(ordinal)) {
+            attributes.put("temperature", temperatures[ordinal]);
+        }
+        return attributes;
+    }
+
+    public int size() {
+        return locations.length;
+    }
+
+    public boolean isEmpty() {
+        return locations.length == 0;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public LocationSymbols getLocationSymbols() {
+        return locationSymbols;
+    }
+
+    @Override
+    public String toString() {
+        return "WarehouseLayoutIndex{" +
+                "bins=" + locations.length +
+                ", zones=" + binsByZone.size() +
+                ", levels=" + binsByLevel.size() +
+                ", loadedAt=" + loadedAt +
+                '}';
+    }
+
+    /**
+     * Maps one coordinate segment to an integer. Purely numeric segments keep their
+     * value; otherwise segments are ranked in natural order (A2 before A10).
+     */
+    private static final class CoordinateAxis {
+        private final Map<String, Integer> codes;
+        private final List<String> sorted;
+
+        private CoordinateAxis(Map<String, Integer> codes, List<String> sorted) {
+            this.codes = codes;
+            this.sorted = sorted;
+        }
+
+        static CoordinateAxis of(List<BinMasterRecord> records,
+                                 Function<BinMasterRecord, String> segment) {
+            List<String> values = records.stream().map(segment).distinct().toList();
+            if (values.stream().allMatch(CoordinateAxis::isNumeric)) {
+                return new CoordinateAxis(null, null);
+            }
+            List<String> sorted = new ArrayList<>(values);
+            sorted.sort(CoordinateAxis::compareNatural);
+            Map<String, Integer> codes = new HashMap<>();
+            for (int i = 0; i < sorted.size(); i++) {
+                codes.put(sorted.get(i), i);
+            }
+            return new CoordinateAxis(codes, sorted);
+        }
+
+        int encode(String value) {
+            return codes == null ? Integer.parseInt(value) : codes.get(value);
+        }
+
+        /**
+         * Like {@link #encode} but tolerates values outside the layout: unknown ranked
+         * values take the rank of their insertion point.
+         */
+        int encodeNearest(String value) {
+            if (codes == null) {
+                return isNumeric(value) ? Integer.parseInt(value) : 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int position = Collections.binarySearch(sorted, value, CoordinateAxis::compareNatural);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        private static boolean isNumeric(String value) {
+            if (value.isEmpty() || value.length() > 9) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (!Character.isDigit(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int compareNatural(String left, String right) {
+            int leftSplit = digitsStart(left);
+            int rightSplit = digitsStart(right);
+            int prefix = left.substring(0, leftSplit).compareTo(right.substring(0, rightSplit));
+            if (prefix != 0) {
+                return prefix;
+            }
+            String leftDigits = left.substring(leftSplit);
+            String rightDigits = right.substring(rightSplit);
+            if (isNumeric(leftDigits) && isNumeric(rightDigits)) {
+                int numeric = Integer.compare(Integer.parseInt(leftDigits), Integer.parseInt(rightDigits));
+                if (numeric != 0) {
+                    return numeric;
+                }
+            }
+            return left.compareTo(right);
+        }
+
+        private static int digitsStart(String value) {
+            int index = value.length();
+            while (index > 0 && Character.isDigit(value.charAt(index - 1))) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
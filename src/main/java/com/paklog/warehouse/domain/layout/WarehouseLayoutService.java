@@ -0,0 +1,120 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.LocationSymbols;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Owns the current {@link WarehouseLayoutIndex} and its {@link BinSpatialIndex}. The bin
+ * master is read once and the resulting indexes are swapped in atomically, so readers
+ * never see a partial layout; bin occupancy survives reloads.
+ */
+public class WarehouseLayoutService {
+    private static final Logger logger = LoggerFactory.getLogger(WarehouseLayoutService.class);
+
+    private final BinMasterRepository binMasterRepository;
+    private final Clock clock;
+    private volatile WarehouseLayoutIndex currentIndex;
+    private volatile BinSpatialIndex spatialIndex;
+    // Occupancy updates share the lock; a reload takes it exclusively to carry occupancy over
+    private final ReadWriteLock occupancyLock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+
+    public WarehouseLayoutService(BinMasterRepository binMasterRepository) {
+        this(binMasterRepository, Clock.systemUTC());
+    }
+
+    public WarehouseLayoutService(BinMasterRepository binMasterRepository, Clock clock) {
+        this.binMasterRepository = Objects.requireNonNull(binMasterRepository,
+            "BinMasterRepository cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    public WarehouseLayoutIndex reload() {
+        reloadLock.lock();
+        try {
+            long start = System.nanoTime();
+            List<BinMasterRecord> records = binMasterRepository.findAll();
+            WarehouseLayoutIndex index = WarehouseLayoutIndex.build(records, LocationSymbols.shared(), clock.instant());
+            occupancyLock.writeLock().lock();
+            try {
+                spatialIndex = BinSpatialIndex.rebuild(index, spatialIndex);
+                currentIndex = index;
+            } finally {
+                occupancyLock.writeLock().unlock();
+            }
+            logger.info("Loaded warehouse layout index with {} bins in {} ms", index.size(),
+                       (System.nanoTime() - start) / 1_000_000);
+            return index;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Current index, loading it on first use.
+     */
+    public WarehouseLayoutIndex getIndex() {
+        WarehouseLayoutIndex index = currentIndex;
+        return index != null ? index : reload();
+    }
+
+    /**
+     * Current index if one has been loaded and it contains bins.
+     */
+    public Optional<WarehouseLayoutIndex> getLoadedIndex() {
+        WarehouseLayoutIndex index = currentIndex;
+        return index != null && !index.isEmpty() ? Optional.of(index) : Optional.empty();
+    }
+
+    /**
+     * Spatial index over the current layout, if a non-empty layout has been loaded.
+     */
+    public Optional<BinSpatialIndex> getLoadedSpatialIndex() {
+        BinSpatialIndex index = spatialIndex;
+        return index != null && !index.getLayout().isEmpty() ? Optional.of(index) : Optional.empty();
+    }
+
+    public BinSpatialIndex getSpatialIndex() {
+        getIndex();
+        return spatialIndex;
+    }
+
+    public boolean markOccupied(BinLocation location) {
+        getIndex();
+        occupancyLock.readLock().lock();
+        try {
+            return spatialIndex.markOccupied(location);
+        } finally {
+            occupancyLock.readLock().unlock();
+        }
+    }
+
+    public boolean markEmpty(BinLocation location) {
+        getIndex();
+        occupancyLock.readLock().lock();
+        try {
+            return spatialIndex.markEmpty(location);
+        } finally {
+            occupancyLock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return currentIndex != null;
+    }
+
+    public LayoutCandidates findCandidates(LayoutCriteria criteria) {
+        return getIndex().query(criteria);
+    }
+}
@@ -13,8 +13,14 @@ public class LicensePlatePickedEvent implements DomainEvent {
     private final Instant pickedAt;
 
     public LicensePlatePickedEvent(LicensePlateId licensePlateId, String pickedBy, Instant pickedAt) {
-        this.eventId = UUID.randomUUID();
-        this.occurredAt = Instant.now();
+        this(UUID.randomUUID(), Instant.now(), licensePlateId, pickedBy, pickedAt);
+    }
+
+    // Restores a serialized event
+    public LicensePlatePickedEvent(UUID eventId, Instant occurredAt, LicensePlateId licensePlateId, String pickedBy,
+                                   Instant pickedAt) {
+        this.eventId = eventId;
+        this.occurredAt = occurredAt;
         this.licensePlateId = licensePlateId;
         this.pickedBy = pickedBy;
         this.pickedAt = pickedAt;
@@ -0,0 +1,107 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.LayoutCandidates;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity reserved by the lines of one batch selection. Bins known to the layout can
+ * take lines until their available capacity is used up; bins outside the layout have no
+ * capacity data and take at most one line.
+ */
+final class BatchCapacityLedger {
+    private final Map<BinLocation, Double> reservedCapacity = new HashMap<>();
+    private final Map<WarehouseLayoutIndex, Reservations> layoutReservations = new HashMap<>();
+
+    boolean tryReserve(BinLocation location, double amount, WarehouseLayoutIndex layout) {
+        if (remainingCapacity(location, layout) < amount) {
+            return false;
+        }
+        reservedCapacity.merge(location, amount, Double::sum);
+        int ordinal = layout != null ? layout.ordinalOf(location) : WarehouseLayoutIndex.NOT_FOUND;
+        if (ordinal != WarehouseLayoutIndex.NOT_FOUND) {
+            layoutReservations.computeIfAbsent(layout, Reservations::new).reserve(ordinal, amount);
+        }
+        return true;
+    }
+
+    double remainingCapacity(BinLocation location, WarehouseLayoutIndex layout) {
+        int ordinal = layout != null ? layout.ordinalOf(location) : WarehouseLayoutIndex.NOT_FOUND;
+        if (ordinal == WarehouseLayoutIndex.NOT_FOUND) {
+            return reservedCapacity.containsKey(location) ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+        Reservations reservations = layoutReservations.get(layout);
+        return reservations != null ? reservations.remaining(ordinal) : layout.capacityAt(ordinal);
+    }
+
+    boolean isReserved(BinLocation location) {
+        return reservedCapacity.containsKey(location);
+    }
+
+    /**
+     * Layout candidates minus bins that cannot take {@code amount} more, or minus every
+     * bin reserved so far when {@code excludeReserved} is set.
+     */
+    LayoutCandidates available(LayoutCandidates candidates, double amount, boolean excludeReserved) {
+        Reservations reservations = layoutReservations.get(candidates.getIndex());
+        if (reservations == null) {
+            return candidates;
+        }
+        return candidates.excluding(excludeReserved ? reservations.reserved : reservations.fullFor(amount));
+    }
+
+    List<BinLocation> available(List<BinLocation> candidates, double amount, boolean excludeReserved,
+                                WarehouseLayoutIndex layout) {
+        if (reservedCapacity.isEmpty()) {
+            return candidates;
+        }
+        return candidates.stream()
+            .filter(location -> excludeReserved
+                ? !isReserved(location)
+                : remainingCapacity(location, layout) >= amount)
+            .toList();
+    }
+
+    int reservedLocationCount() {
+        return reservedCapacity.size();
+    }
+
+    /**
+     * Reserved amounts of one layout, by bin ordinal.
+     */
+    private static final class Reservations {
+        private final WarehouseLayoutIndex layout;
+        private final double[] amounts;
+        private final BitSet reserved;
+
+        Reservations(WarehouseLayoutIndex layout) {
+            this.layout = layout;
+            this.amounts = new double[layout.size()];
+            this.reserved = new BitSet(layout.size());
+        }
+
+        void reserve(int ordinal, double amount) {
+            amounts[ordinal] += amount;
+            reserved.set(ordinal);
+        }
+
+        double remaining(int ordinal) {
+            return layout.capacityAt(ordinal) - amounts[ordinal];
+        }
+
+        BitSet fullFor(double amount) {
+            BitSet full = new BitSet(amounts.length);
+            for (int ordinal = reserved.nextSetBit(0); ordinal >= 0; ordinal = reserved.nextSetBit(ordinal + 1)) {
+                if (remaining(ordinal) < amount) {
+                    full.set(ordinal);
+                }
+            }
+            return full;
+        }
+    }
+}
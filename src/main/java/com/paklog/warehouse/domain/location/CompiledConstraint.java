@@ -0,0 +1,12 @@
+package com.paklog.warehouse.domain.location;
+
+/**
+ * A {@link LocationConstraint} with its type, operator and threshold already resolved.
+ */
+@FunctionalInterface
+public interface CompiledConstraint {
+    CompiledConstraint ALWAYS = record -> true;
+    CompiledConstraint NEVER = record -> false;
+
+    boolean test(LocationRecord record);
+}
@@ -0,0 +1,53 @@
+package com.paklog.warehouse.domain.location;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ordered conjunction of compiled constraints. Evaluation stops at the first failing
+ * constraint and performs no allocation.
+ */
+public final class CompiledConstraintChain {
+    public static final int NO_FAILURE = -1;
+
+    private final List<LocationConstraint> source;
+    private final CompiledConstraint[] constraints;
+
+    CompiledConstraintChain(List<LocationConstraint> source, CompiledConstraint[] constraints) {
+        this.source = List.copyOf(Objects.requireNonNull(source, "Source constraints cannot be null"));
+        this.constraints = constraints.clone();
+    }
+
+    public boolean test(LocationRecord record) {
+        for (CompiledConstraint constraint : constraints) {
+            if (!constraint.test(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Index of the first failing constraint, or {@link #NO_FAILURE} when all pass.
+     */
+    public int firstFailure(LocationRecord record) {
+        for (int i = 0; i < constraints.length; i++) {
+            if (!constraints[i].test(record)) {
+                return i;
+            }
+        }
+        return NO_FAILURE;
+    }
+
+    public LocationConstraint getSourceConstraint(int index) {
+        return source.get(index);
+    }
+
+    public int size() {
+        return constraints.length;
+    }
+
+    public boolean isEmpty() {
+        return constraints.length == 0;
+    }
+}
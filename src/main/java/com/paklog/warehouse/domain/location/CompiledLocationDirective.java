@@ -0,0 +1,80 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.Objects;
+
+/**
+ * A location directive paired with its selector instance and its constraints compiled
+ * into a {@link CompiledConstraintChain}, so neither has to be rebuilt per query. A
+ * {@link LocationContext} is checked by loading it into a record and running the chain.
+ */
+public class CompiledLocationDirective {
+    private final LocationDirective directive;
+    private final LocationSelector selector;
+    private final CompiledConstraintChain constraintChain;
+    private final LocationSymbols locationSymbols;
+
+    CompiledLocationDirective(LocationDirective directive, LocationConstraintCompiler constraintCompiler) {
+        this.directive = Objects.requireNonNull(directive, "Directive cannot be null");
+        this.selector = directive.createSelector();
+        this.constraintChain = constraintCompiler.compile(directive.getConstraints());
+        this.locationSymbols = constraintCompiler.getLocationSymbols();
+    }
+
+    public BinLocation selectLocation(LocationQuery query) {
+        return directive.selectLocation(query, selector);
+    }
+
+    public LocationDirectiveResult evaluateForLocation(LocationQuery query, BinLocation location) {
+        return directive.evaluateForLocation(query, location, this::satisfiesChain);
+    }
+
+    public boolean satisfiesConstraints(LocationContext context) {
+        return directive.isActive() && satisfiesChain(context);
+    }
+
+    public boolean satisfiesConstraints(LocationRecord record) {
+        return directive.isActive() && constraintChain.test(record);
+    }
+
+    /**
+     * Score of a location whose record already satisfies the constraint chain; equal to
+     * the score {@link #evaluateForLocation} reports for the same location.
+     */
+    public double score(BinLocation location, LocationRecord record) {
+        return directive.calculateScore(location, record, locationSymbols);
+    }
+
+    private boolean satisfiesChain(LocationContext context) {
+        return constraintChain.test(new LocationRecord().loadFrom(context, locationSymbols));
+    }
+
+    public LocationDirective getDirective() {
+        return directive;
+    }
+
+    public LocationSelector getSelector() {
+        return selector;
+    }
+
+    public CompiledConstraintChain getConstraintChain() {
+        return constraintChain;
+    }
+
+    /**
+     * Symbol table records must be encoded with for {@link #getConstraintChain()}.
+     */
+    public LocationSymbols getLocationSymbols() {
+        return locationSymbols;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledLocationDirective{" +
+                "directive=" + directive.getName() +
+                ", strategy=" + directive.getStrategy() +
+                ", constraints=" + directive.getConstraintCount() +
+                '}';
+    }
+}
@@ -5,10 +5,13 @@ import java.util.Map;
 import java.util.Objects;
 
 public class LocationConstraint {
+    private static final LocationConstraintCompiler SHARED_COMPILER = new LocationConstraintCompiler();
+
     private final LocationConstraintType type;
     private final String operator;
     private final Object value;
     private final Map<String, Object> parameters;
+    private volatile CompiledConstraint compiled;
 
     public LocationConstraint(LocationConstraintType type, String operator, Object value) {
         this(type, operator, value, new HashMap<>());
@@ -91,129 +94,24 @@ public class LocationConstraint {
         return null;
     }
 
+    /**
+     * Whether the context satisfies this constraint, decided by the same
+     * {@link CompiledConstraint} that {@link LocationConstraintCompiler} builds for
+     * directive queries, so the two cannot disagree.
+     */
     public boolean evaluate(LocationContext context) {
-        switch (type) {
-            case ZONE_RESTRICTION:
-                return evaluateZoneConstraint(context);
-            case CAPACITY_REQUIREMENT:
-                return evaluateCapacityConstraint(context);
-            case ACCESSIBILITY:
-                return evaluateAccessibilityConstraint(context);
-            case EQUIPMENT_REQUIREMENT:
-                return evaluateEquipmentConstraint(context);
-            case SAFETY_RESTRICTION:
-                return evaluateSafetyConstraint(context);
-            case TEMPERATURE_RANGE:
-                return evaluateTemperatureConstraint(context);
-            case HAZMAT_COMPATIBLE:
-                return evaluateHazmatConstraint(context);
-            case INVENTORY_AVAILABLE:
-                return evaluateInventoryConstraint(context);
-            default:
-                return true;
-        }
-    }
-
-    private boolean evaluateZoneConstraint(LocationContext context) {
-        String locationZone = context.getLocationZone();
-        String requiredZone = getValueAsString();
-        
-        switch (operator.toLowerCase()) {
-            case "equals":
-            case "eq":
-                return Objects.equals(locationZone, requiredZone);
-            case "not_equals":
-            case "ne":
-                return !Objects.equals(locationZone, requiredZone);
-            case "in":
-                return requiredZone != null && requiredZone.contains(locationZone);
-            default:
-                return false;
-        }
-    }
-
-    private boolean evaluateCapacityConstraint(LocationContext context) {
-        Double availableCapacity = context.getAvailableCapacity();
-        Double requiredCapacity = getValueAsDouble();
-        
-        if (availableCapacity == null || requiredCapacity == null) {
-            return false;
-        }
-        
-        switch (operator.toLowerCase()) {
-            case "greater_than":
-            case "gt":
-                return availableCapacity > requiredCapacity;
-            case "greater_equal":
-            case "gte":
-                return availableCapacity >= requiredCapacity;
-            case "less_than":
-            case "lt":
-                return availableCapacity < requiredCapacity;
-            case "less_equal":
-            case "lte":
-                return availableCapacity <= requiredCapacity;
-            case "equals":
-            case "eq":
-                return availableCapacity.equals(requiredCapacity);
-            default:
-                return false;
-        }
-    }
-
-    private boolean evaluateAccessibilityConstraint(LocationContext context) {
-        String accessibility = context.getAccessibilityLevel();
-        String required = getValueAsString();
-        return Objects.equals(accessibility, required);
+        Objects.requireNonNull(context, "Context cannot be null");
+        return compiled().test(new LocationRecord().loadFrom(context, LocationSymbols.shared()));
     }
 
-    private boolean evaluateEquipmentConstraint(LocationContext context) {
-        String equipment = getValueAsString();
-        return context.hasEquipment(equipment);
-    }
-
-    private boolean evaluateSafetyConstraint(LocationContext context) {
-        String safetyLevel = context.getSafetyLevel();
-        String required = getValueAsString();
-        return Objects.equals(safetyLevel, required);
-    }
-
-    private boolean evaluateTemperatureConstraint(LocationContext context) {
-        Double temperature = context.getTemperature();
-        Double required = getValueAsDouble();
-        
-        if (temperature == null || required == null) {
-            return false;
-        }
-        
-        Double tolerance = (Double) parameters.getOrDefault("tolerance", 0.0);
-        return Math.abs(temperature - required) <= tolerance;
-    }
-
-    private boolean evaluateHazmatConstraint(LocationContext context) {
-        Boolean hazmatCompatible = context.isHazmatCompatible();
-        Boolean required = Boolean.valueOf(getValueAsString());
-        return Objects.equals(hazmatCompatible, required);
-    }
-
-    private boolean evaluateInventoryConstraint(LocationContext context) {
-        Integer available = context.getAvailableInventory();
-        Integer required = getValueAsInteger();
-        
-        if (available == null || required == null) {
-            return false;
-        }
-        
-        switch (operator.toLowerCase()) {
-            case "greater_than":
-            case "gt":
-                return available > required;
-            case "greater_equal":
-            case "gte":
-                return available >= required;
-            default:
-                return false;
+    // Compiled on first use; racing threads compile equal constraints
+    private CompiledConstraint compiled() {
+        CompiledConstraint current = compiled;
+        if (current == null) {
+            current = SHARED_COMPILER.compile(this);
+            compiled = current;
         }
+        return current;
     }
 
     @Override
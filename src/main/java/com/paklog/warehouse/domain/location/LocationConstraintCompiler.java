@@ -0,0 +1,168 @@
+package com.paklog.warehouse.domain.location;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compiles a directive's constraint list into a {@link CompiledConstraintChain} over
+ * {@link LocationRecord} slots. Operators are lower-cased and dispatched, thresholds
+ * parsed and string values interned once here; the resulting predicates only compare
+ * primitives. This is the only implementation of the constraint semantics;
+ * {@link LocationConstraint#evaluate(LocationContext)} runs the compiled form against a
+ * record loaded from the context. A malformed constraint, such as a temperature
+ * tolerance that is not a number, compiles to {@link CompiledConstraint#NEVER} with a
+ * warning, so it only rules out its own directive.
+ */
+public class LocationConstraintCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(LocationConstraintCompiler.class);
+
+    private final LocationSymbols locationSymbols;
+
+    public LocationConstraintCompiler() {
+        this(LocationSymbols.shared());
+    }
+
+    public LocationConstraintCompiler(LocationSymbols locationSymbols) {
+        this.locationSymbols = Objects.requireNonNull(locationSymbols, "LocationSymbols cannot be null");
+    }
+
+    public CompiledConstraintChain compile(List<LocationConstraint> constraints) {
+        Objects.requireNonNull(constraints, "Constraints cannot be null");
+        CompiledConstraint[] compiled = new CompiledConstraint[constraints.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(constraints.get(i));
+        }
+        return new CompiledConstraintChain(constraints, compiled);
+    }
+
+    public CompiledConstraint compile(LocationConstraint constraint) {
+        Objects.requireNonNull(constraint, "Constraint cannot be null");
+        String operator = constraint.getOperator().toLowerCase();
+
+        switch (constraint.getType()) {
+            case ZONE_RESTRICTION:
+                return compileZone(operator, constraint.getValueAsString());
+            case CAPACITY_REQUIREMENT:
+                return compileNumericComparison(LocationRecord.AVAILABLE_CAPACITY, operator,
+                                                constraint.getValueAsDouble());
+            case ACCESSIBILITY:
+                return symbolEquals(LocationRecord.ACCESSIBILITY, constraint.getValueAsString());
+            case EQUIPMENT_REQUIREMENT:
+                return compileEquipment(constraint);
+            case SAFETY_RESTRICTION:
+                return symbolEquals(LocationRecord.SAFETY_LEVEL, constraint.getValueAsString());
+            case TEMPERATURE_RANGE:
+                return compileTemperature(constraint);
+            case HAZMAT_COMPATIBLE: {
+                byte required = Boolean.parseBoolean(constraint.getValueAsString())
+                    ? LocationRecord.TRUE : LocationRecord.FALSE;
+                return record -> record.getHazmatCompatible() == required;
+            }
+            case INVENTORY_AVAILABLE:
+                return compileInventory(operator, constraint.getValueAsInteger());
+            default:
+                return CompiledConstraint.ALWAYS;
+        }
+    }
+
+    private CompiledConstraint compileZone(String operator, String requiredZone) {
+        switch (operator) {
+            case "equals":
+            case "eq":
+                return symbolEquals(LocationRecord.ZONE, requiredZone);
+            case "not_equals":
+            case "ne": {
+                int code = locationSymbols.codeOf(requiredZone);
+                return record -> record.getSymbol(LocationRecord.ZONE) != code;
+            }
+            case "in":
+                // Substring match on the raw zone name, so "FAST_PICK,BULK" admits both zones
+                return record -> requiredZone != null
+                    && requiredZone.contains(locationSymbols.nameOf(record.getSymbol(LocationRecord.ZONE)));
+            default:
+                return CompiledConstraint.NEVER;
+        }
+    }
+
+    private CompiledConstraint compileEquipment(LocationConstraint constraint) {
+        String equipment = constraint.getValueAsString();
+        long bit = locationSymbols.equipmentBit(equipment);
+        if (bit == LocationSymbols.NO_EQUIPMENT_BIT) {
+            // Past the bit mask's capacity: look it up in the context the record was loaded from
+            return record -> record.getSource() != null && record.getSource().hasEquipment(equipment);
+        }
+        return record -> (record.getEquipmentMask() & bit) != 0;
+    }
+
+    private CompiledConstraint symbolEquals(int slot, String required) {
+        int code = locationSymbols.codeOf(required);
+        return record -> record.getSymbol(slot) == code;
+    }
+
+    private static CompiledConstraint compileNumericComparison(int slot, String operator, Double threshold) {
+        if (threshold == null) {
+            return CompiledConstraint.NEVER;
+        }
+        double required = threshold;
+        switch (operator) {
+            case "greater_than":
+            case "gt":
+                return record -> record.hasNumeric(slot) && record.getNumeric(slot) > required;
+            case "greater_equal":
+            case "gte":
+                return record -> record.hasNumeric(slot) && record.getNumeric(slot) >= required;
+            case "less_than":
+            case "lt":
+                return record -> record.hasNumeric(slot) && record.getNumeric(slot) < required;
+            case "less_equal":
+            case "lte":
+                return record -> record.hasNumeric(slot) && record.getNumeric(slot) <= required;
+            case "equals":
+            case "eq":
+                return record -> record.hasNumeric(slot) && Double.compare(record.getNumeric(slot), required) == 0;
+            default:
+                return CompiledConstraint.NEVER;
+        }
+    }
+
+    private static CompiledConstraint compileTemperature(LocationConstraint constraint) {
+        Double target = constraint.getValueAsDouble();
+        if (target == null) {
+            return CompiledConstraint.NEVER;
+        }
+        double required = target;
+        Object tolerance = constraint.getParameters().getOrDefault("tolerance", 0.0);
+        if (!(tolerance instanceof Number)) {
+            logger.warn("Temperature tolerance {} is not a number, constraint never matches: {}", tolerance, constraint);
+            return CompiledConstraint.NEVER;
+        }
+        double allowed = ((Number) tolerance).doubleValue();
+        return record -> record.hasNumeric(LocationRecord.TEMPERATURE)
+            && Math.abs(record.getNumeric(LocationRecord.TEMPERATURE) - required) <= allowed;
+    }
+
+    private static CompiledConstraint compileInventory(String operator, Integer threshold) {
+        if (threshold == null) {
+            return CompiledConstraint.NEVER;
+        }
+        int required = threshold;
+        int slot = LocationRecord.AVAILABLE_INVENTORY;
+        switch (operator) {
+            case "greater_than":
+            case "gt":
+                return record -> record.hasInteger(slot) && record.getInteger(slot) > required;
+            case "greater_equal":
+            case "gte":
+                return record -> record.hasInteger(slot) && record.getInteger(slot) >= required;
+            default:
+                return CompiledConstraint.NEVER;
+        }
+    }
+
+    public LocationSymbols getLocationSymbols() {
+        return locationSymbols;
+    }
+}
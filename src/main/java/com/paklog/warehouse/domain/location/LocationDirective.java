@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 public class LocationDirective extends AggregateRoot {
     private final LocationDirectiveId id;
@@ -139,7 +140,14 @@ public class LocationDirective extends AggregateRoot {
         return selector.selectOptimalLocation(query, this);
     }
 
-    private LocationSelector createSelector() {
+    BinLocation selectLocation(LocationQuery query, LocationSelector selector) {
+        if (!isApplicableFor(query.getWorkType())) {
+            return null;
+        }
+        return selector.selectOptimalLocation(query, this);
+    }
+
+    LocationSelector createSelector() {
         switch (strategy) {
             case FIXED:
                 return new FixedLocationSelector();
@@ -187,20 +195,41 @@ public class LocationDirective extends AggregateRoot {
         return LocationDirectiveResult.suitable(calculateScore(context));
     }
 
-    private double calculateScore(LocationContext context) {
+    LocationDirectiveResult evaluateForLocation(LocationQuery query, BinLocation location,
+                                                Predicate<LocationContext> constraintPredicate) {
+        if (!isApplicableFor(query.getWorkType())) {
+            return LocationDirectiveResult.notApplicable("Work type not supported");
+        }
+
+        LocationContext context = query.createContextForLocation(location);
+
+        if (!constraintPredicate.test(context)) {
+            List<String> violations = new ArrayList<>();
+            for (LocationConstraint constraint : constraints) {
+                if (!constraint.evaluate(context)) {
+                    violations.add(constraint.toString());
+                }
+            }
+            return LocationDirectiveResult.constraintViolation(violations);
+        }
+
+        return LocationDirectiveResult.suitable(calculateScore(context));
+    }
+
+    double calculateScore(LocationContext context) {
         // Base score from priority (higher priority = higher base score)
         double score = priority * 100.0;
 
         // Add strategy-specific scoring
         switch (strategy) {
             case NEAREST_EMPTY:
-                score += calculateDistanceScore(context);
+                score += calculateDistanceScore(context.getLocation());
                 break;
             case CAPACITY_OPTIMIZED:
-                score += calculateCapacityScore(context);
+                score += calculateCapacityScore(context.getAvailableCapacity());
                 break;
             case FAST_MOVING:
-                score += calculateVelocityScore(context);
+                score += calculateVelocityScore(context.getLocationZone());
                 break;
             default:
                 // Use default scoring
@@ -210,38 +239,51 @@ public class LocationDirective extends AggregateRoot {
         return Math.max(0, score);
     }
 
-    private double calculateDistanceScore(LocationContext context) {
+    /**
+     * Same score as {@link #calculateScore(LocationContext)}, read from a record loaded
+     * for the location instead of a context.
+     */
+    double calculateScore(BinLocation location, LocationRecord record, LocationSymbols locationSymbols) {
+        double score = priority * 100.0;
+
+        switch (strategy) {
+            case NEAREST_EMPTY:
+                score += calculateDistanceScore(location);
+                break;
+            case CAPACITY_OPTIMIZED:
+                score += record.hasNumeric(LocationRecord.AVAILABLE_CAPACITY)
+                    ? calculateCapacityScore(record.getNumeric(LocationRecord.AVAILABLE_CAPACITY))
+                    : 0;
+                break;
+            case FAST_MOVING:
+                score += calculateVelocityScore(locationSymbols.nameOf(record.getSymbol(LocationRecord.ZONE)));
+                break;
+            default:
+                break;
+        }
+
+        return Math.max(0, score);
+    }
+
+    private double calculateDistanceScore(BinLocation location) {
         // Simple distance calculation - in real implementation would use actual coordinates
-        BinLocation location = context.getLocation();
-        int aisleDistance = parseAisleDistance(location.getAisle());
-        int rackDistance = Math.abs(Integer.parseInt(location.getRack()) - 1);
-        int levelDistance = Math.abs(Integer.parseInt(location.getLevel()) - 1);
+        int aisleDistance = Math.abs(location.aisleCoordinate() - 1);
+        int rackDistance = Math.abs(location.rackCoordinate() - 1);
+        int levelDistance = Math.abs(location.levelCoordinate() - 1);
         int distance = aisleDistance + rackDistance + levelDistance;
         
         return Math.max(0, 100 - distance * 10); // Closer locations get higher scores
     }
-    
-    private int parseAisleDistance(String aisle) {
-        try {
-            // Try parsing as number first
-            return Math.abs(Integer.parseInt(aisle) - 1);
-        } catch (NumberFormatException e) {
-            // Handle alphabetic aisles (A, B, C...)
-            if (aisle.length() == 1 && Character.isLetter(aisle.charAt(0))) {
-                return Math.abs(Character.toUpperCase(aisle.charAt(0)) - 'A');
-            }
-            // Default fallback
-            return 0;
-        }
+
+    private double calculateCapacityScore(Double capacity) {
+        return capacity != null ? calculateCapacityScore(capacity.doubleValue()) : 0;
     }
 
-    private double calculateCapacityScore(LocationContext context) {
-        Double capacity = context.getAvailableCapacity();
-        return capacity != null ? Math.min(100, capacity * 10) : 0;
+    private double calculateCapacityScore(double capacity) {
+        return Math.min(100, capacity * 10);
     }
 
-    private double calculateVelocityScore(LocationContext context) {
-        String zone = context.getLocationZone();
+    private double calculateVelocityScore(String zone) {
         // Fast-moving zones get higher scores
         if ("FAST_PICK".equals(zone)) {
             return 50.0;
@@ -0,0 +1,122 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.work.WorkType;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, priority-ordered set of compiled directives for one work type.
+ */
+public class LocationDirectivePlan {
+    private final WorkType workType;
+    private final List<CompiledLocationDirective> compiledDirectives;
+    private final List<LocationDirective> directives;
+    private final Set<DirectiveVersion> versions;
+    private final Instant builtAt;
+
+    private LocationDirectivePlan(WorkType workType, List<CompiledLocationDirective> compiledDirectives,
+                                  Instant builtAt) {
+        this.workType = Objects.requireNonNull(workType, "Work type cannot be null");
+        this.compiledDirectives = List.copyOf(compiledDirectives);
+        this.directives = this.compiledDirectives.stream()
+            .map(CompiledLocationDirective::getDirective)
+            .toList();
+        this.versions = versionsOf(this.directives);
+        this.builtAt = Objects.requireNonNull(builtAt, "Built at cannot be null");
+    }
+
+    public static LocationDirectivePlan compile(WorkType workType, List<LocationDirective> directives,
+                                                Instant builtAt) {
+        return compile(workType, directives, builtAt, new LocationConstraintCompiler());
+    }
+
+    public static LocationDirectivePlan compile(WorkType workType, List<LocationDirective> directives,
+                                                Instant builtAt, LocationConstraintCompiler constraintCompiler) {
+        List<CompiledLocationDirective> compiled = directives.stream()
+            .sorted(Comparator.comparingInt(LocationDirective::getPriority))
+            .map(directive -> new CompiledLocationDirective(directive, constraintCompiler))
+            .toList();
+        return new LocationDirectivePlan(workType, compiled, builtAt);
+    }
+
+    /**
+     * Whether the plan was compiled from exactly these directive versions, in any order.
+     * False whenever a directive was added, removed or saved with a new version.
+     */
+    public boolean isCompiledFrom(List<LocationDirective> directives) {
+        return directives.size() == this.directives.size() && versions.equals(versionsOf(directives));
+    }
+
+    private static Set<DirectiveVersion> versionsOf(List<LocationDirective> directives) {
+        Set<DirectiveVersion> versions = new HashSet<>(directives.size() * 2);
+        for (LocationDirective directive : directives) {
+            versions.add(new DirectiveVersion(directive));
+        }
+        return versions;
+    }
+
+    public WorkType getWorkType() {
+        return workType;
+    }
+
+    public List<CompiledLocationDirective> getCompiledDirectives() {
+        return compiledDirectives;
+    }
+
+    public List<LocationDirective> getDirectives() {
+        return directives;
+    }
+
+    public boolean isEmpty() {
+        return compiledDirectives.isEmpty();
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    // Compared field by field, so two different directive sets can never be mistaken for each other
+    private static final class DirectiveVersion {
+        private final LocationDirectiveId id;
+        private final int version;
+        private final int priority;
+        private final Instant lastModifiedAt;
+
+        DirectiveVersion(LocationDirective directive) {
+            this.id = directive.getId();
+            this.version = directive.getVersion();
+            this.priority = directive.getPriority();
+            this.lastModifiedAt = directive.getLastModifiedAt();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DirectiveVersion)) return false;
+            DirectiveVersion that = (DirectiveVersion) o;
+            return version == that.version &&
+                   priority == that.priority &&
+                   Objects.equals(id, that.id) &&
+                   Objects.equals(lastModifiedAt, that.lastModifiedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, version, priority, lastModifiedAt);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LocationDirectivePlan{" +
+                "workType=" + workType +
+                ", directives=" + compiledDirectives.size() +
+                ", builtAt=" + builtAt +
+                '}';
+    }
+}
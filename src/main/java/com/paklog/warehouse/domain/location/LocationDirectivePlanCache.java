@@ -0,0 +1,173 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.work.WorkType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches one compiled {@link LocationDirectivePlan} per work type. Plans are dropped on
+ * explicit invalidation (directive saves) and revalidated against the repository once
+ * their time-to-live elapses, so version changes made by other instances are picked up.
+ */
+public class LocationDirectivePlanCache {
+    private static final Logger logger = LoggerFactory.getLogger(LocationDirectivePlanCache.class);
+
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    private final LocationDirectiveRepository locationDirectiveRepository;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final ConcurrentMap<WorkType, CachedPlan> plans = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public LocationDirectivePlanCache(LocationDirectiveRepository locationDirectiveRepository) {
+        this(locationDirectiveRepository, DEFAULT_TIME_TO_LIVE, Clock.systemUTC());
+    }
+
+    public LocationDirectivePlanCache(LocationDirectiveRepository locationDirectiveRepository,
+                                      Duration timeToLive, Clock clock) {
+        this.locationDirectiveRepository = Objects.requireNonNull(locationDirectiveRepository,
+            "LocationDirectiveRepository cannot be null");
+        this.timeToLive = Objects.requireNonNull(timeToLive, "Time to live cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+
+        if (timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+    }
+
+    public LocationDirectivePlan getPlan(WorkType workType) {
+        Objects.requireNonNull(workType, "Work type cannot be null");
+
+        Instant now = clock.instant();
+        CachedPlan cached = plans.get(workType);
+        if (cached != null && !cached.isExpired(now)) {
+            hits.increment();
+            return cached.plan;
+        }
+
+        misses.increment();
+        return plans.compute(workType, (type, current) -> {
+            // Another caller may have refreshed the entry while we waited for the bin lock
+            if (current != null && current != cached && !current.isExpired(now)) {
+                return current;
+            }
+            return load(type, current, now);
+        }).plan;
+    }
+
+    private CachedPlan load(WorkType workType, CachedPlan current, Instant now) {
+        List<LocationDirective> directives = locationDirectiveRepository.findByWorkTypeAndActive(workType, true);
+        Instant expiresAt = now.plus(timeToLive);
+
+        if (current != null && current.plan.isCompiledFrom(directives)) {
+            logger.debug("Location directive plan for {} unchanged, extending", workType);
+            return new CachedPlan(current.plan, expiresAt);
+        }
+
+        rebuilds.increment();
+        LocationDirectivePlan plan = LocationDirectivePlan.compile(workType, directives, now);
+        logger.debug("Compiled location directive plan: {}", plan);
+        return new CachedPlan(plan, expiresAt);
+    }
+
+    public void invalidate(WorkType workType) {
+        if (plans.remove(workType) != null) {
+            invalidations.increment();
+            logger.debug("Invalidated location directive plan for {}", workType);
+        }
+    }
+
+    public void invalidateAll() {
+        int size = plans.size();
+        plans.clear();
+        invalidations.add(size);
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), rebuilds.sum(), invalidations.sum(), plans.size());
+    }
+
+    private static class CachedPlan {
+        final LocationDirectivePlan plan;
+        final Instant expiresAt;
+
+        CachedPlan(LocationDirectivePlan plan, Instant expiresAt) {
+            this.plan = plan;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+
+    public static class CacheStatistics {
+        private final long hits;
+        private final long misses;
+        private final long rebuilds;
+        private final long invalidations;
+        private final int cachedPlans;
+
+        public CacheStatistics(long hits, long misses, long rebuilds, long invalidations, int cachedPlans) {
+            this.hits = hits;
+            this.misses = misses;
+            this.rebuilds = rebuilds;
+            this.invalidations = invalidations;
+            this.cachedPlans = cachedPlans;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getRebuilds() {
+            return rebuilds;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getCachedPlans() {
+            return cachedPlans;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStatistics{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", rebuilds=" + rebuilds +
+                    ", invalidations=" + invalidations +
+                    ", cachedPlans=" + cachedPlans +
+                    '}';
+        }
+    }
+}
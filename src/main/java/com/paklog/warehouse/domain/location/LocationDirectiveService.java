@@ -1,12 +1,23 @@
 package com.paklog.warehouse.domain.location;
 
+import com.paklog.warehouse.domain.layout.BinOccupancyLedger;
+import com.paklog.warehouse.domain.layout.BinReservation;
+import com.paklog.warehouse.domain.layout.BinSpatialIndex;
+import com.paklog.warehouse.domain.layout.LayoutCandidates;
+import com.paklog.warehouse.domain.layout.LayoutCriteria;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
 import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.work.WorkId;
 import com.paklog.warehouse.domain.work.WorkType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -14,44 +25,272 @@ public class LocationDirectiveService {
     private static final Logger logger = LoggerFactory.getLogger(LocationDirectiveService.class);
     
     private final LocationDirectiveRepository locationDirectiveRepository;
+    private final LocationDirectivePlanCache planCache;
+    private final WarehouseLayoutService warehouseLayoutService;
+    private final LocationScoringEngine scoringEngine;
+    private final BinOccupancyLedger occupancyLedger;
 
     public LocationDirectiveService(LocationDirectiveRepository locationDirectiveRepository) {
+        this(locationDirectiveRepository, locationDirectiveRepository != null
+            ? new LocationDirectivePlanCache(locationDirectiveRepository) : null);
+    }
+
+    public LocationDirectiveService(LocationDirectiveRepository locationDirectiveRepository,
+                                    LocationDirectivePlanCache planCache) {
+        this(locationDirectiveRepository, planCache, null);
+    }
+
+    public LocationDirectiveService(LocationDirectiveRepository locationDirectiveRepository,
+                                    LocationDirectivePlanCache planCache,
+                                    WarehouseLayoutService warehouseLayoutService) {
+        this(locationDirectiveRepository, planCache, warehouseLayoutService, new LocationScoringEngine());
+    }
+
+    public LocationDirectiveService(LocationDirectiveRepository locationDirectiveRepository,
+                                    LocationDirectivePlanCache planCache,
+                                    WarehouseLayoutService warehouseLayoutService,
+                                    LocationScoringEngine scoringEngine) {
+        this(locationDirectiveRepository, planCache, warehouseLayoutService, scoringEngine, null);
+    }
+
+    public LocationDirectiveService(LocationDirectiveRepository locationDirectiveRepository,
+                                    LocationDirectivePlanCache planCache,
+                                    WarehouseLayoutService warehouseLayoutService,
+                                    LocationScoringEngine scoringEngine,
+                                    BinOccupancyLedger occupancyLedger) {
         this.locationDirectiveRepository = Objects.requireNonNull(locationDirectiveRepository, 
             "LocationDirectiveRepository cannot be null");
+        this.planCache = Objects.requireNonNull(planCache, "LocationDirectivePlanCache cannot be null");
+        this.warehouseLayoutService = warehouseLayoutService; // Optional: falls back to synthetic candidates
+        this.scoringEngine = Objects.requireNonNull(scoringEngine, "LocationScoringEngine cannot be null");
+        this.occupancyLedger = occupancyLedger; // Optional: putaway selections are not reserved without it
     }
 
+    /**
+     * Selects a location without handing back its reservation: a putaway's capacity stays
+     * reserved until the stock arrives or the reservation TTL passes. Callers creating
+     * work at the location use {@link #reserveOptimalLocation} instead.
+     */
     public BinLocation selectOptimalLocation(LocationQuery query) {
+        return reserveOptimalLocation(query).map(ReservedLocation::getLocation).orElse(null);
+    }
+
+    /**
+     * Selects a location and, for putaways when an occupancy ledger is configured,
+     * reserves the query's capacity in it. The caller confirms the reservation once work
+     * is created at the location, or releases it if that fails.
+     */
+    public Optional<ReservedLocation> reserveOptimalLocation(LocationQuery query) {
         logger.info("Selecting optimal location for query: {}", query);
 
-        List<LocationDirective> applicableDirectives = getApplicableDirectives(query.getWorkType());
+        LocationDirectivePlan plan = planCache.getPlan(query.getWorkType());
+        query = attachLayout(query, true);
         
-        if (applicableDirectives.isEmpty()) {
+        if (plan.isEmpty()) {
             logger.warn("No applicable location directives found for work type: {}", query.getWorkType());
-            return null;
+            return Optional.empty();
         }
 
-        for (LocationDirective directive : applicableDirectives) {
+        boolean reserve = reservesCapacity(query);
+        boolean conflicted = false;
+        for (CompiledLocationDirective compiled : plan.getCompiledDirectives()) {
+            LocationDirective directive = compiled.getDirective();
             try {
-                BinLocation location = directive.selectLocation(query);
-                if (location != null) {
+                BinLocation location = compiled.selectLocation(query);
+                if (location == null) {
+                    continue;
+                }
+                if (!reserve) {
+                    logger.info("Selected location {} using directive: {}", location, directive.getName());
+                    return Optional.of(new ReservedLocation(location, null));
+                }
+                Optional<BinReservation> reservation = tryReserve(query, location);
+                if (reservation.isPresent()) {
                     logger.info("Selected location {} using directive: {}", location, directive.getName());
-                    return location;
+                    return Optional.of(new ReservedLocation(location, reservation.get()));
                 }
+                // Another putaway holds the bin's remaining capacity
+                conflicted = true;
             } catch (Exception e) {
                 logger.error("Error selecting location with directive {}: {}", directive.getName(), e.getMessage());
             }
         }
 
+        if (conflicted) {
+            for (BinLocation location : rankCandidates(query, plan)) {
+                Optional<BinReservation> reservation = tryReserve(query, location);
+                if (reservation.isPresent()) {
+                    logger.info("Selected location {} from ranked candidates after reservation conflict", location);
+                    return Optional.of(new ReservedLocation(location, reservation.get()));
+                }
+            }
+        }
+
         logger.warn("No suitable location found for query: {}", query);
+        return Optional.empty();
+    }
+
+    /**
+     * Selects locations for several queries at once, e.g. the lines of one receipt.
+     * Directive plans and layout candidates are loaded once per batch, and each
+     * selection reserves capacity in a batch ledger so later lines only see bins with
+     * room left; putaways are also reserved in the occupancy ledger when one is
+     * configured. When a directive proposes a bin that is already full, the next
+     * directive is tried and finally the best-scoring bin that still has room. The
+     * caller confirms or releases the selection's reservations.
+     */
+    public BatchLocationSelection selectOptimalLocations(List<LocationQuery> queries) {
+        Objects.requireNonNull(queries, "Queries cannot be null");
+        logger.info("Selecting optimal locations for batch of {} queries", queries.size());
+        long start = System.nanoTime();
+
+        Map<WorkType, LocationDirectivePlan> plans = new HashMap<>();
+        Map<LayoutCriteria, LayoutCandidates> layoutCandidates = new HashMap<>();
+        Map<RankingKey, List<BinLocation>> fallbackRankings = new HashMap<>();
+        Optional<BinSpatialIndex> spatialIndex = warehouseLayoutService != null
+            ? warehouseLayoutService.getLoadedSpatialIndex()
+            : Optional.empty();
+        BatchCapacityLedger ledger = new BatchCapacityLedger();
+
+        List<ReservedLocation> locations = new ArrayList<>(queries.size());
+        for (LocationQuery query : queries) {
+            Objects.requireNonNull(query, "Query cannot be null");
+            LocationDirectivePlan plan = plans.computeIfAbsent(query.getWorkType(), planCache::getPlan);
+            LocationQuery layoutQuery = attachLayout(query, true, spatialIndex, layoutCandidates);
+            locations.add(selectWithReservation(layoutQuery, plan, ledger, fallbackRankings));
+        }
+
+        BatchLocationSelection selection = new BatchLocationSelection(queries, locations);
+        logger.info("Selected {} of {} locations in batch in {} ms", selection.getAssignedCount(), queries.size(),
+                   (System.nanoTime() - start) / 1_000_000);
+        return selection;
+    }
+
+    private ReservedLocation selectWithReservation(LocationQuery query, LocationDirectivePlan plan,
+                                              BatchCapacityLedger ledger,
+                                              Map<RankingKey, List<BinLocation>> fallbackRankings) {
+        if (plan.isEmpty()) {
+            return null;
+        }
+        double requiredCapacity = query.getRequiredCapacity();
+        boolean conflicted = false;
+
+        for (CompiledLocationDirective compiled : plan.getCompiledDirectives()) {
+            LocationDirective directive = compiled.getDirective();
+            // Bins holding an earlier line of the batch are no longer empty
+            boolean excludeReserved = directive.getStrategy() == LocationStrategy.NEAREST_EMPTY;
+            LocationQuery available = availableCandidates(query, ledger, requiredCapacity, excludeReserved);
+            if (available == null) {
+                // Running out of empty bins is not a conflict the scoring fallback should resolve
+                conflicted |= !excludeReserved;
+                continue;
+            }
+            try {
+                BinLocation location = compiled.selectLocation(available);
+                if (location == null) {
+                    continue;
+                }
+                ReservedLocation reserved = reserve(query, location, requiredCapacity, ledger);
+                if (reserved != null) {
+                    return reserved;
+                }
+                conflicted = true;
+            } catch (Exception e) {
+                logger.error("Error selecting location with directive {}: {}", directive.getName(), e.getMessage());
+            }
+        }
+
+        if (!conflicted) {
+            return null;
+        }
+        // Selectors that ignore candidates keep proposing filled bins; fall back to scoring
+        List<BinLocation> ranking = fallbackRankings.computeIfAbsent(new RankingKey(query), key -> rankCandidates(query, plan));
+        for (BinLocation location : ranking) {
+            ReservedLocation reserved = reserve(query, location, requiredCapacity, ledger);
+            if (reserved != null) {
+                return reserved;
+            }
+        }
         return null;
     }
 
+    // Null when either ledger has no room left in the bin
+    private ReservedLocation reserve(LocationQuery query, BinLocation location, double requiredCapacity,
+                                     BatchCapacityLedger ledger) {
+        WarehouseLayoutIndex layout = query.getLayoutIndex();
+        if (ledger.remainingCapacity(location, layout) < requiredCapacity) {
+            return null;
+        }
+        BinReservation reservation = null;
+        if (reservesCapacity(query)) {
+            reservation = tryReserve(query, location).orElse(null);
+            if (reservation == null) {
+                return null;
+            }
+        }
+        if (!ledger.tryReserve(location, requiredCapacity, layout)) {
+            releaseReservation(reservation);
+            return null;
+        }
+        return new ReservedLocation(location, reservation);
+    }
+
+    private boolean reservesCapacity(LocationQuery query) {
+        return occupancyLedger != null && query.isPutQuery();
+    }
+
+    private Optional<BinReservation> tryReserve(LocationQuery query, BinLocation location) {
+        return occupancyLedger.tryReserve(location, query.getRequiredCapacity());
+    }
+
+    /**
+     * Holds a selection's reservation for the work created at its location until the
+     * stock arrives or the work is completed or cancelled.
+     */
+    public boolean confirmReservation(BinReservation reservation, WorkId workId) {
+        return reservation != null && occupancyLedger != null && occupancyLedger.confirm(reservation, workId);
+    }
+
+    /**
+     * Returns a selection's reserved capacity, e.g. when creating work at the location failed.
+     */
+    public boolean releaseReservation(BinReservation reservation) {
+        return reservation != null && occupancyLedger != null && occupancyLedger.release(reservation);
+    }
+
+    /**
+     * The query narrowed to candidates with room for it, or null when earlier lines have
+     * used up every candidate (selectors would otherwise invent synthetic locations).
+     */
+    private LocationQuery availableCandidates(LocationQuery query, BatchCapacityLedger ledger,
+                                              double requiredCapacity, boolean excludeReserved) {
+        if (query.getLayoutCandidates() != null) {
+            LayoutCandidates available = ledger.available(query.getLayoutCandidates(), requiredCapacity,
+                                                          excludeReserved);
+            return available.isEmpty() ? null : query.withLayout(query.getLayoutIndex(), available);
+        }
+        if (query.hasCandidateLocations()) {
+            List<BinLocation> available = ledger.available(query.getCandidateLocations(), requiredCapacity,
+                                                           excludeReserved, query.getLayoutIndex());
+            return available.isEmpty() ? null : query.withCandidateLocations(available);
+        }
+        return query;
+    }
+
+    private List<BinLocation> rankCandidates(LocationQuery query, LocationDirectivePlan plan) {
+        List<BinLocation> candidates = query.getLayoutCandidates() != null || query.hasCandidateLocations()
+            ? query.getCandidateLocations()
+            : generateCandidateLocations(query);
+        return scoringEngine.findTopLocations(query, plan, candidates, candidates.size());
+    }
+
     public LocationEvaluationResult evaluateLocation(LocationQuery query, BinLocation location) {
         logger.debug("Evaluating location {} for query: {}", location, query);
+        query = attachLayout(query, false);
 
-        List<LocationDirective> applicableDirectives = getApplicableDirectives(query.getWorkType());
+        LocationDirectivePlan plan = planCache.getPlan(query.getWorkType());
         
-        if (applicableDirectives.isEmpty()) {
+        if (plan.isEmpty()) {
             return LocationEvaluationResult.noDirectivesAvailable();
         }
 
@@ -59,8 +298,8 @@ public class LocationDirectiveService {
         int applicableDirectiveCount = 0;
         List<String> violations = new java.util.ArrayList<>();
 
-        for (LocationDirective directive : applicableDirectives) {
-            LocationDirectiveResult result = directive.evaluateForLocation(query, location);
+        for (CompiledLocationDirective compiled : plan.getCompiledDirectives()) {
+            LocationDirectiveResult result = compiled.evaluateForLocation(query, location);
             
             if (result.isSuitable()) {
                 totalScore += result.getScore();
@@ -81,20 +320,16 @@ public class LocationDirectiveService {
     public List<BinLocation> findBestLocations(LocationQuery query, int maxResults) {
         logger.info("Finding best {} locations for query: {}", maxResults, query);
 
-        List<BinLocation> candidateLocations = query.getCandidateLocations();
+        LocationQuery layoutQuery = attachLayout(query, true);
+        List<BinLocation> candidateLocations = layoutQuery.getCandidateLocations();
         
         if (candidateLocations == null || candidateLocations.isEmpty()) {
             // Generate candidate locations if none provided
-            candidateLocations = generateCandidateLocations(query);
+            candidateLocations = generateCandidateLocations(layoutQuery);
         }
 
-        return candidateLocations.stream()
-            .map(location -> new LocationScore(location, evaluateLocation(query, location)))
-            .filter(score -> score.evaluation.isSuitable())
-            .sorted(Comparator.comparingDouble(score -> -score.evaluation.getScore())) // Descending order
-            .limit(maxResults)
-            .map(score -> score.location)
-            .toList();
+        return scoringEngine.findTopLocations(layoutQuery, planCache.getPlan(layoutQuery.getWorkType()),
+                                              candidateLocations, maxResults);
     }
 
     public boolean canSatisfyQuery(LocationQuery query) {
@@ -104,10 +339,23 @@ public class LocationDirectiveService {
     }
 
     public List<LocationDirective> getApplicableDirectives(WorkType workType) {
-        return locationDirectiveRepository.findByWorkTypeAndActive(workType, true)
-                .stream()
-                .sorted(Comparator.comparingInt(LocationDirective::getPriority))
-                .toList();
+        return planCache.getPlan(workType).getDirectives();
+    }
+
+    public LocationDirectivePlan getDirectivePlan(WorkType workType) {
+        return planCache.getPlan(workType);
+    }
+
+    public void saveDirective(LocationDirective directive) {
+        Objects.requireNonNull(directive, "Directive cannot be null");
+        locationDirectiveRepository.save(directive);
+        planCache.invalidate(directive.getWorkType());
+        logger.info("Saved location directive {} and invalidated plan for {}", 
+                   directive.getName(), directive.getWorkType());
+    }
+
+    public LocationDirectivePlanCache.CacheStatistics getPlanCacheStatistics() {
+        return planCache.getStatistics();
     }
 
     public LocationDirectiveValidationResult validateDirective(LocationDirective directive) {
@@ -187,9 +435,44 @@ public class LocationDirectiveService {
         }
     }
 
+    /**
+     * Binds the query to the loaded layout so candidates and location attributes come
+     * from the bin master, and to the occupancy ledger when one is configured. Without a
+     * loaded layout only the ledger is attached.
+     */
+    LocationQuery attachLayout(LocationQuery query, boolean includeCandidates) {
+        if (query.hasLayout() || warehouseLayoutService == null) {
+            return attachOccupancy(query);
+        }
+        return attachLayout(query, includeCandidates, warehouseLayoutService.getLoadedSpatialIndex(), null);
+    }
+
+    private LocationQuery attachLayout(LocationQuery query, boolean includeCandidates,
+                                       Optional<BinSpatialIndex> spatialIndex,
+                                       Map<LayoutCriteria, LayoutCandidates> candidateCache) {
+        query = attachOccupancy(query);
+        if (query.hasLayout() || spatialIndex.isEmpty()) {
+            return query;
+        }
+        WarehouseLayoutIndex index = spatialIndex.get().getLayout();
+        LayoutCandidates candidates = null;
+        if (includeCandidates && !query.hasCandidateLocations()) {
+            LayoutCriteria criteria = query.getLayoutCriteria();
+            candidates = candidateCache != null
+                ? candidateCache.computeIfAbsent(criteria, index::query)
+                : index.query(criteria);
+        }
+        return query.withSpatialIndex(spatialIndex.get()).withLayout(index, candidates);
+    }
+
+    private LocationQuery attachOccupancy(LocationQuery query) {
+        return occupancyLedger == null || query.hasOccupancyLedger()
+            ? query
+            : query.withOccupancyLedger(occupancyLedger);
+    }
+
     private List<BinLocation> generateCandidateLocations(LocationQuery query) {
-        // Generate a reasonable set of candidate locations
-        // In real implementation, this would query the warehouse layout system
+        // Synthetic grid used when no warehouse layout has been loaded
         
         List<BinLocation> candidates = new java.util.ArrayList<>();
         
@@ -200,7 +483,7 @@ public class LocationDirectiveService {
                     String rackStr = String.format("%02d", rack);
                     String levelStr = String.valueOf(level);
                     
-                    candidates.add(new BinLocation(aisleStr, rackStr, levelStr));
+                    candidates.add(BinLocation.of(aisleStr, rackStr, levelStr));
                 }
             }
         }
@@ -208,13 +491,125 @@ public class LocationDirectiveService {
         return candidates.stream().limit(50).toList(); // Limit to reasonable number
     }
 
-    private static class LocationScore {
-        final BinLocation location;
-        final LocationEvaluationResult evaluation;
+    /**
+     * Queries that produce the same candidate ranking: scores depend on the work type,
+     * the query parameters and the candidate set, not on the item or quantity.
+     */
+    private static final class RankingKey {
+        private final WorkType workType;
+        private final Map<String, Object> queryParameters;
+        private final Object candidates;
+
+        RankingKey(LocationQuery query) {
+            this.workType = query.getWorkType();
+            this.queryParameters = query.getQueryParameters();
+            this.candidates = query.getLayoutCandidates() != null
+                ? query.getLayoutCandidates()
+                : query.getCandidateLocations();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RankingKey that = (RankingKey) o;
+            return workType == that.workType &&
+                   queryParameters.equals(that.queryParameters) &&
+                   Objects.equals(candidates, that.candidates);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(workType, queryParameters, candidates);
+        }
+    }
+
+    /**
+     * A selected location and, for putaways checked against the occupancy ledger, the
+     * capacity reserved there.
+     */
+    public static class ReservedLocation {
+        private final BinLocation location;
+        private final BinReservation reservation;
+
+        ReservedLocation(BinLocation location, BinReservation reservation) {
+            this.location = Objects.requireNonNull(location, "Location cannot be null");
+            this.reservation = reservation;
+        }
+
+        public BinLocation getLocation() {
+            return location;
+        }
+
+        public Optional<BinReservation> getReservation() {
+            return Optional.ofNullable(reservation);
+        }
+    }
+
+    public static class BatchLocationSelection {
+        private final List<LocationQuery> queries;
+        private final List<ReservedLocation> reservedLocations;
+        private final List<BinLocation> locations;
+
+        BatchLocationSelection(List<LocationQuery> queries, List<ReservedLocation> reservedLocations) {
+            this.queries = List.copyOf(queries);
+            this.reservedLocations = Collections.unmodifiableList(new ArrayList<>(reservedLocations));
+            List<BinLocation> locations = new ArrayList<>(reservedLocations.size());
+            for (ReservedLocation reserved : reservedLocations) {
+                locations.add(reserved != null ? reserved.getLocation() : null);
+            }
+            this.locations = Collections.unmodifiableList(locations);
+        }
+
+        /**
+         * Selected location per query, in query order; null where no location was found.
+         */
+        public List<BinLocation> getLocations() {
+            return locations;
+        }
+
+        public BinLocation getLocation(int index) {
+            return locations.get(index);
+        }
+
+        /**
+         * Selected location and reservation for the query at {@code index}; null where no
+         * location was found.
+         */
+        public ReservedLocation getReservedLocation(int index) {
+            return reservedLocations.get(index);
+        }
+
+        public List<BinReservation> getReservations() {
+            List<BinReservation> reservations = new ArrayList<>();
+            for (ReservedLocation reserved : reservedLocations) {
+                if (reserved != null) {
+                    reserved.getReservation().ifPresent(reservations::add);
+                }
+            }
+            return reservations;
+        }
+
+        public int size() {
+            return locations.size();
+        }
+
+        public int getAssignedCount() {
+            return (int) locations.stream().filter(Objects::nonNull).count();
+        }
 
-        LocationScore(BinLocation location, LocationEvaluationResult evaluation) {
-            this.location = location;
-            this.evaluation = evaluation;
+        public boolean isFullyAssigned() {
+            return getAssignedCount() == locations.size();
+        }
+
+        public List<LocationQuery> getUnassignedQueries() {
+            List<LocationQuery> unassigned = new ArrayList<>();
+            for (int i = 0; i < locations.size(); i++) {
+                if (locations.get(i) == null) {
+                    unassigned.add(queries.get(i));
+                }
+            }
+            return unassigned;
         }
     }
 
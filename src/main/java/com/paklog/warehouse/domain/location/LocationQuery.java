@@ -1,5 +1,10 @@
 package com.paklog.warehouse.domain.location;
 
+import com.paklog.warehouse.domain.layout.BinOccupancyLedger;
+import com.paklog.warehouse.domain.layout.BinSpatialIndex;
+import com.paklog.warehouse.domain.layout.LayoutCandidates;
+import com.paklog.warehouse.domain.layout.LayoutCriteria;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
 import com.paklog.warehouse.domain.shared.BinLocation;
 import com.paklog.warehouse.domain.shared.SkuCode;
 import com.paklog.warehouse.domain.shared.Quantity;
@@ -19,6 +24,10 @@ public class LocationQuery {
     private final BinLocation referenceLocation;
     private final Map<String, Object> queryParameters;
     private final List<BinLocation> candidateLocations;
+    private final WarehouseLayoutIndex layoutIndex;
+    private final LayoutCandidates layoutCandidates;
+    private final BinSpatialIndex spatialIndex;
+    private final BinOccupancyLedger occupancyLedger;
 
     public LocationQuery(WorkType workType, SkuCode item, Quantity quantity) {
         this(workType, item, quantity, null, new HashMap<>(), null);
@@ -33,6 +42,61 @@ public class LocationQuery {
         this.referenceLocation = referenceLocation;
         this.queryParameters = new HashMap<>(Objects.requireNonNull(queryParameters, "Parameters cannot be null"));
         this.candidateLocations = candidateLocations != null ? List.copyOf(candidateLocations) : null;
+        this.layoutIndex = null;
+        this.layoutCandidates = null;
+        this.spatialIndex = null;
+        this.occupancyLedger = null;
+    }
+
+    private LocationQuery(LocationQuery source, WarehouseLayoutIndex layoutIndex,
+                          LayoutCandidates layoutCandidates, BinSpatialIndex spatialIndex,
+                          BinOccupancyLedger occupancyLedger) {
+        this.workType = source.workType;
+        this.item = source.item;
+        this.quantity = source.quantity;
+        this.referenceLocation = source.referenceLocation;
+        this.queryParameters = source.queryParameters;
+        this.candidateLocations = source.candidateLocations;
+        this.layoutIndex = layoutIndex;
+        this.layoutCandidates = layoutCandidates;
+        this.spatialIndex = spatialIndex;
+        this.occupancyLedger = occupancyLedger;
+    }
+
+    /**
+     * Attaches a layout, and optionally layout candidates. Explicit candidate locations
+     * passed to the constructor take precedence over layout candidates.
+     */
+    public LocationQuery withLayout(WarehouseLayoutIndex layoutIndex, LayoutCandidates layoutCandidates) {
+        Objects.requireNonNull(layoutIndex, "Layout index cannot be null");
+        boolean explicitCandidates = candidateLocations != null && !candidateLocations.isEmpty();
+        return new LocationQuery(this, layoutIndex, explicitCandidates ? null : layoutCandidates, spatialIndex,
+                                 occupancyLedger);
+    }
+
+    public LocationQuery withCandidateLocations(List<BinLocation> candidateLocations) {
+        return new LocationQuery(workType, item, quantity, referenceLocation, queryParameters, candidateLocations)
+            .withAttachments(layoutIndex, spatialIndex, occupancyLedger);
+    }
+
+    private LocationQuery withAttachments(WarehouseLayoutIndex layoutIndex, BinSpatialIndex spatialIndex,
+                                          BinOccupancyLedger occupancyLedger) {
+        return layoutIndex == null && spatialIndex == null && occupancyLedger == null
+            ? this
+            : new LocationQuery(this, layoutIndex, null, spatialIndex, occupancyLedger);
+    }
+
+    public LocationQuery withSpatialIndex(BinSpatialIndex spatialIndex) {
+        Objects.requireNonNull(spatialIndex, "Spatial index cannot be null");
+        return new LocationQuery(this, spatialIndex.getLayout(), layoutCandidates, spatialIndex, occupancyLedger);
+    }
+
+    /**
+     * Attaches the bin occupancy ledger selectors consult for bins outside the layout.
+     */
+    public LocationQuery withOccupancyLedger(BinOccupancyLedger occupancyLedger) {
+        Objects.requireNonNull(occupancyLedger, "Occupancy ledger cannot be null");
+        return new LocationQuery(this, layoutIndex, layoutCandidates, spatialIndex, occupancyLedger);
     }
 
     public WorkType getWorkType() {
@@ -56,9 +120,44 @@ public class LocationQuery {
     }
 
     public List<BinLocation> getCandidateLocations() {
+        if (layoutCandidates != null) {
+            return layoutCandidates.asLocations();
+        }
         return candidateLocations;
     }
 
+    /**
+     * Candidates drawn from the layout index, or null when the query carries an explicit
+     * candidate list or no layout.
+     */
+    public LayoutCandidates getLayoutCandidates() {
+        return layoutCandidates;
+    }
+
+    public BinSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    public boolean hasSpatialIndex() {
+        return spatialIndex != null;
+    }
+
+    public BinOccupancyLedger getOccupancyLedger() {
+        return occupancyLedger;
+    }
+
+    public boolean hasOccupancyLedger() {
+        return occupancyLedger != null;
+    }
+
+    public WarehouseLayoutIndex getLayoutIndex() {
+        return layoutIndex;
+    }
+
+    public boolean hasLayout() {
+        return layoutIndex != null;
+    }
+
     public Object getParameter(String key) {
         return queryParameters.get(key);
     }
@@ -116,6 +215,15 @@ public class LocationQuery {
         return getParameterAsDouble("minimum_capacity");
     }
 
+    /**
+     * Capacity a location must have left to take this query's quantity: the
+     * {@code required_capacity} parameter when given, otherwise the quantity itself.
+     */
+    public double getRequiredCapacity() {
+        Double required = getParameterAsDouble("required_capacity");
+        return required != null ? required : quantity.getValue();
+    }
+
     public String getAccessibilityLevel() {
         return getParameterAsString("accessibility_level");
     }
@@ -125,10 +233,40 @@ public class LocationQuery {
     }
 
     public boolean hasCandidateLocations() {
+        if (layoutCandidates != null) {
+            return !layoutCandidates.isEmpty();
+        }
         return candidateLocations != null && !candidateLocations.isEmpty();
     }
 
+    /**
+     * Layout filter implied by the query parameters, used to pre-select candidates
+     * from the {@link WarehouseLayoutIndex}.
+     */
+    public LayoutCriteria getLayoutCriteria() {
+        LayoutCriteria.Builder criteria = LayoutCriteria.builder();
+        String requiredZone = getRequiredZone();
+        if (requiredZone != null) {
+            criteria.withZones(requiredZone);
+        }
+        Double minimumCapacity = getMinimumCapacity();
+        if (minimumCapacity != null && !minimumCapacity.isNaN()) {
+            criteria.withMinimumCapacity(minimumCapacity);
+        }
+        Boolean hazmatRequired = getParameterAsBoolean("hazmat_required");
+        if (Boolean.TRUE.equals(hazmatRequired)) {
+            criteria.withHazmatCompatible(true);
+        }
+        return criteria.build();
+    }
+
     public LocationContext createContextForLocation(BinLocation location) {
+        if (layoutIndex != null) {
+            int ordinal = layoutIndex.ordinalOf(location);
+            if (ordinal != WarehouseLayoutIndex.NOT_FOUND) {
+                return createContextForLocation(location, layoutIndex.attributesOf(ordinal));
+            }
+        }
         return createContextForLocation(location, new HashMap<>());
     }
 
@@ -198,7 +336,8 @@ public class LocationQuery {
                 ", item=" + item +
                 ", quantity=" + quantity +
                 ", referenceLocation=" + referenceLocation +
-                ", candidateCount=" + (candidateLocations != null ? candidateLocations.size() : 0) +
+                ", candidateCount=" + (layoutCandidates != null ? layoutCandidates.size()
+                    : candidateLocations != null ? candidateLocations.size() : 0) +
                 '}';
     }
 }
\ No newline at end of file
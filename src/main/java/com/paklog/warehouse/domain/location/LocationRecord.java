@@ -0,0 +1,171 @@
+package com.paklog.warehouse.domain.location;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Mutable, reusable view of one candidate location laid out in primitive slots.
+ * Callers load a record per candidate and hand it to {@link CompiledConstraintChain};
+ * neither step allocates, so one instance can be reused across a whole candidate scan.
+ */
+public final class LocationRecord {
+    // Numeric slots
+    public static final int AVAILABLE_CAPACITY = 0;
+    public static final int TEMPERATURE = 1;
+    public static final int MAX_WEIGHT = 2;
+    public static final int MAX_HEIGHT = 3;
+    static final int NUMERIC_SLOTS = 4;
+
+    // Symbol slots
+    public static final int ZONE = 0;
+    public static final int ACCESSIBILITY = 1;
+    public static final int SAFETY_LEVEL = 2;
+    static final int SYMBOL_SLOTS = 3;
+
+    // Integer slots
+    public static final int AVAILABLE_INVENTORY = 0;
+    static final int INTEGER_SLOTS = 1;
+
+    public static final byte UNKNOWN = -1;
+    public static final byte FALSE = 0;
+    public static final byte TRUE = 1;
+
+    private final double[] numerics = new double[NUMERIC_SLOTS];
+    private final int[] integers = new int[INTEGER_SLOTS];
+    private final int[] symbols = new int[SYMBOL_SLOTS];
+    private int numericPresence;
+    private int integerPresence;
+    private byte hazmatCompatible = UNKNOWN;
+    private long equipmentMask;
+    private LocationContext source;
+
+    public LocationRecord clear() {
+        Arrays.fill(symbols, LocationSymbols.ABSENT);
+        numericPresence = 0;
+        integerPresence = 0;
+        hazmatCompatible = UNKNOWN;
+        equipmentMask = 0L;
+        source = null;
+        return this;
+    }
+
+    public LocationRecord copyFrom(LocationRecord other) {
+        System.arraycopy(other.numerics, 0, numerics, 0, NUMERIC_SLOTS);
+        System.arraycopy(other.integers, 0, integers, 0, INTEGER_SLOTS);
+        System.arraycopy(other.symbols, 0, symbols, 0, SYMBOL_SLOTS);
+        numericPresence = other.numericPresence;
+        integerPresence = other.integerPresence;
+        hazmatCompatible = other.hazmatCompatible;
+        equipmentMask = other.equipmentMask;
+        source = other.source;
+        return this;
+    }
+
+    /**
+     * Fills the record from a {@link LocationContext}, applying the same attribute
+     * coercion rules as the context's typed getters. The context is kept as the record's
+     * source for equipment types the symbol table has no bit left for.
+     */
+    public LocationRecord loadFrom(LocationContext context, LocationSymbols locationSymbols) {
+        Objects.requireNonNull(context, "Context cannot be null");
+        clear();
+        source = context;
+        setSymbol(ZONE, locationSymbols.codeOf(context.getLocationZone()));
+        setSymbol(ACCESSIBILITY, locationSymbols.codeOf(context.getAccessibilityLevel()));
+        setSymbol(SAFETY_LEVEL, locationSymbols.codeOf(context.getSafetyLevel()));
+        setNumeric(AVAILABLE_CAPACITY, context.getAvailableCapacity());
+        setNumeric(TEMPERATURE, context.getTemperature());
+        setNumeric(MAX_WEIGHT, context.getMaxWeight());
+        setNumeric(MAX_HEIGHT, context.getMaxHeight());
+
+        Integer inventory = context.getAvailableInventory();
+        if (inventory != null) {
+            setInteger(AVAILABLE_INVENTORY, inventory);
+        }
+
+        Boolean hazmat = context.isHazmatCompatible();
+        if (hazmat != null) {
+            setHazmatCompatible(hazmat);
+        }
+
+        for (String equipment : context.getAvailableEquipment()) {
+            addEquipment(locationSymbols.equipmentBit(equipment));
+        }
+        return this;
+    }
+
+    private void setNumeric(int slot, Double value) {
+        if (value != null) {
+            setNumeric(slot, value.doubleValue());
+        }
+    }
+
+    public LocationRecord setNumeric(int slot, double value) {
+        numerics[slot] = value;
+        numericPresence |= 1 << slot;
+        return this;
+    }
+
+    public LocationRecord clearNumeric(int slot) {
+        numericPresence &= ~(1 << slot);
+        return this;
+    }
+
+    public boolean hasNumeric(int slot) {
+        return (numericPresence & (1 << slot)) != 0;
+    }
+
+    public double getNumeric(int slot) {
+        return numerics[slot];
+    }
+
+    public LocationRecord setInteger(int slot, int value) {
+        integers[slot] = value;
+        integerPresence |= 1 << slot;
+        return this;
+    }
+
+    public boolean hasInteger(int slot) {
+        return (integerPresence & (1 << slot)) != 0;
+    }
+
+    public int getInteger(int slot) {
+        return integers[slot];
+    }
+
+    public LocationRecord setSymbol(int slot, int code) {
+        symbols[slot] = code;
+        return this;
+    }
+
+    public int getSymbol(int slot) {
+        return symbols[slot];
+    }
+
+    public LocationRecord setHazmatCompatible(boolean compatible) {
+        hazmatCompatible = compatible ? TRUE : FALSE;
+        return this;
+    }
+
+    public byte getHazmatCompatible() {
+        return hazmatCompatible;
+    }
+
+    public LocationRecord setEquipmentMask(long mask) {
+        equipmentMask = mask;
+        return this;
+    }
+
+    public LocationRecord addEquipment(long bit) {
+        equipmentMask |= bit;
+        return this;
+    }
+
+    public long getEquipmentMask() {
+        return equipmentMask;
+    }
+
+    public LocationContext getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,288 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.LayoutCandidates;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores candidate locations against a directive plan and keeps the best K in a bounded
+ * heap. Candidates are evaluated as reusable {@link LocationRecord}s against each
+ * directive's compiled constraint chain, which stops at the first failed constraint.
+ * Candidate sets at or above the parallelism threshold are split into fork-join
+ * partitions whose partial top-K heaps are merged.
+ * <p>
+ * Results match scoring every candidate with {@code evaluateLocation} and stably sorting
+ * by descending score: equal scores keep candidate order.
+ */
+public class LocationScoringEngine {
+    public static final int DEFAULT_PARALLELISM_THRESHOLD = 2048;
+    private static final int MINIMUM_PARTITION_SIZE = 512;
+
+    private final ForkJoinPool pool;
+    private final int parallelismThreshold;
+
+    public LocationScoringEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLELISM_THRESHOLD);
+    }
+
+    public LocationScoringEngine(int parallelismThreshold) {
+        this(ForkJoinPool.commonPool(), parallelismThreshold);
+    }
+
+    public LocationScoringEngine(ForkJoinPool pool, int parallelismThreshold) {
+        this.pool = Objects.requireNonNull(pool, "ForkJoinPool cannot be null");
+        if (parallelismThreshold < 1) {
+            throw new IllegalArgumentException("Parallelism threshold must be positive");
+        }
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    public List<BinLocation> findTopLocations(LocationQuery query, LocationDirectivePlan plan,
+                                              List<BinLocation> candidates, int maxResults) {
+        Objects.requireNonNull(query, "Query cannot be null");
+        Objects.requireNonNull(plan, "Plan cannot be null");
+        Objects.requireNonNull(candidates, "Candidates cannot be null");
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Max results cannot be negative: " + maxResults);
+        }
+
+        List<CompiledLocationDirective> directives = plan.getCompiledDirectives().stream()
+            .filter(compiled -> compiled.getDirective().isApplicableFor(query.getWorkType()))
+            .toList();
+        if (maxResults == 0 || directives.isEmpty() || candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Scoring scoring = new Scoring(query, directives, candidates);
+        int candidateCount = candidates.size();
+        TopLocations top = candidateCount < parallelismThreshold
+            ? scoring.score(0, candidateCount, maxResults)
+            : pool.invoke(new ScoringTask(scoring, 0, candidateCount, maxResults, partitionSize(candidateCount)));
+        return top.toLocations(candidates);
+    }
+
+    private int partitionSize(int candidateCount) {
+        int partitions = pool.getParallelism() * 4;
+        return Math.max(MINIMUM_PARTITION_SIZE, (candidateCount + partitions - 1) / partitions);
+    }
+
+    public int getParallelismThreshold() {
+        return parallelismThreshold;
+    }
+
+    /**
+     * Per-request scoring state shared read-only by all partitions.
+     */
+    private static final class Scoring {
+        private final LocationQuery query;
+        private final CompiledLocationDirective[] directives;
+        private final List<BinLocation> candidates;
+        private final WarehouseLayoutIndex layout;
+        private final int[] layoutOrdinals;
+        private final LocationRecord baseRecord;
+        private final boolean overlayLayout;
+
+        Scoring(LocationQuery query, List<CompiledLocationDirective> directives, List<BinLocation> candidates) {
+            this.query = query;
+            this.directives = directives.toArray(new CompiledLocationDirective[0]);
+            this.candidates = candidates;
+            this.layout = query.getLayoutIndex();
+
+            LayoutCandidates layoutCandidates = query.getLayoutCandidates();
+            this.layoutOrdinals = layoutCandidates != null && layoutCandidates.getIndex() == layout
+                && layoutCandidates.size() == candidates.size() ? layoutCandidates.toOrdinalArray() : null;
+
+            // Query parameters are the same for every candidate; layout attributes are laid over them
+            LocationSymbols symbols = this.directives[0].getLocationSymbols();
+            this.baseRecord = new LocationRecord()
+                .loadFrom(query.createContextForLocation(candidates.get(0), Map.of()), symbols);
+            this.overlayLayout = layout == null || layout.getLocationSymbols() == symbols;
+        }
+
+        TopLocations score(int from, int to, int maxResults) {
+            TopLocations top = new TopLocations(Math.min(maxResults, to - from));
+            LocationRecord record = new LocationRecord();
+            for (int position = from; position < to; position++) {
+                BinLocation location = candidates.get(position);
+                loadRecord(position, location, record);
+
+                double totalScore = 0.0;
+                int suitableDirectives = 0;
+                for (CompiledLocationDirective directive : directives) {
+                    if (directive.getConstraintChain().test(record)) {
+                        totalScore += directive.score(location, record);
+                        suitableDirectives++;
+                    }
+                }
+                if (suitableDirectives > 0) {
+                    top.offer(totalScore / suitableDirectives, position);
+                }
+            }
+            return top;
+        }
+
+        private void loadRecord(int position, BinLocation location, LocationRecord record) {
+            if (!overlayLayout) {
+                // Layout encoded with a different symbol table; go through the context
+                record.loadFrom(query.createContextForLocation(location), directives[0].getLocationSymbols());
+                return;
+            }
+            record.copyFrom(baseRecord);
+            if (layout != null) {
+                int ordinal = layoutOrdinals != null ? layoutOrdinals[position] : layout.ordinalOf(location);
+                if (ordinal != WarehouseLayoutIndex.NOT_FOUND) {
+                    layout.overlayRecord(ordinal, record);
+                }
+            }
+        }
+    }
+
+    private static final class ScoringTask extends RecursiveTask<TopLocations> {
+        private final Scoring scoring;
+        private final int from;
+        private final int to;
+        private final int maxResults;
+        private final int partitionSize;
+
+        ScoringTask(Scoring scoring, int from, int to, int maxResults, int partitionSize) {
+            this.scoring = scoring;
+            this.from = from;
+            this.to = to;
+            this.maxResults = maxResults;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected TopLocations compute() {
+            if (to - from <= partitionSize) {
+                return scoring.score(from, to, maxResults);
+            }
+            int middle = (from + to) >>> 1;
+            ScoringTask right = new ScoringTask(scoring, middle, to, maxResults, partitionSize);
+            right.fork();
+            TopLocations left = new ScoringTask(scoring, from, middle, maxResults, partitionSize).compute();
+            return TopLocations.merge(left, right.join(), maxResults);
+        }
+    }
+
+    /**
+     * Bounded min-heap of (score, candidate position); the root is the weakest entry kept.
+     */
+    static final class TopLocations {
+        private final int capacity;
+        private final double[] scores;
+        private final int[] positions;
+        private int size;
+
+        TopLocations(int capacity) {
+            this.capacity = capacity;
+            this.scores = new double[capacity];
+            this.positions = new int[capacity];
+        }
+
+        void offer(double score, int position) {
+            if (size < capacity) {
+                scores[size] = score;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (ranksBefore(score, position, scores[0], positions[0])) {
+                scores[0] = score;
+                positions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        static TopLocations merge(TopLocations left, TopLocations right, int maxResults) {
+            TopLocations merged = new TopLocations(Math.min(maxResults, left.size + right.size));
+            for (TopLocations part : List.of(left, right)) {
+                for (int i = 0; i < part.size; i++) {
+                    merged.offer(part.scores[i], part.positions[i]);
+                }
+            }
+            return merged;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Candidate positions from best to worst.
+         */
+        int[] sortedPositions() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            // Positions are unique, so ranksBefore is a strict total order
+            Arrays.sort(order, (left, right) -> left.equals(right) ? 0
+                : ranksBefore(scores[left], positions[left], scores[right], positions[right]) ? -1 : 1);
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = positions[order[i]];
+            }
+            return sorted;
+        }
+
+        List<BinLocation> toLocations(List<BinLocation> candidates) {
+            List<BinLocation> locations = new ArrayList<>(size);
+            for (int position : sortedPositions()) {
+                locations.add(candidates.get(position));
+            }
+            return locations;
+        }
+
+        // Same order as sorting by -score with Double.compare, ties broken by candidate order
+        private static boolean ranksBefore(double score, int position, double otherScore, int otherPosition) {
+            int comparison = Double.compare(-score, -otherScore);
+            return comparison < 0 || (comparison == 0 && position < otherPosition);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksBefore(scores[parent], positions[parent], scores[index], positions[index])) {
+                    break;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int weakest = left;
+                int right = left + 1;
+                if (right < size && ranksBefore(scores[left], positions[left], scores[right], positions[right])) {
+                    weakest = right;
+                }
+                if (!ranksBefore(scores[index], positions[index], scores[weakest], positions[weakest])) {
+                    return;
+                }
+                swap(index, weakest);
+                index = weakest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+            int position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+}
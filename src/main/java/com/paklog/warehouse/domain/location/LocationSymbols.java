@@ -0,0 +1,88 @@
+package com.paklog.warehouse.domain.location;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the string values used by location constraints (zones, accessibility and
+ * safety levels, equipment types) into small integer codes, so compiled constraints and
+ * location records can compare them as primitives. Code {@link #ABSENT} stands for null.
+ * Equipment types get one bit each of a {@code long} mask; types registered past
+ * {@link #MAX_EQUIPMENT_TYPES} get {@link #NO_EQUIPMENT_BIT} and are matched against
+ * the record's source context instead.
+ */
+public final class LocationSymbols {
+    public static final int ABSENT = 0;
+    public static final int MAX_EQUIPMENT_TYPES = Long.SIZE;
+    public static final long NO_EQUIPMENT_BIT = 0L;
+
+    private static final LocationSymbols SHARED = new LocationSymbols();
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int nextCode = 1;
+
+    private final Map<String, Integer> equipmentBits = new ConcurrentHashMap<>();
+    private int nextEquipmentBit;
+
+    public static LocationSymbols shared() {
+        return SHARED;
+    }
+
+    public int codeOf(String symbol) {
+        if (symbol == null) {
+            return ABSENT;
+        }
+        Integer code = codes.get(symbol);
+        return code != null ? code : register(symbol);
+    }
+
+    public String nameOf(int code) {
+        String[] current = names;
+        return code > ABSENT && code < current.length ? current[code] : null;
+    }
+
+    public long equipmentBit(String equipment) {
+        Objects.requireNonNull(equipment, "Equipment cannot be null");
+        Integer bit = equipmentBits.get(equipment);
+        if (bit == null) {
+            bit = registerEquipment(equipment);
+        }
+        return bit < MAX_EQUIPMENT_TYPES ? 1L << bit : NO_EQUIPMENT_BIT;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = codes.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int code = nextCode++;
+        String[] current = names;
+        if (code >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = symbol;
+        names = current;
+        codes.put(symbol, code);
+        return code;
+    }
+
+    private synchronized int registerEquipment(String equipment) {
+        Integer existing = equipmentBits.get(equipment);
+        if (existing != null) {
+            return existing;
+        }
+        int bit = Math.min(nextEquipmentBit, MAX_EQUIPMENT_TYPES);
+        if (bit < MAX_EQUIPMENT_TYPES) {
+            nextEquipmentBit++;
+        }
+        equipmentBits.put(equipment, bit);
+        return bit;
+    }
+}
@@ -1,22 +1,34 @@
 package com.paklog.warehouse.domain.location;
 
+import com.paklog.warehouse.domain.layout.BinSpatialIndex;
+import com.paklog.warehouse.domain.layout.LayoutCandidates;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
 import com.paklog.warehouse.domain.shared.BinLocation;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 public class NearestEmptyLocationSelector implements LocationSelector {
-    
+    private static final BinLocation DEFAULT_REFERENCE = BinLocation.of("A", "01", "1");
+
+    private volatile CachedConstraintChain cachedConstraintChain;
+
     @Override
     public BinLocation selectOptimalLocation(LocationQuery query, LocationDirective directive) {
         BinLocation referenceLocation = query.getReferenceLocation();
-        List<BinLocation> candidates = query.getCandidateLocations();
         
         if (referenceLocation == null) {
             // Use default starting location
-            referenceLocation = new BinLocation("A", "01", "1");
+            referenceLocation = DEFAULT_REFERENCE;
+        }
+
+        // Explicit candidate lists keep the scan below; layout candidates go through the spatial index
+        if (query.hasSpatialIndex() && (query.getLayoutCandidates() != null || !query.hasCandidateLocations())) {
+            return selectFromSpatialIndex(query, directive, referenceLocation);
         }
         
+        List<BinLocation> candidates = query.getCandidateLocations();
         if (candidates == null || candidates.isEmpty()) {
             // Generate candidate locations in nearby area
             candidates = generateNearbyCandidates(referenceLocation);
@@ -31,26 +43,55 @@ public class NearestEmptyLocationSelector implements LocationSelector {
             .orElse(null);
     }
     
+    private BinLocation selectFromSpatialIndex(LocationQuery query, LocationDirective directive,
+                                               BinLocation referenceLocation) {
+        if (!directive.isActive()) {
+            return null;
+        }
+        BinSpatialIndex spatialIndex = query.getSpatialIndex();
+        WarehouseLayoutIndex layout = spatialIndex.getLayout();
+        LayoutCandidates candidates = query.getLayoutCandidates();
+        LocationSymbols symbols = layout.getLocationSymbols();
+        CompiledConstraintChain constraints = constraintChainFor(directive, symbols);
+
+        // Query parameters form the base record; each bin's layout attributes are laid over it
+        LocationRecord base = new LocationRecord()
+            .loadFrom(query.createContextForLocation(referenceLocation, Map.of()), symbols);
+        LocationRecord record = new LocationRecord();
+
+        int ordinal = spatialIndex.findNearestEmpty(referenceLocation, candidate ->
+            (candidates == null || candidates.containsOrdinal(candidate))
+                && constraints.test(layout.overlayRecord(candidate, record.copyFrom(base))));
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND ? layout.locationAt(ordinal) : null;
+    }
+
+    private CompiledConstraintChain constraintChainFor(LocationDirective directive, LocationSymbols symbols) {
+        List<LocationConstraint> constraints = directive.getConstraints();
+        CachedConstraintChain cached = cachedConstraintChain;
+        if (cached == null || cached.symbols != symbols || !cached.constraints.equals(constraints)) {
+            cached = new CachedConstraintChain(List.copyOf(constraints), symbols,
+                new LocationConstraintCompiler(symbols).compile(constraints));
+            cachedConstraintChain = cached;
+        }
+        return cached.chain;
+    }
+
     private List<BinLocation> generateNearbyCandidates(BinLocation reference) {
         // Generate locations within a 3x3x3 grid around reference
         String refAisle = reference.getAisle();
-        int refRack = Integer.parseInt(reference.getRack());
-        int refLevel = Integer.parseInt(reference.getLevel());
+        int refRack = reference.rackCoordinate();
+        int refLevel = reference.levelCoordinate();
         
         java.util.List<BinLocation> candidates = new java.util.ArrayList<>();
         
         for (int aisleOffset = -1; aisleOffset <= 1; aisleOffset++) {
             for (int rackOffset = -2; rackOffset <= 2; rackOffset++) {
                 for (int levelOffset = -1; levelOffset <= 1; levelOffset++) {
-                    try {
-                        String aisle = refAisle; // Simplified - same aisle
-                        int rack = Math.max(1, refRack + rackOffset);
-                        int level = Math.max(1, refLevel + levelOffset);
-                        
-                        candidates.add(new BinLocation(aisle, String.format("%02d", rack), String.valueOf(level)));
-                    } catch (Exception e) {
-                        // Skip invalid locations
-                    }
+                    String aisle = refAisle; // Simplified - same aisle
+                    int rack = Math.max(1, refRack + rackOffset);
+                    int level = Math.max(1, refLevel + levelOffset);
+                    
+                    candidates.add(BinLocation.of(aisle, String.format("%02d", rack), String.valueOf(level)));
                 }
             }
         }
@@ -64,38 +105,26 @@ public class NearestEmptyLocationSelector implements LocationSelector {
     }
     
     private boolean isLocationEmpty(BinLocation location, LocationQuery query) {
-        // In real implementation, this would check inventory system
+        if (query.hasSpatialIndex() && query.getLayoutIndex().contains(location)) {
+            return query.getSpatialIndex().isEmpty(location);
+        }
+        if (query.hasOccupancyLedger()) {
+            return query.getOccupancyLedger().isEmpty(location);
+        }
+        // Queries built without the directive service carry no occupancy data
         // For now, assume locations ending in odd levels are empty
-        int level = Integer.parseInt(location.getLevel());
-        return level % 2 == 1;
+        return location.levelCoordinate() % 2 == 1;
     }
     
     private double calculateDistance(BinLocation from, BinLocation to) {
-        // Simple Manhattan distance
-        int aisleDistance = calculateAisleDistance(from.getAisle(), to.getAisle());
-        int rackDistance = Math.abs(Integer.parseInt(from.getRack()) - Integer.parseInt(to.getRack()));
-        int levelDistance = Math.abs(Integer.parseInt(from.getLevel()) - Integer.parseInt(to.getLevel()));
+        // Simple Manhattan distance over the packed coordinates
+        int aisleDistance = Math.abs(from.aisleCoordinate() - to.aisleCoordinate());
+        int rackDistance = Math.abs(from.rackCoordinate() - to.rackCoordinate());
+        int levelDistance = Math.abs(from.levelCoordinate() - to.levelCoordinate());
         
         return aisleDistance * 10 + rackDistance + levelDistance * 2;
     }
     
-    private int calculateAisleDistance(String fromAisle, String toAisle) {
-        // Handle aisles of different lengths safely
-        if (fromAisle.equals(toAisle)) {
-            return 0;
-        }
-        
-        // For single character aisles like "A", "B", etc.
-        if (fromAisle.length() == 1 && toAisle.length() == 1) {
-            return Math.abs(fromAisle.charAt(0) - toAisle.charAt(0));
-        }
-        
-        // For multi-character aisles, use the last character
-        char fromChar = fromAisle.charAt(fromAisle.length() - 1);
-        char toChar = toAisle.charAt(toAisle.length() - 1);
-        return Math.abs(fromChar - toChar);
-    }
-    
     @Override
     public boolean supportsStrategy(LocationStrategy strategy) {
         return strategy == LocationStrategy.NEAREST_EMPTY;
@@ -105,4 +134,17 @@ public class NearestEmptyLocationSelector implements LocationSelector {
     public String getStrategyDescription() {
         return "Selects the nearest available empty location";
     }
+
+    private static final class CachedConstraintChain {
+        final List<LocationConstraint> constraints;
+        final LocationSymbols symbols;
+        final CompiledConstraintChain chain;
+
+        CachedConstraintChain(List<LocationConstraint> constraints, LocationSymbols symbols,
+                              CompiledConstraintChain chain) {
+            this.constraints = constraints;
+            this.symbols = symbols;
+            this.chain = chain;
+        }
+    }
 }
\ No newline at end of file
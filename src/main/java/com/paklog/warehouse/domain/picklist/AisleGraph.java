@@ -0,0 +1,153 @@
+package com.paklog.warehouse.domain.picklist;
+
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.shared.BinLocation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Travel model of a rectangular warehouse: parallel aisles joined by a front and a back
+ * cross aisle. Aisles are ordered by their layout coordinate and spaced by the aisle
+ * pitch; positions along an aisle are rack coordinates. Travel between any two aisles
+ * along the cross aisles is precomputed when the graph is built.
+ */
+public final class AisleGraph {
+    public static final double DEFAULT_AISLE_PITCH = 5.0;
+
+    private final WarehouseLayoutIndex layout;
+    private final ToIntFunction<BinLocation> aisleCoordinate;
+    private final ToIntFunction<BinLocation> rackCoordinate;
+    private final int[] aisleCoordinates;
+    private final double[][] crossAisleDistance;
+    private final double front;
+    private final double back;
+
+    private AisleGraph(WarehouseLayoutIndex layout, ToIntFunction<BinLocation> aisleCoordinate,
+                       ToIntFunction<BinLocation> rackCoordinate, int[] aisleCoordinates, double aislePitch,
+                       double front, double back) {
+        this.layout = layout;
+        this.aisleCoordinate = aisleCoordinate;
+        this.rackCoordinate = rackCoordinate;
+        this.aisleCoordinates = aisleCoordinates;
+        this.front = front;
+        this.back = back;
+        int aisles = aisleCoordinates.length;
+        this.crossAisleDistance = new double[aisles][aisles];
+        for (int from = 0; from < aisles; from++) {
+            for (int to = 0; to < aisles; to++) {
+                crossAisleDistance[from][to] = Math.abs(aisleCoordinates[from] - aisleCoordinates[to]) * aislePitch;
+            }
+        }
+    }
+
+    public static AisleGraph of(WarehouseLayoutIndex layout, double aislePitch) {
+        Objects.requireNonNull(layout, "Layout cannot be null");
+        if (layout.isEmpty()) {
+            throw new IllegalArgumentException("Cannot build an aisle graph from an empty layout");
+        }
+        requirePositive(aislePitch);
+        int minimumRack = Integer.MAX_VALUE;
+        int maximumRack = Integer.MIN_VALUE;
+        int[] aisles = new int[layout.size()];
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            aisles[ordinal] = layout.aisleAt(ordinal);
+            minimumRack = Math.min(minimumRack, layout.rackAt(ordinal));
+            maximumRack = Math.max(maximumRack, layout.rackAt(ordinal));
+        }
+        int[] aisleCoordinates = Arrays.stream(aisles).sorted().distinct().toArray();
+        // Cross aisles run one rack beyond the first and last rack
+        return new AisleGraph(layout, location -> layout.coordinatesOf(location)[0],
+                              location -> layout.coordinatesOf(location)[1], aisleCoordinates, aislePitch,
+                              minimumRack - 1, maximumRack + 1);
+    }
+
+    /**
+     * Graph spanning only the given locations, for routing without a loaded layout.
+     * Aisles and racks are placed by their own numbers, so racks R01 and R40 stay 39
+     * racks apart even when nothing between them is being picked.
+     */
+    public static AisleGraph of(Collection<BinLocation> locations, double aislePitch) {
+        Objects.requireNonNull(locations, "Locations cannot be null");
+        if (locations.isEmpty()) {
+            throw new IllegalArgumentException("Cannot build an aisle graph without locations");
+        }
+        requirePositive(aislePitch);
+        int minimumRack = Integer.MAX_VALUE;
+        int maximumRack = Integer.MIN_VALUE;
+        for (BinLocation location : locations) {
+            minimumRack = Math.min(minimumRack, location.rackCoordinate());
+            maximumRack = Math.max(maximumRack, location.rackCoordinate());
+        }
+        int[] aisleCoordinates = locations.stream().mapToInt(BinLocation::aisleCoordinate).sorted().distinct().toArray();
+        return new AisleGraph(null, BinLocation::aisleCoordinate, BinLocation::rackCoordinate, aisleCoordinates,
+                              aislePitch, minimumRack - 1, maximumRack + 1);
+    }
+
+    private static void requirePositive(double aislePitch) {
+        if (!(aislePitch > 0)) {
+            throw new IllegalArgumentException("Aisle pitch must be positive: " + aislePitch);
+        }
+    }
+
+    /**
+     * Index of the aisle the location is in, or of the nearest aisle when the location's
+     * aisle is not part of the graph.
+     */
+    public int aisleOf(BinLocation location) {
+        return aisleIndex(aisleCoordinate.applyAsInt(location));
+    }
+
+    /**
+     * Position along the aisle, between the front and back cross aisles.
+     */
+    public double positionOf(BinLocation location) {
+        return Math.max(front, Math.min(back, rackCoordinate.applyAsInt(location)));
+    }
+
+    public double distance(int fromAisle, double fromPosition, int toAisle, double toPosition) {
+        if (fromAisle == toAisle) {
+            return Math.abs(fromPosition - toPosition);
+        }
+        double viaFront = (fromPosition - front) + (toPosition - front);
+        double viaBack = (back - fromPosition) + (back - toPosition);
+        return crossAisleDistance[fromAisle][toAisle] + Math.min(viaFront, viaBack);
+    }
+
+    public int aisleCount() {
+        return aisleCoordinates.length;
+    }
+
+    public double getFront() {
+        return front;
+    }
+
+    public double getBack() {
+        return back;
+    }
+
+    /**
+     * Layout the graph was built from, or null for a graph built from locations.
+     */
+    public WarehouseLayoutIndex getLayout() {
+        return layout;
+    }
+
+    private int aisleIndex(int aisleCoordinate) {
+        int position = Arrays.binarySearch(aisleCoordinates, aisleCoordinate);
+        if (position >= 0) {
+            return position;
+        }
+        int above = -position - 1;
+        if (above == 0) {
+            return 0;
+        }
+        if (above == aisleCoordinates.length) {
+            return aisleCoordinates.length - 1;
+        }
+        int below = above - 1;
+        return aisleCoordinate - aisleCoordinates[below] <= aisleCoordinates[above] - aisleCoordinate ? below : above;
+    }
+}
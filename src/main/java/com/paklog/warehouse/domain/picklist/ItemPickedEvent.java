@@ -18,8 +18,14 @@ public class ItemPickedEvent implements DomainEvent {
 
     public ItemPickedEvent(PickListId pickListId, SkuCode sku, Quantity quantity, 
                            BinLocation binLocation, String pickerId) {
-        this.eventId = UUID.randomUUID();
-        this.occurredAt = Instant.now();
+        this(UUID.randomUUID(), Instant.now(), pickListId, sku, quantity, binLocation, pickerId);
+    }
+
+    // Restores a serialized event
+    public ItemPickedEvent(UUID eventId, Instant occurredAt, PickListId pickListId, SkuCode sku,
+                           Quantity quantity, BinLocation binLocation, String pickerId) {
+        this.eventId = eventId;
+        this.occurredAt = occurredAt;
         this.pickListId = pickListId;
         this.sku = sku;
         this.quantity = quantity;
@@ -54,14 +54,15 @@ public class PickListDomainService {
         }
         
         try {
-            List<PickInstruction> optimizedInstructions = routeOptimizer.optimizePickRoute(pickList);
+            PickRoute route = routeOptimizer.planRoute(pickList);
+            List<PickInstruction> optimizedInstructions = route.getInstructions();
             
             // Create a new pick list with optimized instructions
             PickList optimizedPickList = new PickList(pickList.getOrderId());
             optimizedInstructions.forEach(optimizedPickList::addInstruction);
             
-            logger.info("Pick route optimized for pick list: {} - {} instructions reordered", 
-                       pickList.getId(), optimizedInstructions.size());
+            logger.info("Pick route optimized for pick list: {} - {} instructions reordered using {}, route length {}", 
+                       pickList.getId(), optimizedInstructions.size(), route.getHeuristic(), route.getRouteLength());
             
             return optimizedPickList;
         } catch (Exception e) {
@@ -18,6 +18,10 @@ public class PickListId {
         return new PickListId(UUID.fromString(value));
     }
 
+    public static PickListId of(UUID value) {
+        return new PickListId(value);
+    }
+
     public UUID getValue() {
         return value;
     }
@@ -0,0 +1,46 @@
+package com.paklog.warehouse.domain.picklist;
+
+import java.util.List;
+
+/**
+ * Pick instructions in travel order with the length of the round trip from the depot.
+ */
+public class PickRoute {
+    private final List<PickInstruction> instructions;
+    private final RoutingHeuristic heuristic;
+    private final double routeLength;
+
+    public PickRoute(List<PickInstruction> instructions, RoutingHeuristic heuristic, double routeLength) {
+        this.instructions = List.copyOf(instructions);
+        this.heuristic = heuristic;
+        this.routeLength = routeLength;
+    }
+
+    public List<PickInstruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Heuristic that produced the order; null for routes with fewer than two stops.
+     */
+    public RoutingHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public double getRouteLength() {
+        return routeLength;
+    }
+
+    public int getStopCount() {
+        return instructions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PickRoute{" +
+                "stops=" + instructions.size() +
+                ", heuristic=" + heuristic +
+                ", routeLength=" + routeLength +
+                '}';
+    }
+}
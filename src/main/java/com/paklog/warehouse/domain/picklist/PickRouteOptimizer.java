@@ -1,36 +1,325 @@
 package com.paklog.warehouse.domain.picklist;
 
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
 import com.paklog.warehouse.domain.shared.BinLocation;
 import com.paklog.warehouse.domain.picklist.PickList;
 import com.paklog.warehouse.domain.picklist.PickInstruction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Orders pick instructions into a walking route over the warehouse {@link AisleGraph},
+ * starting and ending at the front of the first aisle. Short pick lists get a
+ * nearest-neighbour tour improved by 2-opt; longer lists take the shorter of the S-shape
+ * and largest-gap routes, which only need a sort.
+ */
 public class PickRouteOptimizer {
+    public static final int DEFAULT_TWO_OPT_MAX_STOPS = 60;
+    private static final int MAX_TWO_OPT_PASSES = 50;
+    private static final double EPSILON = 1e-9;
+
+    private final WarehouseLayoutService layoutService;
+    private final int twoOptMaxStops;
+    private final double aislePitch;
+    private volatile AisleGraph layoutGraph;
+
+    public PickRouteOptimizer() {
+        this(null);
+    }
+
+    public PickRouteOptimizer(WarehouseLayoutService layoutService) {
+        this(layoutService, DEFAULT_TWO_OPT_MAX_STOPS, AisleGraph.DEFAULT_AISLE_PITCH);
+    }
+
+    public PickRouteOptimizer(WarehouseLayoutService layoutService, int twoOptMaxStops, double aislePitch) {
+        if (twoOptMaxStops < 0) {
+            throw new IllegalArgumentException("2-opt stop limit cannot be negative");
+        }
+        if (!(aislePitch > 0)) {
+            throw new IllegalArgumentException("Aisle pitch must be positive: " + aislePitch);
+        }
+        this.layoutService = layoutService; // Optional: routes span only the picked aisles without it
+        this.twoOptMaxStops = twoOptMaxStops;
+        this.aislePitch = aislePitch;
+    }
+
     public List<PickInstruction> optimizePickRoute(PickList pickList) {
-        // Start from a default location
-        BinLocation currentLocation = new BinLocation("A", "0", "0");
-        
-        // Get remaining instructions that are not completed
+        return planRoute(pickList).getInstructions();
+    }
+
+    /**
+     * Route over the instructions that are not completed yet.
+     */
+    public PickRoute planRoute(PickList pickList) {
         List<PickInstruction> remainingInstructions = pickList.getInstructions().stream()
             .filter(instruction -> !instruction.isCompleted())
             .collect(Collectors.toList());
+        return planRoute(remainingInstructions);
+    }
 
-        // Sort instructions based on proximity to current location
-        return remainingInstructions.stream()
-            .sorted(Comparator.comparing(instruction -> 
-                calculateDistance(currentLocation, instruction.getBinLocation())
-            ))
-            .collect(Collectors.toList());
+    public PickRoute planRoute(List<PickInstruction> instructions) {
+        Objects.requireNonNull(instructions, "Instructions cannot be null");
+        if (instructions.size() <= twoOptMaxStops) {
+            return planRoute(instructions, RoutingHeuristic.NEAREST_NEIGHBOR_TWO_OPT);
+        }
+        Stops stops = new Stops(instructions, graphFor(instructions));
+        PickRoute sShape = stops.route(RoutingHeuristic.S_SHAPE);
+        PickRoute largestGap = stops.route(RoutingHeuristic.LARGEST_GAP);
+        return largestGap.getRouteLength() < sShape.getRouteLength() ? largestGap : sShape;
+    }
+
+    public PickRoute planRoute(List<PickInstruction> instructions, RoutingHeuristic heuristic) {
+        Objects.requireNonNull(instructions, "Instructions cannot be null");
+        Objects.requireNonNull(heuristic, "Heuristic cannot be null");
+        return new Stops(instructions, graphFor(instructions)).route(heuristic);
+    }
+
+    /**
+     * Round-trip length of visiting the instructions in the given order.
+     */
+    public double routeLength(List<PickInstruction> instructions) {
+        Objects.requireNonNull(instructions, "Instructions cannot be null");
+        Stops stops = new Stops(instructions, graphFor(instructions));
+        int[] order = new int[instructions.size()];
+        Arrays.setAll(order, i -> i + 1);
+        return stops.length(order);
+    }
+
+    public int getTwoOptMaxStops() {
+        return twoOptMaxStops;
+    }
+
+    private AisleGraph graphFor(List<PickInstruction> instructions) {
+        if (layoutService != null) {
+            Optional<WarehouseLayoutIndex> layout = layoutService.getLoadedIndex();
+            if (layout.isPresent()) {
+                AisleGraph graph = layoutGraph;
+                if (graph == null || graph.getLayout() != layout.get()) {
+                    // Rebuilt once per layout reload
+                    graph = AisleGraph.of(layout.get(), aislePitch);
+                    layoutGraph = graph;
+                }
+                return graph;
+            }
+        }
+        List<BinLocation> locations = instructions.stream().map(PickInstruction::getBinLocation).toList();
+        return locations.isEmpty() ? null : AisleGraph.of(locations, aislePitch);
     }
 
-    private double calculateDistance(BinLocation from, BinLocation to) {
-        // Simple Manhattan distance calculation
-        return Math.abs(Integer.parseInt(from.getAisle()) - Integer.parseInt(to.getAisle())) +
-               Math.abs(Integer.parseInt(from.getRack()) - Integer.parseInt(to.getRack())) +
-               Math.abs(Integer.parseInt(from.getLevel()) - Integer.parseInt(to.getLevel()));
+    /**
+     * Instructions placed on the graph; stop 0 is the depot, stop i is instruction i - 1.
+     */
+    private static final class Stops {
+        private final List<PickInstruction> instructions;
+        private final AisleGraph graph;
+        private final int[] aisles;
+        private final double[] positions;
+
+        Stops(List<PickInstruction> instructions, AisleGraph graph) {
+            this.instructions = instructions;
+            this.graph = graph;
+            int count = instructions.size() + 1;
+            this.aisles = new int[count];
+            this.positions = new double[count];
+            if (graph != null) {
+                positions[0] = graph.getFront();
+                for (int stop = 1; stop < count; stop++) {
+                    BinLocation location = instructions.get(stop - 1).getBinLocation();
+                    aisles[stop] = graph.aisleOf(location);
+                    positions[stop] = graph.positionOf(location);
+                }
+            }
+        }
+
+        PickRoute route(RoutingHeuristic heuristic) {
+            int stopCount = instructions.size();
+            if (stopCount < 2) {
+                return new PickRoute(instructions, null, stopCount == 1 ? length(new int[]{1}) : 0.0);
+            }
+            int[] order = switch (heuristic) {
+                case S_SHAPE -> sShape();
+                case LARGEST_GAP -> largestGap();
+                case NEAREST_NEIGHBOR_TWO_OPT -> nearestNeighborTwoOpt();
+            };
+            List<PickInstruction> ordered = new ArrayList<>(stopCount);
+            for (int stop : order) {
+                ordered.add(instructions.get(stop - 1));
+            }
+            return new PickRoute(ordered, heuristic, length(order));
+        }
+
+        double length(int[] order) {
+            if (order.length == 0) {
+                return 0.0;
+            }
+            double length = 0.0;
+            int previous = 0;
+            for (int stop : order) {
+                length += distance(previous, stop);
+                previous = stop;
+            }
+            return length + distance(previous, 0);
+        }
+
+        private double distance(int from, int to) {
+            return graph.distance(aisles[from], positions[from], aisles[to], positions[to]);
+        }
+
+        // Every aisle with picks is walked end to end, alternating direction
+        private int[] sShape() {
+            List<int[]> aisleGroups = groupByAisle();
+            int[] order = new int[instructions.size()];
+            int next = 0;
+            for (int group = 0; group < aisleGroups.size(); group++) {
+                int[] stops = aisleGroups.get(group);
+                for (int i = 0; i < stops.length; i++) {
+                    order[next++] = group % 2 == 0 ? stops[i] : stops[stops.length - 1 - i];
+                }
+            }
+            return order;
+        }
+
+        /*
+         * The first and last aisles with picks are walked end to end. Middle aisles are
+         * entered from the back on the way out and from the front on the way back, each
+         * time up to the largest gap between consecutive picks.
+         */
+        private int[] largestGap() {
+            List<int[]> aisleGroups = groupByAisle();
+            int[] order = new int[instructions.size()];
+            int next = 0;
+            int last = aisleGroups.size() - 1;
+            int[] splits = new int[aisleGroups.size()];
+            for (int group = 1; group < last; group++) {
+                splits[group] = largestGapSplit(aisleGroups.get(group));
+            }
+
+            for (int stop : aisleGroups.get(0)) {
+                order[next++] = stop;
+            }
+            for (int group = 1; group < last; group++) {
+                int[] stops = aisleGroups.get(group);
+                for (int i = stops.length - 1; i >= splits[group]; i--) {
+                    order[next++] = stops[i];
+                }
+            }
+            if (last > 0) {
+                int[] stops = aisleGroups.get(last);
+                for (int i = stops.length - 1; i >= 0; i--) {
+                    order[next++] = stops[i];
+                }
+            }
+            for (int group = last - 1; group >= 1; group--) {
+                int[] stops = aisleGroups.get(group);
+                for (int i = 0; i < splits[group]; i++) {
+                    order[next++] = stops[i];
+                }
+            }
+            return order;
+        }
+
+        // Number of stops picked from the front: those before the largest gap
+        private int largestGapSplit(int[] stops) {
+            int split = 0;
+            double largestGap = positions[stops[0]] - graph.getFront();
+            for (int i = 1; i < stops.length; i++) {
+                double gap = positions[stops[i]] - positions[stops[i - 1]];
+                if (gap > largestGap) {
+                    largestGap = gap;
+                    split = i;
+                }
+            }
+            if (graph.getBack() - positions[stops[stops.length - 1]] > largestGap) {
+                split = stops.length;
+            }
+            return split;
+        }
+
+        /**
+         * Stops grouped per aisle in aisle order, each group ordered front to back.
+         */
+        private List<int[]> groupByAisle() {
+            Integer[] sorted = new Integer[instructions.size()];
+            Arrays.setAll(sorted, i -> i + 1);
+            Arrays.sort(sorted, Comparator.<Integer>comparingInt(stop -> aisles[stop])
+                .thenComparingDouble(stop -> positions[stop])
+                .thenComparingInt(stop -> stop));
+
+            List<int[]> groups = new ArrayList<>();
+            int start = 0;
+            for (int i = 1; i <= sorted.length; i++) {
+                if (i == sorted.length || aisles[sorted[i]] != aisles[sorted[start]]) {
+                    int[] group = new int[i - start];
+                    for (int j = start; j < i; j++) {
+                        group[j - start] = sorted[j];
+                    }
+                    groups.add(group);
+                    start = i;
+                }
+            }
+            return groups;
+        }
+
+        private int[] nearestNeighborTwoOpt() {
+            int count = instructions.size() + 1;
+            double[][] distances = new double[count][count];
+            for (int from = 0; from < count; from++) {
+                for (int to = from + 1; to < count; to++) {
+                    distances[from][to] = distances[to][from] = distance(from, to);
+                }
+            }
+
+            // Closed tour starting at the depot
+            int[] tour = new int[count];
+            boolean[] visited = new boolean[count];
+            visited[0] = true;
+            for (int position = 1; position < count; position++) {
+                int current = tour[position - 1];
+                int nearest = -1;
+                for (int candidate = 1; candidate < count; candidate++) {
+                    if (!visited[candidate]
+                        && (nearest < 0 || distances[current][candidate] < distances[current][nearest])) {
+                        nearest = candidate;
+                    }
+                }
+                tour[position] = nearest;
+                visited[nearest] = true;
+            }
+
+            boolean improved = true;
+            for (int pass = 0; improved && pass < MAX_TWO_OPT_PASSES; pass++) {
+                improved = false;
+                for (int i = 1; i < count - 1; i++) {
+                    for (int j = i + 1; j < count; j++) {
+                        int before = tour[i - 1];
+                        int first = tour[i];
+                        int last = tour[j];
+                        int after = tour[(j + 1) % count];
+                        double delta = distances[before][last] + distances[first][after]
+                            - distances[before][first] - distances[last][after];
+                        if (delta < -EPSILON) {
+                            reverse(tour, i, j);
+                            improved = true;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOfRange(tour, 1, count);
+        }
+
+        private static void reverse(int[] tour, int from, int to) {
+            while (from < to) {
+                int stop = tour[from];
+                tour[from++] = tour[to];
+                tour[to--] = stop;
+            }
+        }
     }
-}
\ No newline at end of file
+}
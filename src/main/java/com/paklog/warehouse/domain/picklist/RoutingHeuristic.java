@@ -0,0 +1,17 @@
+package com.paklog.warehouse.domain.picklist;
+
+public enum RoutingHeuristic {
+    S_SHAPE("Traverse every aisle with picks, alternating direction"),
+    LARGEST_GAP("Enter middle aisles from both ends up to the largest gap between picks"),
+    NEAREST_NEIGHBOR_TWO_OPT("Nearest neighbour tour improved by 2-opt exchanges");
+
+    private final String description;
+
+    RoutingHeuristic(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,77 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Assigns an order to whichever put wall suits it best, optionally as close as possible
+ * to the induct point the order's items arrive at.
+ */
+public class AssignOrderToPutWallCommand {
+    private final OrderId orderId;
+    private final Map<SkuCode, Quantity> requiredItems;
+    private final BinLocation inductLocation;
+
+    public AssignOrderToPutWallCommand(OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
+        this(orderId, requiredItems, null);
+    }
+
+    public AssignOrderToPutWallCommand(OrderId orderId, Map<SkuCode, Quantity> requiredItems,
+                                       BinLocation inductLocation) {
+        this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
+        this.requiredItems = Objects.requireNonNull(requiredItems, "Required items cannot be null");
+        this.inductLocation = inductLocation;
+
+        if (requiredItems.isEmpty()) {
+            throw new IllegalArgumentException("Required items cannot be empty");
+        }
+
+        requiredItems.values().forEach(quantity -> {
+            if (quantity.getValue() <= 0) {
+                throw new IllegalArgumentException("All quantities must be positive");
+            }
+        });
+    }
+
+    public OrderId getOrderId() {
+        return orderId;
+    }
+
+    public Map<SkuCode, Quantity> getRequiredItems() {
+        return requiredItems;
+    }
+
+    public Optional<BinLocation> getInductLocation() {
+        return Optional.ofNullable(inductLocation);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignOrderToPutWallCommand that = (AssignOrderToPutWallCommand) o;
+        return Objects.equals(orderId, that.orderId) &&
+                Objects.equals(requiredItems, that.requiredItems) &&
+                Objects.equals(inductLocation, that.inductLocation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, requiredItems, inductLocation);
+    }
+
+    @Override
+    public String toString() {
+        return "AssignOrderToPutWallCommand{" +
+                "orderId=" + orderId +
+                ", requiredItems=" + requiredItems +
+                ", inductLocation=" + inductLocation +
+                '}';
+    }
+}
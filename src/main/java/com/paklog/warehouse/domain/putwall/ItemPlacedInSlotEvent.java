@@ -1,6 +1,5 @@
 package com.paklog.warehouse.domain.putwall;
 
-import com.paklog.warehouse.domain.shared.DomainEvent;
 import com.paklog.warehouse.domain.shared.OrderId;
 import com.paklog.warehouse.domain.shared.Quantity;
 import com.paklog.warehouse.domain.shared.SkuCode;
@@ -9,7 +8,7 @@ import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
-public class ItemPlacedInSlotEvent implements DomainEvent {
+public class ItemPlacedInSlotEvent implements PutWallChangeEvent {
     private final UUID eventId;
     private final Instant occurredAt;
     private final PutWallId putWallId;
@@ -17,9 +16,16 @@ public class ItemPlacedInSlotEvent implements DomainEvent {
     private final OrderId orderId;
     private final SkuCode skuCode;
     private final Quantity quantity;
+    // Number of the change on its wall, 0 when not known
+    private final long sequence;
 
     public ItemPlacedInSlotEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId orderId,
                                 SkuCode skuCode, Quantity quantity) {
+        this(putWallId, slotId, orderId, skuCode, quantity, 0);
+    }
+
+    public ItemPlacedInSlotEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId orderId,
+                                SkuCode skuCode, Quantity quantity, long sequence) {
         this.eventId = UUID.randomUUID();
         this.occurredAt = Instant.now();
         this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
@@ -27,6 +33,7 @@ public class ItemPlacedInSlotEvent implements DomainEvent {
         this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
         this.skuCode = Objects.requireNonNull(skuCode, "SKU code cannot be null");
         this.quantity = Objects.requireNonNull(quantity, "Quantity cannot be null");
+        this.sequence = sequence;
     }
 
     @Override
@@ -39,6 +46,7 @@ public class ItemPlacedInSlotEvent implements DomainEvent {
         return occurredAt;
     }
 
+    @Override
     public PutWallId getPutWallId() {
         return putWallId;
     }
@@ -59,6 +67,11 @@ public class ItemPlacedInSlotEvent implements DomainEvent {
         return quantity;
     }
 
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
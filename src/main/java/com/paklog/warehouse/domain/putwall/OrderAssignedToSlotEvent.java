@@ -1,6 +1,5 @@
 package com.paklog.warehouse.domain.putwall;
 
-import com.paklog.warehouse.domain.shared.DomainEvent;
 import com.paklog.warehouse.domain.shared.OrderId;
 import com.paklog.warehouse.domain.shared.Quantity;
 import com.paklog.warehouse.domain.shared.SkuCode;
@@ -10,22 +9,41 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
-public class OrderAssignedToSlotEvent implements DomainEvent {
+public class OrderAssignedToSlotEvent implements PutWallChangeEvent {
     private final UUID eventId;
     private final Instant occurredAt;
     private final PutWallId putWallId;
     private final PutWallSlotId slotId;
     private final OrderId orderId;
     private final Map<SkuCode, Quantity> requiredItems;
+    // Number of the change on its wall; 0 when not known, as after the binary format
+    private final long sequence;
 
     public OrderAssignedToSlotEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId orderId,
                                    Map<SkuCode, Quantity> requiredItems) {
-        this.eventId = UUID.randomUUID();
-        this.occurredAt = Instant.now();
+        this(putWallId, slotId, orderId, requiredItems, 0);
+    }
+
+    public OrderAssignedToSlotEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId orderId,
+                                   Map<SkuCode, Quantity> requiredItems, long sequence) {
+        this(UUID.randomUUID(), Instant.now(), putWallId, slotId, orderId, requiredItems, sequence);
+    }
+
+    // Restores a serialized event
+    public OrderAssignedToSlotEvent(UUID eventId, Instant occurredAt, PutWallId putWallId, PutWallSlotId slotId,
+                                   OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
+        this(eventId, occurredAt, putWallId, slotId, orderId, requiredItems, 0);
+    }
+
+    public OrderAssignedToSlotEvent(UUID eventId, Instant occurredAt, PutWallId putWallId, PutWallSlotId slotId,
+                                   OrderId orderId, Map<SkuCode, Quantity> requiredItems, long sequence) {
+        this.eventId = Objects.requireNonNull(eventId, "Event ID cannot be null");
+        this.occurredAt = Objects.requireNonNull(occurredAt, "Occurred at cannot be null");
         this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
         this.slotId = Objects.requireNonNull(slotId, "Slot ID cannot be null");
         this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
         this.requiredItems = Objects.requireNonNull(requiredItems, "Required items cannot be null");
+        this.sequence = sequence;
     }
 
     @Override
@@ -38,6 +56,7 @@ public class OrderAssignedToSlotEvent implements DomainEvent {
         return occurredAt;
     }
 
+    @Override
     public PutWallId getPutWallId() {
         return putWallId;
     }
@@ -54,6 +73,11 @@ public class OrderAssignedToSlotEvent implements DomainEvent {
         return requiredItems;
     }
 
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
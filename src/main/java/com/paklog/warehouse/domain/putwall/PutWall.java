@@ -13,6 +13,16 @@ public class PutWall extends AggregateRoot {
     private final Map<PutWallSlotId, PutWallSlot> slots;
     private final int capacity;
     private final String location;
+    // Version of the stored wall this one was read at, 0 before it is first stored
+    private long version;
+    // Number of the last assignment, placement or release; each change takes the next one
+    private long sequence;
+
+    // Indexes over the slot states, kept up to date on every transition so that scans
+    // and assignments do not walk the whole wall
+    private final Deque<PutWallSlot> freeSlots = new ArrayDeque<>();
+    private final Map<OrderId, PutWallSlot> slotsByOrder = new HashMap<>();
+    private final Map<SkuCode, Set<PutWallSlot>> openSlotsBySku = new HashMap<>();
 
     public PutWall(PutWallId putWallId, List<PutWallSlotId> slotIds, String location) {
         this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
@@ -23,53 +33,88 @@ public class PutWall extends AggregateRoot {
         }
 
         this.capacity = slotIds.size();
-        this.slots = new HashMap<>();
+        this.slots = new LinkedHashMap<>();
 
         for (PutWallSlotId slotId : slotIds) {
-            this.slots.put(slotId, new PutWallSlot(slotId));
+            PutWallSlot slot = new PutWallSlot(slotId);
+            this.slots.put(slotId, slot);
+            this.freeSlots.addLast(slot);
         }
     }
 
     public Optional<PutWallSlotId> assignOrderToSlot(OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
+        validateAssignment(orderId, requiredItems);
+
+        PutWallSlot freeSlot = freeSlots.peekFirst();
+        if (freeSlot == null) {
+            throw new PutWallException.PutWallCapacityExceededException();
+        }
+
+        assign(freeSlot, orderId, requiredItems);
+        return Optional.of(freeSlot.getSlotId());
+    }
+
+    /**
+     * Assigns an order to the given slot rather than the next free one, as when restoring
+     * a wall whose orders already sit in their slots.
+     */
+    public Optional<PutWallSlotId> assignOrderToSlot(PutWallSlotId slotId, OrderId orderId,
+                                                     Map<SkuCode, Quantity> requiredItems) {
+        validateAssignment(orderId, requiredItems);
+
+        PutWallSlot slot = getSlot(slotId);
+        assign(slot, orderId, requiredItems);
+        return Optional.of(slotId);
+    }
+
+    private void validateAssignment(OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
         if (orderId == null) {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         if (requiredItems == null || requiredItems.isEmpty()) {
             throw new IllegalArgumentException("Required items cannot be null or empty");
         }
+    }
 
-        Optional<PutWallSlot> freeSlot = slots.values().stream()
-            .filter(PutWallSlot::isFree)
-            .findFirst();
+    private void assign(PutWallSlot slot, OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
+        slot.assignToOrder(orderId, requiredItems);
 
-        if (freeSlot.isEmpty()) {
-            throw new PutWallException.PutWallCapacityExceededException();
+        if (freeSlots.peekFirst() == slot) {
+            freeSlots.pollFirst();
+        } else {
+            freeSlots.remove(slot);
+        }
+        slotsByOrder.putIfAbsent(orderId, slot);
+        for (SkuCode skuCode : requiredItems.keySet()) {
+            if (slot.getRemainingQuantity(skuCode) > 0) {
+                openSlotsBySku.computeIfAbsent(skuCode, sku -> new LinkedHashSet<>()).add(slot);
+            }
         }
-
-        PutWallSlot slot = freeSlot.get();
-        slot.assignToOrder(orderId, requiredItems);
 
         registerEvent(new OrderAssignedToSlotEvent(
             putWallId,
             slot.getSlotId(),
             orderId,
-            requiredItems
+            requiredItems,
+            ++sequence
         ));
-
-        return Optional.of(slot.getSlotId());
     }
 
     public void placeItemInSlot(PutWallSlotId slotId, SkuCode skuCode, Quantity quantity) {
         PutWallSlot slot = getSlot(slotId);
 
         slot.placeItem(skuCode, quantity);
+        if (slot.getRemainingQuantity(skuCode) == 0) {
+            removeOpenSlot(skuCode, slot);
+        }
 
         registerEvent(new ItemPlacedInSlotEvent(
             putWallId,
             slotId,
             slot.getAssignedOrderId(),
             skuCode,
-            quantity
+            quantity,
+            ++sequence
         ));
 
         if (slot.isOrderComplete()) {
@@ -91,19 +136,32 @@ public class PutWall extends AggregateRoot {
 
         OrderId releasedOrderId = slot.getAssignedOrderId();
         slot.release();
+        slotsByOrder.remove(releasedOrderId, slot);
+        freeSlots.addLast(slot);
 
         registerEvent(new SlotReleasedEvent(
             putWallId,
             slotId,
-            releasedOrderId
+            releasedOrderId,
+            ++sequence
         ));
     }
 
     public Optional<PutWallSlotId> findSlotForOrder(OrderId orderId) {
-        return slots.values().stream()
-            .filter(slot -> orderId.equals(slot.getAssignedOrderId()))
-            .map(PutWallSlot::getSlotId)
-            .findFirst();
+        return Optional.ofNullable(slotsByOrder.get(orderId))
+            .map(PutWallSlot::getSlotId);
+    }
+
+    /**
+     * The in-progress slot that has been waiting longest for the SKU, if any slot still
+     * needs it.
+     */
+    public Optional<PutWallSlot> findSlotForSku(SkuCode skuCode) {
+        Set<PutWallSlot> openSlots = openSlotsBySku.get(skuCode);
+        if (openSlots == null) {
+            return Optional.empty();
+        }
+        return Optional.of(openSlots.iterator().next());
     }
 
     public List<PutWallSlotId> getReadyForPackSlots() {
@@ -114,22 +172,26 @@ public class PutWall extends AggregateRoot {
     }
 
     public List<PutWallSlotId> getFreeSlots() {
-        return slots.values().stream()
-            .filter(PutWallSlot::isFree)
+        return freeSlots.stream()
             .map(PutWallSlot::getSlotId)
             .collect(Collectors.toList());
     }
 
     public int getAvailableCapacity() {
-        return (int) slots.values().stream()
-            .filter(PutWallSlot::isFree)
-            .count();
+        return freeSlots.size();
     }
 
     public boolean isFull() {
         return getAvailableCapacity() == 0;
     }
 
+    private void removeOpenSlot(SkuCode skuCode, PutWallSlot slot) {
+        Set<PutWallSlot> openSlots = openSlotsBySku.get(skuCode);
+        if (openSlots != null && openSlots.remove(slot) && openSlots.isEmpty()) {
+            openSlotsBySku.remove(skuCode);
+        }
+    }
+
     private PutWallSlot getSlot(PutWallSlotId slotId) {
         PutWallSlot slot = slots.get(slotId);
         if (slot == null) {
@@ -151,12 +213,28 @@ public class PutWall extends AggregateRoot {
         return location;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     public PutWallSlot getSlotById(PutWallSlotId slotId) {
         return getSlot(slotId);
     }
 
     public Map<PutWallSlotId, PutWallSlot> getAllSlots() {
-        return new HashMap<>(slots);
+        return new LinkedHashMap<>(slots);
     }
 
     @Override
@@ -0,0 +1,46 @@
+package com.paklog.warehouse.domain.putwall;
+
+import java.util.Objects;
+
+/**
+ * The put wall and slot an order was assigned to.
+ */
+public class PutWallAssignment {
+    private final PutWallId putWallId;
+    private final PutWallSlotId slotId;
+
+    public PutWallAssignment(PutWallId putWallId, PutWallSlotId slotId) {
+        this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
+        this.slotId = Objects.requireNonNull(slotId, "Slot ID cannot be null");
+    }
+
+    public PutWallId getPutWallId() {
+        return putWallId;
+    }
+
+    public PutWallSlotId getSlotId() {
+        return slotId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PutWallAssignment that = (PutWallAssignment) o;
+        return Objects.equals(putWallId, that.putWallId) &&
+               Objects.equals(slotId, that.slotId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(putWallId, slotId);
+    }
+
+    @Override
+    public String toString() {
+        return "PutWallAssignment{" +
+                "putWallId=" + putWallId +
+                ", slotId=" + slotId +
+                '}';
+    }
+}
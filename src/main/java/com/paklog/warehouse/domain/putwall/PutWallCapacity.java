@@ -0,0 +1,62 @@
+package com.paklog.warehouse.domain.putwall;
+
+import java.util.Objects;
+
+/**
+ * How much room a put wall has, read without its slots.
+ */
+public class PutWallCapacity {
+    private final PutWallId putWallId;
+    private final String location;
+    private final int capacity;
+    private final int availableCapacity;
+
+    public PutWallCapacity(PutWallId putWallId, String location, int capacity, int availableCapacity) {
+        this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
+        this.location = location;
+        this.capacity = capacity;
+        this.availableCapacity = availableCapacity;
+    }
+
+    public PutWallId getPutWallId() {
+        return putWallId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getAvailableCapacity() {
+        return availableCapacity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PutWallCapacity that = (PutWallCapacity) o;
+        return capacity == that.capacity &&
+               availableCapacity == that.availableCapacity &&
+               Objects.equals(putWallId, that.putWallId) &&
+               Objects.equals(location, that.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(putWallId, location, capacity, availableCapacity);
+    }
+
+    @Override
+    public String toString() {
+        return "PutWallCapacity{" +
+                "putWallId=" + putWallId +
+                ", location='" + location + '\'' +
+                ", capacity=" + capacity +
+                ", availableCapacity=" + availableCapacity +
+                '}';
+    }
+}
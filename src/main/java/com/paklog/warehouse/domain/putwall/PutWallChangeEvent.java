@@ -0,0 +1,17 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+
+/**
+ * A change to the slots of a put wall, numbered by the wall: each change takes the next
+ * sequence number, so the changes of one wall can be replayed in the order they were made.
+ */
+public interface PutWallChangeEvent extends DomainEvent {
+
+    PutWallId getPutWallId();
+
+    /**
+     * Number of the change on its wall, 0 when not known.
+     */
+    long getSequence();
+}
@@ -34,6 +34,18 @@ public class PutWallException extends RuntimeException {
         }
     }
 
+    public static class PutWallOwnedElsewhereException extends PutWallException {
+        public PutWallOwnedElsewhereException(PutWallId putWallId) {
+            super("PutWall " + putWallId + " is held by another instance");
+        }
+    }
+
+    public static class PutWallConcurrentModificationException extends PutWallException {
+        public PutWallConcurrentModificationException(PutWallId putWallId) {
+            super("PutWall " + putWallId + " was changed since it was read");
+        }
+    }
+
     public static class SlotNotFoundException extends PutWallException {
         public SlotNotFoundException(PutWallSlotId slotId) {
             super("Slot not found: " + slotId);
@@ -0,0 +1,430 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Live load of every put wall, used to pick the wall an order is assigned to instead of
+ * leaving the choice to the caller. Free slot counts are read from the repository on
+ * start and every refresh interval, and kept current in between from the assignment,
+ * consolidation and release events of the walls.
+ * <p>
+ * Walls are ranked by utilization, distance from the induct point and the share of the
+ * order's SKUs already open on the wall, lowest score first. An assignment holds the
+ * chosen wall's lock until the wall has taken the order, so concurrent inducts never
+ * race on one wall: a wall being assigned to is passed over for the next best one, and
+ * only when every candidate is busy does an induct wait for the best. A wall that turns
+ * out to be full, missing or changed elsewhere is skipped and the next one tried.
+ */
+public class PutWallLoadBalancer {
+    private static final Logger logger = LoggerFactory.getLogger(PutWallLoadBalancer.class);
+
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    public static final double DEFAULT_UTILIZATION_WEIGHT = 1.0;
+    public static final double DEFAULT_DISTANCE_WEIGHT = 0.5;
+    public static final double DEFAULT_AFFINITY_WEIGHT = 0.5;
+    // Floor for refreshes forced by finding no wall with room
+    private static final long MINIMUM_REFRESH_INTERVAL_MILLIS = 1_000;
+
+    private final PutWallRepository repository;
+    private final Duration refreshInterval;
+    private final double utilizationWeight;
+    private final double distanceWeight;
+    private final double affinityWeight;
+    private final Clock clock;
+    private final Map<PutWallId, WallLoad> walls = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final AtomicLong lastRefreshAt = new AtomicLong();
+    private volatile boolean loaded;
+
+    private final LongAdder assignments = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder contendedWaits = new LongAdder();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    public PutWallLoadBalancer(PutWallRepository repository) {
+        this(repository, DEFAULT_REFRESH_INTERVAL, DEFAULT_UTILIZATION_WEIGHT, DEFAULT_DISTANCE_WEIGHT,
+             DEFAULT_AFFINITY_WEIGHT, Clock.systemUTC());
+    }
+
+    public PutWallLoadBalancer(PutWallRepository repository, Duration refreshInterval, double utilizationWeight,
+                               double distanceWeight, double affinityWeight, Clock clock) {
+        this.repository = Objects.requireNonNull(repository, "PutWallRepository cannot be null");
+        this.refreshInterval = Objects.requireNonNull(refreshInterval, "Refresh interval cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("Refresh interval must be positive");
+        }
+        if (!(utilizationWeight >= 0) || !(distanceWeight >= 0) || !(affinityWeight >= 0)) {
+            throw new IllegalArgumentException("Weights must be non-negative");
+        }
+        this.utilizationWeight = utilizationWeight;
+        this.distanceWeight = distanceWeight;
+        this.affinityWeight = affinityWeight;
+    }
+
+    /**
+     * Assigns the order to the best wall with room through {@code assigner}, which is
+     * called with the wall's lock held and must not return before the wall has taken the
+     * order. Its own events are expected to reach {@link #orderAssigned} on the way.
+     *
+     * @throws PutWallException.PutWallCapacityExceededException if no wall could take it
+     */
+    public PutWallAssignment assign(AssignOrderToPutWallCommand command,
+                                    Function<AssignOrderToSlotCommand, Optional<PutWallSlotId>> assigner) {
+        Objects.requireNonNull(command, "Command cannot be null");
+        Objects.requireNonNull(assigner, "Assigner cannot be null");
+        ensureLoaded();
+        refreshIfOlderThan(refreshInterval.toMillis());
+
+        Set<PutWallId> tried = new HashSet<>();
+        boolean refreshed = false;
+        while (true) {
+            WallLoad wall = lockBest(command, tried);
+            if (wall == null) {
+                // Counts can lag behind walls added or emptied since the last refresh
+                if (!refreshed && refreshIfOlderThan(MINIMUM_REFRESH_INTERVAL_MILLIS)) {
+                    refreshed = true;
+                    continue;
+                }
+                rejections.increment();
+                throw new PutWallException.PutWallCapacityExceededException();
+            }
+            tried.add(wall.putWallId);
+            try {
+                Optional<PutWallSlotId> slotId = assigner.apply(
+                    new AssignOrderToSlotCommand(wall.putWallId, command.getOrderId(), command.getRequiredItems()));
+                if (slotId.isPresent()) {
+                    assignments.increment();
+                    return new PutWallAssignment(wall.putWallId, slotId.get());
+                }
+                wall.freeSlots.set(0);
+            } catch (PutWallException.PutWallCapacityExceededException e) {
+                wall.freeSlots.set(0);
+            } catch (PutWallException.PutWallNotFoundException e) {
+                walls.remove(wall.putWallId, wall);
+            } catch (PutWallException.PutWallOwnedElsewhereException e) {
+                // Assigned through the instance holding it; left alone until the next refresh
+                wall.suspended = true;
+            } catch (PutWallException.PutWallConcurrentModificationException e) {
+                logger.debug("Put wall {} changed while assigning order {}, trying the next wall",
+                             wall.putWallId, command.getOrderId());
+            } finally {
+                wall.lock.unlock();
+            }
+            fallbacks.increment();
+        }
+    }
+
+    /**
+     * An order took a slot on the wall; the wall has one free slot less and the order's
+     * SKUs count towards its affinity until the order is consolidated.
+     */
+    public void orderAssigned(PutWallId putWallId, OrderId orderId, Set<SkuCode> skuCodes) {
+        Objects.requireNonNull(orderId, "Order ID cannot be null");
+        WallLoad wall = wallOf(putWallId);
+        if (wall == null) {
+            // Not loaded yet; the next refresh counts it
+            return;
+        }
+        if (wall.openOrders.putIfAbsent(orderId, Set.copyOf(skuCodes)) != null) {
+            return;
+        }
+        wall.freeSlots.updateAndGet(free -> Math.max(0, free - 1));
+        skuCodes.forEach(skuCode -> wall.openSkus.merge(skuCode, 1, Integer::sum));
+    }
+
+    /**
+     * The order's items are all in its slot; its SKUs are no longer being sorted to the wall.
+     */
+    public void orderConsolidated(PutWallId putWallId, OrderId orderId) {
+        WallLoad wall = wallOf(putWallId);
+        if (wall != null) {
+            wall.closeOrder(orderId);
+        }
+    }
+
+    /**
+     * The order was taken out of its slot, which is free again.
+     */
+    public void slotReleased(PutWallId putWallId, OrderId orderId) {
+        WallLoad wall = wallOf(putWallId);
+        if (wall == null) {
+            return;
+        }
+        wall.closeOrder(orderId);
+        wall.freeSlots.updateAndGet(free -> Math.min(wall.capacity, free + 1));
+    }
+
+    /**
+     * Reads every wall's free slot count from the repository. Walls being assigned to
+     * keep the count their events left them with, which is newer.
+     */
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<PutWallCapacity> capacities = repository.findCapacitiesGreaterThan(-1);
+            Set<PutWallId> stored = new HashSet<>();
+            for (PutWallCapacity capacity : capacities) {
+                stored.add(capacity.getPutWallId());
+                walls.computeIfAbsent(capacity.getPutWallId(), WallLoad::new).update(capacity);
+            }
+            walls.keySet().retainAll(stored);
+            lastRefreshAt.set(clock.millis());
+            refreshes.incrementAndGet();
+            loaded = true;
+            logger.debug("Refreshed the load of {} put walls", stored.size());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Free slots the balancer counts on the wall, or -1 if it does not know the wall.
+     */
+    public int freeSlots(PutWallId putWallId) {
+        WallLoad wall = wallOf(putWallId);
+        return wall != null ? wall.freeSlots.get() : -1;
+    }
+
+    public Statistics getStatistics() {
+        int freeSlots = 0;
+        for (WallLoad wall : walls.values()) {
+            freeSlots += wall.freeSlots.get();
+        }
+        return new Statistics(walls.size(), freeSlots, assignments.sum(), fallbacks.sum(), rejections.sum(),
+                              contendedWaits.sum(), refreshes.get());
+    }
+
+    private WallLoad lockBest(AssignOrderToPutWallCommand command, Set<PutWallId> tried) {
+        while (true) {
+            List<Candidate> ranked = rank(command, tried);
+            if (ranked.isEmpty()) {
+                return null;
+            }
+            for (Candidate candidate : ranked) {
+                WallLoad wall = candidate.wall;
+                if (wall.lock.tryLock()) {
+                    if (wall.freeSlots.get() > 0) {
+                        return wall;
+                    }
+                    wall.lock.unlock();
+                }
+            }
+            // Every wall with room is being assigned to: queue on the best one
+            contendedWaits.increment();
+            WallLoad best = ranked.get(0).wall;
+            best.lock.lock();
+            if (best.freeSlots.get() > 0) {
+                return best;
+            }
+            best.lock.unlock();
+        }
+    }
+
+    private List<Candidate> rank(AssignOrderToPutWallCommand command, Set<PutWallId> tried) {
+        BinLocation induct = command.getInductLocation().orElse(null);
+        Set<SkuCode> skuCodes = command.getRequiredItems().keySet();
+
+        List<WallLoad> open = new ArrayList<>();
+        int farthest = 0;
+        for (WallLoad wall : walls.values()) {
+            if (wall.suspended || wall.freeSlots.get() <= 0 || tried.contains(wall.putWallId)) {
+                continue;
+            }
+            open.add(wall);
+            if (induct != null && wall.coordinates != null) {
+                farthest = Math.max(farthest, distance(induct, wall.coordinates));
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(open.size());
+        for (WallLoad wall : open) {
+            double utilization = 1.0 - (double) wall.freeSlots.get() / wall.capacity;
+            double distance = 0.0;
+            if (induct != null) {
+                // Walls placed by a name rather than a location count as farthest
+                distance = wall.coordinates == null ? 1.0
+                    : farthest == 0 ? 0.0 : (double) distance(induct, wall.coordinates) / farthest;
+            }
+            int shared = 0;
+            for (SkuCode skuCode : skuCodes) {
+                if (wall.openSkus.containsKey(skuCode)) {
+                    shared++;
+                }
+            }
+            double affinity = (double) shared / skuCodes.size();
+            ranked.add(new Candidate(wall,
+                utilizationWeight * utilization + distanceWeight * distance - affinityWeight * affinity));
+        }
+        ranked.sort(Comparator.comparingDouble(candidate -> candidate.score));
+        return ranked;
+    }
+
+    // Manhattan distance over the packed coordinates, as for putaway locations
+    private static int distance(BinLocation from, BinLocation to) {
+        int aisleDistance = Math.abs(from.aisleCoordinate() - to.aisleCoordinate());
+        int rackDistance = Math.abs(from.rackCoordinate() - to.rackCoordinate());
+        int levelDistance = Math.abs(from.levelCoordinate() - to.levelCoordinate());
+
+        return aisleDistance * 10 + rackDistance + levelDistance * 2;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            if (!loaded) {
+                refresh();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean refreshIfOlderThan(long ageMillis) {
+        long refreshedAt = lastRefreshAt.get();
+        long now = clock.millis();
+        // One caller wins the refresh; the rest carry on with the counts they have
+        if (now - refreshedAt < ageMillis || !lastRefreshAt.compareAndSet(refreshedAt, now)) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private WallLoad wallOf(PutWallId putWallId) {
+        return walls.get(Objects.requireNonNull(putWallId, "PutWall ID cannot be null"));
+    }
+
+    private static BinLocation coordinatesOf(String location) {
+        try {
+            return location != null ? BinLocation.of(location) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class WallLoad {
+        private final PutWallId putWallId;
+        // Held while an order is assigned to the wall
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicInteger freeSlots = new AtomicInteger();
+        private final Map<OrderId, Set<SkuCode>> openOrders = new ConcurrentHashMap<>();
+        private final Map<SkuCode, Integer> openSkus = new ConcurrentHashMap<>();
+        private volatile int capacity = 1;
+        private volatile String location;
+        private volatile BinLocation coordinates;
+        private volatile boolean suspended;
+
+        private WallLoad(PutWallId putWallId) {
+            this.putWallId = putWallId;
+        }
+
+        void update(PutWallCapacity stored) {
+            capacity = Math.max(1, stored.getCapacity());
+            if (!Objects.equals(location, stored.getLocation())) {
+                location = stored.getLocation();
+                coordinates = coordinatesOf(location);
+            }
+            suspended = false;
+            if (lock.tryLock()) {
+                try {
+                    freeSlots.set(Math.max(0, Math.min(capacity, stored.getAvailableCapacity())));
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        void closeOrder(OrderId orderId) {
+            Set<SkuCode> skuCodes = openOrders.remove(orderId);
+            if (skuCodes != null) {
+                skuCodes.forEach(skuCode ->
+                    openSkus.computeIfPresent(skuCode, (sku, count) -> count > 1 ? count - 1 : null));
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final WallLoad wall;
+        private final double score;
+
+        private Candidate(WallLoad wall, double score) {
+            this.wall = wall;
+            this.score = score;
+        }
+    }
+
+    public static class Statistics {
+        private final int walls;
+        private final int freeSlots;
+        private final long assignments;
+        private final long fallbacks;
+        private final long rejections;
+        private final long contendedWaits;
+        private final long refreshes;
+
+        public Statistics(int walls, int freeSlots, long assignments, long fallbacks, long rejections,
+                          long contendedWaits, long refreshes) {
+            this.walls = walls;
+            this.freeSlots = freeSlots;
+            this.assignments = assignments;
+            this.fallbacks = fallbacks;
+            this.rejections = rejections;
+            this.contendedWaits = contendedWaits;
+            this.refreshes = refreshes;
+        }
+
+        public int getWalls() {
+            return walls;
+        }
+
+        public int getFreeSlots() {
+            return freeSlots;
+        }
+
+        public long getAssignments() {
+            return assignments;
+        }
+
+        public long getFallbacks() {
+            return fallbacks;
+        }
+
+        public long getRejections() {
+            return rejections;
+        }
+
+        public long getContendedWaits() {
+            return contendedWaits;
+        }
+
+        public long getRefreshes() {
+            return refreshes;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.paklog.warehouse.domain.putwall;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,11 +12,48 @@ public interface PutWallRepository {
 
     List<PutWall> findAll();
 
+    /**
+     * Stores the whole wall, provided the stored one is still at the version it was read at.
+     *
+     * @throws PutWallException.PutWallConcurrentModificationException when it is not
+     */
     void save(PutWall putWall);
 
+    /**
+     * Writes item placements made on the wall as increments of the placed quantities of
+     * their slots rather than storing the whole wall, provided the stored one is still at
+     * the version it was read at. All placements are written in one update.
+     *
+     * @throws PutWallException.PutWallConcurrentModificationException when it is not
+     */
+    void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements);
+
+    /**
+     * Marks the stored wall as written by {@code ownerToken} alone and returns it as stored,
+     * including the sequence number of the last change written into it. Slot writes of
+     * any earlier owner no longer match once this returns.
+     */
+    Optional<PutWall> claim(PutWallId putWallId, String ownerToken);
+
+    /**
+     * Writes only the given slots of the wall, along with the number of its slots that are
+     * free, and records that the stored wall includes every change up to {@code sequence}.
+     *
+     * @throws PutWallException.PutWallOwnedElsewhereException when the wall was claimed
+     *         since by another owner, or stored whole, and nothing was written
+     */
+    void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount, long sequence,
+                   String ownerToken);
+
     void delete(PutWallId putWallId);
 
     List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity);
 
+    /**
+     * The capacity of the walls with more than {@code minCapacity} free slots, without
+     * reading their slots.
+     */
+    List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity);
+
     boolean exists(PutWallId putWallId);
 }
\ No newline at end of file
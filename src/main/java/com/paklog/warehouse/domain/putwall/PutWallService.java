@@ -4,7 +4,6 @@ import com.paklog.warehouse.domain.shared.OrderId;
 import com.paklog.warehouse.domain.shared.Quantity;
 import com.paklog.warehouse.domain.shared.SkuCode;
 
-import java.util.Map;
 import java.util.Optional;
 
 public class PutWallService {
@@ -17,34 +16,18 @@ public class PutWallService {
             throw new IllegalArgumentException("Scanned SKU cannot be null");
         }
 
-        Optional<PutWallSlotId> targetSlot = putWall.getAllSlots().entrySet().stream()
-            .filter(entry -> {
-                PutWallSlot slot = entry.getValue();
-                return slot.getStatus() == PutWallSlotStatus.IN_PROGRESS &&
-                       slot.getItemsRequired().containsKey(scannedSku) &&
-                       !isSkuCompleteForSlot(slot, scannedSku);
-            })
-            .map(Map.Entry::getKey)
-            .findFirst();
+        Optional<PutWallSlot> targetSlot = putWall.findSlotForSku(scannedSku);
 
         if (targetSlot.isPresent()) {
-            PutWallSlot slot = putWall.getSlotById(targetSlot.get());
-            Quantity required = slot.getItemsRequired().get(scannedSku);
-            Quantity placed = slot.getItemsPlaced().getOrDefault(scannedSku, Quantity.of(0));
-            Quantity remaining = required.subtract(placed);
+            PutWallSlot slot = targetSlot.get();
+            Quantity remaining = Quantity.of(slot.getRemainingQuantity(scannedSku));
 
-            return SortationResult.found(targetSlot.get(), slot.getAssignedOrderId(), remaining);
+            return SortationResult.found(slot.getSlotId(), slot.getAssignedOrderId(), remaining);
         }
 
         return SortationResult.notFound("No active slot requires SKU: " + scannedSku);
     }
 
-    private boolean isSkuCompleteForSlot(PutWallSlot slot, SkuCode skuCode) {
-        Quantity required = slot.getItemsRequired().get(skuCode);
-        Quantity placed = slot.getItemsPlaced().getOrDefault(skuCode, Quantity.of(0));
-        return placed.getValue() >= required.getValue();
-    }
-
     public void validateItemPlacement(PutWall putWall, PutWallSlotId slotId, SkuCode skuCode, Quantity quantity) {
         if (putWall == null) {
             throw new IllegalArgumentException("PutWall cannot be null");
@@ -65,12 +48,12 @@ public class PutWallService {
             throw new IllegalStateException("Slot " + slotId + " is not in progress");
         }
 
-        if (!slot.getItemsRequired().containsKey(skuCode)) {
+        if (!slot.requires(skuCode)) {
             throw new IllegalArgumentException("SKU " + skuCode + " is not required for order in slot " + slotId);
         }
 
-        Quantity required = slot.getItemsRequired().get(skuCode);
-        Quantity currentPlaced = slot.getItemsPlaced().getOrDefault(skuCode, Quantity.of(0));
+        Quantity required = slot.getRequiredQuantity(skuCode);
+        Quantity currentPlaced = slot.getPlacedQuantity(skuCode);
         Quantity newTotal = currentPlaced.add(quantity);
 
         if (newTotal.getValue() > required.getValue()) {
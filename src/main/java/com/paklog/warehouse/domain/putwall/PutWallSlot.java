@@ -22,6 +22,18 @@ public class PutWallSlot {
         this.status = PutWallSlotStatus.FREE;
     }
 
+    /**
+     * A detached copy, for writing the slot out while the wall keeps changing.
+     */
+    public PutWallSlot copy() {
+        PutWallSlot copy = new PutWallSlot(slotId);
+        copy.assignedOrderId = assignedOrderId;
+        copy.itemsRequired.putAll(itemsRequired);
+        copy.itemsPlaced.putAll(itemsPlaced);
+        copy.status = status;
+        return copy;
+    }
+
     public void assignToOrder(OrderId orderId, Map<SkuCode, Quantity> requiredItems) {
         if (this.status != PutWallSlotStatus.FREE) {
             throw new IllegalStateException("Slot is not free for assignment");
@@ -105,6 +117,25 @@ public class PutWallSlot {
         return assignedOrderId;
     }
 
+    public Quantity getRequiredQuantity(SkuCode skuCode) {
+        return itemsRequired.getOrDefault(skuCode, Quantity.of(0));
+    }
+
+    public Quantity getPlacedQuantity(SkuCode skuCode) {
+        return itemsPlaced.getOrDefault(skuCode, Quantity.of(0));
+    }
+
+    /**
+     * Quantity of the SKU still to be placed, zero when the order does not need it.
+     */
+    public int getRemainingQuantity(SkuCode skuCode) {
+        return getRequiredQuantity(skuCode).getValue() - getPlacedQuantity(skuCode).getValue();
+    }
+
+    public boolean requires(SkuCode skuCode) {
+        return itemsRequired.containsKey(skuCode);
+    }
+
     public Map<SkuCode, Quantity> getItemsRequired() {
         return new HashMap<>(itemsRequired);
     }
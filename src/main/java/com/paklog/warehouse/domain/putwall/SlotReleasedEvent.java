@@ -1,25 +1,31 @@
 package com.paklog.warehouse.domain.putwall;
 
-import com.paklog.warehouse.domain.shared.DomainEvent;
 import com.paklog.warehouse.domain.shared.OrderId;
 
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
-public class SlotReleasedEvent implements DomainEvent {
+public class SlotReleasedEvent implements PutWallChangeEvent {
     private final UUID eventId;
     private final Instant occurredAt;
     private final PutWallId putWallId;
     private final PutWallSlotId slotId;
     private final OrderId releasedOrderId;
+    // Number of the change on its wall, 0 when not known
+    private final long sequence;
 
     public SlotReleasedEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId releasedOrderId) {
+        this(putWallId, slotId, releasedOrderId, 0);
+    }
+
+    public SlotReleasedEvent(PutWallId putWallId, PutWallSlotId slotId, OrderId releasedOrderId, long sequence) {
         this.eventId = UUID.randomUUID();
         this.occurredAt = Instant.now();
         this.putWallId = Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
         this.slotId = Objects.requireNonNull(slotId, "Slot ID cannot be null");
         this.releasedOrderId = Objects.requireNonNull(releasedOrderId, "Released order ID cannot be null");
+        this.sequence = sequence;
     }
 
     @Override
@@ -32,6 +38,7 @@ public class SlotReleasedEvent implements DomainEvent {
         return occurredAt;
     }
 
+    @Override
     public PutWallId getPutWallId() {
         return putWallId;
     }
@@ -44,6 +51,11 @@ public class SlotReleasedEvent implements DomainEvent {
         return releasedOrderId;
     }
 
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,29 +1,85 @@
 package com.paklog.warehouse.domain.shared;
 
+import org.springframework.data.annotation.Transient;
+
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aisle-Rack-Level address of a bin. Besides the textual segments every location carries
+ * a packed numeric coordinate, computed on construction, so that distance and ordering
+ * need no string parsing. Both it and the cached hash are derived state and are never
+ * persisted. Prefer the {@code of} factories: they return canonical instances
+ * from a shared pool.
+ */
+public class BinLocation implements Comparable<BinLocation> {
+    // Each segment packs into 21 bits: 5 bits letter prefix (A=1..Z=26, 0 for none),
+    // 1 bit digits present, 15 bits numeric value
+    private static final int SEGMENT_BITS = 21;
+    private static final int NUMBER_BITS = 15;
+    private static final int MAX_NUMBER = (1 << NUMBER_BITS) - 1;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    private static final int UNENCODABLE = (int) SEGMENT_MASK;
+
+    private static final int MAX_POOLED = 1 << 20;
+    private static final ConcurrentHashMap<BinLocation, BinLocation> POOL = new ConcurrentHashMap<>();
+    // Pooled locations by their "Aisle-Rack-Level" text, so repeated parses skip the substrings
+    private static final ConcurrentHashMap<String, BinLocation> PARSED = new ConcurrentHashMap<>();
 
-public class BinLocation {
     private final String aisle;
     private final String rack;
     private final String level;
+    @Transient
+    private final transient long coordinateKey;
+    @Transient
+    private transient int hash;
 
     public BinLocation(String aisle, String rack, String level) {
         this.aisle = Objects.requireNonNull(aisle, "Aisle cannot be null");
         this.rack = Objects.requireNonNull(rack, "Rack cannot be null");
         this.level = Objects.requireNonNull(level, "Level cannot be null");
+        this.coordinateKey = (long) encodeSegment(aisle) << (2 * SEGMENT_BITS)
+            | (long) encodeSegment(rack) << SEGMENT_BITS
+            | encodeSegment(level);
     }
 
     public static BinLocation of(String location) {
         // Assuming location format is "Aisle-Rack-Level"
-        String[] parts = location.split("-");
-        if (parts.length != 3) {
+        Objects.requireNonNull(location, "Location cannot be null");
+        BinLocation parsed = PARSED.get(location);
+        if (parsed != null) {
+            return parsed;
+        }
+        int first = location.indexOf('-');
+        int second = first < 0 ? -1 : location.indexOf('-', first + 1);
+        if (second < 0 || second == location.length() - 1 || location.indexOf('-', second + 1) >= 0) {
             throw new IllegalArgumentException("Invalid bin location format. Use 'Aisle-Rack-Level'");
         }
-        return new BinLocation(parts[0], parts[1], parts[2]);
+        parsed = of(location.substring(0, first), location.substring(first + 1, second), location.substring(second + 1));
+        if (PARSED.size() < MAX_POOLED) {
+            PARSED.putIfAbsent(location, parsed);
+        }
+        return parsed;
     }
 
     public static BinLocation of(String aisle, String rack, String level) {
-        return new BinLocation(aisle, rack, level);
+        return intern(new BinLocation(aisle, rack, level));
+    }
+
+    /**
+     * Canonical instance equal to the given location. The pool is bounded; once full,
+     * locations not already pooled are returned as they are.
+     */
+    public static BinLocation intern(BinLocation location) {
+        BinLocation pooled = POOL.get(location);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_POOLED) {
+            return location;
+        }
+        pooled = POOL.putIfAbsent(location, location);
+        return pooled != null ? pooled : location;
     }
 
     public String getAisle() {
@@ -42,23 +98,99 @@ public class BinLocation {
         return toString();
     }
 
+    /**
+     * Packed aisle, rack and level, ordered segment by segment. Segments that differ only
+     * in leading zeros share a key; segments that cannot be encoded sort last.
+     */
+    public long coordinateKey() {
+        return coordinateKey;
+    }
+
+    /**
+     * Numeric position of the aisle: its number, or for a bare letter its place in the
+     * alphabet (A = 1). Returns 0 when the aisle cannot be encoded.
+     */
+    public int aisleCoordinate() {
+        return axisValue(coordinateKey() >>> (2 * SEGMENT_BITS));
+    }
+
+    public int rackCoordinate() {
+        return axisValue(coordinateKey() >>> SEGMENT_BITS);
+    }
+
+    public int levelCoordinate() {
+        return axisValue(coordinateKey());
+    }
+
+    @Override
+    public int compareTo(BinLocation other) {
+        int byCoordinates = Long.compare(coordinateKey(), other.coordinateKey());
+        return byCoordinates != 0 ? byCoordinates : toString().compareTo(other.toString());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BinLocation that = (BinLocation) o;
-        return aisle.equals(that.aisle) && 
+        return hashCode() == that.hashCode() &&
+               aisle.equals(that.aisle) && 
                rack.equals(that.rack) && 
                level.equals(that.level);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(aisle, rack, level);
+        int h = hash;
+        if (h == 0) {
+            // Same value as Objects.hash(aisle, rack, level), without the varargs array
+            h = 31 * (31 * (31 + aisle.hashCode()) + rack.hashCode()) + level.hashCode();
+            hash = h;
+        }
+        return h;
     }
 
     @Override
     public String toString() {
         return aisle + "-" + rack + "-" + level;
     }
-}
\ No newline at end of file
+
+    private static int axisValue(long segmentBits) {
+        int segment = (int) (segmentBits & SEGMENT_MASK);
+        if (segment == UNENCODABLE) {
+            return 0;
+        }
+        boolean hasDigits = (segment & (1 << NUMBER_BITS)) != 0;
+        return hasDigits ? segment & MAX_NUMBER : segment >>> (NUMBER_BITS + 1);
+    }
+
+    // An optional single letter followed by an optional number up to MAX_NUMBER
+    private static int encodeSegment(String segment) {
+        int length = segment.length();
+        if (length == 0) {
+            return UNENCODABLE;
+        }
+        int index = 0;
+        int letter = 0;
+        char first = Character.toUpperCase(segment.charAt(0));
+        if (first >= 'A' && first <= 'Z') {
+            letter = first - 'A' + 1;
+            index = 1;
+        }
+        if (index == length) {
+            return letter << (NUMBER_BITS + 1);
+        }
+        int number = 0;
+        for (; index < length; index++) {
+            char c = segment.charAt(index);
+            if (c < '0' || c > '9') {
+                return UNENCODABLE;
+            }
+            number = number * 10 + (c - '0');
+            if (number > MAX_NUMBER) {
+                return UNENCODABLE;
+            }
+        }
+        return letter << (NUMBER_BITS + 1) | 1 << NUMBER_BITS | number;
+    }
+}
@@ -26,6 +26,10 @@ public class OrderId {
         }
     }
 
+    public static OrderId of(UUID value) {
+        return new OrderId(value);
+    }
+
     public UUID getValue() {
         return value;
     }
@@ -12,13 +12,26 @@ public class WaveCreatedEvent implements DomainEvent {
     private final WaveId waveId;
     private final List<OrderId> orderIds;
     private final String shippingSpeedCategory;
+    private final Instant plannedDate;
+    private final Instant cutoffTime;
+    private final String carrier;
+    private final int maxOrders;
 
     public WaveCreatedEvent(WaveId waveId, List<OrderId> orderIds, String shippingSpeedCategory, Instant occurredAt) {
+        this(waveId, orderIds, shippingSpeedCategory, occurredAt, occurredAt, null, null, orderIds.size());
+    }
+
+    public WaveCreatedEvent(WaveId waveId, List<OrderId> orderIds, String shippingSpeedCategory, Instant occurredAt,
+                            Instant plannedDate, Instant cutoffTime, String carrier, int maxOrders) {
         this.eventId = UUID.randomUUID();
         this.occurredAt = occurredAt;
         this.waveId = waveId;
         this.orderIds = orderIds;
         this.shippingSpeedCategory = shippingSpeedCategory;
+        this.plannedDate = plannedDate;
+        this.cutoffTime = cutoffTime;
+        this.carrier = carrier;
+        this.maxOrders = maxOrders;
     }
 
     @Override
@@ -43,6 +56,22 @@ public class WaveCreatedEvent implements DomainEvent {
         return shippingSpeedCategory;
     }
 
+    public Instant getPlannedDate() {
+        return plannedDate;
+    }
+
+    public Instant getCutoffTime() {
+        return cutoffTime;
+    }
+
+    public String getCarrier() {
+        return carrier;
+    }
+
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+
     public int getOrderCount() {
         return orderIds.size();
     }
@@ -0,0 +1,498 @@
+package com.paklog.warehouse.domain.wave;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Releases planned waves when their carrier cutoff minus the estimated pick duration is
+ * reached. Pending releases sit in an in-memory priority queue ordered by that target;
+ * a single dispatcher thread sleeps until the earliest target, so nothing polls the
+ * repository.
+ * <p>
+ * A new wave is scheduled only on the instance that created it. Every instance therefore
+ * also rebuilds its queue from the planned waves in the repository, on start and then
+ * once per rebuild interval, so a wave created on another instance, or on one that
+ * stopped before releasing it, is released at most one rebuild interval late. The release
+ * is a conditional update from planned to released, committed in one transaction with
+ * the release events' outbox entries: only the instance that wins the update publishes,
+ * and a release whose events cannot be recorded is rolled back and retried with an
+ * exponential backoff.
+ */
+public class WaveReleaseScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(WaveReleaseScheduler.class);
+
+    public static final Duration DEFAULT_RELEASE_BUFFER = Duration.ofMinutes(15);
+    public static final Duration DEFAULT_PICK_TIME_PER_ORDER = Duration.ofMinutes(2);
+    public static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_REBUILD_INTERVAL = Duration.ofMinutes(5);
+    static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    private final WaveRepository waveRepository;
+    private final Function<Wave, Duration> pickDurationEstimator;
+    private final Consumer<DomainEvent> eventSink;
+    private final TransactionOperations transactions;
+    private final Duration retryBackoff;
+    private final Duration rebuildInterval;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition scheduleChanged = lock.newCondition();
+    private final PriorityQueue<ScheduledRelease> queue = new PriorityQueue<>(
+        Comparator.comparing((ScheduledRelease release) -> release.releaseAt).thenComparingLong(release -> release.sequence));
+    private final Map<WaveId, ScheduledRelease> scheduled = new HashMap<>();
+    private long nextSequence;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    private final LongAdder releasedWaves = new LongAdder();
+    private final LongAdder skippedReleases = new LongAdder();
+    private final LongAdder failedReleases = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastLagMillis;
+
+    public WaveReleaseScheduler(WaveRepository waveRepository, Consumer<DomainEvent> eventSink) {
+        this(waveRepository, linearEstimate(DEFAULT_RELEASE_BUFFER, DEFAULT_PICK_TIME_PER_ORDER), eventSink,
+             Clock.systemUTC());
+    }
+
+    public WaveReleaseScheduler(WaveRepository waveRepository, Function<Wave, Duration> pickDurationEstimator,
+                                Consumer<DomainEvent> eventSink, Clock clock) {
+        this(waveRepository, pickDurationEstimator, eventSink, TransactionOperations.withoutTransaction(),
+             DEFAULT_RETRY_BACKOFF, DEFAULT_REBUILD_INTERVAL, clock);
+    }
+
+    /**
+     * @param eventSink       appends a released wave's events to the outbox; called inside
+     *                        {@code transactions} together with the status update
+     * @param retryBackoff    delay before the first retry of a failed release, doubled for
+     *                        each further failure up to five minutes
+     * @param rebuildInterval how often the dispatcher rebuilds the queue from the repository
+     */
+    public WaveReleaseScheduler(WaveRepository waveRepository, Function<Wave, Duration> pickDurationEstimator,
+                                Consumer<DomainEvent> eventSink, TransactionOperations transactions,
+                                Duration retryBackoff, Duration rebuildInterval, Clock clock) {
+        this.waveRepository = Objects.requireNonNull(waveRepository, "Wave repository cannot be null");
+        this.pickDurationEstimator = Objects.requireNonNull(pickDurationEstimator, "Pick duration estimator cannot be null");
+        this.eventSink = Objects.requireNonNull(eventSink, "Event sink cannot be null");
+        this.transactions = Objects.requireNonNull(transactions, "Transactions cannot be null");
+        this.retryBackoff = Objects.requireNonNull(retryBackoff, "Retry backoff cannot be null");
+        this.rebuildInterval = Objects.requireNonNull(rebuildInterval, "Rebuild interval cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        if (retryBackoff.isZero() || retryBackoff.isNegative()) {
+            throw new IllegalArgumentException("Retry backoff must be positive");
+        }
+        if (rebuildInterval.isZero() || rebuildInterval.isNegative()) {
+            throw new IllegalArgumentException("Rebuild interval must be positive");
+        }
+    }
+
+    /**
+     * Estimates picking a wave as a fixed buffer plus a time per order.
+     */
+    public static Function<Wave, Duration> linearEstimate(Duration buffer, Duration perOrder) {
+        Objects.requireNonNull(buffer, "Buffer cannot be null");
+        Objects.requireNonNull(perOrder, "Time per order cannot be null");
+        return wave -> buffer.plus(perOrder.multipliedBy(wave.getOrderCount()));
+    }
+
+    /**
+     * Starts the dispatcher thread, which first rebuilds the schedule from the repository.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatch, "wave-release-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            try {
+                dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Makes the schedule match the planned waves in the repository: waves no longer planned
+     * are dropped and new or rescheduled ones are queued. A wave whose target is unchanged
+     * keeps its entry, so a release waiting out a retry backoff is not fired early.
+     *
+     * @return the number of waves scheduled
+     */
+    public int rebuild() {
+        List<Wave> planned = waveRepository.findByStatus(WaveStatus.PLANNED);
+        lock.lock();
+        try {
+            Set<WaveId> stillPlanned = new HashSet<>();
+            int count = 0;
+            for (Wave wave : planned) {
+                Instant target = targetOf(wave);
+                if (target == null) {
+                    continue;
+                }
+                stillPlanned.add(wave.getId());
+                count++;
+                ScheduledRelease current = scheduled.get(wave.getId());
+                if (current == null || !current.target.equals(target)) {
+                    enqueue(wave.getId(), target);
+                }
+            }
+            scheduled.entrySet().removeIf(entry -> {
+                if (stillPlanned.contains(entry.getKey())) {
+                    return false;
+                }
+                entry.getValue().cancelled = true;
+                return true;
+            });
+            rebuilds.increment();
+            scheduleChanged.signalAll();
+            logger.debug("Scheduled {} planned waves for release", count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules or reschedules a planned wave with a cutoff time.
+     *
+     * @return false when the wave is not planned or has no cutoff
+     */
+    public boolean schedule(Wave wave) {
+        Objects.requireNonNull(wave, "Wave cannot be null");
+        lock.lock();
+        try {
+            Instant target = targetOf(wave);
+            if (target == null) {
+                return false;
+            }
+            enqueue(wave.getId(), target);
+            scheduleChanged.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops a wave from this instance's schedule. A wave that stays planned is scheduled
+     * again by the next rebuild.
+     */
+    public boolean cancel(WaveId waveId) {
+        lock.lock();
+        try {
+            ScheduledRelease release = scheduled.remove(waveId);
+            if (release == null) {
+                return false;
+            }
+            release.cancelled = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<Instant> getReleaseTime(WaveId waveId) {
+        lock.lock();
+        try {
+            ScheduledRelease release = scheduled.get(waveId);
+            return release != null ? Optional.of(release.releaseAt) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases every wave whose target has been reached.
+     *
+     * @return the number of waves released
+     */
+    public int releaseDue() {
+        int released = 0;
+        while (true) {
+            ScheduledRelease due;
+            lock.lock();
+            try {
+                due = peekLive();
+                if (due == null || due.releaseAt.isAfter(clock.instant())) {
+                    return released;
+                }
+                queue.poll();
+                scheduled.remove(due.waveId);
+            } finally {
+                lock.unlock();
+            }
+            if (release(due)) {
+                released++;
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return scheduled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(releasedWaves.sum(), skippedReleases.sum(), failedReleases.sum(), rebuilds.sum(),
+                              totalLagMillis.sum(), maxLagMillis.get(), lastLagMillis, getPendingCount());
+    }
+
+    // Null when the wave is not planned or has no cutoff
+    private Instant targetOf(Wave wave) {
+        if (wave.getStatus() != WaveStatus.PLANNED || wave.getCutoffTime() == null) {
+            return null;
+        }
+        return wave.getCutoffTime().minus(pickDurationEstimator.apply(wave));
+    }
+
+    private void enqueue(WaveId waveId, Instant target) {
+        enqueue(new ScheduledRelease(waveId, target, target, 0, nextSequence++));
+    }
+
+    private void enqueue(ScheduledRelease release) {
+        ScheduledRelease previous = scheduled.put(release.waveId, release);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        queue.add(release);
+    }
+
+    // Unless the wave was rescheduled or cancelled while its release was running
+    private void retryLater(ScheduledRelease failed) {
+        int attempts = failed.attempts + 1;
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+            backoff = MAX_RETRY_BACKOFF;
+        }
+        lock.lock();
+        try {
+            if (failed.cancelled || scheduled.containsKey(failed.waveId)) {
+                return;
+            }
+            enqueue(new ScheduledRelease(failed.waveId, failed.target, clock.instant().plus(backoff), attempts,
+                                         nextSequence++));
+            scheduleChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        logger.warn("Retrying the release of wave {} in {} (attempt {})", failed.waveId, backoff, attempts + 1);
+    }
+
+    // Cancelled and rescheduled entries are dropped lazily when they reach the head
+    private ScheduledRelease peekLive() {
+        ScheduledRelease head = queue.peek();
+        while (head != null && head.cancelled) {
+            queue.poll();
+            head = queue.peek();
+        }
+        return head;
+    }
+
+    private boolean release(ScheduledRelease due) {
+        Instant firedAt = clock.instant();
+        try {
+            Optional<Wave> current = waveRepository.findById(due.waveId);
+            if (current.isEmpty() || current.get().getStatus() != WaveStatus.PLANNED) {
+                // Released, cancelled or deleted since it was scheduled
+                skippedReleases.increment();
+                return false;
+            }
+            Wave wave = current.get();
+            wave.release();
+            List<DomainEvent> events = new ArrayList<>(wave.getUncommittedEvents());
+            wave.clearEvents();
+            // The status and the outbox entries commit together, or neither does
+            Boolean released = transactions.execute(status -> {
+                if (!waveRepository.markReleased(wave.getId(), wave.getReleaseDate())) {
+                    return false;
+                }
+                events.forEach(eventSink);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(released)) {
+                // Another instance released or cancelled it first
+                skippedReleases.increment();
+                return false;
+            }
+
+            long lagMillis = Math.max(0, Duration.between(due.target, firedAt).toMillis());
+            releasedWaves.increment();
+            totalLagMillis.add(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+            lastLagMillis = lagMillis;
+            logger.debug("Released wave {} {} ms after its target {}", due.waveId, lagMillis, due.target);
+            return true;
+        } catch (RuntimeException e) {
+            failedReleases.increment();
+            logger.error("Failed to release wave {}", due.waveId, e);
+            retryLater(due);
+            return false;
+        }
+    }
+
+    private void dispatch() {
+        Instant nextRebuild = clock.instant();
+        while (running) {
+            try {
+                if (!clock.instant().isBefore(nextRebuild)) {
+                    nextRebuild = clock.instant().plus(rebuildInterval);
+                    rebuildQuietly();
+                }
+                releaseDue();
+                awaitNextRelease(nextRebuild);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Wave release dispatch failed", e);
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Waves already scheduled are still released; the next rebuild tries again
+            logger.warn("Failed to rebuild the wave release schedule: {}", e.getMessage());
+        }
+    }
+
+    private void awaitNextRelease(Instant nextRebuild) throws InterruptedException {
+        lock.lock();
+        try {
+            ScheduledRelease head = peekLive();
+            Instant wakeUp = head == null || head.releaseAt.isAfter(nextRebuild) ? nextRebuild : head.releaseAt;
+            long delayNanos = Duration.between(clock.instant(), wakeUp).toNanos();
+            if (delayNanos > 0) {
+                scheduleChanged.awaitNanos(delayNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class ScheduledRelease {
+        private final WaveId waveId;
+        // Cutoff minus pick duration; releaseAt is later while a failed release backs off
+        private final Instant target;
+        private final Instant releaseAt;
+        private final int attempts;
+        private final long sequence;
+        private boolean cancelled;
+
+        ScheduledRelease(WaveId waveId, Instant target, Instant releaseAt, int attempts, long sequence) {
+            this.waveId = waveId;
+            this.target = target;
+            this.releaseAt = releaseAt;
+            this.attempts = attempts;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Release counts and lag, the time between a release's target and when it fired.
+     */
+    public static class Statistics {
+        private final long releasedWaves;
+        private final long skippedReleases;
+        private final long failedReleases;
+        private final long rebuilds;
+        private final long totalLagMillis;
+        private final long maxLagMillis;
+        private final long lastLagMillis;
+        private final int pendingWaves;
+
+        public Statistics(long releasedWaves, long skippedReleases, long failedReleases, long rebuilds,
+                          long totalLagMillis, long maxLagMillis, long lastLagMillis, int pendingWaves) {
+            this.releasedWaves = releasedWaves;
+            this.skippedReleases = skippedReleases;
+            this.failedReleases = failedReleases;
+            this.rebuilds = rebuilds;
+            this.totalLagMillis = totalLagMillis;
+            this.maxLagMillis = maxLagMillis;
+            this.lastLagMillis = lastLagMillis;
+            this.pendingWaves = pendingWaves;
+        }
+
+        public long getReleasedWaves() {
+            return releasedWaves;
+        }
+
+        public long getSkippedReleases() {
+            return skippedReleases;
+        }
+
+        public long getFailedReleases() {
+            return failedReleases;
+        }
+
+        public long getRebuilds() {
+            return rebuilds;
+        }
+
+        public long getTotalLagMillis() {
+            return totalLagMillis;
+        }
+
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+
+        public long getLastLagMillis() {
+            return lastLagMillis;
+        }
+
+        public double getMeanLagMillis() {
+            return releasedWaves == 0 ? 0.0 : (double) totalLagMillis / releasedWaves;
+        }
+
+        public int getPendingWaves() {
+            return pendingWaves;
+        }
+    }
+}
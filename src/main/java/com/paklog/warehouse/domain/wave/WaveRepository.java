@@ -13,6 +13,14 @@ public interface WaveRepository {
      */
     void save(Wave wave);
     
+    /**
+     * Move a planned wave to released in one conditional update, so that of several
+     * instances releasing the same wave only one succeeds
+     *
+     * @return false when the wave does not exist or is no longer planned
+     */
+    boolean markReleased(WaveId waveId, Instant releaseDate);
+    
     /**
      * Find a wave by its ID
      */
@@ -1,5 +1,6 @@
 package com.paklog.warehouse.domain.work;
 
+import com.paklog.warehouse.domain.layout.BinReservation;
 import com.paklog.warehouse.domain.location.LocationDirectiveService;
 import com.paklog.warehouse.domain.location.LocationQuery;
 import com.paklog.warehouse.domain.shared.BinLocation;
@@ -36,17 +37,15 @@ public class LocationAwareWorkCreationService {
         LocationQuery query = new LocationQuery(workType, item, quantity);
         
         // Select optimal location using location directives
-        BinLocation optimalLocation = locationDirectiveService.selectOptimalLocation(query);
-        
-        if (optimalLocation == null) {
-            throw new IllegalStateException("No suitable location found for work type: " + workType + 
-                                          ", item: " + item);
-        }
+        LocationDirectiveService.ReservedLocation optimalLocation = locationDirectiveService
+            .reserveOptimalLocation(query)
+            .orElseThrow(() -> new IllegalStateException("No suitable location found for work type: " + workType + 
+                                                         ", item: " + item));
 
-        logger.info("Selected optimal location: {} for work", optimalLocation);
+        logger.info("Selected optimal location: {} for work", optimalLocation.getLocation());
         
         // Create work using the selected location
-        return workCreationService.createWork(workType, optimalLocation, item, quantity, assignedTo);
+        return createWork(workType, optimalLocation, item, quantity, assignedTo);
     }
 
     public Work createWorkWithLocationPreferences(WorkType workType, SkuCode item, 
@@ -59,16 +58,14 @@ public class LocationAwareWorkCreationService {
                                                locationPreferences, null);
         
         // Select optimal location using location directives and preferences
-        BinLocation optimalLocation = locationDirectiveService.selectOptimalLocation(query);
-        
-        if (optimalLocation == null) {
-            throw new IllegalStateException("No suitable location found for work type: " + workType + 
-                                          ", item: " + item + " with preferences: " + locationPreferences);
-        }
+        LocationDirectiveService.ReservedLocation optimalLocation = locationDirectiveService
+            .reserveOptimalLocation(query)
+            .orElseThrow(() -> new IllegalStateException("No suitable location found for work type: " + workType + 
+                                                         ", item: " + item + " with preferences: " + locationPreferences));
 
-        logger.info("Selected optimal location: {} for work with preferences", optimalLocation);
+        logger.info("Selected optimal location: {} for work with preferences", optimalLocation.getLocation());
         
-        return workCreationService.createWork(workType, optimalLocation, item, quantity, assignedTo);
+        return createWork(workType, optimalLocation, item, quantity, assignedTo);
     }
 
     public Work createWorkWithCandidateLocations(WorkType workType, SkuCode item, 
@@ -82,16 +79,17 @@ public class LocationAwareWorkCreationService {
                                                new HashMap<>(), candidateLocations);
         
         // Select best location from candidates
-        BinLocation bestLocation = locationDirectiveService.selectOptimalLocation(query);
+        Optional<LocationDirectiveService.ReservedLocation> bestLocation =
+            locationDirectiveService.reserveOptimalLocation(query);
         
-        if (bestLocation == null) {
+        if (bestLocation.isEmpty()) {
             logger.warn("No suitable location found from candidates, using first candidate");
-            bestLocation = candidateLocations.get(0);
+            return workCreationService.createWork(workType, candidateLocations.get(0), item, quantity, assignedTo);
         }
 
-        logger.info("Selected location: {} from candidates for work", bestLocation);
+        logger.info("Selected location: {} from candidates for work", bestLocation.get().getLocation());
         
-        return workCreationService.createWork(workType, bestLocation, item, quantity, assignedTo);
+        return createWork(workType, bestLocation.get(), item, quantity, assignedTo);
     }
 
     public List<Work> createBatchWorkWithOptimalLocations(WorkType workType, 
@@ -99,10 +97,52 @@ public class LocationAwareWorkCreationService {
         logger.info("Creating batch work with optimal locations for {} items of type: {}", 
                    itemRequests.size(), workType);
 
-        return itemRequests.stream()
-            .map(request -> createWorkWithOptimalLocation(workType, request.item, 
-                                                        request.quantity, request.assignedTo))
+        List<LocationQuery> queries = itemRequests.stream()
+            .map(request -> new LocationQuery(workType, request.item, request.quantity))
             .toList();
+
+        // Locations are assigned jointly so two lines never compete for the same bin
+        LocationDirectiveService.BatchLocationSelection selection =
+            locationDirectiveService.selectOptimalLocations(queries);
+
+        if (!selection.isFullyAssigned()) {
+            selection.getReservations().forEach(locationDirectiveService::releaseReservation);
+            LocationQuery unassigned = selection.getUnassignedQueries().get(0);
+            throw new IllegalStateException("No suitable location found for work type: " + workType + 
+                                          ", item: " + unassigned.getItem());
+        }
+
+        List<Work> works = new java.util.ArrayList<>(itemRequests.size());
+        for (int i = 0; i < itemRequests.size(); i++) {
+            WorkItemRequest request = itemRequests.get(i);
+            try {
+                works.add(createWork(workType, selection.getReservedLocation(i), request.item,
+                                     request.quantity, request.assignedTo));
+            } catch (RuntimeException e) {
+                // Lines already created keep their confirmed reservations
+                for (int j = i + 1; j < itemRequests.size(); j++) {
+                    selection.getReservedLocation(j).getReservation()
+                        .ifPresent(locationDirectiveService::releaseReservation);
+                }
+                throw e;
+            }
+        }
+        return works;
+    }
+
+    // Confirms the location's reservation for the created work, or releases it if creation fails
+    private Work createWork(WorkType workType, LocationDirectiveService.ReservedLocation location, SkuCode item,
+                            Quantity quantity, String assignedTo) {
+        BinReservation reservation = location.getReservation().orElse(null);
+        Work work;
+        try {
+            work = workCreationService.createWork(workType, location.getLocation(), item, quantity, assignedTo);
+        } catch (RuntimeException e) {
+            locationDirectiveService.releaseReservation(reservation);
+            throw e;
+        }
+        locationDirectiveService.confirmReservation(reservation, work.getWorkId());
+        return work;
     }
 
     public LocationValidationResult validateLocationForWork(WorkType workType, BinLocation location, 
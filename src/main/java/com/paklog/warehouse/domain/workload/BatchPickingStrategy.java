@@ -0,0 +1,34 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.FulfillmentOrder;
+import com.paklog.warehouse.domain.shared.WorkloadPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Releases orders as multi-order pick batches instead of one pick list per order.
+ */
+public class BatchPickingStrategy implements IWorkloadReleaseStrategy {
+    private final OrderBatchingEngine batchingEngine;
+    private final List<DomainEvent> events = new ArrayList<>();
+
+    public BatchPickingStrategy(OrderBatchingEngine batchingEngine) {
+        this.batchingEngine = Objects.requireNonNull(batchingEngine, "Batching engine cannot be null");
+    }
+
+    @Override
+    public WorkloadPlan planWork(List<FulfillmentOrder> orders) {
+        events.clear();
+        BatchedWorkloadPlan plan = batchingEngine.planBatches(orders);
+        events.addAll(plan.getEvents());
+        return plan;
+    }
+
+    @Override
+    public List<DomainEvent> getDomainEvents() {
+        return new ArrayList<>(events);
+    }
+}
@@ -0,0 +1,34 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.WorkloadPlan;
+
+import java.util.List;
+
+/**
+ * Workload plan whose orders are grouped into multi-order pick batches. Orders that could
+ * not be batched keep a pick list of their own.
+ */
+public class BatchedWorkloadPlan extends WorkloadPlan {
+    private final List<PickBatch> batches;
+    private final List<OrderId> unbatchedOrderIds;
+
+    public BatchedWorkloadPlan(List<DomainEvent> events, List<PickBatch> batches, List<OrderId> unbatchedOrderIds) {
+        super(events);
+        this.batches = List.copyOf(batches);
+        this.unbatchedOrderIds = List.copyOf(unbatchedOrderIds);
+    }
+
+    public List<PickBatch> getBatches() {
+        return batches;
+    }
+
+    public List<OrderId> getUnbatchedOrderIds() {
+        return unbatchedOrderIds;
+    }
+
+    public double getTotalRouteLength() {
+        return batches.stream().mapToDouble(PickBatch::getRouteLength).sum();
+    }
+}
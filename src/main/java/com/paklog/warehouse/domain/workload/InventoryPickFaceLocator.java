@@ -0,0 +1,31 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.licenseplate.LicensePlate;
+import com.paklog.warehouse.domain.licenseplate.LicensePlateRepository;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.SkuCode;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Picks an item from the first pickable license plate holding it, in bin order.
+ */
+public class InventoryPickFaceLocator implements PickFaceLocator {
+    private final LicensePlateRepository licensePlateRepository;
+
+    public InventoryPickFaceLocator(LicensePlateRepository licensePlateRepository) {
+        this.licensePlateRepository = Objects.requireNonNull(licensePlateRepository,
+            "License plate repository cannot be null");
+    }
+
+    @Override
+    public Optional<BinLocation> locate(SkuCode sku) {
+        return licensePlateRepository.findByItem(sku).stream()
+            .filter(LicensePlate::isPickable)
+            .map(LicensePlate::getCurrentLocation)
+            .filter(Objects::nonNull)
+            .min(Comparator.naturalOrder());
+    }
+}
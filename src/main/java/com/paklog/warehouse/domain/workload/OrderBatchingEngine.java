@@ -0,0 +1,314 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.picklist.PickInstruction;
+import com.paklog.warehouse.domain.picklist.PickListCreatedEvent;
+import com.paklog.warehouse.domain.picklist.PickListId;
+import com.paklog.warehouse.domain.picklist.PickRoute;
+import com.paklog.warehouse.domain.picklist.PickRouteOptimizer;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.FulfillmentOrder;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.OrderItem;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Groups orders into multi-order pick batches, one tote per order. Orders are split by
+ * shipping speed and by the zone most of their lines are picked in. Within a zone the
+ * orders are swept in aisle order: a batch starts at the first unbatched order and keeps
+ * taking the order that shares the most bins with it, or the next order in the sweep when
+ * none does, until the tote limit. Each batch is routed as one pick list.
+ */
+public class OrderBatchingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchingEngine.class);
+
+    public static final int DEFAULT_MAX_TOTES_PER_BATCH = 12;
+    // Orders inspected per bin added to a batch; keeps very popular bins cheap
+    private static final int MAX_POSTINGS_SCANNED = 256;
+
+    private final PickFaceLocator pickFaceLocator;
+    private final WarehouseLayoutService layoutService;
+    private final PickRouteOptimizer routeOptimizer;
+    private final int maxTotesPerBatch;
+
+    public OrderBatchingEngine(PickFaceLocator pickFaceLocator, WarehouseLayoutService layoutService,
+                               PickRouteOptimizer routeOptimizer, int maxTotesPerBatch) {
+        if (maxTotesPerBatch < 1) {
+            throw new IllegalArgumentException("Tote limit must be at least 1: " + maxTotesPerBatch);
+        }
+        this.pickFaceLocator = Objects.requireNonNull(pickFaceLocator, "Pick face locator cannot be null");
+        this.layoutService = layoutService; // Optional: without zones every order shares one zone
+        this.routeOptimizer = Objects.requireNonNull(routeOptimizer, "Route optimizer cannot be null");
+        this.maxTotesPerBatch = maxTotesPerBatch;
+    }
+
+    /**
+     * Each batch emits one {@link PickBatchCreatedEvent} covering all of its orders.
+     * Orders with an item that has no pick face are left out of the batches and get a
+     * {@link PickListCreatedEvent} of their own, as without batching.
+     */
+    public BatchedWorkloadPlan planBatches(List<FulfillmentOrder> orders) {
+        Objects.requireNonNull(orders, "Orders cannot be null");
+        WarehouseLayoutIndex layout = layoutService != null ? layoutService.getLoadedIndex().orElse(null) : null;
+        Map<SkuCode, Optional<BinLocation>> pickFaces = new HashMap<>();
+        Map<BinLocation, Integer> binIds = new HashMap<>();
+        Map<String, List<OrderProfile>> partitions = new LinkedHashMap<>();
+        List<OrderId> unbatchedOrderIds = new ArrayList<>();
+
+        for (FulfillmentOrder order : orders) {
+            OrderProfile profile = profile(order, layout, pickFaces, binIds);
+            if (profile == null) {
+                unbatchedOrderIds.add(order.getOrderId());
+                continue;
+            }
+            partitions.computeIfAbsent(order.getShippingSpeedCategory() + "|" + profile.zone,
+                                       key -> new ArrayList<>()).add(profile);
+        }
+
+        List<PickBatch> batches = new ArrayList<>();
+        for (List<OrderProfile> partition : partitions.values()) {
+            for (List<OrderProfile> cluster : cluster(partition)) {
+                batches.add(toBatch(cluster));
+            }
+        }
+
+        List<DomainEvent> events = new ArrayList<>();
+        for (PickBatch batch : batches) {
+            // The batch is the batched orders' pick list; they get no per-order event
+            events.add(new PickBatchCreatedEvent(batch.getBatchId(), batch.getOrderIds(), batch.getZone(),
+                                                 batch.getPickSequence().size(), batch.getRouteLength()));
+        }
+        for (OrderId orderId : unbatchedOrderIds) {
+            events.add(new PickListCreatedEvent(PickListId.generate(), orderId));
+        }
+
+        logger.debug("Batched {} orders into {} pick batches, {} orders left unbatched",
+                     orders.size() - unbatchedOrderIds.size(), batches.size(), unbatchedOrderIds.size());
+        return new BatchedWorkloadPlan(events, batches, unbatchedOrderIds);
+    }
+
+    public int getMaxTotesPerBatch() {
+        return maxTotesPerBatch;
+    }
+
+    private OrderProfile profile(FulfillmentOrder order, WarehouseLayoutIndex layout,
+                                 Map<SkuCode, Optional<BinLocation>> pickFaces, Map<BinLocation, Integer> binIds) {
+        List<OrderItem> items = order.getItems();
+        if (items.isEmpty()) {
+            return null;
+        }
+        BinLocation[] bins = new BinLocation[items.size()];
+        String[] zones = new String[items.size()];
+        long aisleSum = 0;
+        long rackSum = 0;
+        for (int line = 0; line < bins.length; line++) {
+            Optional<BinLocation> pickFace = pickFaces.computeIfAbsent(items.get(line).getSkuCode(),
+                                                                       pickFaceLocator::locate);
+            if (pickFace.isEmpty()) {
+                return null;
+            }
+            bins[line] = pickFace.get();
+            zones[line] = zoneOf(bins[line], layout);
+            aisleSum += bins[line].aisleCoordinate();
+            rackSum += bins[line].rackCoordinate();
+        }
+        int[] orderBins = Arrays.stream(bins)
+            .mapToInt(bin -> binIds.computeIfAbsent(bin, key -> binIds.size()))
+            .distinct()
+            .toArray();
+        // Centroid in sixteenths of an aisle and rack, aisle first
+        long sweepKey = Math.round(aisleSum * 16.0 / bins.length) << 32 | Math.round(rackSum * 16.0 / bins.length);
+        return new OrderProfile(order, bins, orderBins, majorityZone(zones), sweepKey);
+    }
+
+    private static String zoneOf(BinLocation bin, WarehouseLayoutIndex layout) {
+        if (layout == null) {
+            return null;
+        }
+        int ordinal = layout.ordinalOf(bin);
+        return ordinal != WarehouseLayoutIndex.NOT_FOUND ? layout.zoneAt(ordinal) : null;
+    }
+
+    // Ties go to the zone of the earliest line
+    private static String majorityZone(String[] zones) {
+        String majority = zones[0];
+        int majorityLines = 0;
+        for (String zone : zones) {
+            int lines = 0;
+            for (String other : zones) {
+                if (Objects.equals(zone, other)) {
+                    lines++;
+                }
+            }
+            if (lines > majorityLines) {
+                majority = zone;
+                majorityLines = lines;
+            }
+        }
+        return majority;
+    }
+
+    private List<List<OrderProfile>> cluster(List<OrderProfile> orders) {
+        orders.sort(Comparator.comparingLong(profile -> profile.sweepKey));
+        int orderCount = orders.size();
+        Map<Integer, Postings> postings = new HashMap<>();
+        for (int order = 0; order < orderCount; order++) {
+            for (int bin : orders.get(order).binIds) {
+                postings.computeIfAbsent(bin, key -> new Postings()).add(order);
+            }
+        }
+
+        boolean[] batched = new boolean[orderCount];
+        int[] sharedBins = new int[orderCount];
+        List<Integer> touched = new ArrayList<>();
+        // Highest shared-bin count first, then earliest in the sweep
+        PriorityQueue<Long> candidates = new PriorityQueue<>(Collections.reverseOrder());
+        List<List<OrderProfile>> clusters = new ArrayList<>();
+        int sweep = 0;
+
+        while (true) {
+            while (sweep < orderCount && batched[sweep]) {
+                sweep++;
+            }
+            if (sweep == orderCount) {
+                break;
+            }
+            List<OrderProfile> cluster = new ArrayList<>(maxTotesPerBatch);
+            Set<Integer> clusterBins = new HashSet<>();
+            int next = sweep;
+            int member = sweep;
+            while (true) {
+                batched[member] = true;
+                cluster.add(orders.get(member));
+                if (cluster.size() == maxTotesPerBatch) {
+                    break;
+                }
+                for (int bin : orders.get(member).binIds) {
+                    if (clusterBins.add(bin)) {
+                        postings.get(bin).share(batched, sharedBins, touched, candidates);
+                    }
+                }
+                member = bestCandidate(candidates, batched, sharedBins);
+                if (member < 0) {
+                    while (next < orderCount && batched[next]) {
+                        next++;
+                    }
+                    if (next == orderCount) {
+                        break;
+                    }
+                    member = next;
+                }
+            }
+            for (int order : touched) {
+                sharedBins[order] = 0;
+            }
+            touched.clear();
+            candidates.clear();
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+    private static int bestCandidate(PriorityQueue<Long> candidates, boolean[] batched, int[] sharedBins) {
+        while (!candidates.isEmpty()) {
+            long candidate = candidates.poll();
+            int order = Integer.MAX_VALUE - (int) candidate;
+            // Entries are pushed on every count change; only the latest one is current
+            if (!batched[order] && sharedBins[order] == (int) (candidate >>> 32)) {
+                return order;
+            }
+        }
+        return -1;
+    }
+
+    private PickBatch toBatch(List<OrderProfile> cluster) {
+        List<OrderId> orderIds = new ArrayList<>(cluster.size());
+        List<PickInstruction> instructions = new ArrayList<>();
+        Map<PickInstruction, PickBatch.Pick> picks = new IdentityHashMap<>();
+        for (int tote = 0; tote < cluster.size(); tote++) {
+            OrderProfile profile = cluster.get(tote);
+            OrderId orderId = profile.order.getOrderId();
+            orderIds.add(orderId);
+            List<OrderItem> items = profile.order.getItems();
+            for (int line = 0; line < items.size(); line++) {
+                PickInstruction instruction = new PickInstruction(items.get(line).getSkuCode(),
+                                                                  items.get(line).getQuantity(), profile.bins[line]);
+                instructions.add(instruction);
+                picks.put(instruction, new PickBatch.Pick(orderId, tote, instruction));
+            }
+        }
+        PickRoute route = routeOptimizer.planRoute(instructions);
+        List<PickBatch.Pick> pickSequence = route.getInstructions().stream().map(picks::get).toList();
+        OrderProfile first = cluster.get(0);
+        return new PickBatch(PickBatchId.generate(), first.zone, first.order.getShippingSpeedCategory(), orderIds,
+                             pickSequence, route.getHeuristic(), route.getRouteLength());
+    }
+
+    private static final class OrderProfile {
+        private final FulfillmentOrder order;
+        private final BinLocation[] bins;
+        private final int[] binIds;
+        private final String zone;
+        private final long sweepKey;
+
+        OrderProfile(FulfillmentOrder order, BinLocation[] bins, int[] binIds, String zone, long sweepKey) {
+            this.order = order;
+            this.bins = bins;
+            this.binIds = binIds;
+            this.zone = zone;
+            this.sweepKey = sweepKey;
+        }
+    }
+
+    /**
+     * Orders picking from one bin, by sweep position. Batched orders are dropped lazily.
+     */
+    private static final class Postings {
+        private int[] orders = new int[4];
+        private int size;
+
+        void add(int order) {
+            if (size == orders.length) {
+                orders = Arrays.copyOf(orders, size * 2);
+            }
+            orders[size++] = order;
+        }
+
+        void share(boolean[] batched, int[] sharedBins, List<Integer> touched, PriorityQueue<Long> candidates) {
+            int scanned = 0;
+            int index = 0;
+            while (index < size && scanned < MAX_POSTINGS_SCANNED) {
+                int order = orders[index];
+                if (batched[order]) {
+                    orders[index] = orders[--size];
+                    continue;
+                }
+                if (sharedBins[order]++ == 0) {
+                    touched.add(order);
+                }
+                candidates.add((long) sharedBins[order] << 32 | (Integer.MAX_VALUE - order));
+                index++;
+                scanned++;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.picklist.PickInstruction;
+import com.paklog.warehouse.domain.picklist.RoutingHeuristic;
+import com.paklog.warehouse.domain.shared.OrderId;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Orders picked together in one trip, one tote per order, with the combined pick sequence.
+ */
+public class PickBatch {
+    private final PickBatchId batchId;
+    private final String zone;
+    private final String shippingSpeedCategory;
+    private final List<OrderId> orderIds;
+    private final List<Pick> pickSequence;
+    private final RoutingHeuristic heuristic;
+    private final double routeLength;
+
+    public PickBatch(PickBatchId batchId, String zone, String shippingSpeedCategory, List<OrderId> orderIds,
+                     List<Pick> pickSequence, RoutingHeuristic heuristic, double routeLength) {
+        this.batchId = Objects.requireNonNull(batchId, "Pick batch ID cannot be null");
+        this.zone = zone;
+        this.shippingSpeedCategory = shippingSpeedCategory;
+        this.orderIds = List.copyOf(orderIds);
+        this.pickSequence = List.copyOf(pickSequence);
+        this.heuristic = heuristic;
+        this.routeLength = routeLength;
+    }
+
+    public PickBatchId getBatchId() {
+        return batchId;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public String getShippingSpeedCategory() {
+        return shippingSpeedCategory;
+    }
+
+    /**
+     * Orders in tote order: the order at index i goes into tote i.
+     */
+    public List<OrderId> getOrderIds() {
+        return orderIds;
+    }
+
+    public List<Pick> getPickSequence() {
+        return pickSequence;
+    }
+
+    public RoutingHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public double getRouteLength() {
+        return routeLength;
+    }
+
+    public int getToteCount() {
+        return orderIds.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PickBatch{" +
+                "batchId=" + batchId +
+                ", zone='" + zone + '\'' +
+                ", totes=" + orderIds.size() +
+                ", picks=" + pickSequence.size() +
+                ", routeLength=" + routeLength +
+                '}';
+    }
+
+    /**
+     * One stop of the batch route and the tote the picked items go into.
+     */
+    public static class Pick {
+        private final OrderId orderId;
+        private final int tote;
+        private final PickInstruction instruction;
+
+        public Pick(OrderId orderId, int tote, PickInstruction instruction) {
+            this.orderId = Objects.requireNonNull(orderId, "Order ID cannot be null");
+            this.tote = tote;
+            this.instruction = Objects.requireNonNull(instruction, "Instruction cannot be null");
+        }
+
+        public OrderId getOrderId() {
+            return orderId;
+        }
+
+        public int getTote() {
+            return tote;
+        }
+
+        public PickInstruction getInstruction() {
+            return instruction;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class PickBatchCreatedEvent implements DomainEvent {
+    private final UUID eventId;
+    private final Instant occurredAt;
+    private final PickBatchId batchId;
+    private final List<OrderId> orderIds;
+    private final String zone;
+    private final int pickCount;
+    private final double routeLength;
+
+    public PickBatchCreatedEvent(PickBatchId batchId, List<OrderId> orderIds, String zone,
+                                 int pickCount, double routeLength) {
+        this.eventId = UUID.randomUUID();
+        this.occurredAt = Instant.now();
+        this.batchId = batchId;
+        this.orderIds = orderIds;
+        this.zone = zone;
+        this.pickCount = pickCount;
+        this.routeLength = routeLength;
+    }
+
+    @Override
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public PickBatchId getBatchId() {
+        return batchId;
+    }
+
+    public List<OrderId> getOrderIds() {
+        return orderIds;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public int getPickCount() {
+        return pickCount;
+    }
+
+    public double getRouteLength() {
+        return routeLength;
+    }
+}
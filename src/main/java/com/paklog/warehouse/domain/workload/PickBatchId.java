@@ -0,0 +1,46 @@
+package com.paklog.warehouse.domain.workload;
+
+import java.util.Objects;
+import java.util.UUID;
+
+public class PickBatchId {
+    private final UUID value;
+
+    private PickBatchId(UUID value) {
+        this.value = Objects.requireNonNull(value, "Pick batch ID cannot be null");
+    }
+
+    public static PickBatchId generate() {
+        return new PickBatchId(UUID.randomUUID());
+    }
+
+    public static PickBatchId of(UUID value) {
+        return new PickBatchId(value);
+    }
+
+    public static PickBatchId of(String value) {
+        return new PickBatchId(UUID.fromString(value));
+    }
+
+    public UUID getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PickBatchId batchId = (PickBatchId) o;
+        return Objects.equals(value, batchId.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value);
+    }
+
+    @Override
+    public String toString() {
+        return "PickBatchId{" + "value=" + value + '}';
+    }
+}
\ No newline at end of file
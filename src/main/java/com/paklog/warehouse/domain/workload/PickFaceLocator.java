@@ -0,0 +1,14 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.SkuCode;
+
+import java.util.Optional;
+
+/**
+ * Resolves the bin an item is picked from.
+ */
+@FunctionalInterface
+public interface PickFaceLocator {
+    Optional<BinLocation> locate(SkuCode sku);
+}
@@ -0,0 +1,301 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.picklist.PickListCreatedEvent;
+import com.paklog.warehouse.domain.picklist.PickListId;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.FulfillmentOrder;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.WaveCreatedEvent;
+import com.paklog.warehouse.domain.wave.Wave;
+import com.paklog.warehouse.domain.wave.WaveId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Builds waves incrementally from a stream of orders. Orders are collected into one open
+ * wave per shipping speed and carrier; a wave closes when it is full, when it has been
+ * open for the maximum wave age, or when its carrier cutoff is within the cutoff lead.
+ * Closing a wave emits a {@link WaveCreatedEvent} followed by a {@link PickListCreatedEvent}
+ * per order. Only open waves are held in memory. Safe for concurrent producers; age and
+ * cutoff triggers of idle buckets fire on {@link #closeDueWaves()}, which {@link #start}
+ * runs periodically on a daemon thread.
+ * <p>
+ * Open waves exist only in memory. {@link #stop} closes them, but a crash loses the
+ * orders collected in them: an order is waved only once its {@link WaveCreatedEvent} is
+ * stored. After a restart, pass the released orders to {@link #recover} to plan again
+ * those that never reached a wave.
+ */
+public class StreamingWavePlanner {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingWavePlanner.class);
+
+    public static final Duration DEFAULT_CUTOFF_LEAD = Duration.ofMinutes(30);
+
+    private final int maxOrdersPerWave;
+    private final Duration maxWaveAge;
+    private final Duration cutoffLead;
+    private final Function<FulfillmentOrder, String> carrierResolver;
+    private final Consumer<DomainEvent> eventSink;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, OpenWave> openWaves = new ConcurrentHashMap<>();
+    private ScheduledExecutorService closer;
+
+    public StreamingWavePlanner(int maxOrdersPerWave, Duration maxWaveAge, Consumer<DomainEvent> eventSink) {
+        this(maxOrdersPerWave, maxWaveAge, DEFAULT_CUTOFF_LEAD, order -> null, eventSink, Clock.systemUTC());
+    }
+
+    public StreamingWavePlanner(int maxOrdersPerWave, Duration maxWaveAge, Duration cutoffLead,
+                                Function<FulfillmentOrder, String> carrierResolver,
+                                Consumer<DomainEvent> eventSink, Clock clock) {
+        if (maxOrdersPerWave < 1) {
+            throw new IllegalArgumentException("Wave size must be at least 1: " + maxOrdersPerWave);
+        }
+        this.maxOrdersPerWave = maxOrdersPerWave;
+        this.maxWaveAge = Objects.requireNonNull(maxWaveAge, "Maximum wave age cannot be null");
+        this.cutoffLead = Objects.requireNonNull(cutoffLead, "Cutoff lead cannot be null");
+        this.carrierResolver = Objects.requireNonNull(carrierResolver, "Carrier resolver cannot be null");
+        this.eventSink = Objects.requireNonNull(eventSink, "Event sink cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    public void accept(FulfillmentOrder order) {
+        Objects.requireNonNull(order, "Order cannot be null");
+        String speed = order.getShippingSpeedCategory();
+        String carrier = carrierResolver.apply(order);
+        Instant now = clock.instant();
+        List<OpenWave> closed = new ArrayList<>(2);
+
+        openWaves.compute(bucketKey(speed, carrier), (key, wave) -> {
+            if (wave != null && wave.isDue(now)) {
+                closed.add(wave);
+                wave = null;
+            }
+            if (wave == null) {
+                wave = new OpenWave(speed, carrier, now, cutoffFor(speed, now));
+            }
+            wave.orderIds.add(order.getOrderId());
+            if (wave.orderIds.size() >= maxOrdersPerWave) {
+                closed.add(wave);
+                return null;
+            }
+            return wave;
+        });
+        closed.forEach(wave -> emit(wave, now));
+    }
+
+    public void acceptAll(Iterable<FulfillmentOrder> orders) {
+        for (FulfillmentOrder order : orders) {
+            accept(order);
+        }
+    }
+
+    /**
+     * Accepts the orders that are not in a stored wave, such as those that were in open
+     * waves when a previous instance crashed.
+     *
+     * @param waved whether an order already belongs to a stored wave
+     * @return the number of orders accepted
+     */
+    public int recover(Iterable<FulfillmentOrder> orders, Predicate<OrderId> waved) {
+        Objects.requireNonNull(waved, "Waved predicate cannot be null");
+        int accepted = 0;
+        for (FulfillmentOrder order : orders) {
+            if (!waved.test(order.getOrderId())) {
+                accept(order);
+                accepted++;
+            }
+        }
+        if (accepted > 0) {
+            logger.info("Recovered {} orders that were not in a stored wave", accepted);
+        }
+        return accepted;
+    }
+
+    /**
+     * Closes the open waves whose age or cutoff trigger has fired.
+     *
+     * @return the number of waves closed
+     */
+    public int closeDueWaves() {
+        Instant now = clock.instant();
+        return closeWhere(wave -> wave.isDue(now), now);
+    }
+
+    /**
+     * Closes every open wave regardless of its triggers.
+     *
+     * @return the number of waves closed
+     */
+    public int flush() {
+        return closeWhere(wave -> true, clock.instant());
+    }
+
+    /**
+     * Checks the open waves' age and cutoff triggers every {@code checkInterval}.
+     */
+    public synchronized void start(Duration checkInterval) {
+        Objects.requireNonNull(checkInterval, "Check interval cannot be null");
+        if (checkInterval.isNegative() || checkInterval.isZero()) {
+            throw new IllegalArgumentException("Check interval must be positive");
+        }
+        if (closer != null) {
+            return;
+        }
+        closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "streaming-wave-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = checkInterval.toMillis();
+        closer.scheduleWithFixedDelay(this::closeDueWavesQuietly, intervalMillis, intervalMillis,
+                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic check and closes every wave still open, so shutting down does not
+     * drop the orders collected in them.
+     */
+    public synchronized void stop() {
+        if (closer != null) {
+            closer.shutdownNow();
+            try {
+                closer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closer = null;
+        }
+        try {
+            int closed = flush();
+            if (closed > 0) {
+                logger.info("Closed {} open waves on stop", closed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to close open waves on stop; {} orders need recovery", getOpenOrderCount(), e);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return closer != null;
+    }
+
+    public int getOpenWaveCount() {
+        return openWaves.size();
+    }
+
+    public int getOpenOrderCount() {
+        int orders = 0;
+        for (String key : openWaves.keySet()) {
+            // Read under the key's lock, producers may be appending
+            OpenWave wave = openWaves.computeIfPresent(key, (k, open) -> open);
+            orders += wave != null ? wave.size() : 0;
+        }
+        return orders;
+    }
+
+    public int getMaxOrdersPerWave() {
+        return maxOrdersPerWave;
+    }
+
+    public Duration getMaxWaveAge() {
+        return maxWaveAge;
+    }
+
+    /**
+     * Carrier cutoff for a wave of the given shipping speed opened at the given time.
+     */
+    public static Instant cutoffFor(String shippingSpeed, Instant openedAt) {
+        if ("express".equalsIgnoreCase(shippingSpeed)) {
+            return openedAt.plus(Duration.ofHours(2));
+        } else if ("priority".equalsIgnoreCase(shippingSpeed)) {
+            return openedAt.plus(Duration.ofHours(6));
+        }
+        // Standard shipping
+        return openedAt.plus(Duration.ofHours(24));
+    }
+
+    // A failure must not cancel the periodic task
+    private void closeDueWavesQuietly() {
+        try {
+            int closed = closeDueWaves();
+            if (closed > 0) {
+                logger.debug("Closed {} due waves", closed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to close due waves", e);
+        }
+    }
+
+    private int closeWhere(Predicate<OpenWave> due, Instant now) {
+        int closedWaves = 0;
+        for (String key : openWaves.keySet()) {
+            List<OpenWave> closed = new ArrayList<>(1);
+            openWaves.computeIfPresent(key, (k, wave) -> {
+                if (due.test(wave)) {
+                    closed.add(wave);
+                    return null;
+                }
+                return wave;
+            });
+            closed.forEach(wave -> emit(wave, now));
+            closedWaves += closed.size();
+        }
+        return closedWaves;
+    }
+
+    private void emit(OpenWave open, Instant now) {
+        Wave wave = new Wave(open.waveId, open.orderIds, open.openedAt, open.cutoffTime,
+                             open.carrier, open.shippingSpeed, maxOrdersPerWave);
+        logger.debug("Closing wave {} with {} {} orders", wave.getId(), wave.getOrderCount(), open.shippingSpeed);
+        eventSink.accept(new WaveCreatedEvent(wave.getId(), wave.getOrderIds(), open.shippingSpeed, now,
+                                              wave.getPlannedDate(), wave.getCutoffTime(), wave.getCarrier(),
+                                              wave.getMaxOrders()));
+        for (OrderId orderId : wave.getOrderIds()) {
+            eventSink.accept(new PickListCreatedEvent(PickListId.generate(), orderId));
+        }
+    }
+
+    private static String bucketKey(String shippingSpeed, String carrier) {
+        return carrier == null ? shippingSpeed : shippingSpeed + "|" + carrier;
+    }
+
+    /**
+     * Wave still accepting orders; only touched inside the map's per-key compute functions.
+     */
+    private final class OpenWave {
+        private final WaveId waveId = WaveId.generate();
+        private final String shippingSpeed;
+        private final String carrier;
+        private final Instant openedAt;
+        private final Instant cutoffTime;
+        private final List<OrderId> orderIds = new ArrayList<>();
+
+        OpenWave(String shippingSpeed, String carrier, Instant openedAt, Instant cutoffTime) {
+            this.shippingSpeed = shippingSpeed;
+            this.carrier = carrier;
+            this.openedAt = openedAt;
+            this.cutoffTime = cutoffTime;
+        }
+
+        boolean isDue(Instant now) {
+            return !now.isBefore(openedAt.plus(maxWaveAge)) || !now.isBefore(cutoffTime.minus(cutoffLead));
+        }
+
+        int size() {
+            return orderIds.size();
+        }
+    }
+}
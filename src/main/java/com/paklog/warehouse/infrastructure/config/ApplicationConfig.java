@@ -2,14 +2,32 @@ package com.paklog.warehouse.infrastructure.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paklog.warehouse.domain.putwall.PutWallRepository;
+import com.paklog.warehouse.infrastructure.diagnostics.VirtualThreadPinningMonitor;
+import com.paklog.warehouse.infrastructure.events.AsyncEventListenerRegistrar;
+import com.paklog.warehouse.infrastructure.events.DomainEventDispatcher;
 import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import com.paklog.warehouse.infrastructure.putwall.HotPutWallStore;
+import com.paklog.warehouse.infrastructure.putwall.MongoPutWallLeases;
+import com.paklog.warehouse.infrastructure.putwall.OutboxPutWallEventLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
 import java.util.concurrent.Executor;
 
 @Configuration
@@ -17,8 +35,17 @@ import java.util.concurrent.Executor;
 @EnableMongoAuditing
 public class ApplicationConfig {
 
+    /**
+     * Runs {@code @Async} methods; on a virtual thread each when
+     * {@code spring.threads.virtual.enabled} is set, like request handling.
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("warehouse-ops-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -28,6 +55,57 @@ public class ApplicationConfig {
         return executor;
     }
 
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public DomainEventDispatcher domainEventDispatcher(
+            @Value("${warehouse.events.dispatch.threads:platform}") String threads,
+            @Value("${warehouse.events.dispatch.workers:4}") int workers,
+            @Value("${warehouse.events.dispatch.queue-capacity:1000}") int queueCapacity,
+            @Value("${warehouse.events.dispatch.overflow:caller-runs}") String overflow,
+            @Value("${warehouse.events.dispatch.ordered-lanes:64}") int orderedLanes) {
+        return new DomainEventDispatcher(
+            DomainEventDispatcher.ThreadMode.valueOf(threads.toUpperCase().replace('-', '_')), workers,
+            queueCapacity, DomainEventDispatcher.OverflowPolicy.valueOf(overflow.toUpperCase().replace('-', '_')),
+            orderedLanes);
+    }
+
+    @Bean
+    public static AsyncEventListenerRegistrar asyncEventListenerRegistrar(
+            ObjectProvider<DomainEventDispatcher> domainEventDispatcher) {
+        return new AsyncEventListenerRegistrar(domainEventDispatcher);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${warehouse.threads.virtual.pinning-threshold:20ms}") Duration pinningThreshold) {
+        return new VirtualThreadPinningMonitor(pinningThreshold);
+    }
+
+    /**
+     * Holds active put walls in memory on the instance that leases them, writing changed
+     * slots out behind; without it every scan and put reads and writes the whole wall.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "warehouse.putwall.hot-state.enabled", havingValue = "true")
+    public HotPutWallStore hotPutWallStore(
+            PutWallRepository putWallRepository,
+            DomainEventPublisher eventPublisher,
+            MongoTemplate mongoTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${warehouse.putwall.hot-state.flush-interval:1s}") Duration flushInterval,
+            @Value("${warehouse.putwall.hot-state.lease:30s}") Duration lease,
+            @Value("${warehouse.putwall.hot-state.idle-timeout:30m}") Duration idleTimeout) {
+        // Each change's events are committed to the outbox before the wall is unlocked
+        TransactionTemplate outboxTransaction = new TransactionTemplate(transactionManager);
+        outboxTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Unique per process, readable in the lease collection
+        String ownerId = System.getenv().getOrDefault("HOSTNAME", "warehouse-operations") + "-"
+            + UUID.randomUUID().toString().substring(0, 8);
+        return new HotPutWallStore(putWallRepository, new OutboxPutWallEventLog(mongoTemplate),
+                                   new MongoPutWallLeases(mongoTemplate), eventPublisher, outboxTransaction, ownerId,
+                                   flushInterval, lease, idleTimeout, Clock.systemUTC());
+    }
+
     @Bean
     public DomainEventInterceptor domainEventInterceptor(DomainEventPublisher eventPublisher) {
         return new DomainEventInterceptor(eventPublisher);
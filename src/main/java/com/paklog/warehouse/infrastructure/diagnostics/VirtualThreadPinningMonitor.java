@@ -0,0 +1,164 @@
+package com.paklog.warehouse.infrastructure.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, from the JFR
+ * {@code jdk.VirtualThreadPinned} event. A virtual thread that blocks inside a
+ * {@code synchronized} block or a native frame cannot unmount, so it holds a carrier thread
+ * for the whole wait; enough of them and requests queue for carriers as they did for
+ * platform threads. That is why locks held across a wait, on the database or on
+ * another lock that may park, are {@link java.util.concurrent.locks.ReentrantLock}s
+ * rather than monitors throughout this service.
+ *
+ * <p>Each pinning site, the innermost frame of this service's code, is logged with its
+ * stack once at WARN and afterwards only counted.
+ */
+public class VirtualThreadPinningMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(20);
+    private static final String APPLICATION_PACKAGE = "com.paklog.";
+    private static final int LOGGED_FRAMES = 24;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinningsBySite = new ConcurrentHashMap<>();
+    private final LongAdder pinnings = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicLong maxPinnedNanos = new AtomicLong();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold pinnings shorter than this are not recorded
+     */
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = Objects.requireNonNull(threshold, "Threshold cannot be null");
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::pinned);
+        recording.startAsync();
+        stream = recording;
+        logger.info("Reporting virtual threads pinned for {} ms or longer", threshold.toMillis());
+    }
+
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void pinned(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        pinnings.increment();
+        pinnedNanos.add(nanos);
+        maxPinnedNanos.accumulateAndGet(nanos, Math::max);
+
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = site(frames);
+        LongAdder count = pinningsBySite.get(site);
+        if (count == null) {
+            LongAdder first = new LongAdder();
+            count = pinningsBySite.putIfAbsent(site, first);
+            if (count == null) {
+                count = first;
+                logger.warn("Virtual thread pinned to its carrier for {} ms at {}; blocking inside synchronized "
+                            + "or native code holds the carrier thread:\n{}", nanos / 1_000_000, site,
+                            format(frames));
+            }
+        }
+        count.increment();
+    }
+
+    /**
+     * Pinnings so far by site.
+     */
+    public Map<String, Long> getPinningsBySite() {
+        return pinningsBySite.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(pinnings.sum(), pinnedNanos.sum() / 1_000_000, maxPinnedNanos.get() / 1_000_000,
+                              pinningsBySite.size());
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        RecordedFrame site = frames.stream()
+            .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+            .findFirst()
+            .orElse(frames.isEmpty() ? null : frames.get(0));
+        return site != null ? frame(site) : "unknown";
+    }
+
+    private static String format(List<RecordedFrame> frames) {
+        return frames.stream().limit(LOGGED_FRAMES)
+            .map(frame -> "\tat " + frame(frame))
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public static class Statistics {
+        private final long pinnings;
+        private final long totalPinnedMillis;
+        private final long maxPinnedMillis;
+        private final int sites;
+
+        public Statistics(long pinnings, long totalPinnedMillis, long maxPinnedMillis, int sites) {
+            this.pinnings = pinnings;
+            this.totalPinnedMillis = totalPinnedMillis;
+            this.maxPinnedMillis = maxPinnedMillis;
+            this.sites = sites;
+        }
+
+        public long getPinnings() {
+            return pinnings;
+        }
+
+        public long getTotalPinnedMillis() {
+            return totalPinnedMillis;
+        }
+
+        public long getMaxPinnedMillis() {
+            return maxPinnedMillis;
+        }
+
+        public int getSites() {
+            return sites;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method handling a domain event off the publishing thread. The method takes the
+ * event as its only parameter and is called through the {@link DomainEventDispatcher} for
+ * events of that type and its subtypes.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AsyncEventListener {
+}
@@ -0,0 +1,23 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Registers the {@link AsyncEventListener} methods of every bean with the dispatcher.
+ */
+public class AsyncEventListenerRegistrar implements BeanPostProcessor {
+    private final ObjectProvider<DomainEventDispatcher> dispatcher;
+
+    public AsyncEventListenerRegistrar(ObjectProvider<DomainEventDispatcher> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DomainEventDispatcher) && DomainEventDispatcher.hasListenerMethods(bean)) {
+            dispatcher.getObject().register(bean);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,67 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.layout.BinOccupancyLedger;
+import com.paklog.warehouse.domain.licenseplate.*;
+import com.paklog.warehouse.domain.work.WorkCancelledEvent;
+import com.paklog.warehouse.domain.work.WorkCompletedEvent;
+import com.paklog.warehouse.domain.work.WorkId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds license plate movements and inventory changes into the {@link BinOccupancyLedger},
+ * and releases the reservations held for work once it is completed or cancelled.
+ * Handled synchronously: events of one license plate must be applied in order.
+ */
+@Component
+public class BinOccupancyEventHandler {
+    private static final Logger logger = LoggerFactory.getLogger(BinOccupancyEventHandler.class);
+
+    private final BinOccupancyLedger occupancyLedger;
+
+    public BinOccupancyEventHandler(BinOccupancyLedger occupancyLedger) {
+        this.occupancyLedger = occupancyLedger;
+    }
+
+    @EventListener
+    public void handleLicensePlateReceivedEvent(LicensePlateReceivedEvent event) {
+        logger.debug("License plate {} received at {}", event.getLicensePlateId(), event.getLocation());
+        occupancyLedger.plateMoved(event.getLicensePlateId(), event.getLocation());
+    }
+
+    @EventListener
+    public void handleLicensePlateMovedEvent(LicensePlateMovedEvent event) {
+        logger.debug("License plate {} moved from {} to {}",
+                event.getLicensePlateId(), event.getFromLocation(), event.getToLocation());
+        occupancyLedger.plateMoved(event.getLicensePlateId(), event.getToLocation());
+    }
+
+    @EventListener
+    public void handleLicensePlateInventoryAddedEvent(LicensePlateInventoryAddedEvent event) {
+        occupancyLedger.inventoryChanged(event.getLicensePlateId(), event.getAddedQuantity().getValue());
+    }
+
+    @EventListener
+    public void handleLicensePlateInventoryRemovedEvent(LicensePlateInventoryRemovedEvent event) {
+        occupancyLedger.inventoryChanged(event.getLicensePlateId(), -event.getRemovedQuantity().getValue());
+    }
+
+    @EventListener
+    public void handleLicensePlateShippedEvent(LicensePlateShippedEvent event) {
+        logger.debug("License plate {} shipped, releasing its bin", event.getLicensePlateId());
+        occupancyLedger.plateRemoved(event.getLicensePlateId());
+    }
+
+    @EventListener
+    public void handleWorkCompletedEvent(WorkCompletedEvent event) {
+        occupancyLedger.releaseWork(new WorkId(event.getWorkId()));
+    }
+
+    @EventListener
+    public void handleWorkCancelledEvent(WorkCancelledEvent event) {
+        logger.debug("Work {} cancelled, releasing its bin reservations", event.getWorkId());
+        occupancyLedger.releaseWork(new WorkId(event.getWorkId()));
+    }
+}
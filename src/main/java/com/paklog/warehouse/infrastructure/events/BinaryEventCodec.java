@@ -0,0 +1,18 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Writes and reads the fields of one event type for {@link BinaryEventFormat}. The event
+ * id and time are handled by the format; fields are positional, so a codec may only ever
+ * append new fields at the end.
+ */
+public interface BinaryEventCodec<T extends DomainEvent> {
+
+    void write(T event, BinaryEventWriter out);
+
+    T read(UUID eventId, Instant occurredAt, BinaryEventReader in);
+}
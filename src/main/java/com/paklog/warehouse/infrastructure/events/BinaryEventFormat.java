@@ -0,0 +1,74 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the event types with a codec in the {@link EventTypeRegistry}:
+ * a format version byte, the registered type id, the event id and time, then the fields
+ * written by the type's codec. Field names and the type name are not repeated in every
+ * message, and each thread reuses one write buffer.
+ */
+public class BinaryEventFormat implements EventFormat {
+    public static final String CONTENT_TYPE = "application/vnd.paklog.domain-event.v1+binary";
+    // 2: the put wall sequence number follows the fields of an order assigned to a slot
+    private static final int FORMAT_VERSION = 2;
+
+    private final EventTypeRegistry registry;
+    private final ThreadLocal<BinaryEventWriter> writers = ThreadLocal.withInitial(BinaryEventWriter::new);
+
+    public BinaryEventFormat(EventTypeRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "Event type registry cannot be null");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] serialize(DomainEvent event) {
+        EventTypeRegistry.Registration<? extends DomainEvent> registration = registry.registrationOf(event.getClass());
+        if (registration == null) {
+            throw new EventSerializer.EventSerializationException(
+                "No binary codec for " + event.getClass().getName(), null);
+        }
+        BinaryEventWriter writer = writers.get();
+        writer.reset();
+        writer.writeByte(FORMAT_VERSION);
+        writer.writeVarInt(registration.typeId);
+        writer.writeUuid(event.getEventId());
+        writer.writeInstant(event.getOccurredAt());
+        writeFields(registration, event, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public DomainEvent deserialize(byte[] data) {
+        try {
+            BinaryEventReader reader = new BinaryEventReader(data);
+            int version = reader.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported binary event format version " + version);
+            }
+            int typeId = reader.readVarInt();
+            EventTypeRegistry.Registration<?> registration = registry.registrationOf(typeId);
+            if (registration == null) {
+                throw new IllegalArgumentException("Unknown binary event type id " + typeId);
+            }
+            UUID eventId = reader.readUuid();
+            Instant occurredAt = reader.readInstant();
+            return registration.codec.read(eventId, occurredAt, reader);
+        } catch (RuntimeException e) {
+            throw new EventSerializer.EventDeserializationException("Failed to deserialize binary domain event", e);
+        }
+    }
+
+    private static <T extends DomainEvent> void writeFields(EventTypeRegistry.Registration<T> registration,
+                                                            DomainEvent event, BinaryEventWriter writer) {
+        registration.codec.write(registration.type.cast(event), writer);
+    }
+}
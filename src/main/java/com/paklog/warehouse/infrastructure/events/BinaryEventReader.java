@@ -0,0 +1,88 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Reads what a {@link BinaryEventWriter} wrote, in the same order.
+ */
+public final class BinaryEventReader {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public BinaryEventReader(byte[] buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.length;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at byte " + position);
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong at byte " + position);
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public UUID readUuid() {
+        return new UUID(readLong(), readLong());
+    }
+
+    public Instant readInstant() {
+        long zigZag = readVarLong();
+        long seconds = (zigZag >>> 1) ^ -(zigZag & 1);
+        return Instant.ofEpochSecond(seconds, readVarInt());
+    }
+
+    public Instant readNullableInstant() {
+        return readByte() != 0 ? readInstant() : null;
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void require(int bytes) {
+        if (bytes > limit - position) {
+            throw new IllegalArgumentException("Event truncated at byte " + position);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.licenseplate.LicensePlateId;
+import com.paklog.warehouse.domain.licenseplate.LicensePlatePickedEvent;
+import com.paklog.warehouse.domain.picklist.ItemPickedEvent;
+import com.paklog.warehouse.domain.picklist.PickListId;
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary codecs of the high-volume floor events. Type ids are part of the wire format:
+ * add new types with new ids, never renumber.
+ */
+public final class DomainEventCodecs {
+    public static final int ITEM_PICKED = 1;
+    public static final int LICENSE_PLATE_PICKED = 2;
+    public static final int ORDER_ASSIGNED_TO_SLOT = 3;
+
+    private DomainEventCodecs() {
+    }
+
+    public static EventTypeRegistry registry() {
+        return new EventTypeRegistry()
+            .register(ITEM_PICKED, ItemPickedEvent.class, new ItemPickedCodec())
+            .register(LICENSE_PLATE_PICKED, LicensePlatePickedEvent.class, new LicensePlatePickedCodec())
+            .register(ORDER_ASSIGNED_TO_SLOT, OrderAssignedToSlotEvent.class, new OrderAssignedToSlotCodec());
+    }
+
+    private static final class ItemPickedCodec implements BinaryEventCodec<ItemPickedEvent> {
+        @Override
+        public void write(ItemPickedEvent event, BinaryEventWriter out) {
+            out.writeUuid(event.getPickListId().getValue());
+            out.writeString(event.getSku().getValue());
+            out.writeVarInt(event.getQuantity().getValue());
+            BinLocation location = event.getBinLocation();
+            out.writeString(location.getAisle());
+            out.writeString(location.getRack());
+            out.writeString(location.getLevel());
+            out.writeString(event.getPickerId());
+        }
+
+        @Override
+        public ItemPickedEvent read(UUID eventId, Instant occurredAt, BinaryEventReader in) {
+            PickListId pickListId = PickListId.of(in.readUuid());
+            SkuCode sku = SkuCode.of(in.readString());
+            Quantity quantity = Quantity.of(in.readVarInt());
+            BinLocation location = BinLocation.of(in.readString(), in.readString(), in.readString());
+            return new ItemPickedEvent(eventId, occurredAt, pickListId, sku, quantity, location, in.readString());
+        }
+    }
+
+    private static final class LicensePlatePickedCodec implements BinaryEventCodec<LicensePlatePickedEvent> {
+        @Override
+        public void write(LicensePlatePickedEvent event, BinaryEventWriter out) {
+            out.writeString(event.getLicensePlateId().getValue());
+            out.writeString(event.getPickedBy());
+            out.writeNullableInstant(event.getPickedAt());
+        }
+
+        @Override
+        public LicensePlatePickedEvent read(UUID eventId, Instant occurredAt, BinaryEventReader in) {
+            LicensePlateId licensePlateId = LicensePlateId.of(in.readString());
+            String pickedBy = in.readString();
+            return new LicensePlatePickedEvent(eventId, occurredAt, licensePlateId, pickedBy, in.readNullableInstant());
+        }
+    }
+
+    private static final class OrderAssignedToSlotCodec implements BinaryEventCodec<OrderAssignedToSlotEvent> {
+        @Override
+        public void write(OrderAssignedToSlotEvent event, BinaryEventWriter out) {
+            out.writeUuid(event.getPutWallId().getValue());
+            out.writeString(event.getSlotId().getValue());
+            out.writeUuid(event.getOrderId().getValue());
+            Map<SkuCode, Quantity> requiredItems = event.getRequiredItems();
+            out.writeVarInt(requiredItems.size());
+            for (Map.Entry<SkuCode, Quantity> item : requiredItems.entrySet()) {
+                out.writeString(item.getKey().getValue());
+                out.writeVarInt(item.getValue().getValue());
+            }
+            out.writeVarLong(event.getSequence());
+        }
+
+        @Override
+        public OrderAssignedToSlotEvent read(UUID eventId, Instant occurredAt, BinaryEventReader in) {
+            PutWallId putWallId = PutWallId.of(in.readUuid());
+            PutWallSlotId slotId = PutWallSlotId.of(in.readString());
+            OrderId orderId = OrderId.of(in.readUuid());
+            int items = in.readVarInt();
+            Map<SkuCode, Quantity> requiredItems = new LinkedHashMap<>(Math.max(4, items * 2));
+            for (int i = 0; i < items; i++) {
+                requiredItems.put(SkuCode.of(in.readString()), Quantity.of(in.readVarInt()));
+            }
+            long sequence = in.readVarLong();
+            return new OrderAssignedToSlotEvent(eventId, occurredAt, putWallId, slotId, orderId, requiredItems,
+                                                sequence);
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link AsyncEventListener} handlers on a pool of its own. All handlers of an event
+ * run in one task, each of them once even when it matches the event through more than one
+ * type.
+ *
+ * <p>Events of an aggregate, found through their put wall, work or license plate ID, are
+ * handled one at a time in the order they were dispatched: they go to one of a fixed set
+ * of ordered lanes picked by the aggregate ID, and a lane is served by one worker at a
+ * time. Different aggregates spread over the lanes and are handled in parallel. Events of
+ * no aggregate go to a lane of their event type that all workers serve at once. Workers
+ * take ready lanes in turn, one event at a time, so a busy aggregate or event type cannot
+ * hold up the others.
+ *
+ * <p>Every event type may have a bounded number of events queued. Beyond that the overflow
+ * policy applies: run the handlers on the publishing thread, which slows publishers down to
+ * what the handlers keep up with, or drop the newest or the oldest event. Running on the
+ * publishing thread would let an event of an aggregate overtake the queued ones, so for
+ * those the publisher waits for room instead, and dropping the oldest drops the newest.
+ */
+public class DomainEventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventDispatcher.class);
+
+    public static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    public static final int DEFAULT_ORDERED_LANES = 64;
+    private static final long IDLE_POLL_MILLIS = 100;
+    // Getters of the aggregate ID in the order they are looked up on an event class
+    static final List<String> AGGREGATE_ID_GETTERS = List.of("getPutWallId", "getWorkId", "getLicensePlateId");
+
+    private static final ClassValue<Method> AGGREGATE_ID = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> eventType) {
+            for (String getter : AGGREGATE_ID_GETTERS) {
+                try {
+                    Method method = eventType.getMethod(getter);
+                    method.setAccessible(true);
+                    return method;
+                } catch (NoSuchMethodException e) {
+                    // Try the next one
+                }
+            }
+            return null;
+        }
+    };
+
+    public enum ThreadMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    public enum OverflowPolicy {
+        CALLER_RUNS,
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+
+    /**
+     * Told about new event types and finished handler calls, e.g. to publish metrics.
+     */
+    public interface Observer {
+        default void queueCreated(EventQueue queue) {
+        }
+
+        default void handlerCompleted(String handler, long durationNanos, boolean failed) {
+        }
+    }
+
+    private final ThreadMode threadMode;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+    private volatile ClassValue<List<Handler>> handlersByType = handlerIndex(List.of());
+    private final Map<Class<?>, EventQueue> queues = new ConcurrentHashMap<>();
+    private final Lane[] orderedLanes;
+    private final BlockingQueue<Lane> readyLanes = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ThreadLocal<Boolean> onWorker = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private volatile Observer observer = new Observer() { };
+    private volatile boolean running;
+
+    private final LongAdder handlerFailures = new LongAdder();
+
+    public DomainEventDispatcher(ThreadMode threadMode, int workerCount, int queueCapacity,
+                                 OverflowPolicy overflowPolicy) {
+        this(threadMode, workerCount, queueCapacity, overflowPolicy, DEFAULT_ORDERED_LANES);
+    }
+
+    public DomainEventDispatcher(ThreadMode threadMode, int workerCount, int queueCapacity,
+                                 OverflowPolicy overflowPolicy, int orderedLanes) {
+        this.threadMode = Objects.requireNonNull(threadMode, "Thread mode cannot be null");
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "Overflow policy cannot be null");
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (orderedLanes < 1) {
+            throw new IllegalArgumentException("Ordered lane count must be positive");
+        }
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.orderedLanes = new Lane[orderedLanes];
+        for (int i = 0; i < orderedLanes; i++) {
+            this.orderedLanes[i] = new Lane(true);
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ThreadFactory threadFactory = threadMode == ThreadMode.VIRTUAL
+            ? Thread.ofVirtual().name("domain-events-", 0).factory()
+            : Thread.ofPlatform().name("domain-events-", 0).daemon(true).factory();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+        logger.info("Dispatching domain events on {} {} workers and {} ordered lanes, {} queued events per type, "
+                    + "{} when full", workerCount, threadMode.name().toLowerCase(), orderedLanes.length,
+                    queueCapacity, overflowPolicy);
+    }
+
+    public void stop() {
+        stop(DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    /**
+     * Stops taking events on the workers and waits for queued ones to be handled; events
+     * dispatched from now on are handled on the publishing thread.
+     */
+    public synchronized void stop(Duration drainTimeout) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+        int abandoned = queues.values().stream().mapToInt(EventQueue::getQueueDepth).sum();
+        if (abandoned > 0) {
+            logger.warn("Stopped dispatching domain events with {} events still queued", abandoned);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setObserver(Observer observer) {
+        this.observer = Objects.requireNonNull(observer, "Observer cannot be null");
+        queues.values().forEach(observer::queueCreated);
+    }
+
+    static boolean hasListenerMethods(Object bean) {
+        return !listenerMethods(AopUtils.getTargetClass(bean)).isEmpty();
+    }
+
+    /**
+     * Registers the {@link AsyncEventListener} methods of the bean.
+     */
+    public synchronized void register(Object bean) {
+        Objects.requireNonNull(bean, "Bean cannot be null");
+        for (Method method : listenerMethods(AopUtils.getTargetClass(bean))) {
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length != 1 || !DomainEvent.class.isAssignableFrom(parameters[0])) {
+                throw new IllegalStateException("@AsyncEventListener method must take one domain event: " + method);
+            }
+            Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+            boolean registered = handlers.stream()
+                .anyMatch(handler -> handler.bean == bean && handler.method.equals(invocable));
+            if (!registered) {
+                invocable.setAccessible(true);
+                handlers.add(new Handler(bean, invocable, parameters[0]));
+            }
+        }
+        handlersByType = handlerIndex(List.copyOf(handlers));
+    }
+
+    @EventListener
+    public void dispatch(DomainEvent event) {
+        List<Handler> eventHandlers = handlersByType.get(event.getClass());
+        if (eventHandlers.isEmpty()) {
+            return;
+        }
+        if (!running) {
+            run(new Task(event, eventHandlers, null));
+            return;
+        }
+        EventQueue queue = queues.computeIfAbsent(event.getClass(), this::newQueue);
+        queue.dispatched.increment();
+        Object aggregateId = aggregateId(event);
+        Lane lane = aggregateId != null ? orderedLanes[laneIndex(aggregateId)] : queue.unordered;
+        Task task = new Task(event, eventHandlers, queue);
+        if (queue.permits.tryAcquire()) {
+            enqueue(lane, task);
+        } else if (lane.ordered) {
+            overflowOrdered(lane, task);
+        } else {
+            overflowUnordered(lane, task);
+        }
+    }
+
+    /**
+     * The event types dispatched so far, with their queue statistics.
+     */
+    public Collection<EventQueue> getQueues() {
+        return List.copyOf(queues.values());
+    }
+
+    public Statistics getStatistics() {
+        long dispatched = 0;
+        long dropped = 0;
+        long callerRuns = 0;
+        long throttled = 0;
+        int queued = 0;
+        for (EventQueue queue : queues.values()) {
+            dispatched += queue.getDispatchedEvents();
+            dropped += queue.getDroppedEvents();
+            callerRuns += queue.getCallerRunsEvents();
+            throttled += queue.getThrottledEvents();
+            queued += queue.getQueueDepth();
+        }
+        return new Statistics(handlers.size(), orderedLanes.length, dispatched, dropped, callerRuns, throttled,
+                              queued, handlerFailures.sum());
+    }
+
+    static Object aggregateId(DomainEvent event) {
+        Method getter = AGGREGATE_ID.get(event.getClass());
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return getter.invoke(event);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            logger.warn("Could not read the aggregate ID of {}, handling it unordered",
+                        event.getClass().getSimpleName(), e);
+            return null;
+        }
+    }
+
+    private int laneIndex(Object aggregateId) {
+        int hash = aggregateId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), orderedLanes.length);
+    }
+
+    private EventQueue newQueue(Class<?> eventType) {
+        EventQueue queue = new EventQueue(eventType.getSimpleName(), queueCapacity);
+        observer.queueCreated(queue);
+        return queue;
+    }
+
+    private void overflowUnordered(Lane lane, Task task) {
+        EventQueue queue = task.queue;
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> {
+                queue.callerRuns.increment();
+                run(task);
+            }
+            case DROP_NEWEST -> drop(task);
+            case DROP_OLDEST -> {
+                Task oldest = lane.queue.poll();
+                if (oldest != null) {
+                    oldest.dequeued();
+                    drop(oldest);
+                }
+                if (queue.permits.tryAcquire()) {
+                    enqueue(lane, task);
+                } else {
+                    drop(task);
+                }
+            }
+        }
+    }
+
+    private void overflowOrdered(Lane lane, Task task) {
+        if (overflowPolicy != OverflowPolicy.CALLER_RUNS) {
+            drop(task);
+            return;
+        }
+        if (onWorker.get()) {
+            // A handler publishing into a full queue; waiting here could wait on itself
+            task.permitted = false;
+            enqueue(lane, task);
+            return;
+        }
+        task.queue.throttled.increment();
+        try {
+            while (running) {
+                if (task.queue.permits.tryAcquire(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    enqueue(lane, task);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        run(task);
+    }
+
+    private void enqueue(Lane lane, Task task) {
+        lane.queue.offer(task);
+        schedule(lane);
+    }
+
+    private void schedule(Lane lane) {
+        if (lane.scheduled.compareAndSet(false, true)) {
+            readyLanes.offer(lane);
+        }
+    }
+
+    /**
+     * Hands the lane back: to the back of the line if it has more events, so that the
+     * other lanes get their turn.
+     */
+    private void reschedule(Lane lane) {
+        if (!lane.queue.isEmpty()) {
+            readyLanes.offer(lane);
+            return;
+        }
+        lane.scheduled.set(false);
+        if (!lane.queue.isEmpty()) {
+            schedule(lane);
+        }
+    }
+
+    private void work() {
+        onWorker.set(Boolean.TRUE);
+        while (running || !readyLanes.isEmpty()) {
+            Lane lane;
+            try {
+                lane = readyLanes.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lane == null) {
+                continue;
+            }
+            Task task = lane.queue.poll();
+            // Other workers may take the next event of an unordered lane right away; an
+            // ordered lane stays with this worker until its event is handled
+            if (!lane.ordered) {
+                reschedule(lane);
+            }
+            if (task != null) {
+                task.dequeued();
+                run(task);
+            }
+            if (lane.ordered) {
+                reschedule(lane);
+            }
+        }
+    }
+
+    private void run(Task task) {
+        for (Handler handler : task.handlers) {
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                handler.method.invoke(handler.bean, task.event);
+            } catch (InvocationTargetException e) {
+                failed = true;
+                logger.error("Handler {} failed for {} with ID: {}", handler.name,
+                             task.event.getClass().getSimpleName(), task.event.getEventId(), e.getCause());
+            } catch (IllegalAccessException | RuntimeException e) {
+                failed = true;
+                logger.error("Handler {} could not be called for {}", handler.name,
+                             task.event.getClass().getSimpleName(), e);
+            }
+            if (failed) {
+                handlerFailures.increment();
+            }
+            observer.handlerCompleted(handler.name, System.nanoTime() - start, failed);
+        }
+    }
+
+    private static void drop(Task task) {
+        task.queue.dropped.increment();
+        logger.warn("Domain event queue for {} full, dropped event with ID: {}", task.queue.eventType,
+                    task.event.getEventId());
+    }
+
+    private static Collection<Method> listenerMethods(Class<?> type) {
+        return MethodIntrospector.selectMethods(type, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+            AnnotatedElementUtils.hasAnnotation(method, AsyncEventListener.class) ? Boolean.TRUE : null).keySet();
+    }
+
+    private static ClassValue<List<Handler>> handlerIndex(List<Handler> handlers) {
+        return new ClassValue<>() {
+            @Override
+            protected List<Handler> computeValue(Class<?> eventType) {
+                return handlers.stream().filter(handler -> handler.eventType.isAssignableFrom(eventType)).toList();
+            }
+        };
+    }
+
+    /**
+     * The bound and counters of one event type.
+     */
+    public static final class EventQueue {
+        private final String eventType;
+        private final int capacity;
+        private final Semaphore permits;
+        private final Lane unordered = new Lane(false);
+        private final LongAdder dispatched = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder callerRuns = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        private EventQueue(String eventType, int capacity) {
+            this.eventType = eventType;
+            this.capacity = capacity;
+            this.permits = new Semaphore(capacity);
+        }
+
+        public String getEventType() {
+            return eventType;
+        }
+
+        public int getQueueDepth() {
+            return capacity - permits.availablePermits();
+        }
+
+        public long getDispatchedEvents() {
+            return dispatched.sum();
+        }
+
+        public long getDroppedEvents() {
+            return dropped.sum();
+        }
+
+        public long getCallerRunsEvents() {
+            return callerRuns.sum();
+        }
+
+        /**
+         * Events of an aggregate whose publisher waited for room in the queue.
+         */
+        public long getThrottledEvents() {
+            return throttled.sum();
+        }
+    }
+
+    private static final class Lane {
+        private final boolean ordered;
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(boolean ordered) {
+            this.ordered = ordered;
+        }
+    }
+
+    private static final class Handler {
+        private final Object bean;
+        private final Method method;
+        private final Class<?> eventType;
+        private final String name;
+
+        private Handler(Object bean, Method method, Class<?> eventType) {
+            this.bean = bean;
+            this.method = method;
+            this.eventType = eventType;
+            this.name = AopUtils.getTargetClass(bean).getSimpleName() + "." + method.getName();
+        }
+    }
+
+    private static final class Task {
+        private final DomainEvent event;
+        private final List<Handler> handlers;
+        private final EventQueue queue;
+        private boolean permitted = true;
+
+        private Task(DomainEvent event, List<Handler> handlers, EventQueue queue) {
+            this.event = event;
+            this.handlers = handlers;
+            this.queue = queue;
+        }
+
+        private void dequeued() {
+            if (permitted) {
+                queue.permits.release();
+            }
+        }
+    }
+
+    public static class Statistics {
+        private final int handlers;
+        private final int orderedLanes;
+        private final long dispatchedEvents;
+        private final long droppedEvents;
+        private final long callerRunsEvents;
+        private final long throttledEvents;
+        private final int queuedEvents;
+        private final long handlerFailures;
+
+        public Statistics(int handlers, int orderedLanes, long dispatchedEvents, long droppedEvents,
+                          long callerRunsEvents, long throttledEvents, int queuedEvents, long handlerFailures) {
+            this.handlers = handlers;
+            this.orderedLanes = orderedLanes;
+            this.dispatchedEvents = dispatchedEvents;
+            this.droppedEvents = droppedEvents;
+            this.callerRunsEvents = callerRunsEvents;
+            this.throttledEvents = throttledEvents;
+            this.queuedEvents = queuedEvents;
+            this.handlerFailures = handlerFailures;
+        }
+
+        public int getHandlers() {
+            return handlers;
+        }
+
+        public int getOrderedLanes() {
+            return orderedLanes;
+        }
+
+        public long getDispatchedEvents() {
+            return dispatchedEvents;
+        }
+
+        public long getDroppedEvents() {
+            return droppedEvents;
+        }
+
+        public long getCallerRunsEvents() {
+            return callerRunsEvents;
+        }
+
+        public long getThrottledEvents() {
+            return throttledEvents;
+        }
+
+        public int getQueuedEvents() {
+            return queuedEvents;
+        }
+
+        public long getHandlerFailures() {
+            return handlerFailures;
+        }
+    }
+}
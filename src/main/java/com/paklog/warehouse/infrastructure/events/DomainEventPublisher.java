@@ -1,28 +1,39 @@
 package com.paklog.warehouse.infrastructure.events;
 
+import com.paklog.warehouse.domain.putwall.PutWallChangeEvent;
 import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.infrastructure.messaging.KafkaEventPublisher;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Publishes domain events to local handlers and appends them to the outbox, from where
+ * the outbox relay sends them to Kafka. Called inside the transaction that saves the
+ * aggregate, the events are stored together with it and Kafka stays off the request path.
+ */
 @Component
 public class DomainEventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(DomainEventPublisher.class);
     
     private final ApplicationEventPublisher applicationEventPublisher;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaEventPublisher kafkaEventPublisher;
     private final EventSerializer eventSerializer;
+    private final DomainEventTopics eventTopics;
 
     public DomainEventPublisher(ApplicationEventPublisher applicationEventPublisher,
-                               KafkaTemplate<String, Object> kafkaTemplate,
-                               EventSerializer eventSerializer) {
+                               KafkaEventPublisher kafkaEventPublisher,
+                               EventSerializer eventSerializer,
+                               DomainEventTopics eventTopics) {
         this.applicationEventPublisher = applicationEventPublisher;
-        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaEventPublisher = kafkaEventPublisher;
         this.eventSerializer = eventSerializer;
+        this.eventTopics = eventTopics;
     }
 
     public void publish(DomainEvent event) {
@@ -30,66 +41,42 @@ public class DomainEventPublisher {
     }
 
     public void publishEvent(DomainEvent event) {
-        logger.debug("Publishing domain event: {}", event.getClass().getSimpleName());
-        
-        try {
-            // Publish locally first for immediate consistency
-            applicationEventPublisher.publishEvent(event);
-            
-            // Then publish to Kafka for eventual consistency and integration
-            publishToKafka(event);
-            
-            logger.info("Successfully published domain event: {} with ID: {}", 
-                    event.getClass().getSimpleName(), event.getEventId());
-        } catch (Exception e) {
-            logger.error("Failed to publish domain event: {} with ID: {}", 
-                    event.getClass().getSimpleName(), event.getEventId(), e);
-            throw new EventPublishingException("Failed to publish domain event", e);
-        }
+        publishEvents(List.of(event));
     }
 
     public void publishEvents(List<DomainEvent> events) {
-        logger.debug("Publishing {} domain events", events.size());
-        
-        for (DomainEvent event : events) {
-            publishEvent(event);
+        if (events.isEmpty()) {
+            return;
         }
+        logger.debug("Publishing {} domain events", events.size());
         
-        logger.info("Successfully published {} domain events", events.size());
-    }
-
-    private void publishToKafka(DomainEvent event) {
         try {
-            String topicName = getTopicName(event);
-            String eventKey = event.getEventId().toString();
-            String serializedEvent = eventSerializer.serialize(event);
-            
-            kafkaTemplate.send(topicName, eventKey, serializedEvent)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            logger.debug("Event sent to Kafka successfully: {} to topic: {}", 
-                                    event.getClass().getSimpleName(), topicName);
-                        } else {
-                            logger.error("Failed to send event to Kafka: {} to topic: {}", 
-                                    event.getClass().getSimpleName(), topicName, ex);
-                        }
-                    });
-                    
+            List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+            for (DomainEvent event : events) {
+                // Publish locally first for immediate consistency
+                applicationEventPublisher.publishEvent(event);
+                outboxEvents.add(toOutboxEvent(event));
+            }
+
+            // Kafka gets them from the outbox once the transaction commits
+            kafkaEventPublisher.saveEventsToOutbox(outboxEvents);
         } catch (Exception e) {
-            logger.error("Error publishing event to Kafka: {}", event.getClass().getSimpleName(), e);
-            throw new KafkaPublishingException("Failed to publish event to Kafka", e);
+            logger.error("Failed to publish {} domain events, first: {} with ID: {}", events.size(),
+                    events.get(0).getClass().getSimpleName(), events.get(0).getEventId(), e);
+            throw new EventPublishingException("Failed to publish domain event", e);
         }
+        
+        logger.debug("Published {} domain events", events.size());
     }
 
-    private String getTopicName(DomainEvent event) {
-        // Convert event class name to topic name (e.g., WorkCompletedEvent -> work-completed)
-        String className = event.getClass().getSimpleName();
-        if (className.endsWith("Event")) {
-            className = className.substring(0, className.length() - 5); // Remove "Event" suffix
-        }
-        
-        // Convert CamelCase to kebab-case
-        return className.replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase();
+    // The aggregate is the subject, so its events share an outbox shard and a Kafka partition
+    private OutboxEvent toOutboxEvent(DomainEvent event) {
+        Object aggregateId = DomainEventDispatcher.aggregateId(event);
+        String subject = aggregateId != null ? aggregateId.toString() : event.getEventId().toString();
+        Long sequence = event instanceof PutWallChangeEvent change && change.getSequence() > 0
+            ? change.getSequence() : null;
+        return new OutboxEvent(eventTopics.topicFor(event), event.getClass().getSimpleName(),
+                KafkaEventPublisher.EVENT_SOURCE, subject, eventSerializer.serialize(event), sequence);
     }
 
     public static class EventPublishingException extends RuntimeException {
@@ -97,10 +84,4 @@ public class DomainEventPublisher {
             super(message, cause);
         }
     }
-
-    public static class KafkaPublishingException extends RuntimeException {
-        public KafkaPublishingException(String message, Throwable cause) {
-            super(message, cause);
-        }
-    }
-}
\ No newline at end of file
+}
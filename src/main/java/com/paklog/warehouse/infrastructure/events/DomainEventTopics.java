@@ -0,0 +1,34 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Kafka topic of each domain event class, named after the class (WorkCompletedEvent goes
+ * to work-completed). Names are worked out once per class and then looked up.
+ */
+@Component
+public class DomainEventTopics {
+    private static final Pattern WORD_BOUNDARY = Pattern.compile("([a-z])([A-Z])");
+
+    private final ClassValue<String> topics = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> eventType) {
+            return topicName(eventType);
+        }
+    };
+
+    public String topicFor(DomainEvent event) {
+        return topics.get(event.getClass());
+    }
+
+    static String topicName(Class<?> eventType) {
+        String className = eventType.getSimpleName();
+        if (className.endsWith("Event")) {
+            className = className.substring(0, className.length() - 5);
+        }
+        return WORD_BOUNDARY.matcher(className).replaceAll("$1-$2").toLowerCase();
+    }
+}
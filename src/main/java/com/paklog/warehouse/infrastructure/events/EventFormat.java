@@ -0,0 +1,22 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+
+/**
+ * A wire format for domain events. Formats are told apart by content type, which travels
+ * with the message so that a reader can pick the matching format.
+ */
+public interface EventFormat {
+
+    String getContentType();
+
+    /**
+     * @throws EventSerializer.EventSerializationException when the event cannot be written in this format
+     */
+    byte[] serialize(DomainEvent event);
+
+    /**
+     * @throws EventSerializer.EventDeserializationException when the data is not a known event in this format
+     */
+    DomainEvent deserialize(byte[] data);
+}
@@ -1,59 +1,63 @@
 package com.paklog.warehouse.infrastructure.events;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.paklog.warehouse.domain.shared.DomainEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serializes domain events in one of the registered {@link EventFormat}s, chosen by
+ * content type. The JSON envelope stays the default; the binary format covers the event
+ * types registered in {@link DomainEventCodecs}, and further formats can be plugged in.
+ */
 @Component
 public class EventSerializer {
-    private static final Logger logger = LoggerFactory.getLogger(EventSerializer.class);
-    
-    private final ObjectMapper objectMapper;
+    private final JsonEventFormat jsonFormat;
+    private final Map<String, EventFormat> formats = new LinkedHashMap<>();
 
     public EventSerializer() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.findAndRegisterModules();
+        this(DomainEventCodecs.registry(), List.of());
+    }
+
+    public EventSerializer(EventTypeRegistry registry, Collection<? extends EventFormat> additionalFormats) {
+        this.jsonFormat = new JsonEventFormat(registry);
+        formats.put(jsonFormat.getContentType(), jsonFormat);
+        BinaryEventFormat binaryFormat = new BinaryEventFormat(registry);
+        formats.put(binaryFormat.getContentType(), binaryFormat);
+        additionalFormats.forEach(format -> formats.put(format.getContentType(), format));
     }
 
     public String serialize(DomainEvent event) {
-        try {
-            EventWrapper wrapper = new EventWrapper(
-                    event.getClass().getName(),
-                    event.getEventId().toString(),
-                    event.getOccurredAt(),
-                    event
-            );
-            
-            String serialized = objectMapper.writeValueAsString(wrapper);
-            logger.debug("Serialized event: {} with ID: {}", event.getClass().getSimpleName(), event.getEventId());
-            return serialized;
-            
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to serialize event: {} with ID: {}", 
-                    event.getClass().getSimpleName(), event.getEventId(), e);
-            throw new EventSerializationException("Failed to serialize domain event", e);
-        }
+        return jsonFormat.serializeToString(event);
     }
 
     public DomainEvent deserialize(String serializedEvent) {
-        try {
-            EventWrapper wrapper = objectMapper.readValue(serializedEvent, EventWrapper.class);
-            
-            Class<?> eventClass = Class.forName(wrapper.getEventType());
-            DomainEvent event = (DomainEvent) objectMapper.convertValue(wrapper.getPayload(), eventClass);
-            
-            logger.debug("Deserialized event: {} with ID: {}", eventClass.getSimpleName(), wrapper.getEventId());
-            return event;
-            
-        } catch (JsonProcessingException | ClassNotFoundException e) {
-            logger.error("Failed to deserialize event: {}", serializedEvent, e);
-            throw new EventDeserializationException("Failed to deserialize domain event", e);
+        return jsonFormat.deserialize(serializedEvent);
+    }
+
+    public byte[] serialize(DomainEvent event, String contentType) {
+        return getFormat(contentType).serialize(event);
+    }
+
+    public DomainEvent deserialize(byte[] serializedEvent, String contentType) {
+        return getFormat(contentType).deserialize(serializedEvent);
+    }
+
+    public EventFormat getFormat(String contentType) {
+        EventFormat format = formats.get(contentType);
+        if (format == null) {
+            throw new IllegalArgumentException("No event format for content type " + contentType);
         }
+        return format;
+    }
+
+    public Set<String> getContentTypes() {
+        return Collections.unmodifiableSet(formats.keySet());
     }
 
     public static class EventSerializationException extends RuntimeException {
@@ -67,33 +71,4 @@ public class EventSerializer {
             super(message, cause);
         }
     }
-
-    // Inner class for event wrapper
-    private static class EventWrapper {
-        private String eventType;
-        private String eventId;
-        private java.time.Instant occurredAt;
-        private Object payload;
-
-        public EventWrapper() {}
-
-        public EventWrapper(String eventType, String eventId, java.time.Instant occurredAt, Object payload) {
-            this.eventType = eventType;
-            this.eventId = eventId;
-            this.occurredAt = occurredAt;
-            this.payload = payload;
-        }
-
-        public String getEventType() { return eventType; }
-        public void setEventType(String eventType) { this.eventType = eventType; }
-
-        public String getEventId() { return eventId; }
-        public void setEventId(String eventId) { this.eventId = eventId; }
-
-        public java.time.Instant getOccurredAt() { return occurredAt; }
-        public void setOccurredAt(java.time.Instant occurredAt) { this.occurredAt = occurredAt; }
-
-        public Object getPayload() { return payload; }
-        public void setPayload(Object payload) { this.payload = payload; }
-    }
-}
\ No newline at end of file
+}
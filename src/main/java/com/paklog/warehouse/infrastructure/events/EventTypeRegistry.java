@@ -0,0 +1,84 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event types known to the serializers: the class behind each type name, and the binary
+ * type id and codec of the types with a binary encoding. Type names outside the registry
+ * are resolved once and then cached, and only to {@link DomainEvent} classes.
+ */
+public class EventTypeRegistry {
+
+    private final Map<String, Class<? extends DomainEvent>> typesByName = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+    private volatile Registration<?>[] registrationsById = new Registration<?>[16];
+
+    /**
+     * Registers a binary encoding. Type ids are written into every message and must never
+     * be reused for another type.
+     */
+    public synchronized <T extends DomainEvent> EventTypeRegistry register(int typeId, Class<T> type,
+                                                                         BinaryEventCodec<T> codec) {
+        Objects.requireNonNull(type, "Event type cannot be null");
+        Objects.requireNonNull(codec, "Codec cannot be null");
+        if (typeId <= 0) {
+            throw new IllegalArgumentException("Type id must be positive: " + typeId);
+        }
+        if (typeId < registrationsById.length && registrationsById[typeId] != null) {
+            throw new IllegalArgumentException("Type id " + typeId + " already used by "
+                + registrationsById[typeId].type.getName());
+        }
+        if (typeId >= registrationsById.length) {
+            registrationsById = Arrays.copyOf(registrationsById, Math.max(typeId + 1, registrationsById.length * 2));
+        }
+        Registration<T> registration = new Registration<>(typeId, type, codec);
+        registrationsById[typeId] = registration;
+        registrationsByType.put(type, registration);
+        typesByName.put(type.getName(), type);
+        return this;
+    }
+
+    public Class<? extends DomainEvent> typeOf(String typeName) {
+        Objects.requireNonNull(typeName, "Type name cannot be null");
+        return typesByName.computeIfAbsent(typeName, EventTypeRegistry::load);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends DomainEvent> Registration<T> registrationOf(Class<T> type) {
+        return (Registration<T>) registrationsByType.get(type);
+    }
+
+    Registration<?> registrationOf(int typeId) {
+        Registration<?>[] registrations = registrationsById;
+        return typeId > 0 && typeId < registrations.length ? registrations[typeId] : null;
+    }
+
+    private static Class<? extends DomainEvent> load(String typeName) {
+        try {
+            Class<?> type = Class.forName(typeName);
+            if (!DomainEvent.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Not a domain event: " + typeName);
+            }
+            return type.asSubclass(DomainEvent.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown event type: " + typeName, e);
+        }
+    }
+
+    static final class Registration<T extends DomainEvent> {
+        final int typeId;
+        final Class<T> type;
+        final BinaryEventCodec<T> codec;
+
+        private Registration(int typeId, Class<T> type, BinaryEventCodec<T> codec) {
+            this.typeId = typeId;
+            this.type = type;
+            this.codec = codec;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The JSON envelope documented in the AsyncAPI spec: the event class name, id and time
+ * around the event itself as payload. Reading binds the payload straight from the parser
+ * once the type is known, without an intermediate tree.
+ */
+public class JsonEventFormat implements EventFormat {
+    private static final Logger logger = LoggerFactory.getLogger(JsonEventFormat.class);
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private final ObjectMapper objectMapper;
+    private final EventTypeRegistry registry;
+
+    public JsonEventFormat(EventTypeRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "Event type registry cannot be null");
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.findAndRegisterModules();
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(wrap(event));
+        } catch (IOException e) {
+            throw serializationFailed(event, e);
+        }
+    }
+
+    public String serializeToString(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(wrap(event));
+        } catch (IOException e) {
+            throw serializationFailed(event, e);
+        }
+    }
+
+    @Override
+    public DomainEvent deserialize(byte[] data) {
+        try (JsonParser parser = objectMapper.createParser(data)) {
+            return read(parser);
+        } catch (IOException | RuntimeException e) {
+            throw deserializationFailed(e);
+        }
+    }
+
+    public DomainEvent deserialize(String data) {
+        try (JsonParser parser = objectMapper.createParser(data)) {
+            return read(parser);
+        } catch (IOException | RuntimeException e) {
+            throw deserializationFailed(e);
+        }
+    }
+
+    private DomainEvent read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Event envelope is not a JSON object");
+        }
+        Class<? extends DomainEvent> type = null;
+        DomainEvent event = null;
+        // Only if the payload comes before the type, which our writer never does
+        TreeNode pendingPayload = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("eventType".equals(field)) {
+                type = registry.typeOf(parser.getText());
+            } else if ("payload".equals(field)) {
+                if (type != null) {
+                    event = objectMapper.readValue(parser, type);
+                } else {
+                    pendingPayload = parser.readValueAsTree();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Event envelope has no eventType");
+        }
+        if (event == null && pendingPayload != null) {
+            event = objectMapper.treeToValue(pendingPayload, type);
+        }
+        if (event == null) {
+            throw new IllegalArgumentException("Event envelope has no payload");
+        }
+        return event;
+    }
+
+    private static EventWrapper wrap(DomainEvent event) {
+        return new EventWrapper(event.getClass().getName(), event.getEventId().toString(), event.getOccurredAt(),
+                                event);
+    }
+
+    private static EventSerializer.EventSerializationException serializationFailed(DomainEvent event, Exception e) {
+        logger.error("Failed to serialize event: {} with ID: {}",
+                event.getClass().getSimpleName(), event.getEventId(), e);
+        return new EventSerializer.EventSerializationException("Failed to serialize domain event", e);
+    }
+
+    private static EventSerializer.EventDeserializationException deserializationFailed(Exception e) {
+        logger.error("Failed to deserialize event", e);
+        return new EventSerializer.EventDeserializationException("Failed to deserialize domain event", e);
+    }
+
+    @JsonPropertyOrder({"eventType", "eventId", "occurredAt", "payload"})
+    private static class EventWrapper {
+        private final String eventType;
+        private final String eventId;
+        private final Instant occurredAt;
+        private final Object payload;
+
+        EventWrapper(String eventType, String eventId, Instant occurredAt, Object payload) {
+            this.eventType = eventType;
+            this.eventId = eventId;
+            this.occurredAt = occurredAt;
+            this.payload = payload;
+        }
+
+        public String getEventType() { return eventType; }
+
+        public String getEventId() { return eventId; }
+
+        public Instant getOccurredAt() { return occurredAt; }
+
+        public Object getPayload() { return payload; }
+    }
+}
@@ -3,8 +3,6 @@ package com.paklog.warehouse.infrastructure.events;
 import com.paklog.warehouse.domain.putwall.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,8 +15,7 @@ public class PutWallEventHandler {
         this.metricsService = metricsService;
     }
 
-    @EventListener
-    @Async
+    @AsyncEventListener
     public void handleOrderAssignedToSlotEvent(OrderAssignedToSlotEvent event) {
         logger.info("Order {} assigned to slot {} in put wall {}",
             event.getOrderId(), event.getSlotId(), event.getPutWallId());
@@ -30,8 +27,7 @@ public class PutWallEventHandler {
             event.getSlotId(), event.getPutWallId());
     }
 
-    @EventListener
-    @Async
+    @AsyncEventListener
     public void handleItemPlacedInSlotEvent(ItemPlacedInSlotEvent event) {
         logger.info("Item {} (qty: {}) placed in slot {} for order {} in put wall {}",
             event.getSkuCode(), event.getQuantity().getValue(), event.getSlotId(),
@@ -43,8 +39,7 @@ public class PutWallEventHandler {
         logger.debug("Recording item placement for inventory tracking");
     }
 
-    @EventListener
-    @Async
+    @AsyncEventListener
     public void handleOrderConsolidatedInSlotEvent(OrderConsolidatedInSlotEvent event) {
         logger.info("Order {} consolidated and ready for pack in slot {} of put wall {}",
             event.getOrderId(), event.getSlotId(), event.getPutWallId());
@@ -58,8 +53,7 @@ public class PutWallEventHandler {
         logger.debug("Activating pack side light for slot {}", event.getSlotId());
     }
 
-    @EventListener
-    @Async
+    @AsyncEventListener
     public void handleSlotReleasedEvent(SlotReleasedEvent event) {
         logger.info("Slot {} released in put wall {} after completing order {}",
             event.getSlotId(), event.getPutWallId(), event.getReleasedOrderId());
@@ -0,0 +1,38 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.OrderConsolidatedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallLoadBalancer;
+import com.paklog.warehouse.domain.putwall.SlotReleasedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds put wall assignments, consolidations and releases into the {@link PutWallLoadBalancer}.
+ * Handled synchronously: an assignment must be counted before the balancer lets go of
+ * the wall it was made on.
+ */
+@Component
+public class PutWallLoadEventHandler {
+
+    private final PutWallLoadBalancer loadBalancer;
+
+    public PutWallLoadEventHandler(PutWallLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @EventListener
+    public void handleOrderAssignedToSlotEvent(OrderAssignedToSlotEvent event) {
+        loadBalancer.orderAssigned(event.getPutWallId(), event.getOrderId(), event.getRequiredItems().keySet());
+    }
+
+    @EventListener
+    public void handleOrderConsolidatedInSlotEvent(OrderConsolidatedInSlotEvent event) {
+        loadBalancer.orderConsolidated(event.getPutWallId(), event.getOrderId());
+    }
+
+    @EventListener
+    public void handleSlotReleasedEvent(SlotReleasedEvent event) {
+        loadBalancer.slotReleased(event.getPutWallId(), event.getReleasedOrderId());
+    }
+}
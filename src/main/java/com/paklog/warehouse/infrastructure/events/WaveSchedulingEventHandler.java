@@ -0,0 +1,40 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.WaveCreatedEvent;
+import com.paklog.warehouse.domain.wave.Wave;
+import com.paklog.warehouse.domain.wave.WaveReleaseScheduler;
+import com.paklog.warehouse.domain.wave.WaveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores each wave the planner closes as a planned wave and schedules its release.
+ * Handled synchronously, so the wave is stored before its pick lists are published.
+ */
+@Component
+public class WaveSchedulingEventHandler {
+    private static final Logger logger = LoggerFactory.getLogger(WaveSchedulingEventHandler.class);
+
+    private final WaveRepository waveRepository;
+    private final WaveReleaseScheduler waveReleaseScheduler;
+
+    public WaveSchedulingEventHandler(WaveRepository waveRepository, WaveReleaseScheduler waveReleaseScheduler) {
+        this.waveRepository = waveRepository;
+        this.waveReleaseScheduler = waveReleaseScheduler;
+    }
+
+    @EventListener
+    public void handleWaveCreatedEvent(WaveCreatedEvent event) {
+        Wave wave = new Wave(event.getWaveId(), event.getOrderIds(), event.getPlannedDate(), event.getCutoffTime(),
+                             event.getCarrier(), event.getShippingSpeedCategory(), event.getMaxOrders());
+        waveRepository.save(wave);
+        if (waveReleaseScheduler.schedule(wave)) {
+            logger.debug("Wave {} scheduled for release at {}", wave.getId(),
+                         waveReleaseScheduler.getReleaseTime(wave.getId()).orElse(null));
+        } else {
+            logger.debug("Wave {} has no cutoff and waits for a manual release", wave.getId());
+        }
+    }
+}
@@ -1,72 +1,35 @@
 package com.paklog.warehouse.infrastructure.messaging;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.cloudevents.CloudEvent;
-import io.cloudevents.core.builder.CloudEventBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.net.URI;
-import java.time.OffsetDateTime;
 import java.util.List;
 
 @Service
 public class KafkaEventPublisher {
-    private static final Logger logger = LoggerFactory.getLogger(KafkaEventPublisher.class);
-    private static final String EVENT_SOURCE = "/fulfillment/warehouse-operations-service";
-    private static final String TOPIC_NAME = "warehouse-events";
+    public static final String EVENT_SOURCE = "/fulfillment/warehouse-operations-service";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
     private final OutboxRepository outboxRepository;
-    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
 
     public KafkaEventPublisher(
-        KafkaTemplate<String, String> kafkaTemplate,
         OutboxRepository outboxRepository,
-        ObjectMapper objectMapper
+        OutboxRelay outboxRelay
     ) {
-        this.kafkaTemplate = kafkaTemplate;
         this.outboxRepository = outboxRepository;
-        this.objectMapper = objectMapper;
+        this.outboxRelay = outboxRelay;
     }
 
-    @Scheduled(fixedDelay = 5000) // Run every 5 seconds
-    @Transactional
-    public void publishPendingEvents() {
-        List<OutboxEvent> pendingEvents = outboxRepository.findByProcessedFalse();
-        
-        for (OutboxEvent outboxEvent : pendingEvents) {
-            try {
-                CloudEvent cloudEvent = createCloudEvent(outboxEvent);
-                String serializedEvent = objectMapper.writeValueAsString(cloudEvent);
-                
-                kafkaTemplate.send(TOPIC_NAME, outboxEvent.getId().toString(), serializedEvent);
-                
-                // Mark event as processed
-                outboxEvent.markProcessed();
-                outboxRepository.save(outboxEvent);
-                
-                logger.info("Published event: {}", outboxEvent.getId());
-            } catch (Exception e) {
-                logger.error("Failed to publish event: {}", outboxEvent.getId(), e);
-            }
-        }
-    }
-
-    private CloudEvent createCloudEvent(OutboxEvent outboxEvent) {
-        return CloudEventBuilder.v1()
-            .withId(outboxEvent.getId().toString())
-            .withType(outboxEvent.getType())
-            .withSource(URI.create(EVENT_SOURCE))
-            .withSubject(outboxEvent.getSubject())
-            .withTime(OffsetDateTime.now())
-            .withDataContentType("application/json")
-            .withData(outboxEvent.getData().getBytes())
-            .build();
+    /**
+     * Publishes the outbox backlog on the calling thread. The relay normally drains the
+     * outbox in the background; this is for callers that need the backlog sent now.
+     *
+     * @return the number of events acknowledged by Kafka
+     */
+    public int publishPendingEvents() {
+        return outboxRelay.drain();
     }
 
     @Transactional
@@ -75,13 +38,29 @@ public class KafkaEventPublisher {
         String subject, 
         String data
     ) {
-        OutboxEvent outboxEvent = new OutboxEvent(
-            type, 
-            EVENT_SOURCE, 
-            subject, 
-            data
-        );
-        
-        outboxRepository.save(outboxEvent);
+        saveEventsToOutbox(List.of(new OutboxEvent(type, EVENT_SOURCE, subject, data)));
+    }
+
+    /**
+     * Appends the events to the outbox in one write, inside the caller's transaction so
+     * they are stored if and only if the aggregate changes that raised them are. The relay
+     * is woken up once the transaction commits.
+     */
+    @Transactional
+    public void saveEventsToOutbox(List<OutboxEvent> outboxEvents) {
+        if (outboxEvents.isEmpty()) {
+            return;
+        }
+        outboxRepository.insert(outboxEvents);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        } else {
+            outboxRelay.wakeUp();
+        }
     }
-}
\ No newline at end of file
+}
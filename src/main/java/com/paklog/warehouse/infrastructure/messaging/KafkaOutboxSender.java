@@ -0,0 +1,74 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends outbox events to Kafka as CloudEvents, keyed by aggregate so that the events of
+ * one aggregate stay in order on one partition. Events with a topic of their own are sent
+ * there as they are.
+ */
+public class KafkaOutboxSender implements OutboxSender {
+    private static final String SPEC_VERSION = "1.0";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topicName;
+
+    public KafkaOutboxSender(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                             String topicName) {
+        this.kafkaTemplate = Objects.requireNonNull(kafkaTemplate, "Kafka template cannot be null");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "Object mapper cannot be null");
+        this.topicName = Objects.requireNonNull(topicName, "Topic name cannot be null");
+    }
+
+    @Override
+    public CompletableFuture<?> send(OutboxEvent outboxEvent) {
+        if (outboxEvent.getTopic() != null) {
+            return kafkaTemplate.send(outboxEvent.getTopic(), messageKey(outboxEvent), outboxEvent.getData());
+        }
+        try {
+            return kafkaTemplate.send(topicName, messageKey(outboxEvent), toCloudEvent(outboxEvent));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * The Kafka key of an outbox event: its subject, the aggregate it belongs to, so that
+     * one aggregate's events land in one partition in order.
+     */
+    public static String messageKey(OutboxEvent outboxEvent) {
+        return outboxEvent.getSubject() != null ? outboxEvent.getSubject() : outboxEvent.getId().toString();
+    }
+
+    /**
+     * The CloudEvents JSON structured format, with the outbox data, already JSON, embedded
+     * as the data member rather than encoded a second time.
+     */
+    String toCloudEvent(OutboxEvent outboxEvent) throws IOException {
+        StringWriter out = new StringWriter(outboxEvent.getData().length() + 256);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("specversion", SPEC_VERSION);
+            json.writeStringField("id", outboxEvent.getId().toString());
+            json.writeStringField("type", outboxEvent.getType());
+            json.writeStringField("source", outboxEvent.getSource());
+            if (outboxEvent.getSubject() != null) {
+                json.writeStringField("subject", outboxEvent.getSubject());
+            }
+            json.writeStringField("time", outboxEvent.getCreatedAt().toString());
+            json.writeStringField("datacontenttype", "application/json");
+            json.writeFieldName("data");
+            json.writeRawValue(outboxEvent.getData());
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Shard leases as one document per shard ({@code _id} shard, owner, expiresAt) and relay
+ * heartbeats as one document per relay. Taking a lease is a conditional upsert: when
+ * another relay holds an unexpired lease the upsert collides on {@code _id} and fails.
+ */
+public class MongoOutboxShardLeases implements OutboxShardLeases {
+    static final String LEASE_COLLECTION = "outbox_shard_leases";
+    static final String RELAY_COLLECTION = "outbox_relays";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoOutboxShardLeases(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void heartbeat(String relayId, Instant expiresAt) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(relayId)),
+                             new Update().set("expiresAt", expiresAt), RELAY_COLLECTION);
+    }
+
+    @Override
+    public int countLiveRelays(Instant now) {
+        return (int) mongoTemplate.count(new Query(Criteria.where("expiresAt").gt(now)), RELAY_COLLECTION);
+    }
+
+    @Override
+    public Set<Integer> renew(String relayId, Instant expiresAt) {
+        Query owned = new Query(Criteria.where("owner").is(relayId));
+        mongoTemplate.updateMulti(owned, new Update().set("expiresAt", expiresAt), LEASE_COLLECTION);
+        return mongoTemplate.find(owned, Document.class, LEASE_COLLECTION).stream()
+            .map(lease -> lease.getInteger("_id"))
+            .collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean acquire(int shard, String relayId, Instant now, Instant expiresAt) {
+        Query available = new Query(Criteria.where("_id").is(shard)
+            .orOperator(Criteria.where("owner").is(relayId), Criteria.where("expiresAt").lte(now)));
+        try {
+            mongoTemplate.upsert(available, new Update().set("owner", relayId).set("expiresAt", expiresAt),
+                                 LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Held by another relay
+            return false;
+        }
+    }
+
+    @Override
+    public void release(int shard, String relayId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(shard).and("owner").is(relayId)), LEASE_COLLECTION);
+    }
+
+    @Override
+    public void leave(String relayId) {
+        mongoTemplate.remove(new Query(Criteria.where("owner").is(relayId)), LEASE_COLLECTION);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(relayId)), RELAY_COLLECTION);
+    }
+}
@@ -0,0 +1,227 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails inserts into the outbox through a MongoDB change stream and wakes the
+ * {@link OutboxRelay} up for events of shards it publishes, so events are published as
+ * soon as they are written. While the stream is open the relay polls only to recover
+ * missed events; when it cannot be opened (change streams need a replica set) the relay
+ * falls back to its regular idle poll.
+ *
+ * <p>The resume token is saved about once a second, so after a restart the stream picks
+ * up the inserts made while the service was down.
+ */
+public class OutboxChangeStreamListener {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxChangeStreamListener.class);
+
+    static final String TOKEN_COLLECTION = "outbox_change_stream_tokens";
+    public static final Duration DEFAULT_RECOVERY_POLL_INTERVAL = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(30);
+    private static final Duration TOKEN_SAVE_INTERVAL = Duration.ofSeconds(1);
+    private static final long MAX_AWAIT_MILLIS = 500;
+    // The resume token is older than the oplog, or the stream cannot be resumed at all
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final OutboxRelay relay;
+    private final String listenerName;
+    private final Duration recoveryPollInterval;
+    private final Duration reconnectDelay;
+    private final Duration fallbackPollInterval;
+    private final Clock clock;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread worker;
+    private BsonDocument savedToken;
+    private Instant tokenSavedAt = Instant.MIN;
+
+    public OutboxChangeStreamListener(MongoTemplate mongoTemplate, OutboxRelay relay, String listenerName) {
+        this(mongoTemplate, relay, listenerName, DEFAULT_RECOVERY_POLL_INTERVAL, DEFAULT_RECONNECT_DELAY,
+             Clock.systemUTC());
+    }
+
+    public OutboxChangeStreamListener(MongoTemplate mongoTemplate, OutboxRelay relay, String listenerName,
+                                      Duration recoveryPollInterval, Duration reconnectDelay, Clock clock) {
+        this.mongoTemplate = Objects.requireNonNull(mongoTemplate, "Mongo template cannot be null");
+        this.relay = Objects.requireNonNull(relay, "Outbox relay cannot be null");
+        this.listenerName = Objects.requireNonNull(listenerName, "Listener name cannot be null");
+        this.recoveryPollInterval = Objects.requireNonNull(recoveryPollInterval, "Recovery poll interval cannot be null");
+        this.reconnectDelay = Objects.requireNonNull(reconnectDelay, "Reconnect delay cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.fallbackPollInterval = relay.getIdlePollInterval();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::listen, "outbox-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                watch();
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                disconnected(e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        disconnected(null);
+    }
+
+    /**
+     * Watches until stopped; returns normally only once stopped.
+     *
+     * @throws MongoException when the stream cannot be opened or breaks
+     */
+    void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor(loadToken())) {
+            connected();
+            while (running && !Thread.currentThread().isInterrupted()) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && publishedHere(change)) {
+                    relay.wakeUp();
+                }
+                saveTokenIfDue(cursor.getResumeToken());
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor(BsonDocument resumeToken) {
+        if (resumeToken == null) {
+            return changes().cursor();
+        }
+        try {
+            return changes().resumeAfter(resumeToken).cursor();
+        } catch (MongoServerException e) {
+            if (!isHistoryLost(e)) {
+                throw e;
+            }
+            // Inserts since the token can no longer be replayed; the relay's next drain finds them
+            logger.warn("Outbox change stream {} cannot resume from its saved token, starting from now", listenerName);
+            deleteToken();
+            return changes().cursor();
+        }
+    }
+
+    private ChangeStreamIterable<Document> changes() {
+        return outboxCollection().watch(List.of(
+                Aggregates.match(Filters.eq("operationType", "insert")),
+                Aggregates.project(Projections.include("operationType", "fullDocument.shard"))))
+            .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean publishedHere(ChangeStreamDocument<Document> change) {
+        Document event = change.getFullDocument();
+        Integer shard = event != null ? event.getInteger("shard") : null;
+        return relay.publishesShard(shard != null ? shard : 0);
+    }
+
+    private void connected() {
+        if (!connected) {
+            logger.info("Outbox change stream {} open, polling the outbox every {} to recover missed events",
+                        listenerName, recoveryPollInterval);
+        }
+        connected = true;
+        relay.setIdlePollInterval(recoveryPollInterval);
+        // Catch up with inserts made before the stream was open
+        relay.wakeUp();
+    }
+
+    private void disconnected(MongoException cause) {
+        if (connected || cause != null) {
+            if (cause != null) {
+                logger.warn("Outbox change stream {} unavailable, polling the outbox every {}: {}",
+                            listenerName, fallbackPollInterval, cause.getMessage());
+            }
+            connected = false;
+            relay.setIdlePollInterval(fallbackPollInterval);
+            relay.wakeUp();
+        }
+    }
+
+    private static boolean isHistoryLost(MongoServerException e) {
+        return e.getCode() == CHANGE_STREAM_HISTORY_LOST || e.getCode() == CHANGE_STREAM_FATAL_ERROR;
+    }
+
+    private MongoCollection<Document> outboxCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(OutboxEvent.class));
+    }
+
+    private BsonDocument loadToken() {
+        Document saved = mongoTemplate.getCollection(TOKEN_COLLECTION).find(Filters.eq("_id", listenerName)).first();
+        Document token = saved != null ? saved.get("token", Document.class) : null;
+        savedToken = token != null ? token.toBsonDocument() : null;
+        return savedToken;
+    }
+
+    private void saveTokenIfDue(BsonDocument token) {
+        Instant now = clock.instant();
+        if (token == null || token.equals(savedToken) || now.isBefore(tokenSavedAt.plus(TOKEN_SAVE_INTERVAL))) {
+            return;
+        }
+        mongoTemplate.getCollection(TOKEN_COLLECTION).replaceOne(Filters.eq("_id", listenerName),
+            new Document("_id", listenerName).append("token", token).append("savedAt", now),
+            new ReplaceOptions().upsert(true));
+        savedToken = token;
+        tokenSavedAt = now;
+    }
+
+    private void deleteToken() {
+        mongoTemplate.getCollection(TOKEN_COLLECTION).deleteOne(Filters.eq("_id", listenerName));
+        savedToken = null;
+    }
+}
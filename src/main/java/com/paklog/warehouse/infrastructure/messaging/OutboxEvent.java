@@ -1,16 +1,33 @@
 package com.paklog.warehouse.infrastructure.messaging;
 
+import org.springframework.data.annotation.PersistenceCreator;
+
 import java.time.Instant;
 import java.util.UUID;
 
 public class OutboxEvent {
+    /**
+     * Number of outbox shards. Events are spread over shards by aggregate, so changing
+     * this reassigns the aggregates of events still in the outbox.
+     */
+    public static final int SHARD_COUNT = 64;
+
     private final UUID id;
+    // Null for CloudEvents on the relay's default topic
+    private final String topic;
     private final String type;
     private final String source;
     private final String subject;
     private final String data;
     private final Instant createdAt;
+    private final int shard;
+    // Number the aggregate gave the change, for events of aggregates that number them
+    private final Long sequence;
     private boolean processed;
+    private Instant processedAt;
+    // Set while a relay holds the event; the lease lets another relay take over after a crash
+    private String claimId;
+    private Instant leaseExpiresAt;
 
     public OutboxEvent(
         String type, 
@@ -18,19 +35,68 @@ public class OutboxEvent {
         String subject, 
         String data
     ) {
+        this(null, type, source, subject, data);
+    }
+
+    /**
+     * An event published as is to its own topic, for messages that already carry their
+     * envelope, such as serialized domain events.
+     */
+    public OutboxEvent(String topic, String type, String source, String subject, String data) {
+        this(topic, type, source, subject, data, null);
+    }
+
+    /**
+     * An event of an aggregate that numbers its changes, stored with the number so that
+     * the changes after a given one can be read back by index.
+     */
+    public OutboxEvent(String topic, String type, String source, String subject, String data, Long sequence) {
         this.id = UUID.randomUUID();
+        this.topic = topic;
         this.type = type;
         this.source = source;
         this.subject = subject;
         this.data = data;
         this.createdAt = Instant.now();
+        this.shard = shardOf(subject);
+        this.sequence = sequence;
         this.processed = false;
     }
 
+    // Events written before sharding have no shard and read as shard 0
+    @PersistenceCreator
+    OutboxEvent(UUID id, String topic, String type, String source, String subject, String data, Instant createdAt,
+                Integer shard, Long sequence) {
+        this.id = id;
+        this.topic = topic;
+        this.type = type;
+        this.source = source;
+        this.subject = subject;
+        this.data = data;
+        this.createdAt = createdAt;
+        this.shard = shard != null ? shard : 0;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Shard of the events of one aggregate; the subject of an outbox event is its aggregate id.
+     */
+    public static int shardOf(String aggregateId) {
+        if (aggregateId == null) {
+            return 0;
+        }
+        int hash = aggregateId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), SHARD_COUNT);
+    }
+
     public UUID getId() {
         return id;
     }
 
+    public String getTopic() {
+        return topic;
+    }
+
     public String getType() {
         return type;
     }
@@ -51,11 +117,31 @@ public class OutboxEvent {
         return createdAt;
     }
 
+    public int getShard() {
+        return shard;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
     public boolean isProcessed() {
         return processed;
     }
 
+    public Instant getProcessedAt() {
+        return processedAt;
+    }
+
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
     public void markProcessed() {
         this.processed = true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claiming and acknowledging outbox events in bulk. A claim leases unprocessed events to
+ * one relay; events whose lease ran out without an acknowledgement can be claimed again.
+ */
+public interface OutboxLeaseOperations {
+
+    /**
+     * Leases up to {@code limit} of the oldest unprocessed events of the given shards that
+     * are not leased at {@code now}. Events of an aggregate that still has an unprocessed
+     * event leased, in flight or failed, are left for a later claim, so the events of one
+     * aggregate are only ever claimed oldest first.
+     *
+     * @return the claimed events, oldest first
+     */
+    List<OutboxEvent> claimBatch(String claimId, Collection<Integer> shards, int limit, Instant now,
+                                 Instant leaseExpiresAt);
+
+    /**
+     * Marks the events processed in one write, skipping those no longer held by the claim.
+     *
+     * @return the number of events marked
+     */
+    long markProcessed(String claimId, Collection<UUID> eventIds, Instant processedAt);
+}
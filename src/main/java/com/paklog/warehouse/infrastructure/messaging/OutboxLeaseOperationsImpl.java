@@ -0,0 +1,141 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * MongoDB implementation of the {@link OutboxRepository} lease operations.
+ */
+public class OutboxLeaseOperationsImpl implements OutboxLeaseOperations {
+
+    private final MongoTemplate mongoTemplate;
+
+    public OutboxLeaseOperationsImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<OutboxEvent> claimBatch(String claimId, Collection<Integer> shards, int limit, Instant now,
+                                        Instant leaseExpiresAt) {
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+        Query candidates = new Query(new Criteria().andOperator(inShards(shards), claimable(now))).with(Sort.by("createdAt")).limit(limit);
+        candidates.fields().include("_id").include("subject");
+        List<OutboxEvent> found = mongoTemplate.find(candidates, OutboxEvent.class);
+        Set<String> blocked = leasedSubjects(found, now);
+        List<UUID> ids = found.stream()
+            .filter(event -> event.getSubject() == null || !blocked.contains(event.getSubject()))
+            .map(OutboxEvent::getId)
+            .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // The lease condition is repeated: another relay may have claimed some candidates since the read
+        mongoTemplate.updateMulti(
+            new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now))),
+            new Update().set("claimId", claimId).set("leaseExpiresAt", leaseExpiresAt),
+            OutboxEvent.class);
+        List<OutboxEvent> claimed = mongoTemplate.find(
+            new Query(Criteria.where("_id").in(ids).and("claimId").is(claimId)).with(Sort.by("createdAt")),
+            OutboxEvent.class);
+        return inOrder(claimId, found, claimed);
+    }
+
+    // Subjects of the candidates with an unprocessed event another claim still holds
+    private Set<String> leasedSubjects(List<OutboxEvent> candidates, Instant now) {
+        Set<String> subjects = new HashSet<>();
+        for (OutboxEvent candidate : candidates) {
+            if (candidate.getSubject() != null) {
+                subjects.add(candidate.getSubject());
+            }
+        }
+        if (subjects.isEmpty()) {
+            return Set.of();
+        }
+        Query leased = new Query(Criteria.where("subject").in(subjects)
+            .and("processed").is(false)
+            .and("leaseExpiresAt").gt(now));
+        leased.fields().include("subject");
+        Set<String> blocked = new HashSet<>();
+        for (OutboxEvent event : mongoTemplate.find(leased, OutboxEvent.class)) {
+            blocked.add(event.getSubject());
+        }
+        return blocked;
+    }
+
+    /**
+     * Drops the claimed events of an aggregate whose older candidate another relay claimed
+     * first, and gives their lease back, so none is sent ahead of that older event.
+     */
+    private List<OutboxEvent> inOrder(String claimId, List<OutboxEvent> candidates, List<OutboxEvent> claimed) {
+        Set<UUID> claimedIds = new HashSet<>();
+        for (OutboxEvent event : claimed) {
+            claimedIds.add(event.getId());
+        }
+        Set<String> lostSubjects = new HashSet<>();
+        for (OutboxEvent candidate : candidates) {
+            if (candidate.getSubject() != null && !claimedIds.contains(candidate.getId())) {
+                lostSubjects.add(candidate.getSubject());
+            }
+        }
+        if (lostSubjects.isEmpty()) {
+            return claimed;
+        }
+        List<OutboxEvent> kept = new ArrayList<>(claimed.size());
+        List<UUID> returned = new ArrayList<>();
+        for (OutboxEvent event : claimed) {
+            if (event.getSubject() != null && lostSubjects.contains(event.getSubject())) {
+                returned.add(event.getId());
+            } else {
+                kept.add(event);
+            }
+        }
+        if (!returned.isEmpty()) {
+            mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(returned).and("claimId").is(claimId)),
+                new Update().unset("claimId").unset("leaseExpiresAt"),
+                OutboxEvent.class);
+        }
+        return kept;
+    }
+
+    @Override
+    public long markProcessed(String claimId, Collection<UUID> eventIds, Instant processedAt) {
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.updateMulti(
+            new Query(Criteria.where("_id").in(eventIds).and("claimId").is(claimId)),
+            new Update().set("processed", true)
+                .set("processedAt", processedAt)
+                .unset("claimId")
+                .unset("leaseExpiresAt"),
+            OutboxEvent.class).getModifiedCount();
+    }
+
+    private static Criteria inShards(Collection<Integer> shards) {
+        if (shards.contains(0)) {
+            // Events written before sharding have no shard and belong to shard 0
+            return new Criteria().orOperator(Criteria.where("shard").in(shards), Criteria.where("shard").exists(false));
+        }
+        return Criteria.where("shard").in(shards);
+    }
+
+    private static Criteria claimable(Instant now) {
+        return Criteria.where("processed").is(false)
+            .orOperator(Criteria.where("leaseExpiresAt").is(null), Criteria.where("leaseExpiresAt").lte(now));
+    }
+}
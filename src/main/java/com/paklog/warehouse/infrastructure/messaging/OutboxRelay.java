@@ -0,0 +1,480 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves outbox events to the broker in batches. Each batch is claimed with a lease, sent
+ * without waiting for acknowledgements, and marked processed in one bulk write once the
+ * broker acknowledged it; several batches are in flight at a time. Events that fail or
+ * time out keep their lease and are claimed again once it expires, so delivery is at
+ * least once.
+ *
+ * <p>The events of one aggregate, its subject, are sent one after another: a claim skips
+ * aggregates with an older event still leased, in flight or failed, and within a batch
+ * an event is only sent once the broker acknowledged the one before it. After a failure
+ * the aggregate's later events are left unsent until the failed one is claimed again, so
+ * the broker receives each aggregate's events in order, repeating a suffix at most when
+ * an acknowledgement was lost.
+ *
+ * <p>With an {@link OutboxShardAssignment} the relay only claims events of the shards it
+ * holds, so replicas share the outbox instead of each reading all of it.
+ *
+ * <p>The relay thread drains the outbox until it is empty, then waits for
+ * {@link #wakeUp()} or an idle poll whose interval backs off up to the configured limit.
+ * While a push source such as {@link OutboxChangeStreamListener} wakes the relay up, the
+ * idle poll only recovers missed events and can be much longer.
+ */
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 200;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+    public static final Duration DEFAULT_LEASE = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_ACK_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_IDLE_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final long MIN_IDLE_BACKOFF_MILLIS = 10;
+    private static final long THROUGHPUT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Set<Integer> ALL_SHARDS = allShards();
+
+    private final OutboxLeaseOperations outbox;
+    private final OutboxSender sender;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final Duration lease;
+    private final Duration ackTimeout;
+    private volatile Duration idlePollInterval;
+    private final OutboxShardAssignment shardAssignment;
+    private final String relayId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition outboxChanged = lock.newCondition();
+    private boolean wakeUpRequested;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private final LongAdder claimedBatches = new LongAdder();
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder deferredEvents = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastLagMillis;
+    private long windowStartNanos = System.nanoTime();
+    private long windowEvents;
+    private double eventsPerSecond;
+
+    public OutboxRelay(OutboxLeaseOperations outbox, OutboxSender sender) {
+        this(outbox, sender, Clock.systemUTC(), DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT_BATCHES, DEFAULT_LEASE,
+             DEFAULT_ACK_TIMEOUT, DEFAULT_IDLE_POLL_INTERVAL);
+    }
+
+    public OutboxRelay(OutboxLeaseOperations outbox, OutboxSender sender, Clock clock, int batchSize,
+                       int maxInFlightBatches, Duration lease, Duration ackTimeout, Duration idlePollInterval) {
+        this(outbox, sender, null, clock, batchSize, maxInFlightBatches, lease, ackTimeout, idlePollInterval);
+    }
+
+    public OutboxRelay(OutboxLeaseOperations outbox, OutboxSender sender, OutboxShardAssignment shardAssignment,
+                       Clock clock, int batchSize, int maxInFlightBatches, Duration lease, Duration ackTimeout,
+                       Duration idlePollInterval) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxInFlightBatches <= 0) {
+            throw new IllegalArgumentException("In-flight batch limit must be positive: " + maxInFlightBatches);
+        }
+        this.outbox = Objects.requireNonNull(outbox, "Outbox cannot be null");
+        this.sender = Objects.requireNonNull(sender, "Sender cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.lease = Objects.requireNonNull(lease, "Lease cannot be null");
+        this.ackTimeout = Objects.requireNonNull(ackTimeout, "Acknowledgement timeout cannot be null");
+        this.idlePollInterval = Objects.requireNonNull(idlePollInterval, "Idle poll interval cannot be null");
+        this.shardAssignment = shardAssignment; // Optional: without it the relay claims from every shard
+        this.relayId = shardAssignment != null ? shardAssignment.getRelayId() : UUID.randomUUID().toString();
+        if (ackTimeout.compareTo(lease) >= 0) {
+            // Otherwise a batch can be claimed again while its sends are still pending
+            logger.warn("Outbox acknowledgement timeout {} is not shorter than the lease {}", ackTimeout, lease);
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::relay, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        if (shardAssignment != null) {
+            try {
+                shardAssignment.releaseAll();
+            } catch (RuntimeException e) {
+                // The leases expire on their own
+                logger.warn("Failed to release outbox shards of relay {}: {}", relayId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Signals that events were added, so an idle relay reads the outbox right away.
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            wakeUpRequested = true;
+            outboxChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims and sends batches until no claimable events are left, keeping up to the
+     * in-flight limit of batches unacknowledged.
+     *
+     * @return the number of events acknowledged by the broker
+     */
+    public int drain() {
+        Deque<ClaimedBatch> inFlight = new ArrayDeque<>();
+        int acknowledged = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ClaimedBatch batch = claimAndSend();
+                if (batch == null) {
+                    if (inFlight.isEmpty()) {
+                        break;
+                    }
+                    // Its acknowledgement may free the next events of its aggregates for a claim
+                    acknowledged += acknowledge(inFlight.poll());
+                    continue;
+                }
+                inFlight.add(batch);
+                if (inFlight.size() >= maxInFlightBatches) {
+                    acknowledged += acknowledge(inFlight.poll());
+                }
+            }
+        } finally {
+            while (!inFlight.isEmpty()) {
+                acknowledged += acknowledge(inFlight.poll());
+            }
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Changes the longest wait between outbox reads while it is empty; applies from the next wait.
+     */
+    public void setIdlePollInterval(Duration idlePollInterval) {
+        this.idlePollInterval = Objects.requireNonNull(idlePollInterval, "Idle poll interval cannot be null");
+    }
+
+    public Duration getIdlePollInterval() {
+        return idlePollInterval;
+    }
+
+    public boolean publishesShard(int shard) {
+        return shardAssignment == null || shardAssignment.getOwnedShards().contains(shard);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getRelayId() {
+        return relayId;
+    }
+
+    /**
+     * Number of shards the relay currently claims from.
+     */
+    public int getShardCount() {
+        return shardAssignment != null ? shardAssignment.getOwnedShards().size() : ALL_SHARDS.size();
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(claimedBatches.sum(), publishedEvents.sum(), failedEvents.sum(), deferredEvents.sum(),
+                              totalLagMillis.sum(), maxLagMillis.get(), lastLagMillis,
+                              updateThroughput(0, System.nanoTime()));
+    }
+
+    private ClaimedBatch claimAndSend() {
+        Set<Integer> shards = shardAssignment != null ? shardAssignment.currentShards() : ALL_SHARDS;
+        if (shards.isEmpty()) {
+            return null;
+        }
+        String claimId = relayId + ":" + UUID.randomUUID();
+        Instant now = clock.instant();
+        List<OutboxEvent> events = outbox.claimBatch(claimId, shards, batchSize, now, now.plus(lease));
+        if (events.isEmpty()) {
+            return null;
+        }
+        claimedBatches.increment();
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        int[] previousOfAggregate = new int[events.size()];
+        Map<String, Integer> lastOfAggregate = new HashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            Integer previous = event.getSubject() != null ? lastOfAggregate.put(event.getSubject(), i) : null;
+            previousOfAggregate[i] = previous != null ? previous : -1;
+            // Sent off the broker's callback thread, where a send could block on a full buffer
+            sends.add(previous == null ? sendQuietly(event)
+                          : sends.get(previous).thenComposeAsync(acknowledged -> sendQuietly(event)));
+        }
+        return new ClaimedBatch(claimId, events, sends, previousOfAggregate);
+    }
+
+    private CompletableFuture<?> sendQuietly(OutboxEvent event) {
+        try {
+            CompletableFuture<?> send = sender.send(event);
+            return send != null ? send : CompletableFuture.failedFuture(
+                new IllegalStateException("Sender returned no result for event " + event.getId()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private int acknowledge(ClaimedBatch batch) {
+        try {
+            CompletableFuture.allOf(batch.sends.toArray(new CompletableFuture<?>[0]))
+                .get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Failed sends are told apart below
+        } catch (TimeoutException e) {
+            logger.warn("Outbox batch {} not fully acknowledged within {}", batch.claimId, ackTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Instant now = clock.instant();
+        List<UUID> acknowledgedIds = new ArrayList<>(batch.events.size());
+        long[] lagMillis = new long[batch.events.size()];
+        int failed = 0;
+        int deferred = 0;
+        for (int i = 0; i < batch.events.size(); i++) {
+            OutboxEvent event = batch.events.get(i);
+            if (isAcknowledged(batch.sends.get(i))) {
+                lagMillis[acknowledgedIds.size()] = Math.max(0, Duration.between(event.getCreatedAt(), now).toMillis());
+                acknowledgedIds.add(event.getId());
+            } else if (batch.previousOfAggregate[i] >= 0 && !isAcknowledged(batch.sends.get(batch.previousOfAggregate[i]))) {
+                // Never sent: the earlier event of its aggregate was not acknowledged
+                deferred++;
+            } else {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            failedEvents.add(failed);
+            logger.warn("{} of {} outbox events in batch {} were not acknowledged and {} held back behind them; "
+                        + "retrying after the lease expires", failed, batch.events.size(), batch.claimId, deferred);
+        }
+        if (deferred > 0) {
+            deferredEvents.add(deferred);
+        }
+        if (!acknowledgedIds.isEmpty()) {
+            try {
+                outbox.markProcessed(batch.claimId, acknowledgedIds, now);
+            } catch (RuntimeException e) {
+                // Already sent; they are sent again once the lease expires
+                logger.error("Failed to mark {} outbox events processed", acknowledgedIds.size(), e);
+                return 0;
+            }
+            for (int i = 0; i < acknowledgedIds.size(); i++) {
+                recordLag(lagMillis[i]);
+            }
+            publishedEvents.add(acknowledgedIds.size());
+            updateThroughput(acknowledgedIds.size(), System.nanoTime());
+        }
+        return acknowledgedIds.size();
+    }
+
+    private static boolean isAcknowledged(CompletableFuture<?> send) {
+        return send.isDone() && !send.isCompletedExceptionally();
+    }
+
+    private void recordLag(long lagMillis) {
+        totalLagMillis.add(lagMillis);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        lastLagMillis = lagMillis;
+    }
+
+    // Events per second over the last complete window of at least a second
+    private synchronized double updateThroughput(long events, long nowNanos) {
+        windowEvents += events;
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed >= THROUGHPUT_WINDOW_NANOS) {
+            eventsPerSecond = windowEvents * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            windowEvents = 0;
+            windowStartNanos = nowNanos;
+        }
+        return eventsPerSecond;
+    }
+
+    private void relay() {
+        long backoffMillis = MIN_IDLE_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                if (drain() > 0) {
+                    backoffMillis = MIN_IDLE_BACKOFF_MILLIS;
+                    continue;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                awaitWakeUp(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, Math.max(MIN_IDLE_BACKOFF_MILLIS, idlePollInterval.toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Outbox relay failed", e);
+                try {
+                    awaitWakeUp(idlePollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitWakeUp(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (!wakeUpRequested) {
+                outboxChanged.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            wakeUpRequested = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Set<Integer> allShards() {
+        Set<Integer> shards = new HashSet<>();
+        for (int shard = 0; shard < OutboxEvent.SHARD_COUNT; shard++) {
+            shards.add(shard);
+        }
+        return Set.copyOf(shards);
+    }
+
+    private static final class ClaimedBatch {
+        private final String claimId;
+        private final List<OutboxEvent> events;
+        private final List<CompletableFuture<?>> sends;
+        // Index of the previous event of the same aggregate in the batch, -1 for none
+        private final int[] previousOfAggregate;
+
+        ClaimedBatch(String claimId, List<OutboxEvent> events, List<CompletableFuture<?>> sends,
+                     int[] previousOfAggregate) {
+            this.claimId = claimId;
+            this.events = events;
+            this.sends = sends;
+            this.previousOfAggregate = previousOfAggregate;
+        }
+    }
+
+    /**
+     * Relay counters and publish lag, the time from an event entering the outbox to its
+     * acknowledgement by the broker.
+     */
+    public static class Statistics {
+        private final long claimedBatches;
+        private final long publishedEvents;
+        private final long failedEvents;
+        private final long deferredEvents;
+        private final long totalLagMillis;
+        private final long maxLagMillis;
+        private final long lastLagMillis;
+        private final double eventsPerSecond;
+
+        public Statistics(long claimedBatches, long publishedEvents, long failedEvents, long deferredEvents,
+                          long totalLagMillis, long maxLagMillis, long lastLagMillis, double eventsPerSecond) {
+            this.claimedBatches = claimedBatches;
+            this.publishedEvents = publishedEvents;
+            this.failedEvents = failedEvents;
+            this.deferredEvents = deferredEvents;
+            this.totalLagMillis = totalLagMillis;
+            this.maxLagMillis = maxLagMillis;
+            this.lastLagMillis = lastLagMillis;
+            this.eventsPerSecond = eventsPerSecond;
+        }
+
+        public long getClaimedBatches() {
+            return claimedBatches;
+        }
+
+        public long getPublishedEvents() {
+            return publishedEvents;
+        }
+
+        public long getFailedEvents() {
+            return failedEvents;
+        }
+
+        /**
+         * Events left unsent because an earlier event of their aggregate in the batch was not acknowledged.
+         */
+        public long getDeferredEvents() {
+            return deferredEvents;
+        }
+
+        public long getTotalLagMillis() {
+            return totalLagMillis;
+        }
+
+        public long getMaxLagMillis() {
+            return maxLagMillis;
+        }
+
+        public long getLastLagMillis() {
+            return lastLagMillis;
+        }
+
+        public double getMeanLagMillis() {
+            return publishedEvents == 0 ? 0.0 : (double) totalLagMillis / publishedEvents;
+        }
+
+        public double getEventsPerSecond() {
+            return eventsPerSecond;
+        }
+    }
+}
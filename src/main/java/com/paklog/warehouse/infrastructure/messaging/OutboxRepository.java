@@ -7,6 +7,6 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface OutboxRepository extends MongoRepository<OutboxEvent, UUID> {
+public interface OutboxRepository extends MongoRepository<OutboxEvent, UUID>, OutboxLeaseOperations {
     List<OutboxEvent> findByProcessedFalse();
-}
\ No newline at end of file
+}
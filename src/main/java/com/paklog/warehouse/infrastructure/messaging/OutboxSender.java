@@ -0,0 +1,15 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends an outbox event to the broker without waiting for it to be acknowledged.
+ */
+@FunctionalInterface
+public interface OutboxSender {
+
+    /**
+     * @return a future completed when the broker acknowledged the event
+     */
+    CompletableFuture<?> send(OutboxEvent event);
+}
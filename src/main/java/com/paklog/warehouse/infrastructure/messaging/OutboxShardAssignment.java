@@ -0,0 +1,118 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The outbox shards one relay instance publishes. Each refresh renews the relay's leases
+ * and moves it towards an even share of the shards among the live relays: a relay above
+ * its share releases shards, one below it takes free or expired ones. Shards of a relay
+ * that stopped heartbeating are taken over once their leases expire.
+ */
+public class OutboxShardAssignment {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxShardAssignment.class);
+
+    public static final Duration DEFAULT_LEASE = Duration.ofSeconds(15);
+
+    private final OutboxShardLeases leases;
+    private final String relayId;
+    private final int shardCount;
+    private final Duration lease;
+    private final Duration refreshInterval;
+    private final Clock clock;
+
+    private Set<Integer> ownedShards = Set.of();
+    private Instant refreshedAt;
+
+    public OutboxShardAssignment(OutboxShardLeases leases, String relayId, Duration lease, Clock clock) {
+        this(leases, relayId, OutboxEvent.SHARD_COUNT, lease, clock);
+    }
+
+    public OutboxShardAssignment(OutboxShardLeases leases, String relayId, int shardCount, Duration lease,
+                                 Clock clock) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.leases = Objects.requireNonNull(leases, "Shard leases cannot be null");
+        this.relayId = Objects.requireNonNull(relayId, "Relay id cannot be null");
+        this.shardCount = shardCount;
+        this.lease = Objects.requireNonNull(lease, "Lease cannot be null");
+        // Renewed well before expiry so a slow refresh does not lose the shards
+        this.refreshInterval = lease.dividedBy(3);
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * The shards held, refreshing the leases when a third of the lease has passed.
+     */
+    public synchronized Set<Integer> currentShards() {
+        if (refreshedAt == null || !clock.instant().isBefore(refreshedAt.plus(refreshInterval))) {
+            refresh();
+        }
+        return ownedShards;
+    }
+
+    public synchronized Set<Integer> refresh() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(lease);
+        leases.heartbeat(relayId, expiresAt);
+        Set<Integer> owned = new TreeSet<>(leases.renew(relayId, expiresAt));
+        int liveRelays = Math.max(1, leases.countLiveRelays(now));
+        int fairShare = (shardCount + liveRelays - 1) / liveRelays;
+
+        if (owned.size() > fairShare) {
+            List<Integer> surplus = new ArrayList<>(owned).subList(fairShare, owned.size());
+            for (int shard : List.copyOf(surplus)) {
+                leases.release(shard, relayId);
+                owned.remove(shard);
+            }
+        } else {
+            // Relays start scanning at different shards so they do not race for the same ones
+            int offset = Math.floorMod(relayId.hashCode(), shardCount);
+            for (int i = 0; i < shardCount && owned.size() < fairShare; i++) {
+                int shard = (offset + i) % shardCount;
+                if (!owned.contains(shard) && leases.acquire(shard, relayId, now, expiresAt)) {
+                    owned.add(shard);
+                }
+            }
+        }
+
+        if (!owned.equals(ownedShards)) {
+            logger.info("Outbox relay {} holds {} of {} shards with {} live relays",
+                        relayId, owned.size(), shardCount, liveRelays);
+        }
+        ownedShards = Set.copyOf(owned);
+        refreshedAt = now;
+        return ownedShards;
+    }
+
+    /**
+     * Gives up all shards so other relays can take them without waiting for expiry.
+     */
+    public synchronized void releaseAll() {
+        leases.leave(relayId);
+        ownedShards = Set.of();
+        refreshedAt = null;
+    }
+
+    public synchronized Set<Integer> getOwnedShards() {
+        return ownedShards;
+    }
+
+    public String getRelayId() {
+        return relayId;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
@@ -0,0 +1,37 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Leases on outbox shards shared by all relay instances, plus the heartbeats that tell
+ * each relay how many instances are sharing the shards.
+ */
+public interface OutboxShardLeases {
+
+    /**
+     * Records that the relay is alive until {@code expiresAt}.
+     */
+    void heartbeat(String relayId, Instant expiresAt);
+
+    int countLiveRelays(Instant now);
+
+    /**
+     * Extends every shard lease the relay still holds.
+     *
+     * @return the shards held
+     */
+    Set<Integer> renew(String relayId, Instant expiresAt);
+
+    /**
+     * Takes the shard when it is unleased, its lease expired, or the relay already holds it.
+     */
+    boolean acquire(int shard, String relayId, Instant now, Instant expiresAt);
+
+    void release(int shard, String relayId);
+
+    /**
+     * Drops the relay's heartbeat and releases all of its shards.
+     */
+    void leave(String relayId);
+}
@@ -0,0 +1,542 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.OrderConsolidatedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallException;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallRepository;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.SlotReleasedEvent;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Active put walls held in memory by the one instance that owns them. Scans read the
+ * wall without a database round trip. Changes are applied in place and their events
+ * appended to the outbox before the wall is unlocked, and a background flusher writes
+ * the changed slots out behind.
+ * <p>
+ * Ownership is a lease per wall, renewed while the wall is held; another instance asking
+ * for the wall gets {@link PutWallException.PutWallOwnedElsewhereException}. Loading a
+ * wall claims the stored one for this load alone, fencing off the slot writes of any
+ * earlier owner, and replays the changes the outbox recorded after the stored sequence,
+ * so an instance that stops before writing out loses nothing: the next owner replays
+ * what is missing. A wall that cannot be replayed is not loaded. Walls are dropped the
+ * same way after a change fails halfway, the lease is lost or a write finds the wall
+ * claimed by another owner, and written out and released after sitting idle.
+ */
+public class HotPutWallStore {
+    private static final Logger logger = LoggerFactory.getLogger(HotPutWallStore.class);
+
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_LEASE = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final PutWallRepository repository;
+    private final PutWallEventLog eventLog;
+    private final PutWallLeases leases;
+    private final DomainEventPublisher eventPublisher;
+    private final TransactionOperations transactions;
+    private final String ownerId;
+    private final Duration flushInterval;
+    private final Duration lease;
+    private final Duration idleTimeout;
+    private final Clock clock;
+    private final Map<PutWallId, HotWall> walls = new ConcurrentHashMap<>();
+
+    private final LongAdder changes = new LongAdder();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong replayedChanges = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedSlots = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HotPutWallStore(PutWallRepository repository, PutWallEventLog eventLog, PutWallLeases leases,
+                           DomainEventPublisher eventPublisher, TransactionOperations transactions, String ownerId) {
+        this(repository, eventLog, leases, eventPublisher, transactions, ownerId, DEFAULT_FLUSH_INTERVAL,
+             DEFAULT_LEASE, DEFAULT_IDLE_TIMEOUT, Clock.systemUTC());
+    }
+
+    /**
+     * @param transactions runs the outbox append of each change in a transaction of its own,
+     *                     committed before the wall is unlocked
+     */
+    public HotPutWallStore(PutWallRepository repository, PutWallEventLog eventLog, PutWallLeases leases,
+                           DomainEventPublisher eventPublisher, TransactionOperations transactions, String ownerId,
+                           Duration flushInterval, Duration lease, Duration idleTimeout, Clock clock) {
+        this.repository = Objects.requireNonNull(repository, "PutWallRepository cannot be null");
+        this.eventLog = Objects.requireNonNull(eventLog, "PutWallEventLog cannot be null");
+        this.leases = Objects.requireNonNull(leases, "PutWallLeases cannot be null");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "DomainEventPublisher cannot be null");
+        this.transactions = Objects.requireNonNull(transactions, "Transactions cannot be null");
+        this.ownerId = Objects.requireNonNull(ownerId, "Owner id cannot be null");
+        this.flushInterval = Objects.requireNonNull(flushInterval, "Flush interval cannot be null");
+        this.lease = Objects.requireNonNull(lease, "Lease cannot be null");
+        this.idleTimeout = Objects.requireNonNull(idleTimeout, "Idle timeout cannot be null");
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        if (lease.compareTo(flushInterval.multipliedBy(3)) < 0) {
+            throw new IllegalArgumentException("Lease must be at least three flush intervals");
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushBehind, "put-wall-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher, writes out every held wall and releases the leases.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        flush();
+        for (HotWall hot : walls.values()) {
+            hot.lock.lock();
+            try {
+                hot.evicted = true;
+                walls.remove(hot.putWallId, hot);
+            } finally {
+                hot.lock.unlock();
+            }
+        }
+        try {
+            leases.releaseAll(ownerId);
+        } catch (RuntimeException e) {
+            // They expire on their own
+            logger.warn("Failed to release the put wall leases of {}: {}", ownerId, e.getMessage());
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs a query against the wall, loading and leasing it first if this instance does
+     * not hold it yet.
+     */
+    public <T> T read(PutWallId putWallId, Function<PutWall, T> query) {
+        return withWall(putWallId, query, false);
+    }
+
+    /**
+     * Applies a change to the wall and appends the events it raised to the outbox; the
+     * changed slots are written out by the flusher.
+     */
+    public <T> T update(PutWallId putWallId, Function<PutWall, T> change) {
+        return withWall(putWallId, change, true);
+    }
+
+    private <T> T withWall(PutWallId putWallId, Function<PutWall, T> action, boolean changes) {
+        Objects.requireNonNull(putWallId, "PutWall ID cannot be null");
+        while (true) {
+            HotWall hot = walls.computeIfAbsent(putWallId, HotWall::new);
+            hot.lock.lock();
+            try {
+                if (hot.evicted) {
+                    // Dropped while this thread waited for it
+                    continue;
+                }
+                if (hot.putWall == null) {
+                    load(hot);
+                } else if (hot.leaseExpiresAt <= clock.millis()) {
+                    logger.warn("Lease on put wall {} ran out before it was renewed, loading it again", putWallId);
+                    evict(hot, false);
+                    continue;
+                }
+                hot.lastAccessAt = clock.millis();
+                return changes ? change(hot, action) : action.apply(hot.putWall);
+            } finally {
+                hot.lock.unlock();
+            }
+        }
+    }
+
+    private void load(HotWall hot) {
+        PutWallId putWallId = hot.putWallId;
+        Instant now = clock.instant();
+        try {
+            if (!leases.acquire(putWallId, ownerId, now, now.plus(lease))) {
+                throw new PutWallException.PutWallOwnedElsewhereException(putWallId);
+            }
+        } catch (RuntimeException e) {
+            evict(hot, false);
+            throw e;
+        }
+        try {
+            // A token of this load, so that not even an earlier load here writes over it
+            String ownerToken = ownerId + "/" + UUID.randomUUID();
+            PutWall putWall = repository.claim(putWallId, ownerToken)
+                .orElseThrow(() -> new PutWallException.PutWallNotFoundException(putWallId));
+            putWall.clearDomainEvents();
+            hot.ownerToken = ownerToken;
+
+            // Changes since the stored wall are written out with the next flush
+            int replayed = eventLog.replay(putWall);
+            track(hot, putWall.getDomainEvents());
+            putWall.clearDomainEvents();
+
+            hot.putWall = putWall;
+            hot.leasedAt = now.toEpochMilli();
+            hot.leaseExpiresAt = now.plus(lease).toEpochMilli();
+            loads.incrementAndGet();
+            if (replayed > 0) {
+                replayedChanges.addAndGet(replayed);
+                logger.info("Replayed {} changes onto put wall {} from the outbox", replayed, putWallId);
+            }
+        } catch (RuntimeException e) {
+            evict(hot, true);
+            throw e;
+        }
+    }
+
+    private <T> T change(HotWall hot, Function<PutWall, T> action) {
+        PutWall putWall = hot.putWall;
+        T result;
+        try {
+            result = action.apply(putWall);
+        } catch (RuntimeException e) {
+            if (!putWall.getDomainEvents().isEmpty()) {
+                // Changed halfway; the outbox has every change that completed
+                logger.warn("Change to put wall {} failed after modifying it, dropping it from memory",
+                            hot.putWallId);
+                evict(hot, true);
+            }
+            throw e;
+        }
+
+        List<DomainEvent> events = List.copyOf(putWall.getDomainEvents());
+        putWall.clearDomainEvents();
+        if (events.isEmpty()) {
+            return result;
+        }
+        try {
+            transactions.executeWithoutResult(status -> eventPublisher.publishEvents(events));
+        } catch (RuntimeException e) {
+            // Not recorded, so the change must not be kept either
+            evict(hot, true);
+            throw e;
+        }
+        track(hot, events);
+        changes.increment();
+        return result;
+    }
+
+    private static void track(HotWall hot, List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            PutWallSlotId slotId = slotOf(event);
+            if (slotId != null) {
+                hot.dirtySlots.add(slotId);
+            }
+        }
+    }
+
+    private static PutWallSlotId slotOf(DomainEvent event) {
+        if (event instanceof OrderAssignedToSlotEvent assigned) {
+            return assigned.getSlotId();
+        }
+        if (event instanceof ItemPlacedInSlotEvent placed) {
+            return placed.getSlotId();
+        }
+        if (event instanceof OrderConsolidatedInSlotEvent consolidated) {
+            return consolidated.getSlotId();
+        }
+        if (event instanceof SlotReleasedEvent released) {
+            return released.getSlotId();
+        }
+        return null;
+    }
+
+    /**
+     * Writes the changed slots of every held wall.
+     */
+    public void flush() {
+        for (HotWall hot : walls.values()) {
+            flush(hot);
+        }
+    }
+
+    private void flush(HotWall hot) {
+        List<PutWallSlot> slots;
+        Set<PutWallSlotId> slotIds;
+        int freeSlotCount;
+        long sequence;
+        String ownerToken;
+        hot.lock.lock();
+        try {
+            if (hot.evicted || hot.putWall == null || hot.dirtySlots.isEmpty()) {
+                return;
+            }
+            slotIds = new LinkedHashSet<>(hot.dirtySlots);
+            slots = new ArrayList<>(slotIds.size());
+            for (PutWallSlotId slotId : slotIds) {
+                slots.add(hot.putWall.getSlotById(slotId).copy());
+            }
+            freeSlotCount = hot.putWall.getAvailableCapacity();
+            sequence = hot.putWall.getSequence();
+            ownerToken = hot.ownerToken;
+            hot.dirtySlots.clear();
+        } finally {
+            hot.lock.unlock();
+        }
+
+        // Written without the lock, so scans go on while the slots are stored
+        try {
+            repository.saveSlots(hot.putWallId, slots, freeSlotCount, sequence, ownerToken);
+            flushes.incrementAndGet();
+            flushedSlots.addAndGet(slots.size());
+        } catch (PutWallException.PutWallOwnedElsewhereException e) {
+            flushFailures.incrementAndGet();
+            logger.warn("Put wall {} was claimed by another owner, dropping it; its owner replays unwritten "
+                        + "changes from the outbox", hot.putWallId);
+            hot.lock.lock();
+            try {
+                if (!hot.evicted) {
+                    evict(hot, false);
+                }
+            } finally {
+                hot.lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            logger.warn("Failed to write out {} slots of put wall {}, retrying with the next flush: {}",
+                        slots.size(), hot.putWallId, e.getMessage());
+            hot.lock.lock();
+            try {
+                hot.dirtySlots.addAll(slotIds);
+            } finally {
+                hot.lock.unlock();
+            }
+        }
+    }
+
+    private void flushBehind() {
+        long maintenanceInterval = Math.max(flushInterval.toMillis(), lease.toMillis() / 3);
+        long nextMaintenanceAt = clock.millis() + maintenanceInterval;
+        while (running) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+                flush();
+                if (clock.millis() >= nextMaintenanceAt) {
+                    renewLeases();
+                    releaseIdleWalls();
+                    nextMaintenanceAt = clock.millis() + maintenanceInterval;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Put wall write-behind failed", e);
+            }
+        }
+    }
+
+    /**
+     * Extends the leases on the held walls and drops the walls whose lease was lost.
+     */
+    void renewLeases() {
+        Instant now = clock.instant();
+        Set<PutWallId> held;
+        try {
+            held = leases.renew(ownerId, now.plus(lease));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to renew the put wall leases of {}: {}", ownerId, e.getMessage());
+            return;
+        }
+        long renewedAt = now.toEpochMilli();
+        for (HotWall hot : walls.values()) {
+            hot.lock.lock();
+            try {
+                // Walls leased after the renewal started are not in its result yet
+                if (hot.evicted || hot.putWall == null || hot.leasedAt >= renewedAt) {
+                    continue;
+                }
+                if (held.contains(hot.putWallId)) {
+                    hot.leaseExpiresAt = now.plus(lease).toEpochMilli();
+                } else {
+                    logger.warn("Lost the lease on put wall {}, dropping it; its next owner replays unwritten "
+                                + "changes from the outbox", hot.putWallId);
+                    evict(hot, false);
+                }
+            } finally {
+                hot.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes out and releases the walls not used within the idle timeout.
+     */
+    void releaseIdleWalls() {
+        long idleSince = clock.millis() - idleTimeout.toMillis();
+        for (HotWall hot : walls.values()) {
+            if (hot.lastAccessAt >= idleSince) {
+                continue;
+            }
+            flush(hot);
+            hot.lock.lock();
+            try {
+                if (!hot.evicted && hot.dirtySlots.isEmpty() && hot.lastAccessAt < idleSince) {
+                    evict(hot, true);
+                }
+            } finally {
+                hot.lock.unlock();
+            }
+        }
+    }
+
+    private void evict(HotWall hot, boolean releaseLease) {
+        hot.evicted = true;
+        walls.remove(hot.putWallId, hot);
+        if (hot.putWall != null) {
+            evictions.incrementAndGet();
+        }
+        if (releaseLease) {
+            try {
+                leases.release(hot.putWallId, ownerId);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to release the lease on put wall {}: {}", hot.putWallId, e.getMessage());
+            }
+        }
+    }
+
+    public boolean holds(PutWallId putWallId) {
+        HotWall hot = walls.get(putWallId);
+        return hot != null && hot.putWall != null && !hot.evicted;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public Statistics getStatistics() {
+        int dirtySlots = 0;
+        for (HotWall hot : walls.values()) {
+            dirtySlots += hot.dirtySlots.size();
+        }
+        return new Statistics(walls.size(), dirtySlots, changes.sum(), loads.get(), replayedChanges.get(),
+                              flushes.get(), flushedSlots.get(), flushFailures.get(), evictions.get());
+    }
+
+    private static final class HotWall {
+        private final PutWallId putWallId;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock; dirtySlots is also read unlocked, as an estimate, for statistics
+        private final Set<PutWallSlotId> dirtySlots = ConcurrentHashMap.newKeySet();
+        private PutWall putWall;
+        private String ownerToken;
+        private long leasedAt;
+        private long leaseExpiresAt;
+        private volatile long lastAccessAt;
+        private volatile boolean evicted;
+
+        private HotWall(PutWallId putWallId) {
+            this.putWallId = putWallId;
+        }
+    }
+
+    public static class Statistics {
+        private final int hotWalls;
+        private final int dirtySlots;
+        private final long changes;
+        private final long loads;
+        private final long replayedChanges;
+        private final long flushes;
+        private final long flushedSlots;
+        private final long flushFailures;
+        private final long evictions;
+
+        public Statistics(int hotWalls, int dirtySlots, long changes, long loads, long replayedChanges,
+                          long flushes, long flushedSlots, long flushFailures, long evictions) {
+            this.hotWalls = hotWalls;
+            this.dirtySlots = dirtySlots;
+            this.changes = changes;
+            this.loads = loads;
+            this.replayedChanges = replayedChanges;
+            this.flushes = flushes;
+            this.flushedSlots = flushedSlots;
+            this.flushFailures = flushFailures;
+            this.evictions = evictions;
+        }
+
+        public int getHotWalls() {
+            return hotWalls;
+        }
+
+        public int getDirtySlots() {
+            return dirtySlots;
+        }
+
+        public long getChanges() {
+            return changes;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getReplayedChanges() {
+            return replayedChanges;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+
+        public long getFlushedSlots() {
+            return flushedSlots;
+        }
+
+        public long getFlushFailures() {
+            return flushFailures;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Put wall leases as one document per wall ({@code _id} wall, owner, expiresAt). As with
+ * the outbox shard leases, taking a lease is a conditional upsert that collides on
+ * {@code _id} while another instance holds an unexpired lease.
+ */
+public class MongoPutWallLeases implements PutWallLeases {
+    static final String LEASE_COLLECTION = "put_wall_leases";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoPutWallLeases(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean acquire(PutWallId putWallId, String ownerId, Instant now, Instant expiresAt) {
+        Query available = new Query(Criteria.where("_id").is(putWallId.getValue().toString())
+            .orOperator(Criteria.where("owner").is(ownerId), Criteria.where("expiresAt").lte(now)));
+        try {
+            mongoTemplate.upsert(available, new Update().set("owner", ownerId).set("expiresAt", expiresAt),
+                                 LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Held by another instance
+            return false;
+        }
+    }
+
+    @Override
+    public Set<PutWallId> renew(String ownerId, Instant expiresAt) {
+        Query owned = new Query(Criteria.where("owner").is(ownerId));
+        mongoTemplate.updateMulti(owned, new Update().set("expiresAt", expiresAt), LEASE_COLLECTION);
+        return mongoTemplate.find(owned, Document.class, LEASE_COLLECTION).stream()
+            .map(lease -> PutWallId.of(lease.getString("_id")))
+            .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void release(PutWallId putWallId, String ownerId) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(putWallId.getValue().toString())
+                                           .and("owner").is(ownerId)), LEASE_COLLECTION);
+    }
+
+    @Override
+    public void releaseAll(String ownerId) {
+        mongoTemplate.remove(new Query(Criteria.where("owner").is(ownerId)), LEASE_COLLECTION);
+    }
+}
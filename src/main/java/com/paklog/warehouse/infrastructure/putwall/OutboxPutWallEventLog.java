@@ -0,0 +1,157 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.SlotReleasedEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads put wall changes back from the outbox, where every domain event is stored with
+ * the change that raised it, under the id of its wall. Events are read from their JSON
+ * envelope rather than bound to the event classes, and only the assignment, placement
+ * and release events are replayed; consolidation follows from the placements. Changes
+ * are ordered by the sequence number the wall gave them, not by the clocks of the
+ * instances that made them.
+ */
+public class OutboxPutWallEventLog implements PutWallEventLog {
+
+    static final List<String> REPLAYED_TYPES = List.of(
+        OrderAssignedToSlotEvent.class.getSimpleName(),
+        ItemPlacedInSlotEvent.class.getSimpleName(),
+        SlotReleasedEvent.class.getSimpleName());
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private final MongoTemplate mongoTemplate;
+
+    public OutboxPutWallEventLog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int replay(PutWall putWall) {
+        // Only the changes after the stored ones, read through the subject and sequence index
+        Query query = new Query(Criteria.where("subject").is(putWall.getPutWallId().toString())
+            .and("sequence").gt(putWall.getSequence()))
+            .with(Sort.by("sequence"));
+        List<String> events = mongoTemplate.find(query, OutboxEvent.class).stream()
+            .map(OutboxEvent::getData)
+            .toList();
+        return replay(putWall, events);
+    }
+
+    /**
+     * Applies the changes recorded by the serialized events that belong to the wall and
+     * are numbered after the wall's sequence, in the order of their numbers. Events
+     * without a number, written before changes were numbered, are left out.
+     *
+     * @throws IllegalStateException when an event cannot be read, a change no longer
+     *         applies or the numbers have a gap
+     */
+    static int replay(PutWall putWall, List<String> events) {
+        String putWallId = putWall.getPutWallId().toString();
+        List<RecordedChange> changes = new ArrayList<>();
+        for (String event : events) {
+            RecordedChange change = read(event);
+            if (REPLAYED_TYPES.contains(simpleName(change.type))
+                    && putWallId.equals(value(change.payload, "putWallId"))
+                    && change.sequence > putWall.getSequence()) {
+                changes.add(change);
+            }
+        }
+        changes.sort(Comparator.comparingLong(change -> change.sequence));
+
+        for (RecordedChange change : changes) {
+            try {
+                apply(putWall, change);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Could not replay change " + change.sequence + " onto put wall "
+                                                + putWallId + ": " + e.getMessage(), e);
+            }
+            if (putWall.getSequence() != change.sequence) {
+                throw new IllegalStateException("Put wall " + putWallId + " is missing changes before change "
+                                                + change.sequence);
+            }
+        }
+        return changes.size();
+    }
+
+    private static void apply(PutWall putWall, RecordedChange change) {
+        JsonNode payload = change.payload;
+        PutWallSlotId slotId = PutWallSlotId.of(value(payload, "slotId"));
+        if (change.type.equals(OrderAssignedToSlotEvent.class.getName())) {
+            Map<SkuCode, Quantity> requiredItems = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> items = payload.get("requiredItems").fields();
+            while (items.hasNext()) {
+                Map.Entry<String, JsonNode> item = items.next();
+                requiredItems.put(SkuCode.of(item.getKey()), Quantity.of(item.getValue().get("value").asInt()));
+            }
+            putWall.assignOrderToSlot(slotId, OrderId.of(value(payload, "orderId")), requiredItems);
+        } else if (change.type.equals(ItemPlacedInSlotEvent.class.getName())) {
+            putWall.placeItemInSlot(slotId, SkuCode.of(value(payload, "skuCode")),
+                                    Quantity.of(payload.get("quantity").get("value").asInt()));
+        } else if (change.type.equals(SlotReleasedEvent.class.getName())) {
+            putWall.releaseSlot(slotId);
+        }
+    }
+
+    private static RecordedChange read(String event) {
+        JsonNode envelope;
+        try {
+            envelope = READER.readTree(event);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable put wall event in the outbox: " + e.getMessage(), e);
+        }
+        JsonNode eventType = envelope.get("eventType");
+        JsonNode payload = envelope.get("payload");
+        if (eventType == null || payload == null) {
+            throw new IllegalStateException("Put wall event in the outbox has no type or payload");
+        }
+        JsonNode sequence = payload.get("sequence");
+        return new RecordedChange(eventType.asText(), sequence != null ? sequence.asLong() : 0, payload);
+    }
+
+    private static String simpleName(String eventType) {
+        return eventType.substring(eventType.lastIndexOf('.') + 1);
+    }
+
+    // Value objects are written as {"value": ...}
+    private static String value(JsonNode payload, String field) {
+        JsonNode node = payload.get(field);
+        if (node == null) {
+            return null;
+        }
+        return node.isObject() ? node.get("value").asText() : node.asText();
+    }
+
+    private static final class RecordedChange {
+        private final String type;
+        private final long sequence;
+        private final JsonNode payload;
+
+        private RecordedChange(String type, long sequence, JsonNode payload) {
+            this.type = type;
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+    }
+}
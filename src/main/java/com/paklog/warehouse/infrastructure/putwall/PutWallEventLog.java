@@ -0,0 +1,20 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.domain.putwall.PutWall;
+
+/**
+ * The changes made to put walls, as recorded by their domain events, for bringing a
+ * stored wall up to date after the instance holding it stopped before writing it out.
+ */
+public interface PutWallEventLog {
+
+    /**
+     * Applies to the wall, in the order of their sequence numbers, the changes numbered
+     * after the wall's own. The wall registers the events of the replayed changes.
+     *
+     * @return the changes applied
+     * @throws IllegalStateException when a recorded change cannot be read or applied, or
+     *         one is missing, leaving the wall partly replayed
+     */
+    int replay(PutWall putWall);
+}
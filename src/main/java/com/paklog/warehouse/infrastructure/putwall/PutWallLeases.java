@@ -0,0 +1,29 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.domain.putwall.PutWallId;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Leases that make one instance the owner of a put wall held in memory, so that only
+ * that instance changes and writes it.
+ */
+public interface PutWallLeases {
+
+    /**
+     * Takes the wall when it is unleased, its lease expired, or the owner already holds it.
+     */
+    boolean acquire(PutWallId putWallId, String ownerId, Instant now, Instant expiresAt);
+
+    /**
+     * Extends every lease the owner still holds.
+     *
+     * @return the walls held
+     */
+    Set<PutWallId> renew(String ownerId, Instant expiresAt);
+
+    void release(PutWallId putWallId, String ownerId);
+
+    void releaseAll(String ownerId);
+}
@@ -0,0 +1,139 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import com.mongodb.MongoClientSettings;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallCapacity;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Finding the walls with room among 1,000 walls of 300 slots, about a fifth of which
+ * qualify: every stored wall read and rebuilt to be filtered in Java, as the repository
+ * did, against only the qualifying walls' free slot counts, as the pushed down query
+ * returns them. Both decode the BSON the server would send; the bytes of each are
+ * printed at the end. The time the server spends finding the documents is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PutWallCapacityQueryBenchmark {
+
+    private static final int WALLS = 1_000;
+    private static final int SLOTS = 300;
+    private static final int MIN_CAPACITY = 240;
+
+    private final Codec<Document> codec = CodecRegistries.withUuidRepresentation(
+        MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD).get(Document.class);
+    private MappingMongoConverter converter;
+    private List<RawBsonDocument> storedWalls;
+    private List<RawBsonDocument> qualifyingCounts;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        Random random = new Random(42);
+        List<PutWallSlotId> slotIds = IntStream.range(0, SLOTS)
+            .mapToObj(i -> PutWallSlotId.of("S" + i))
+            .toList();
+        storedWalls = new ArrayList<>(WALLS);
+        qualifyingCounts = new ArrayList<>();
+        for (int wall = 0; wall < WALLS; wall++) {
+            PutWall putWall = new PutWall(PutWallId.generate(), slotIds, "Zone " + (wall % 10));
+            int occupied = random.nextInt(SLOTS + 1);
+            for (int i = 0; i < occupied; i++) {
+                Map<SkuCode, Quantity> requiredItems = new HashMap<>();
+                while (requiredItems.size() < 4) {
+                    requiredItems.put(SkuCode.of("SKU" + random.nextInt(2_000)), Quantity.of(2));
+                }
+                PutWallSlotId slotId = putWall.assignOrderToSlot(OrderId.generate(), requiredItems).orElseThrow();
+                putWall.placeItemInSlot(slotId, requiredItems.keySet().iterator().next(), Quantity.of(1));
+            }
+
+            PutWallDocument document = PutWallDocument.fromDomain(putWall);
+            Document stored = new Document();
+            converter.write(document, stored);
+            storedWalls.add(new RawBsonDocument(stored, codec));
+            if (document.getFreeSlotCount() > MIN_CAPACITY) {
+                qualifyingCounts.add(new RawBsonDocument(new Document("_id", document.getPutWallId())
+                    .append("location", document.getLocation())
+                    .append("capacity", document.getCapacity())
+                    .append("freeSlotCount", document.getFreeSlotCount()), codec));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nBytes returned: every wall %d, free slot counts of %d walls with room %d%n",
+                          storedWalls.stream().mapToInt(bson -> bson.getByteBuffer().remaining()).sum(),
+                          qualifyingCounts.size(),
+                          qualifyingCounts.stream().mapToInt(bson -> bson.getByteBuffer().remaining()).sum());
+    }
+
+    @Benchmark
+    public List<PutWall> rebuildEveryWall() {
+        List<PutWall> available = new ArrayList<>();
+        for (RawBsonDocument stored : storedWalls) {
+            PutWall putWall = converter.read(PutWallDocument.class, stored.decode(codec)).toDomain();
+            if (putWall.getAvailableCapacity() > MIN_CAPACITY) {
+                available.add(putWall);
+            }
+        }
+        return available;
+    }
+
+    @Benchmark
+    public List<PutWallCapacity> readFreeSlotCounts() {
+        List<PutWallCapacity> available = new ArrayList<>(qualifyingCounts.size());
+        for (RawBsonDocument projected : qualifyingCounts) {
+            PutWallDocument document = converter.read(PutWallDocument.class, projected.decode(codec));
+            available.add(new PutWallCapacity(PutWallId.of(document.getPutWallId()), document.getLocation(),
+                                              document.getCapacity(), document.getFreeSlotCount()));
+        }
+        return available;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PutWallCapacityQueryBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
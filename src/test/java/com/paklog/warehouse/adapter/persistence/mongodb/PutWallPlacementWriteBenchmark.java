@@ -0,0 +1,139 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import com.mongodb.MongoClientSettings;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Writing one item placement on a 250-slot wall with every slot in progress: the update
+ * statement sent to MongoDB for the whole document as {@code save} writes it, against the
+ * slot-level increment of {@code savePlacements}. Each method builds and encodes the
+ * statement as the driver would; the bytes of both are printed at the end. The time the
+ * server takes to apply them is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PutWallPlacementWriteBenchmark {
+
+    private static final int SLOTS = 250;
+    private static final int SKUS_PER_ORDER = 4;
+
+    private final Codec<Document> codec = CodecRegistries.withUuidRepresentation(
+        MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD).get(Document.class);
+    private MappingMongoConverter converter;
+    private PutWall putWall;
+    private List<List<ItemPlacedInSlotEvent>> placements;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        Random random = new Random(42);
+        List<PutWallSlotId> slotIds = IntStream.range(0, SLOTS)
+            .mapToObj(i -> PutWallSlotId.of("S" + i))
+            .toList();
+        putWall = new PutWall(PutWallId.generate(), slotIds, "Benchmark Zone");
+        for (PutWallSlotId slotId : slotIds) {
+            Map<SkuCode, Quantity> requiredItems = new HashMap<>();
+            while (requiredItems.size() < SKUS_PER_ORDER) {
+                requiredItems.put(SkuCode.of("SKU" + random.nextInt(2_000)), Quantity.of(2 + random.nextInt(3)));
+            }
+            putWall.assignOrderToSlot(slotId, OrderId.generate(), requiredItems);
+            // Half way through: one of each SKU placed already
+            requiredItems.keySet().forEach(skuCode -> putWall.placeItemInSlot(slotId, skuCode, Quantity.of(1)));
+        }
+        putWall.clearDomainEvents();
+        putWall.setVersion(1);
+
+        placements = new ArrayList<>();
+        for (PutWallSlot slot : putWall.getAllSlots().values()) {
+            SkuCode skuCode = slot.getItemsRequired().keySet().iterator().next();
+            placements.add(List.of(new ItemPlacedInSlotEvent(putWall.getPutWallId(), slot.getSlotId(),
+                                                             slot.getAssignedOrderId(), skuCode, Quantity.of(1))));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nBytes per placement: whole document %d, slot increment %d%n",
+                          fullDocument().getByteBuffer().remaining(), placementUpdate().getByteBuffer().remaining());
+    }
+
+    @Benchmark
+    public RawBsonDocument fullDocument() {
+        Document document = new Document();
+        converter.write(PutWallDocument.fromDomain(putWall), document);
+        return statement(new Document("_id", putWall.getPutWallId().getValue()).append("version", 1L), document, null);
+    }
+
+    @Benchmark
+    public RawBsonDocument placementUpdate() {
+        Update update = PutWallRepositoryAdapter.placementUpdate(putWall, placements.get(next++ % SLOTS));
+        Query query = new Query(Criteria.where("_id").is(putWall.getPutWallId().getValue()).and("version").is(1L));
+        List<Document> arrayFilters = update.getArrayFilters().stream()
+            .map(filter -> filter.asDocument())
+            .toList();
+        return statement(query.getQueryObject(), update.getUpdateObject(), arrayFilters);
+    }
+
+    // The entry of an update command, as the driver encodes it
+    private RawBsonDocument statement(Document query, Document update, List<Document> arrayFilters) {
+        Document statement = new Document("q", query).append("u", update);
+        if (arrayFilters != null) {
+            statement.append("arrayFilters", arrayFilters);
+        }
+        return new RawBsonDocument(statement, codec);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PutWallPlacementWriteBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,261 @@
+package com.paklog.warehouse.adapter.persistence.mongodb;
+
+import com.mongodb.client.result.UpdateResult;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallCapacity;
+import com.paklog.warehouse.domain.putwall.PutWallException;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PutWallRepositoryAdapterTest {
+
+    private static final SkuCode SKU1 = SkuCode.of("SKU001");
+    private static final SkuCode SKU2 = SkuCode.of("SKU002");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PutWallRepositoryAdapter adapter;
+    private PutWall putWall;
+    private PutWallSlotId first;
+    private PutWallSlotId second;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new PutWallRepositoryAdapter(mongoTemplate);
+        putWall = new PutWall(PutWallId.generate(),
+            List.of(PutWallSlotId.of("A1"), PutWallSlotId.of("A2"), PutWallSlotId.of("A3")), "Zone A");
+        first = putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(2), SKU2, Quantity.of(1))).orElseThrow();
+        second = putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(1))).orElseThrow();
+        putWall.clearDomainEvents();
+        putWall.setVersion(7);
+    }
+
+    @Test
+    void shouldIncrementThePlacedQuantitiesOfTheSlotsAtTheReadVersion() {
+        putWall.placeItemInSlot(first, SKU1, Quantity.of(1));
+        putWall.placeItemInSlot(second, SKU1, Quantity.of(1));
+        putWall.placeItemInSlot(first, SKU1, Quantity.of(1));
+        putWall.placeItemInSlot(first, SKU2, Quantity.of(1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PutWallDocument.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        adapter.savePlacements(putWall, placements());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(PutWallDocument.class));
+        assertEquals(new Document("_id", putWall.getPutWallId().getValue()).append("version", 7L),
+                     query.getValue().getQueryObject());
+
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(new Document("slots.$[s0].itemsPlaced.SKU001", 2)
+                         .append("slots.$[s0].itemsPlaced.SKU002", 1)
+                         .append("slots.$[s1].itemsPlaced.SKU001", 1)
+                         .append("version", 1),
+                     updateObject.get("$inc"));
+        assertEquals(new Document("slots.$[s0].status", "READY_FOR_PACK")
+                         .append("slots.$[s1].status", "READY_FOR_PACK")
+                         .append("sequence", 6L),
+                     updateObject.get("$set"));
+        assertEquals(List.of(new Document("s0.slotId", first.getValue()), new Document("s1.slotId", second.getValue())),
+                     update.getValue().getArrayFilters().stream().map(filter -> filter.asDocument()).toList());
+        assertEquals(8, putWall.getVersion());
+    }
+
+    @Test
+    void shouldSetTheWholePlacedItemsOfSlotsWithSkusThatAreNoFieldNames() {
+        SkuCode dotted = SkuCode.of("SKU.1");
+        PutWallSlotId slotId = putWall.assignOrderToSlot(OrderId.generate(), Map.of(dotted, Quantity.of(2))).orElseThrow();
+        putWall.clearDomainEvents();
+        putWall.placeItemInSlot(slotId, dotted, Quantity.of(1));
+
+        Update update = PutWallRepositoryAdapter.placementUpdate(putWall, placements());
+
+        Document set = (Document) update.getUpdateObject().get("$set");
+        assertEquals(Map.of("SKU.1", 1), set.get("slots.$[s0].itemsPlaced"));
+        assertEquals("IN_PROGRESS", set.get("slots.$[s0].status"));
+        assertEquals(new Document("version", 1), update.getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void shouldRejectPlacementsOnAWallChangedSinceItWasRead() {
+        putWall.placeItemInSlot(first, SKU1, Quantity.of(1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PutWallDocument.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(PutWallException.PutWallConcurrentModificationException.class,
+            () -> adapter.savePlacements(putWall, placements()));
+        assertEquals(7, putWall.getVersion());
+    }
+
+    @Test
+    void shouldWriteNothingWithoutPlacements() {
+        adapter.savePlacements(putWall, List.of());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldStoreWallsReadBeforeTheyWereVersionedOnlyWhileStillUnversioned() {
+        putWall.setVersion(0);
+
+        adapter.save(putWall);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<PutWallDocument> document = ArgumentCaptor.forClass(PutWallDocument.class);
+        verify(mongoTemplate).replace(query.capture(), document.capture(), any(ReplaceOptions.class));
+        assertEquals(new Document("_id", putWall.getPutWallId().getValue())
+                         .append("version", new Document("$exists", false)),
+                     query.getValue().getQueryObject());
+        assertEquals(1L, document.getValue().getVersion());
+        assertEquals(1, putWall.getVersion());
+    }
+
+    @Test
+    void shouldRejectStoringAWallChangedSinceItWasRead() {
+        when(mongoTemplate.replace(any(Query.class), any(PutWallDocument.class), any(ReplaceOptions.class)))
+            .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        assertThrows(PutWallException.PutWallConcurrentModificationException.class, () -> adapter.save(putWall));
+        assertEquals(7, putWall.getVersion());
+    }
+
+    @Test
+    void shouldKeepTheVersionThroughTheDocument() {
+        PutWallDocument document = PutWallDocument.fromDomain(putWall);
+        assertEquals(7L, document.getVersion());
+        assertEquals(7, document.toDomain().getVersion());
+
+        document.setVersion(null);
+        assertEquals(0, document.toDomain().getVersion());
+    }
+
+    @Test
+    void shouldKeepTheSequenceThroughTheDocument() {
+        putWall.placeItemInSlot(first, SKU1, Quantity.of(1));
+
+        PutWall read = PutWallDocument.fromDomain(putWall).toDomain();
+
+        assertEquals(3, read.getSequence());
+        assertTrue(read.getDomainEvents().isEmpty());
+    }
+
+    @Test
+    void shouldWriteSlotsOnlyAsTheirOwner() {
+        putWall.placeItemInSlot(first, SKU1, Quantity.of(1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PutWallDocument.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        adapter.saveSlots(putWall.getPutWallId(), List.of(putWall.getSlotById(first)), 1, 3, "owner-1");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(PutWallDocument.class));
+        assertEquals(new Document("_id", putWall.getPutWallId().getValue()).append("owner", "owner-1"),
+                     query.getValue().getQueryObject());
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(first.getValue(), ((PutWallDocument.PutWallSlotDocument) set.get("slots.$[s0]")).getSlotId());
+        assertEquals(1, set.get("freeSlotCount"));
+        assertEquals(3L, set.get("sequence"));
+        assertEquals(List.of(new Document("s0.slotId", first.getValue())),
+                     update.getValue().getArrayFilters().stream().map(filter -> filter.asDocument()).toList());
+    }
+
+    @Test
+    void shouldRejectSlotWritesOfAnOwnerTheWallWasClaimedFrom() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(PutWallDocument.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(PutWallException.PutWallOwnedElsewhereException.class,
+            () -> adapter.saveSlots(putWall.getPutWallId(), List.of(putWall.getSlotById(first)), 1, 3, "owner-1"));
+    }
+
+    @Test
+    void shouldCountFreeSlotsWithEveryWrite() {
+        assertEquals(1, PutWallDocument.fromDomain(putWall).getFreeSlotCount());
+
+        putWall.placeItemInSlot(second, SKU1, Quantity.of(1));
+        putWall.releaseSlot(second);
+        assertEquals(2, PutWallDocument.fromDomain(putWall).getFreeSlotCount());
+    }
+
+    @Test
+    void shouldReadCapacitiesFromTheFreeSlotCountAlone() {
+        PutWallDocument counted = new PutWallDocument(putWall.getPutWallId().getValue(), "Zone A", 3, null);
+        counted.setFreeSlotCount(2);
+        PutWallDocument uncounted = PutWallDocument.fromDomain(putWall);
+        uncounted.setFreeSlotCount(null);
+        PutWallDocument full = PutWallDocument.fromDomain(
+            new PutWall(PutWallId.generate(), List.of(PutWallSlotId.of("B1")), "Zone B"));
+        full.setFreeSlotCount(null);
+        full.getSlots().get(0).setStatus("IN_PROGRESS");
+        when(mongoTemplate.find(any(Query.class), eq(PutWallDocument.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            return query.getQueryObject().get("freeSlotCount") instanceof Document
+                ? List.of(counted) : List.of(uncounted, full);
+        });
+
+        List<PutWallCapacity> capacities = adapter.findCapacitiesGreaterThan(0);
+
+        assertEquals(List.of(new PutWallCapacity(putWall.getPutWallId(), "Zone A", 3, 2),
+                             new PutWallCapacity(putWall.getPutWallId(), "Zone A", 3, 1)), capacities);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(PutWallDocument.class));
+        assertEquals(new Document("freeSlotCount", new Document("$gt", 0)), queries.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("location", 1).append("capacity", 1).append("freeSlotCount", 1),
+                     queries.getAllValues().get(0).getFieldsObject());
+        assertEquals(new Document("freeSlotCount", null), queries.getAllValues().get(1).getQueryObject());
+        assertEquals(new Document("location", 1).append("capacity", 1).append("slots.status", 1),
+                     queries.getAllValues().get(1).getFieldsObject());
+    }
+
+    @Test
+    void shouldOnlyReadWallsWithRoomOrNotCountedYet() {
+        PutWallDocument stale = PutWallDocument.fromDomain(putWall);
+        stale.setFreeSlotCount(null);
+        when(mongoTemplate.find(any(Query.class), eq(PutWallDocument.class))).thenReturn(List.of(stale));
+
+        assertEquals(List.of(putWall.getPutWallId()), adapter.findByAvailableCapacityGreaterThan(0).stream()
+            .map(PutWall::getPutWallId).toList());
+        assertTrue(adapter.findByAvailableCapacityGreaterThan(1).isEmpty());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(PutWallDocument.class));
+        assertEquals(new Document("$or", List.of(new Document("freeSlotCount", new Document("$gt", 1)),
+                                                 new Document("freeSlotCount", null))),
+                     query.getValue().getQueryObject());
+    }
+
+    private List<ItemPlacedInSlotEvent> placements() {
+        return putWall.getDomainEvents().stream()
+            .filter(ItemPlacedInSlotEvent.class::isInstance)
+            .map(ItemPlacedInSlotEvent.class::cast)
+            .toList();
+    }
+}
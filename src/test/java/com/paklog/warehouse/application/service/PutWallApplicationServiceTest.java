@@ -17,6 +17,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -134,10 +136,49 @@ class PutWallApplicationServiceTest {
         applicationService.confirmPutInSlot(command);
 
         verify(putWallService).validateItemPlacement(putWall, slotId, skuCode, quantity);
-        verify(putWallRepository).save(putWall);
+        verify(putWallRepository).savePlacements(eq(putWall), argThat(placements ->
+            placements.size() == 1 && placements.get(0).getSlotId().equals(slotId)));
+        verify(putWallRepository, never()).save(any());
         verify(eventPublisher, atLeastOnce()).publish(any());
     }
 
+    @Test
+    void shouldConfirmSeveralPutsInOneWrite() {
+        SkuCode sku1 = SkuCode.of("SKU001");
+        SkuCode sku2 = SkuCode.of("SKU002");
+        PutWallSlotId first = putWall.assignOrderToSlot(OrderId.generate(), Map.of(sku1, Quantity.of(2))).orElseThrow();
+        PutWallSlotId second = putWall.assignOrderToSlot(OrderId.generate(), Map.of(sku2, Quantity.of(1))).orElseThrow();
+        putWall.clearDomainEvents();
+
+        when(putWallRepository.findById(putWallId)).thenReturn(Optional.of(putWall));
+
+        applicationService.confirmPutsInSlots(List.of(
+            new ConfirmPutInSlotCommand(putWallId, first, sku1, Quantity.of(1)),
+            new ConfirmPutInSlotCommand(putWallId, second, sku2, Quantity.of(1)),
+            new ConfirmPutInSlotCommand(putWallId, first, sku1, Quantity.of(1))
+        ));
+
+        verify(putWallRepository, times(1)).findById(putWallId);
+        verify(putWallRepository, times(1)).savePlacements(eq(putWall), argThat(placements -> placements.size() == 3));
+        assertEquals(List.of(first, second), putWall.getReadyForPackSlots());
+    }
+
+    @Test
+    void shouldNotPublishPutsThatCouldNotBeWritten() {
+        SkuCode skuCode = SkuCode.of("SKU001");
+        PutWallSlotId slotId = putWall.assignOrderToSlot(OrderId.generate(), Map.of(skuCode, Quantity.of(1))).orElseThrow();
+        putWall.clearDomainEvents();
+
+        when(putWallRepository.findById(putWallId)).thenReturn(Optional.of(putWall));
+        doThrow(new PutWallException.PutWallConcurrentModificationException(putWallId))
+            .when(putWallRepository).savePlacements(eq(putWall), any());
+
+        assertThrows(PutWallException.PutWallConcurrentModificationException.class, () ->
+            applicationService.confirmPutInSlot(new ConfirmPutInSlotCommand(putWallId, slotId, skuCode, Quantity.of(1))));
+
+        verify(eventPublisher, never()).publish(any());
+    }
+
     @Test
     void shouldReleaseSlot() {
         // First assign an order and complete it
@@ -237,6 +278,16 @@ class PutWallApplicationServiceTest {
         assertEquals(availablePutWalls, result);
     }
 
+    @Test
+    void shouldGetAvailablePutWallCapacities() {
+        List<PutWallCapacity> capacities = List.of(new PutWallCapacity(putWallId, "Test Location", 2, 2));
+
+        when(putWallRepository.findCapacitiesGreaterThan(1)).thenReturn(capacities);
+
+        assertEquals(capacities, applicationService.getAvailablePutWallCapacities(1));
+        verify(putWallRepository, never()).findById(any());
+    }
+
     @Test
     void shouldClearDomainEventsAfterPublishing() {
         OrderId orderId = OrderId.generate();
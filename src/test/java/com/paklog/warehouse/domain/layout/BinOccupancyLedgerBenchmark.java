@@ -0,0 +1,115 @@
+package com.paklog.warehouse.domain.layout;
+
+import ch.qos.logback.classic.Level;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserve-and-release throughput of the occupancy ledger on a 100k-bin layout from four
+ * threads, with a single lock stripe against the default striping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class BinOccupancyLedgerBenchmark {
+
+    @Param({"1", "64"})
+    public int stripes;
+
+    private BinLocation[] bins;
+    private BinOccupancyLedger ledger;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 50; aisle++) {
+            for (int rack = 1; rack <= 400; rack++) {
+                for (int level = 1; level <= 5; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of("A" + aisle, String.format("%03d", rack), String.valueOf(level)),
+                        "BULK", "STANDARD", 10.0, false, null));
+                }
+            }
+        }
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(new FixedBinMaster(records));
+        layoutService.reload();
+        bins = records.stream().map(BinMasterRecord::getLocation).toArray(BinLocation[]::new);
+        ledger = new BinOccupancyLedger(layoutService, Duration.ofMinutes(15), stripes, Clock.systemUTC());
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        BinLocation bin = bins[ThreadLocalRandom.current().nextInt(bins.length)];
+        Optional<BinReservation> reservation = ledger.tryReserve(bin, 1.0);
+        return reservation.isPresent() && ledger.release(reservation.get());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BinOccupancyLedgerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private static final class FixedBinMaster implements BinMasterRepository {
+        private final List<BinMasterRecord> records;
+
+        FixedBinMaster(List<BinMasterRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void save(BinMasterRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<BinMasterRecord> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+            return records.stream().filter(record -> record.getLocation().equals(location)).findFirst();
+        }
+
+        @Override
+        public List<BinMasterRecord> findAll() {
+            return records;
+        }
+
+        @Override
+        public long count() {
+            return records.size();
+        }
+    }
+}
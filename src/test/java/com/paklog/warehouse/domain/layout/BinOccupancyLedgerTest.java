@@ -0,0 +1,355 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.licenseplate.LicensePlateId;
+import com.paklog.warehouse.domain.location.LocationConstraint;
+import com.paklog.warehouse.domain.location.LocationConstraintType;
+import com.paklog.warehouse.domain.location.LocationDirective;
+import com.paklog.warehouse.domain.location.LocationDirectivePlanCache;
+import com.paklog.warehouse.domain.location.LocationDirectiveRepository;
+import com.paklog.warehouse.domain.location.LocationDirectiveService;
+import com.paklog.warehouse.domain.location.LocationQuery;
+import com.paklog.warehouse.domain.location.LocationScoringEngine;
+import com.paklog.warehouse.domain.location.LocationStrategy;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.LocationAwareWorkCreationService;
+import com.paklog.warehouse.domain.work.Work;
+import com.paklog.warehouse.domain.work.WorkCreationService;
+import com.paklog.warehouse.domain.work.WorkId;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinOccupancyLedgerTest {
+    private static final int AISLES = 10;
+    private static final int RACKS = 20;
+    private static final double BIN_CAPACITY = 10.0;
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    @Mock
+    private LocationDirectiveRepository directiveRepository;
+
+    private MutableClock clock;
+    private WarehouseLayoutService layoutService;
+    private BinOccupancyLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= AISLES; aisle++) {
+            for (int rack = 1; rack <= RACKS; rack++) {
+                records.add(new BinMasterRecord(BinLocation.of("A" + aisle, String.format("%02d", rack), "1"),
+                                                "BULK", "STANDARD", BIN_CAPACITY, false, null));
+            }
+        }
+        when(binMasterRepository.findAll()).thenReturn(records);
+        layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+        clock = new MutableClock(Instant.parse("2024-01-01T08:00:00Z"));
+        ledger = new BinOccupancyLedger(layoutService, Duration.ofMinutes(10), 16, clock);
+    }
+
+    @Test
+    void shouldReserveUpToLayoutCapacityAndFreeOnRelease() {
+        BinLocation bin = BinLocation.of("A1", "01", "1");
+
+        Optional<BinReservation> first = ledger.tryReserve(bin, 6.0);
+        assertTrue(first.isPresent());
+        assertFalse(ledger.isEmpty(bin));
+        assertTrue(layoutService.getSpatialIndex().isOccupied(layoutService.getIndex().ordinalOf(bin)));
+
+        assertTrue(ledger.tryReserve(bin, 5.0).isEmpty());
+        assertTrue(ledger.tryReserve(bin, 4.0).isPresent());
+        assertEquals(0.0, ledger.availableCapacity(bin), 1e-9);
+
+        assertTrue(ledger.release(first.get()));
+        assertFalse(ledger.release(first.get()));
+        assertEquals(6.0, ledger.availableCapacity(bin), 1e-9);
+        assertEquals(1, ledger.activeReservationCount());
+    }
+
+    @Test
+    void shouldTreatBinsOutsideLayoutAsExclusive() {
+        BinLocation dock = BinLocation.of("DOCK", "01", "1");
+
+        Optional<BinReservation> reservation = ledger.tryReserve(dock, 50.0);
+        assertTrue(reservation.isPresent());
+        assertTrue(ledger.tryReserve(dock, 0.0).isEmpty());
+
+        ledger.release(reservation.get());
+        assertTrue(ledger.isEmpty(dock));
+        assertTrue(ledger.tryReserve(dock, 1.0).isPresent());
+    }
+
+    @Test
+    void shouldReleaseReservationsAfterTtl() {
+        BinLocation bin = BinLocation.of("A2", "03", "1");
+        int ordinal = layoutService.getIndex().ordinalOf(bin);
+        ledger.tryReserve(bin, BIN_CAPACITY);
+
+        clock.advance(Duration.ofMinutes(9));
+        assertTrue(ledger.tryReserve(bin, 1.0).isEmpty());
+        assertTrue(layoutService.getSpatialIndex().isOccupied(ordinal));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(1, ledger.releaseExpired());
+        assertTrue(ledger.isEmpty(bin));
+        assertFalse(layoutService.getSpatialIndex().isOccupied(ordinal));
+        assertTrue(ledger.tryReserve(bin, BIN_CAPACITY).isPresent());
+    }
+
+    @Test
+    void shouldTrackLicensePlatesAndConsumeReservationsOnArrival() {
+        LicensePlateId plate = LicensePlateId.of("LP00000001");
+        BinLocation dock = BinLocation.of("DOCK", "01", "1");
+        BinLocation bin = BinLocation.of("A3", "05", "1");
+
+        ledger.inventoryChanged(plate, 4.0);
+        ledger.plateMoved(plate, dock);
+        assertFalse(ledger.isEmpty(dock));
+
+        ledger.tryReserve(bin, 4.0);
+        ledger.plateMoved(plate, bin);
+
+        assertTrue(ledger.isEmpty(dock));
+        assertEquals(4.0, ledger.storedVolume(bin), 1e-9);
+        assertEquals(0.0, ledger.reservedVolume(bin), 1e-9);
+        assertEquals(6.0, ledger.availableCapacity(bin), 1e-9);
+
+        ledger.inventoryChanged(plate, -1.0);
+        assertEquals(3.0, ledger.storedVolume(bin), 1e-9);
+
+        ledger.plateRemoved(plate);
+        assertTrue(ledger.isEmpty(bin));
+        assertFalse(layoutService.getSpatialIndex().isOccupied(layoutService.getIndex().ordinalOf(bin)));
+        assertEquals(0, ledger.trackedPlateCount());
+    }
+
+    @Test
+    void shouldHoldConfirmedReservationsUntilTheirWorkEnds() {
+        BinLocation bin = BinLocation.of("A4", "02", "1");
+        WorkId workId = WorkId.generate();
+        BinReservation reservation = ledger.tryReserve(bin, 6.0).orElseThrow();
+
+        assertTrue(ledger.confirm(reservation, workId));
+        assertEquals(Optional.of(workId), reservation.getWorkId());
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(0, ledger.releaseExpired());
+        assertEquals(6.0, ledger.reservedVolume(bin), 1e-9);
+
+        assertEquals(1, ledger.releaseWork(workId));
+        assertTrue(ledger.isEmpty(bin));
+        assertEquals(0, ledger.releaseWork(workId));
+        assertFalse(ledger.confirm(reservation, workId));
+    }
+
+    @Test
+    void shouldRebuildStoredStockFromLoadedPlates() {
+        LicensePlateId loaded = LicensePlateId.of("LP00000002");
+        LicensePlateId moved = LicensePlateId.of("LP00000003");
+        BinLocation bin = BinLocation.of("A5", "07", "1");
+        BinLocation other = BinLocation.of("A5", "08", "1");
+
+        assertTrue(ledger.loadPlate(loaded, bin, 3.0));
+        // Events applied before the plate was read from the repository win
+        ledger.plateMoved(moved, other);
+        assertFalse(ledger.loadPlate(moved, bin, 2.0));
+
+        assertEquals(3.0, ledger.storedVolume(bin), 1e-9);
+        assertFalse(ledger.isEmpty(other));
+        assertTrue(layoutService.getSpatialIndex().isOccupied(layoutService.getIndex().ordinalOf(bin)));
+    }
+
+    @Test
+    void shouldReleaseBatchReservationsUnlessWorkIsCreated() {
+        LocationDirective directive = new LocationDirective("Nearest", "Nearest empty bulk bin", WorkType.PUT,
+                                                            LocationStrategy.NEAREST_EMPTY, 10);
+        when(directiveRepository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(directive));
+        LocationDirectiveService service = new LocationDirectiveService(directiveRepository,
+            new LocationDirectivePlanCache(directiveRepository), layoutService, new LocationScoringEngine(), ledger);
+        WorkCreationService workCreationService = mock(WorkCreationService.class);
+        LocationAwareWorkCreationService creationService =
+            new LocationAwareWorkCreationService(workCreationService, service);
+
+        // The oversized line fits no bin, so the batch fails after the first line reserved one
+        List<LocationAwareWorkCreationService.WorkItemRequest> oversized = List.of(
+            new LocationAwareWorkCreationService.WorkItemRequest(new SkuCode("SKU1"), new Quantity(4), null),
+            new LocationAwareWorkCreationService.WorkItemRequest(new SkuCode("SKU2"), new Quantity(40), null));
+        assertThrows(IllegalStateException.class,
+            () -> creationService.createBatchWorkWithOptimalLocations(WorkType.PUT, oversized));
+        assertEquals(0, ledger.activeReservationCount());
+
+        List<LocationAwareWorkCreationService.WorkItemRequest> lines = List.of(
+            new LocationAwareWorkCreationService.WorkItemRequest(new SkuCode("SKU1"), new Quantity(4), null),
+            new LocationAwareWorkCreationService.WorkItemRequest(new SkuCode("SKU2"), new Quantity(4), null));
+        Work created = mock(Work.class);
+        WorkId workId = WorkId.generate();
+        when(created.getWorkId()).thenReturn(workId);
+        when(workCreationService.createWork(eq(WorkType.PUT), any(), any(), any(), any()))
+            .thenReturn(created)
+            .thenThrow(new IllegalStateException("No active template found for work type: PUT"));
+
+        assertThrows(IllegalStateException.class,
+            () -> creationService.createBatchWorkWithOptimalLocations(WorkType.PUT, lines));
+        assertEquals(1, ledger.activeReservationCount());
+        assertEquals(1, ledger.releaseWork(workId));
+        assertEquals(0, ledger.activeReservationCount());
+    }
+
+    @Test
+    void shouldNeverOverbookBinsUnderConcurrentReservations() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 20_000;
+        List<BinLocation> bins = layoutService.getIndex().query(LayoutCriteria.builder().build()).asLocations();
+        ConcurrentHashMap<BinReservation, Boolean> held = new ConcurrentHashMap<>();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    List<BinReservation> mine = new ArrayList<>();
+                    for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+                        // Few hot bins so most attempts contend
+                        BinLocation bin = bins.get(random.nextInt(bins.size() / 10));
+                        Optional<BinReservation> reservation = ledger.tryReserve(bin, 1 + random.nextInt(3));
+                        if (reservation.isPresent()) {
+                            reserved.incrementAndGet();
+                            mine.add(reservation.get());
+                            held.put(reservation.get(), Boolean.TRUE);
+                            assertTrue(ledger.availableCapacity(bin) >= -1e-9);
+                        }
+                        if (!mine.isEmpty() && random.nextInt(4) == 0) {
+                            BinReservation release = mine.remove(random.nextInt(mine.size()));
+                            assertTrue(ledger.release(release));
+                            held.remove(release);
+                            released.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(reserved.get() > threads * 100, "reservations succeeded: " + reserved.get());
+        assertEquals(reserved.get() - released.get(), ledger.activeReservationCount());
+        for (BinLocation bin : bins) {
+            double expected = held.keySet().stream()
+                .filter(reservation -> reservation.getLocation().equals(bin))
+                .mapToDouble(BinReservation::getVolume)
+                .sum();
+            assertEquals(expected, ledger.reservedVolume(bin), 1e-9, bin.toString());
+            assertTrue(expected <= BIN_CAPACITY, bin.toString());
+            assertEquals(expected == 0.0,
+                         !layoutService.getSpatialIndex().isOccupied(layoutService.getIndex().ordinalOf(bin)),
+                         bin.toString());
+        }
+    }
+
+    @Test
+    void shouldGiveConcurrentPutawaysDistinctBins() throws Exception {
+        // Bins take a single line each: capacity 10, quantity 8
+        LocationDirective directive = new LocationDirective("Nearest", "Nearest empty bulk bin", WorkType.PUT,
+                                                            LocationStrategy.NEAREST_EMPTY, 10);
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "BULK"));
+        when(directiveRepository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(directive));
+        LocationDirectiveService service = new LocationDirectiveService(directiveRepository,
+            new LocationDirectivePlanCache(directiveRepository), layoutService, new LocationScoringEngine(), ledger);
+
+        int putaways = AISLES * RACKS;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<BinLocation>> selections = new ArrayList<>();
+        try {
+            for (int i = 0; i < putaways; i++) {
+                SkuCode item = new SkuCode("SKU" + i);
+                selections.add(executor.submit(() -> {
+                    start.await();
+                    return service.selectOptimalLocation(new LocationQuery(WorkType.PUT, item, new Quantity(8),
+                        BinLocation.of("A1", "01", "1"), new HashMap<>(), null));
+                }));
+            }
+            start.countDown();
+            Set<BinLocation> selected = new HashSet<>();
+            for (Future<BinLocation> selection : selections) {
+                BinLocation location = selection.get(60, TimeUnit.SECONDS);
+                assertNotNull(location);
+                assertTrue(selected.add(location), "bin selected twice: " + location);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNull(service.selectOptimalLocation(new LocationQuery(WorkType.PUT, new SkuCode("SKU-LAST"),
+            new Quantity(8), BinLocation.of("A1", "01", "1"), new HashMap<>(), null)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.LocationSymbols;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinSpatialIndexTest {
+
+    private WarehouseLayoutIndex layout;
+    private BinSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 12; aisle++) {
+            for (int rack = 1; rack <= 60; rack += (aisle % 3) + 1) {
+                for (int level = 1; level <= 4; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of("A" + aisle, String.format("%02d", rack), String.valueOf(level)),
+                        aisle % 2 == 0 ? "BULK" : "FAST_PICK", "STANDARD", rack % 7, false, null));
+                }
+            }
+        }
+        layout = WarehouseLayoutIndex.build(records, new LocationSymbols(), Instant.EPOCH);
+        index = new BinSpatialIndex(layout);
+    }
+
+    @Test
+    void shouldMatchLinearScanForRandomOccupancyAndReferences() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 300; round++) {
+            for (int flips = 0; flips < 50; flips++) {
+                int ordinal = random.nextInt(layout.size());
+                if (random.nextBoolean()) {
+                    index.markOccupied(ordinal);
+                } else {
+                    index.markEmpty(ordinal);
+                }
+            }
+            int referenceOrdinal = random.nextInt(layout.size());
+            int minimumCapacity = random.nextInt(7);
+            IntPredicate filter = ordinal -> layout.capacityAt(ordinal) >= minimumCapacity;
+
+            int expected = linearScan(referenceOrdinal, filter);
+            int actual = index.findNearestEmpty(layout.locationAt(referenceOrdinal), filter);
+
+            assertEquals(expected, actual, "round " + round);
+        }
+    }
+
+    @Test
+    void shouldSkipOccupiedBinsAndSeeThemAgainWhenEmptied() {
+        BinLocation reference = BinLocation.of("A1", "01", "1");
+
+        assertEquals(reference, layout.locationAt(index.findNearestEmpty(reference, ordinal -> true)));
+
+        assertTrue(index.markOccupied(reference));
+        assertFalse(index.markOccupied(reference));
+        assertEquals(BinLocation.of("A1", "01", "2"),
+                     layout.locationAt(index.findNearestEmpty(reference, ordinal -> true)));
+
+        assertTrue(index.markEmpty(reference));
+        assertEquals(reference, layout.locationAt(index.findNearestEmpty(reference, ordinal -> true)));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenEverythingIsOccupied() {
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            index.markOccupied(ordinal);
+        }
+
+        assertEquals(0, index.emptyBinCount());
+        assertEquals(WarehouseLayoutIndex.NOT_FOUND,
+                     index.findNearestEmpty(BinLocation.of("A5", "10", "1"), ordinal -> true));
+    }
+
+    @Test
+    void shouldAcceptReferencesOutsideTheLayout() {
+        BinLocation reference = BinLocation.of("A13", "99", "9");
+
+        int nearest = index.findNearestEmpty(reference, ordinal -> true);
+
+        assertEquals("A12", layout.locationAt(nearest).getAisle());
+    }
+
+    @Test
+    void shouldCarryOccupancyOverToRebuiltIndex() {
+        BinLocation occupiedBin = BinLocation.of("A4", "01", "3");
+        index.markOccupied(occupiedBin);
+
+        BinSpatialIndex rebuilt = BinSpatialIndex.rebuild(layout, index);
+
+        assertFalse(rebuilt.isEmpty(occupiedBin));
+        assertEquals(layout.size() - 1, rebuilt.emptyBinCount());
+    }
+
+    private int linearScan(int referenceOrdinal, IntPredicate filter) {
+        int best = WarehouseLayoutIndex.NOT_FOUND;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            if (index.isOccupied(ordinal) || !filter.test(ordinal)) {
+                continue;
+            }
+            int distance = index.distance(referenceOrdinal, ordinal);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = ordinal;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,90 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.LocationSymbols;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate lookups on a 200k-bin layout: bitmap index queries against a linear scan
+ * over bin master records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseLayoutIndexBenchmark {
+    private static final String[] ZONES = {"FAST_PICK", "MEDIUM_PICK", "BULK", "COLD", "HAZMAT", "RESERVE"};
+
+    private List<BinMasterRecord> records;
+    private WarehouseLayoutIndex index;
+    private LayoutCriteria zoneAndCapacity;
+    private LayoutCriteria capacityOnly;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 100; aisle++) {
+            for (int rack = 1; rack <= 400; rack++) {
+                for (int level = 1; level <= 5; level++) {
+                    String zone = ZONES[(aisle - 1) * ZONES.length / 100];
+                    records.add(new BinMasterRecord(
+                        BinLocation.of("A" + aisle, String.format("%03d", rack), String.valueOf(level)),
+                        zone, "STANDARD", random.nextInt(40), "HAZMAT".equals(zone),
+                        "COLD".equals(zone) ? 4.0 : null));
+                }
+            }
+        }
+        index = WarehouseLayoutIndex.build(records, new LocationSymbols(), Instant.now());
+        zoneAndCapacity = LayoutCriteria.builder().withZones("FAST_PICK", "BULK").withMinimumCapacity(30).build();
+        capacityOnly = LayoutCriteria.builder().withMinimumCapacity(38).build();
+    }
+
+    @Benchmark
+    public int indexZoneAndCapacity() {
+        return index.query(zoneAndCapacity).size();
+    }
+
+    @Benchmark
+    public int indexCapacityOnly() {
+        return index.query(capacityOnly).size();
+    }
+
+    @Benchmark
+    public int scanZoneAndCapacity() {
+        List<BinLocation> result = new ArrayList<>();
+        for (BinMasterRecord record : records) {
+            if (zoneAndCapacity.getZones().contains(record.getZone())
+                    && zoneAndCapacity.acceptsCapacity(record.getCapacity())) {
+                result.add(record.getLocation());
+            }
+        }
+        return result.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(WarehouseLayoutIndexBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,145 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.CompiledConstraintChain;
+import com.paklog.warehouse.domain.location.LocationConstraint;
+import com.paklog.warehouse.domain.location.LocationConstraintCompiler;
+import com.paklog.warehouse.domain.location.LocationConstraintType;
+import com.paklog.warehouse.domain.location.LocationContext;
+import com.paklog.warehouse.domain.location.LocationQuery;
+import com.paklog.warehouse.domain.location.LocationRecord;
+import com.paklog.warehouse.domain.location.LocationSymbols;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarehouseLayoutIndexTest {
+
+    private LocationSymbols symbols;
+    private WarehouseLayoutIndex index;
+
+    @BeforeEach
+    void setUp() {
+        symbols = new LocationSymbols();
+        List<BinMasterRecord> records = new ArrayList<>();
+        records.add(bin("A2", "01", "1", "FAST_PICK", 2.0, false, null));
+        records.add(bin("A10", "01", "1", "FAST_PICK", 8.0, false, null));
+        records.add(bin("A2", "02", "2", "BULK", 20.0, true, null));
+        records.add(bin("B1", "01", "3", "BULK", 12.0, false, null));
+        records.add(bin("C1", "05", "1", "COLD", 4.0, false, 2.0));
+        index = WarehouseLayoutIndex.build(records, symbols, Instant.EPOCH);
+    }
+
+    @Test
+    void shouldFilterByZone() {
+        LayoutCandidates candidates = index.query(LayoutCriteria.builder().withZones("BULK").build());
+
+        assertEquals(2, candidates.size());
+        assertTrue(candidates.contains(BinLocation.of("A2", "02", "2")));
+        assertTrue(candidates.contains(BinLocation.of("B1", "01", "3")));
+    }
+
+    @Test
+    void shouldFilterByZoneSetAndCapacity() {
+        LayoutCandidates candidates = index.query(LayoutCriteria.builder()
+            .withZones("FAST_PICK", "COLD")
+            .withMinimumCapacity(4.0)
+            .build());
+
+        assertEquals(List.of(BinLocation.of("A10", "01", "1"), BinLocation.of("C1", "05", "1")),
+                     candidates.asLocations());
+    }
+
+    @Test
+    void shouldFilterByCapacityAloneUsingExclusiveBound() {
+        LayoutCandidates candidates = index.query(LayoutCriteria.builder()
+            .withMinimumCapacity(8.0, false)
+            .build());
+
+        assertEquals(2, candidates.size());
+        assertFalse(candidates.contains(BinLocation.of("A10", "01", "1")));
+    }
+
+    @Test
+    void shouldFilterByLevelHazmatAndTemperature() {
+        assertEquals(3, index.query(LayoutCriteria.builder().withLevelRange(1, 1).build()).size());
+        assertEquals(List.of(BinLocation.of("A2", "02", "2")),
+                     index.query(LayoutCriteria.builder().withHazmatCompatible(true).build()).asLocations());
+        assertEquals(4, index.query(LayoutCriteria.builder().withHazmatCompatible(false).build()).size());
+        assertEquals(List.of(BinLocation.of("C1", "05", "1")),
+                     index.query(LayoutCriteria.builder().withTemperatureControl().build()).asLocations());
+    }
+
+    @Test
+    void shouldReturnEverythingForUnrestrictedCriteriaAndNothingForUnknownZone() {
+        assertEquals(5, index.query(LayoutCriteria.any()).size());
+        assertTrue(index.query(LayoutCriteria.builder().withZones("UNKNOWN").build()).isEmpty());
+    }
+
+    @Test
+    void shouldEncodeAislesInNaturalOrderAndKeepNumericSegments() {
+        int a2 = index.ordinalOf(BinLocation.of("A2", "01", "1"));
+        int a10 = index.ordinalOf(BinLocation.of("A10", "01", "1"));
+        int b1 = index.ordinalOf(BinLocation.of("B1", "01", "3"));
+
+        assertTrue(index.aisleAt(a2) < index.aisleAt(a10));
+        assertTrue(index.aisleAt(a10) < index.aisleAt(b1));
+        assertEquals(1, index.rackAt(a2));
+        assertEquals(3, index.levelAt(b1));
+    }
+
+    @Test
+    void shouldRejectDuplicateBins() {
+        List<BinMasterRecord> duplicates = List.of(
+            bin("A", "01", "1", "BULK", 1.0, false, null),
+            bin("A", "01", "1", "BULK", 2.0, false, null));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            WarehouseLayoutIndex.build(duplicates, symbols, Instant.EPOCH));
+    }
+
+    @Test
+    void shouldLoadRecordsMatchingContextAttributes() {
+        LocationConstraintCompiler compiler = new LocationConstraintCompiler(symbols);
+        CompiledConstraintChain chain = compiler.compile(List.of(
+            new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "COLD"),
+            new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gte", 4.0)));
+        LocationRecord record = new LocationRecord();
+
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            index.loadRecord(ordinal, record);
+            LocationContext context = new LocationContext(index.locationAt(ordinal), null,
+                index.attributesOf(ordinal), java.util.Set.of());
+            boolean interpreted = chain.getSourceConstraint(0).evaluate(context)
+                && chain.getSourceConstraint(1).evaluate(context);
+
+            assertEquals(interpreted, chain.test(record));
+        }
+    }
+
+    @Test
+    void shouldUseLayoutAttributesInLocationContext() {
+        LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1))
+            .withLayout(index, null);
+
+        LocationContext context = query.createContextForLocation(BinLocation.of("C1", "05", "1"));
+
+        assertEquals("COLD", context.getLocationZone());
+        assertEquals(4.0, context.getAvailableCapacity());
+        assertEquals(2.0, context.getTemperature());
+        assertEquals(Boolean.FALSE, context.isHazmatCompatible());
+    }
+
+    private static BinMasterRecord bin(String aisle, String rack, String level, String zone, double capacity,
+                                       boolean hazmat, Double temperature) {
+        return new BinMasterRecord(BinLocation.of(aisle, rack, level), zone, "STANDARD", capacity, hazmat, temperature);
+    }
+}
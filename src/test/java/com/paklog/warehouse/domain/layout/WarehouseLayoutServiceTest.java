@@ -0,0 +1,105 @@
+package com.paklog.warehouse.domain.layout;
+
+import com.paklog.warehouse.domain.location.LocationConstraint;
+import com.paklog.warehouse.domain.location.LocationConstraintType;
+import com.paklog.warehouse.domain.location.LocationDirective;
+import com.paklog.warehouse.domain.location.LocationDirectivePlanCache;
+import com.paklog.warehouse.domain.location.LocationDirectiveRepository;
+import com.paklog.warehouse.domain.location.LocationDirectiveService;
+import com.paklog.warehouse.domain.location.LocationQuery;
+import com.paklog.warehouse.domain.location.LocationStrategy;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarehouseLayoutServiceTest {
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    @Mock
+    private LocationDirectiveRepository directiveRepository;
+
+    @Test
+    void shouldLoadIndexOnceAndServeFromMemory() {
+        when(binMasterRepository.findAll()).thenReturn(List.of(
+            new BinMasterRecord(BinLocation.of("A", "01", "1"), "BULK", "STANDARD", 5.0, false, null)));
+        WarehouseLayoutService service = new WarehouseLayoutService(binMasterRepository);
+
+        assertFalse(service.isLoaded());
+        assertEquals(1, service.getIndex().size());
+        assertEquals(1, service.findCandidates(LayoutCriteria.builder().withZones("BULK").build()).size());
+
+        verify(binMasterRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldDrawDirectiveCandidatesFromLayout() {
+        when(binMasterRepository.findAll()).thenReturn(List.of(
+            new BinMasterRecord(BinLocation.of("R", "01", "1"), "BULK", "STANDARD", 5.0, false, null),
+            new BinMasterRecord(BinLocation.of("R", "02", "1"), "FAST_PICK", "STANDARD", 5.0, false, null),
+            new BinMasterRecord(BinLocation.of("R", "03", "1"), "BULK", "STANDARD", 0.5, false, null)));
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+
+        LocationDirective directive = new LocationDirective("Random", "Any bin", WorkType.PUT,
+                                                            LocationStrategy.RANDOM, 10);
+        when(directiveRepository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(directive));
+        LocationDirectiveService service = new LocationDirectiveService(directiveRepository,
+            new LocationDirectivePlanCache(directiveRepository), layoutService);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("required_zone", "BULK");
+        parameters.put("minimum_capacity", 1.0);
+        LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                                null, parameters, null);
+
+        assertEquals(BinLocation.of("R", "01", "1"), service.selectOptimalLocation(query));
+        assertEquals(List.of(BinLocation.of("R", "01", "1")), service.findBestLocations(query, 10));
+    }
+
+    @Test
+    void shouldSelectNearestEmptyBinThroughSpatialIndex() {
+        when(binMasterRepository.findAll()).thenReturn(List.of(
+            new BinMasterRecord(BinLocation.of("B", "01", "1"), "FAST_PICK", "STANDARD", 5.0, false, null),
+            new BinMasterRecord(BinLocation.of("B", "02", "1"), "BULK", "STANDARD", 5.0, false, null),
+            new BinMasterRecord(BinLocation.of("B", "05", "1"), "BULK", "STANDARD", 5.0, false, null),
+            new BinMasterRecord(BinLocation.of("C", "02", "1"), "BULK", "STANDARD", 5.0, false, null)));
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+
+        LocationDirective directive = new LocationDirective("Nearest", "Nearest bulk bin", WorkType.PUT,
+                                                            LocationStrategy.NEAREST_EMPTY, 10);
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "BULK"));
+        when(directiveRepository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(directive));
+        LocationDirectiveService service = new LocationDirectiveService(directiveRepository,
+            new LocationDirectivePlanCache(directiveRepository), layoutService);
+        LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                                BinLocation.of("B", "01", "1"), new HashMap<>(), null);
+
+        assertEquals(BinLocation.of("B", "02", "1"), service.selectOptimalLocation(query));
+
+        layoutService.markOccupied(BinLocation.of("B", "02", "1"));
+        assertEquals(BinLocation.of("B", "05", "1"), service.selectOptimalLocation(query));
+
+        layoutService.markOccupied(BinLocation.of("B", "05", "1"));
+        assertEquals(BinLocation.of("C", "02", "1"), service.selectOptimalLocation(query));
+
+        layoutService.reload();
+        layoutService.markEmpty(BinLocation.of("B", "05", "1"));
+        assertEquals(BinLocation.of("B", "05", "1"), service.selectOptimalLocation(query));
+    }
+}
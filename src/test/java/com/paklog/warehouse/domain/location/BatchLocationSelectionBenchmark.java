@@ -0,0 +1,138 @@
+package com.paklog.warehouse.domain.location;
+
+import ch.qos.logback.classic.Level;
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location selection for a 1k-line receipt against a 10k-bin layout: one
+ * selectOptimalLocation call per line against a single batch selection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchLocationSelectionBenchmark {
+    private static final int LINES = 1000;
+
+    private LocationDirectiveService service;
+    private List<LocationQuery> receipt;
+
+    @Setup
+    public void setUp() {
+        // Outside Spring logback defaults to DEBUG on the console; keep per-call logging out of the numbers
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 20; aisle++) {
+            for (int rack = 1; rack <= 100; rack++) {
+                for (int level = 1; level <= 5; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of("A" + aisle, String.format("%03d", rack), String.valueOf(level)),
+                        aisle % 2 == 0 ? "BULK" : "RESERVE", "STANDARD", 20.0, false, null));
+                }
+            }
+        }
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(new FixedBinMaster(records));
+        layoutService.reload();
+
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest empty bulk", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 10);
+        nearest.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "BULK"));
+        LocationDirective overflow = new LocationDirective("Overflow", "Bulk overflow", WorkType.PUT,
+                                                           LocationStrategy.BULK_LOCATION, 20);
+        InMemoryLocationDirectiveRepository repository =
+            new InMemoryLocationDirectiveRepository(List.of(nearest, overflow));
+        service = new LocationDirectiveService(repository, new LocationDirectivePlanCache(repository), layoutService);
+
+        Random random = new Random(23);
+        receipt = new ArrayList<>(LINES);
+        for (int line = 0; line < LINES; line++) {
+            BinLocation dock = BinLocation.of("A" + (1 + random.nextInt(20)), "001", "1");
+            receipt.add(new LocationQuery(WorkType.PUT, new SkuCode("SKU" + line), new Quantity(1 + random.nextInt(5)),
+                                          dock, new HashMap<>(), null));
+        }
+    }
+
+    @Benchmark
+    public List<BinLocation> perLineSelection() {
+        List<BinLocation> locations = new ArrayList<>(receipt.size());
+        for (LocationQuery query : receipt) {
+            locations.add(service.selectOptimalLocation(query));
+        }
+        return locations;
+    }
+
+    @Benchmark
+    public List<BinLocation> batchSelection() {
+        return service.selectOptimalLocations(receipt).getLocations();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BatchLocationSelectionBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private static final class FixedBinMaster implements BinMasterRepository {
+        private final List<BinMasterRecord> records;
+
+        FixedBinMaster(List<BinMasterRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void save(BinMasterRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<BinMasterRecord> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+            return records.stream().filter(record -> record.getLocation().equals(location)).findFirst();
+        }
+
+        @Override
+        public List<BinMasterRecord> findAll() {
+            return records;
+        }
+
+        @Override
+        public long count() {
+            return records.size();
+        }
+    }
+}
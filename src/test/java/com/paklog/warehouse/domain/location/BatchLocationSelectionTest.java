@@ -0,0 +1,131 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchLocationSelectionTest {
+
+    @Mock
+    private LocationDirectiveRepository repository;
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    @Test
+    void shouldGiveNearestEmptyLinesDistinctBinsInDistanceOrder() {
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest empty", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 10);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(nearest));
+        LocationDirectiveService service = serviceWithLayout(10.0);
+        BinLocation reference = BinLocation.of("A", "01", "1");
+
+        List<LocationQuery> queries = new ArrayList<>();
+        for (int line = 0; line < 3; line++) {
+            queries.add(new LocationQuery(WorkType.PUT, new SkuCode("SKU00" + line), new Quantity(1),
+                                          reference, new HashMap<>(), null));
+        }
+
+        LocationDirectiveService.BatchLocationSelection selection = service.selectOptimalLocations(queries);
+
+        assertEquals(List.of(BinLocation.of("A", "01", "1"), BinLocation.of("A", "02", "1"),
+                             BinLocation.of("A", "01", "2")), selection.getLocations());
+        verify(repository, times(1)).findByWorkTypeAndActive(WorkType.PUT, true);
+    }
+
+    @Test
+    void shouldShareBinsUntilCapacityIsReservedThenFallBackToScoring() {
+        // The bulk selector always proposes B-01-1
+        LocationDirective bulk = new LocationDirective("Bulk", "Bulk storage", WorkType.PUT,
+                                                       LocationStrategy.BULK_LOCATION, 10);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(bulk));
+        LocationDirectiveService service = serviceWithLayout(10.0);
+
+        List<LocationQuery> queries = new ArrayList<>();
+        for (int line = 0; line < 6; line++) {
+            queries.add(new LocationQuery(WorkType.PUT, new SkuCode("SKU00" + line), new Quantity(4)));
+        }
+
+        LocationDirectiveService.BatchLocationSelection selection = service.selectOptimalLocations(queries);
+
+        assertTrue(selection.isFullyAssigned());
+        assertEquals(BinLocation.of("B", "01", "1"), selection.getLocation(0));
+        assertEquals(BinLocation.of("B", "01", "1"), selection.getLocation(1));
+        Map<BinLocation, Integer> linesPerBin = new HashMap<>();
+        selection.getLocations().forEach(location -> linesPerBin.merge(location, 1, Integer::sum));
+        assertTrue(linesPerBin.values().stream().allMatch(lines -> lines <= 2), linesPerBin.toString());
+    }
+
+    @Test
+    void shouldKeepBinsOutsideLayoutExclusiveWithinBatch() {
+        LocationDirective bulk = new LocationDirective("Bulk", "Bulk storage", WorkType.PUT,
+                                                       LocationStrategy.BULK_LOCATION, 10);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(bulk));
+        LocationDirectiveService service = new LocationDirectiveService(repository);
+
+        List<LocationQuery> queries = new ArrayList<>();
+        for (int line = 0; line < 20; line++) {
+            queries.add(new LocationQuery(WorkType.PUT, new SkuCode("SKU" + line), new Quantity(1)));
+        }
+
+        LocationDirectiveService.BatchLocationSelection selection = service.selectOptimalLocations(queries);
+
+        assertTrue(selection.isFullyAssigned());
+        assertEquals(BinLocation.of("B", "01", "1"), selection.getLocation(0));
+        assertEquals(20, new HashSet<>(selection.getLocations()).size());
+    }
+
+    @Test
+    void shouldReportLinesThatCannotBePlaced() {
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest empty", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 10);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(nearest));
+        LocationDirectiveService service = serviceWithLayout(10.0);
+
+        List<LocationQuery> queries = new ArrayList<>();
+        for (int line = 0; line < 10; line++) {
+            queries.add(new LocationQuery(WorkType.PUT, new SkuCode("SKU" + line), new Quantity(1)));
+        }
+
+        LocationDirectiveService.BatchLocationSelection selection = service.selectOptimalLocations(queries);
+
+        assertEquals(8, selection.getAssignedCount());
+        assertFalse(selection.isFullyAssigned());
+        assertEquals(List.of(queries.get(8), queries.get(9)), selection.getUnassignedQueries());
+    }
+
+    private LocationDirectiveService serviceWithLayout(double capacity) {
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (String aisle : List.of("A", "B")) {
+            for (int rack = 1; rack <= 2; rack++) {
+                for (int level = 1; level <= 2; level++) {
+                    records.add(new BinMasterRecord(BinLocation.of(aisle, String.format("%02d", rack),
+                                                                   String.valueOf(level)),
+                                                    "BULK", "STANDARD", capacity, false, null));
+                }
+            }
+        }
+        when(binMasterRepository.findAll()).thenReturn(records);
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+        return new LocationDirectiveService(repository, new LocationDirectivePlanCache(repository), layoutService);
+    }
+}
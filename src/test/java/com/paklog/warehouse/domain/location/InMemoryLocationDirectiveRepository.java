@@ -0,0 +1,130 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.work.WorkType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Repository for benchmarks. Every read returns fresh copies of the stored directives,
+ * mirroring the document-to-domain mapping done by the Mongo adapter.
+ */
+class InMemoryLocationDirectiveRepository implements LocationDirectiveRepository {
+    private final Map<LocationDirectiveId, LocationDirective> directives = new ConcurrentHashMap<>();
+
+    InMemoryLocationDirectiveRepository(List<LocationDirective> initial) {
+        initial.forEach(this::save);
+    }
+
+    @Override
+    public void save(LocationDirective directive) {
+        directives.put(directive.getId(), copyOf(directive));
+    }
+
+    @Override
+    public LocationDirective findById(LocationDirectiveId id) {
+        return findByIdOptional(id)
+            .orElseThrow(() -> new IllegalArgumentException("Location directive not found: " + id));
+    }
+
+    @Override
+    public Optional<LocationDirective> findByIdOptional(LocationDirectiveId id) {
+        return Optional.ofNullable(directives.get(id)).map(InMemoryLocationDirectiveRepository::copyOf);
+    }
+
+    @Override
+    public List<LocationDirective> findByWorkType(WorkType workType) {
+        return find(d -> d.getWorkType() == workType);
+    }
+
+    @Override
+    public List<LocationDirective> findByWorkTypeAndActive(WorkType workType, boolean active) {
+        return find(d -> d.getWorkType() == workType && d.isActive() == active);
+    }
+
+    @Override
+    public List<LocationDirective> findByStrategy(LocationStrategy strategy) {
+        return find(d -> d.getStrategy() == strategy);
+    }
+
+    @Override
+    public List<LocationDirective> findActiveDirectives() {
+        return find(LocationDirective::isActive);
+    }
+
+    @Override
+    public List<LocationDirective> findByPriority(int priority) {
+        return find(d -> d.getPriority() == priority);
+    }
+
+    @Override
+    public List<LocationDirective> findByPriorityRange(int minPriority, int maxPriority) {
+        return find(d -> d.getPriority() >= minPriority && d.getPriority() <= maxPriority);
+    }
+
+    @Override
+    public List<LocationDirective> findActiveDirectivesByStrategy(LocationStrategy strategy) {
+        return find(d -> d.isActive() && d.getStrategy() == strategy);
+    }
+
+    @Override
+    public List<LocationDirective> findByNameContaining(String name) {
+        return find(d -> d.getName().contains(name));
+    }
+
+    @Override
+    public List<LocationDirective> findByCreatedBy(String createdBy) {
+        return find(d -> createdBy.equals(d.getCreatedBy()));
+    }
+
+    @Override
+    public long countByWorkType(WorkType workType) {
+        return findByWorkType(workType).size();
+    }
+
+    @Override
+    public long countByStrategy(LocationStrategy strategy) {
+        return findByStrategy(strategy).size();
+    }
+
+    @Override
+    public long countActiveDirectives() {
+        return findActiveDirectives().size();
+    }
+
+    @Override
+    public long countActiveDirectivesByWorkType(WorkType workType) {
+        return findByWorkTypeAndActive(workType, true).size();
+    }
+
+    @Override
+    public void delete(LocationDirective directive) {
+        directives.remove(directive.getId());
+    }
+
+    @Override
+    public boolean existsById(LocationDirectiveId directiveId) {
+        return directives.containsKey(directiveId);
+    }
+
+    private List<LocationDirective> find(Predicate<LocationDirective> filter) {
+        List<LocationDirective> result = new ArrayList<>();
+        for (LocationDirective directive : directives.values()) {
+            if (filter.test(directive)) {
+                result.add(copyOf(directive));
+            }
+        }
+        return result;
+    }
+
+    private static LocationDirective copyOf(LocationDirective directive) {
+        return new LocationDirective(directive.getId(), directive.getName(), directive.getDescription(),
+            directive.getWorkType(), directive.getStrategy(), new ArrayList<>(directive.getConstraints()),
+            directive.getPriority(), directive.isActive(), directive.getCreatedAt(),
+            directive.getLastModifiedAt(), directive.getCreatedBy(), directive.getVersion());
+    }
+}
@@ -0,0 +1,257 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LocationConstraintCompilerTest {
+
+    private static final String[] OPERATORS = {
+        "equals", "EQ", "not_equals", "ne", "in", "gt", "Greater_Than", "gte", "greater_equal",
+        "lt", "less_than", "lte", "less_equal", "=", "between"
+    };
+    private static final Object[] VALUES = {
+        "BULK", "FAST_PICK", "FAST_PICK,BULK", "STANDARD", "HIGH", "true", "false", "forklift", "scanner",
+        "5", "5.5", "abc", 0, 3, 10, 0.0, 2.5, 7.0, true, -1
+    };
+    private static final Object[] ATTRIBUTE_VALUES = {
+        null, "BULK", "FAST_PICK", "STANDARD", "HIGH", "true", "false", "3", "4.5", "abc", "NaN",
+        0, 3, 12, 1.5, 4.0, 7.0, -0.0, true, false, 5L
+    };
+    private static final String[] ATTRIBUTE_KEYS = {
+        "zone", "available_capacity", "accessibility", "safety_level", "temperature",
+        "hazmat_compatible", "available_inventory", "max_weight", "max_height"
+    };
+
+    private LocationSymbols symbols;
+    private LocationConstraintCompiler compiler;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        symbols = new LocationSymbols();
+        compiler = new LocationConstraintCompiler(symbols);
+        random = new Random(42);
+    }
+
+    // evaluate() compiles against the shared symbol table; the result must not depend on it
+    @Test
+    void shouldMatchEvaluationForRandomConstraintsAndContexts() {
+        List<LocationConstraint> constraints = allConstraintCombinations();
+        List<CompiledConstraint> compiledConstraints = constraints.stream().map(compiler::compile).toList();
+        LocationRecord record = new LocationRecord();
+
+        for (int i = 0; i < 200; i++) {
+            LocationContext context = randomContext();
+            record.loadFrom(context, symbols);
+
+            for (int c = 0; c < constraints.size(); c++) {
+                LocationConstraint constraint = constraints.get(c);
+                CompiledConstraint compiled = compiledConstraints.get(c);
+
+                Outcome expected = outcomeOf(() -> constraint.evaluate(context));
+                assertEquals(expected, outcomeOf(() -> compiled.test(record)),
+                    () -> "compiled " + constraint + " on " + context.getAllAttributes());
+            }
+        }
+    }
+
+    @Test
+    void shouldMatchDirectiveConstraintSatisfaction() {
+        LocationDirective directive = new LocationDirective("Put", "Put away",
+            com.paklog.warehouse.domain.work.WorkType.PUT, LocationStrategy.CAPACITY_OPTIMIZED, 10);
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "BULK"));
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gte", 2.5));
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.HAZMAT_COMPATIBLE, "eq", "false"));
+        CompiledConstraintChain chain = compiler.compile(directive.getConstraints());
+        LocationRecord record = new LocationRecord();
+
+        for (int i = 0; i < 2000; i++) {
+            LocationContext context = randomContext();
+            record.loadFrom(context, symbols);
+
+            assertEquals(directive.satisfiesConstraints(context), chain.test(record));
+            int failure = chain.firstFailure(record);
+            if (failure != CompiledConstraintChain.NO_FAILURE) {
+                assertFalse(chain.getSourceConstraint(failure).evaluate(context));
+            }
+        }
+    }
+
+    @Test
+    void shouldTreatUnknownOperatorsAsUnsatisfied() {
+        LocationConstraint constraint = new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "between", 1.0);
+        LocationRecord record = new LocationRecord().setNumeric(LocationRecord.AVAILABLE_CAPACITY, 5.0);
+
+        assertFalse(compiler.compile(constraint).test(record));
+    }
+
+    @Test
+    void shouldPassConstraintTypesWithoutEvaluation() {
+        LocationConstraint constraint = new LocationConstraint(LocationConstraintType.WEIGHT_RESTRICTION, "lt", 100.0);
+
+        assertTrue(compiler.compile(constraint).test(new LocationRecord()));
+    }
+
+    @Test
+    void shouldAcceptIntegerTemperatureTolerances() {
+        Map<String, Object> integerTolerance = new HashMap<>();
+        integerTolerance.put("tolerance", 2);
+        CompiledConstraint constraint = compiler.compile(
+            new LocationConstraint(LocationConstraintType.TEMPERATURE_RANGE, "eq", 4.0, integerTolerance));
+
+        assertTrue(constraint.test(new LocationRecord().setNumeric(LocationRecord.TEMPERATURE, 6.0)));
+        assertFalse(constraint.test(new LocationRecord().setNumeric(LocationRecord.TEMPERATURE, 6.5)));
+    }
+
+    @Test
+    void shouldEvaluateContextsWithTheCompiledSemantics() {
+        Map<String, Object> integerTolerance = new HashMap<>();
+        integerTolerance.put("tolerance", 2);
+        LocationConstraint constraint =
+            new LocationConstraint(LocationConstraintType.TEMPERATURE_RANGE, "eq", 4.0, integerTolerance);
+
+        assertTrue(constraint.evaluate(new LocationContext(new BinLocation("A", "01", "1"), null,
+                                                           Map.of("temperature", 6.0), Set.of())));
+        assertFalse(constraint.evaluate(new LocationContext(new BinLocation("A", "01", "1"), null,
+                                                            Map.of("temperature", 6.5), Set.of())));
+    }
+
+    @Test
+    void shouldNeverMatchANonNumericTemperatureToleranceInsteadOfFailingToCompile() {
+        Map<String, Object> malformedTolerance = new HashMap<>();
+        malformedTolerance.put("tolerance", "two");
+        CompiledConstraint constraint = compiler.compile(
+            new LocationConstraint(LocationConstraintType.TEMPERATURE_RANGE, "eq", 4.0, malformedTolerance));
+
+        assertSame(CompiledConstraint.NEVER, constraint);
+    }
+
+    @Test
+    void shouldFallBackToContextForEquipmentPastTheBitMask() {
+        for (int i = 0; i < LocationSymbols.MAX_EQUIPMENT_TYPES; i++) {
+            symbols.equipmentBit("equipment-" + i);
+        }
+        CompiledConstraint overflow = compiler.compile(
+            new LocationConstraint(LocationConstraintType.EQUIPMENT_REQUIREMENT, "has", "reach-truck"));
+        CompiledConstraint mapped = compiler.compile(
+            new LocationConstraint(LocationConstraintType.EQUIPMENT_REQUIREMENT, "has", "equipment-3"));
+
+        LocationContext withReachTruck = new LocationContext(new BinLocation("A", "01", "1"), new SkuCode("SKU001"),
+            Map.of(), Set.of("reach-truck", "equipment-3"));
+        LocationContext withoutReachTruck = new LocationContext(new BinLocation("A", "01", "2"), new SkuCode("SKU001"),
+            Map.of(), Set.of("forklift"));
+        LocationRecord record = new LocationRecord();
+
+        assertEquals(LocationSymbols.NO_EQUIPMENT_BIT, symbols.equipmentBit("reach-truck"));
+        assertTrue(overflow.test(record.loadFrom(withReachTruck, symbols)));
+        assertTrue(mapped.test(record));
+        assertFalse(overflow.test(record.loadFrom(withoutReachTruck, symbols)));
+        assertFalse(mapped.test(record));
+        assertFalse(overflow.test(record.clear()));
+    }
+
+    @Test
+    void shouldEvaluateFiftyThousandCandidatesWithoutAllocating() {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported());
+
+        List<LocationConstraint> constraints = List.of(
+            new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "in", "FAST_PICK,BULK"),
+            new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gt", 1.0),
+            new LocationConstraint(LocationConstraintType.ACCESSIBILITY, "equals", "STANDARD"),
+            new LocationConstraint(LocationConstraintType.INVENTORY_AVAILABLE, "gte", 0),
+            new LocationConstraint(LocationConstraintType.EQUIPMENT_REQUIREMENT, "has", "scanner"));
+        CompiledConstraintChain chain = compiler.compile(constraints);
+
+        int candidates = 50_000;
+        int[] zones = {symbols.codeOf("BULK"), symbols.codeOf("FAST_PICK"), symbols.codeOf("COLD")};
+        int standard = symbols.codeOf("STANDARD");
+        long scanner = symbols.equipmentBit("scanner");
+        LocationRecord record = new LocationRecord();
+
+        evaluate(chain, record, candidates, zones, standard, scanner); // warm up
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        int matches = evaluate(chain, record, candidates, zones, standard, scanner);
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before;
+
+        assertTrue(matches > 0);
+        assertTrue(allocated < 4096, "Allocated " + allocated + " bytes for " + candidates + " candidates");
+    }
+
+    private static int evaluate(CompiledConstraintChain chain, LocationRecord record, int candidates,
+                                int[] zones, int standard, long scanner) {
+        int matches = 0;
+        for (int i = 0; i < candidates; i++) {
+            record.clear()
+                .setSymbol(LocationRecord.ZONE, zones[i % zones.length])
+                .setSymbol(LocationRecord.ACCESSIBILITY, standard)
+                .setNumeric(LocationRecord.AVAILABLE_CAPACITY, i % 7)
+                .setInteger(LocationRecord.AVAILABLE_INVENTORY, i % 3)
+                .setEquipmentMask(i % 2 == 0 ? scanner : 0L);
+            if (chain.test(record)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    private List<LocationConstraint> allConstraintCombinations() {
+        List<LocationConstraint> constraints = new ArrayList<>();
+        for (LocationConstraintType type : LocationConstraintType.values()) {
+            for (String operator : OPERATORS) {
+                for (Object value : VALUES) {
+                    constraints.add(new LocationConstraint(type, operator, value));
+                }
+            }
+        }
+        Map<String, Object> tolerance = new HashMap<>();
+        tolerance.put("tolerance", 1.5);
+        constraints.add(new LocationConstraint(LocationConstraintType.TEMPERATURE_RANGE, "eq", 4.0, tolerance));
+        return constraints;
+    }
+
+    private LocationContext randomContext() {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String key : ATTRIBUTE_KEYS) {
+            Object value = ATTRIBUTE_VALUES[random.nextInt(ATTRIBUTE_VALUES.length)];
+            if (value != null) {
+                attributes.put(key, value);
+            }
+        }
+        Set<String> equipment = random.nextBoolean() ? Set.of("scanner", "printer") : Set.of("forklift");
+        return new LocationContext(new BinLocation("A", "01", "1"), new SkuCode("SKU001"), attributes, equipment);
+    }
+
+    private static Outcome outcomeOf(BooleanSupplier evaluation) {
+        try {
+            return evaluation.getAsBoolean() ? Outcome.TRUE : Outcome.FALSE;
+        } catch (NullPointerException e) {
+            return Outcome.NULL_POINTER;
+        } catch (ClassCastException e) {
+            return Outcome.CLASS_CAST;
+        }
+    }
+
+    private enum Outcome {
+        TRUE, FALSE, NULL_POINTER, CLASS_CAST
+    }
+}
@@ -0,0 +1,121 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call repository lookup, sort and selector construction with the
+ * compiled plan cache. The repository copies directives on every read the way the
+ * Mongo adapter maps documents back to the domain, but without network I/O, so the
+ * numbers are a lower bound for the uncached path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationDirectivePlanCacheBenchmark {
+
+    private LocationDirectiveRepository repository;
+    private LocationDirectiveService cachedService;
+    private LocationQuery query;
+    private BinLocation location;
+
+    @Setup
+    public void setUp() {
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest empty", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 50);
+        nearest.addConstraint(new LocationConstraint(LocationConstraintType.ACCESSIBILITY, "equals", "STANDARD"));
+        LocationDirective capacity = new LocationDirective("Capacity", "Capacity optimized", WorkType.PUT,
+                                                           LocationStrategy.CAPACITY_OPTIMIZED, 100);
+        capacity.addConstraint(new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gt", 0.0));
+        LocationDirective random = new LocationDirective("Random", "Fallback", WorkType.PUT,
+                                                         LocationStrategy.RANDOM, 500);
+
+        repository = new InMemoryLocationDirectiveRepository(List.of(random, capacity, nearest));
+        cachedService = new LocationDirectiveService(repository,
+            new LocationDirectivePlanCache(repository, Duration.ofMinutes(5), Clock.systemUTC()));
+
+        java.util.Map<String, Object> parameters = new java.util.HashMap<>();
+        parameters.put("accessibility", "STANDARD");
+        parameters.put("available_capacity", 4.0);
+        query = new LocationQuery(WorkType.PUT, new SkuCode("SKU-1"), new Quantity(2), null, parameters, null);
+        location = new BinLocation("B", "04", "2");
+    }
+
+    @Benchmark
+    public List<LocationDirective> uncachedDirectiveLookup() {
+        return repository.findByWorkTypeAndActive(WorkType.PUT, true).stream()
+            .sorted(Comparator.comparingInt(LocationDirective::getPriority))
+            .toList();
+    }
+
+    @Benchmark
+    public List<LocationDirective> cachedDirectiveLookup() {
+        return cachedService.getApplicableDirectives(WorkType.PUT);
+    }
+
+    @Benchmark
+    public double uncachedEvaluateLocation() {
+        double total = 0;
+        for (LocationDirective directive : uncachedDirectiveLookup()) {
+            total += directive.evaluateForLocation(query, location).getScore();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double cachedEvaluateLocation() {
+        return cachedService.evaluateLocation(query, location).getScore();
+    }
+
+    @Benchmark
+    public BinLocation uncachedSelectLocation() {
+        for (LocationDirective directive : uncachedDirectiveLookup()) {
+            BinLocation selected = directive.selectLocation(query);
+            if (selected != null) {
+                return selected;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public BinLocation cachedSelectLocation() {
+        for (CompiledLocationDirective compiled : cachedService.getDirectivePlan(WorkType.PUT).getCompiledDirectives()) {
+            BinLocation selected = compiled.selectLocation(query);
+            if (selected != null) {
+                return selected;
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(LocationDirectivePlanCacheBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,210 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationDirectivePlanCacheTest {
+
+    @Mock
+    private LocationDirectiveRepository repository;
+
+    private MutableClock clock;
+    private LocationDirectivePlanCache cache;
+    private LocationDirective lowPriority;
+    private LocationDirective highPriority;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T08:00:00Z"));
+        cache = new LocationDirectivePlanCache(repository, Duration.ofSeconds(30), clock);
+
+        lowPriority = new LocationDirective("Nearest", "Nearest empty", WorkType.PUT,
+                                            LocationStrategy.NEAREST_EMPTY, 10);
+        highPriority = new LocationDirective("Bulk", "Bulk storage", WorkType.PUT,
+                                             LocationStrategy.BULK_LOCATION, 200);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true))
+            .thenReturn(List.of(highPriority, lowPriority));
+
+        LocationDirectivePlan first = cache.getPlan(WorkType.PUT);
+        LocationDirectivePlan second = cache.getPlan(WorkType.PUT);
+
+        assertSame(first, second);
+        assertEquals(List.of(lowPriority, highPriority), first.getDirectives());
+        verify(repository, times(1)).findByWorkTypeAndActive(WorkType.PUT, true);
+
+        LocationDirectivePlanCache.CacheStatistics stats = cache.getStatistics();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getRebuilds());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void shouldReuseSelectorInstancesAcrossLookups() {
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(lowPriority));
+
+        LocationSelector first = cache.getPlan(WorkType.PUT).getCompiledDirectives().get(0).getSelector();
+        LocationSelector second = cache.getPlan(WorkType.PUT).getCompiledDirectives().get(0).getSelector();
+
+        assertSame(first, second);
+        assertInstanceOf(NearestEmptyLocationSelector.class, first);
+    }
+
+    @Test
+    void shouldKeepCompiledPlanWhenDirectiveSetIsUnchangedAfterExpiry() {
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(lowPriority));
+
+        LocationDirectivePlan first = cache.getPlan(WorkType.PUT);
+        clock.advance(Duration.ofSeconds(31));
+        LocationDirectivePlan second = cache.getPlan(WorkType.PUT);
+
+        assertSame(first, second);
+        verify(repository, times(2)).findByWorkTypeAndActive(WorkType.PUT, true);
+        assertEquals(1, cache.getStatistics().getRebuilds());
+    }
+
+    @Test
+    void shouldRebuildPlanWhenDirectiveVersionChanges() {
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(lowPriority));
+        LocationDirectivePlan first = cache.getPlan(WorkType.PUT);
+
+        lowPriority.setVersion(2);
+        clock.advance(Duration.ofSeconds(31));
+        LocationDirectivePlan second = cache.getPlan(WorkType.PUT);
+
+        assertNotSame(first, second);
+        assertEquals(2, cache.getStatistics().getRebuilds());
+    }
+
+    @Test
+    void shouldRebuildPlanWhenVersionsMoveBetweenDirectives() {
+        lowPriority.setVersion(1);
+        highPriority.setVersion(2);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(lowPriority, highPriority));
+        LocationDirectivePlan first = cache.getPlan(WorkType.PUT);
+
+        // A summed per-directive hash is the same before and after this change
+        lowPriority.setVersion(2);
+        highPriority.setVersion(1);
+        clock.advance(Duration.ofSeconds(31));
+        LocationDirectivePlan second = cache.getPlan(WorkType.PUT);
+
+        assertNotSame(first, second);
+        assertEquals(2, cache.getStatistics().getRebuilds());
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true))
+            .thenReturn(List.of(lowPriority))
+            .thenReturn(List.of(lowPriority, highPriority));
+
+        assertEquals(1, cache.getPlan(WorkType.PUT).getDirectives().size());
+        cache.invalidate(WorkType.PUT);
+
+        assertEquals(2, cache.getPlan(WorkType.PUT).getDirectives().size());
+        assertEquals(1, cache.getStatistics().getInvalidations());
+    }
+
+    @Test
+    void shouldInvalidatePlanWhenServiceSavesDirective() {
+        LocationDirectiveService service = new LocationDirectiveService(repository, cache);
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true))
+            .thenReturn(List.of(lowPriority))
+            .thenReturn(List.of(lowPriority, highPriority));
+
+        assertEquals(1, service.getApplicableDirectives(WorkType.PUT).size());
+        service.saveDirective(highPriority);
+
+        verify(repository).save(highPriority);
+        assertEquals(2, service.getApplicableDirectives(WorkType.PUT).size());
+    }
+
+    @Test
+    void shouldEvaluateLocationsLikeUncompiledDirective() {
+        highPriority.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "equals", "BULK"));
+        when(repository.findByWorkTypeAndActive(WorkType.PUT, true)).thenReturn(List.of(highPriority));
+        CompiledLocationDirective compiled = cache.getPlan(WorkType.PUT).getCompiledDirectives().get(0);
+
+        BinLocation location = new BinLocation("A", "01", "1");
+        Map<String, Object> bulkZone = new HashMap<>();
+        bulkZone.put("zone", "BULK");
+        LocationQuery matching = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                                   null, bulkZone, null);
+        LocationQuery other = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1));
+
+        assertEquals(highPriority.evaluateForLocation(matching, location),
+                     compiled.evaluateForLocation(matching, location));
+        assertEquals(highPriority.evaluateForLocation(other, location),
+                     compiled.evaluateForLocation(other, location));
+        assertTrue(compiled.evaluateForLocation(other, location).hasConstraintViolations());
+    }
+
+    @Test
+    void shouldCacheEmptyPlans() {
+        when(repository.findByWorkTypeAndActive(WorkType.COUNT, true)).thenReturn(new ArrayList<>());
+
+        assertTrue(cache.getPlan(WorkType.COUNT).isEmpty());
+        assertTrue(cache.getPlan(WorkType.COUNT).isEmpty());
+
+        verify(repository, times(1)).findByWorkTypeAndActive(WorkType.COUNT, true);
+    }
+
+    @Test
+    void shouldRejectNegativeTimeToLive() {
+        assertThrows(IllegalArgumentException.class, () ->
+            new LocationDirectivePlanCache(repository, Duration.ofSeconds(-1), clock));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findBestLocations over 10k layout candidates and three directives: the former
+ * evaluate-every-candidate-and-sort path against the top-K engine, run sequentially
+ * and on fork-join partitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationScoringEngineBenchmark {
+    private static final String[] ZONES = {"FAST_PICK", "MEDIUM_PICK", "BULK", "RESERVE"};
+    private static final int MAX_RESULTS = 20;
+
+    private LocationDirectiveService sequential;
+    private LocationDirectiveService parallel;
+    private LocationQuery query;
+    private LocationQuery layoutQuery;
+
+    @Setup
+    public void setUp() {
+        // Outside Spring logback defaults to DEBUG on the console; keep per-call logging out of the numbers
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Random random = new Random(17);
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 20; aisle++) {
+            for (int rack = 1; rack <= 100; rack++) {
+                for (int level = 1; level <= 5; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of(String.valueOf(aisle), String.format("%02d", rack), String.valueOf(level)),
+                        ZONES[random.nextInt(ZONES.length)], "STANDARD", random.nextInt(12), false, null));
+                }
+            }
+        }
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(new FixedBinMaster(records));
+        layoutService.reload();
+
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest bulk", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 10);
+        nearest.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "in", "BULK,RESERVE"));
+        LocationDirective capacity = new LocationDirective("Capacity", "Roomy bins", WorkType.PUT,
+                                                           LocationStrategy.CAPACITY_OPTIMIZED, 20);
+        capacity.addConstraint(new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gte", 4.0));
+        LocationDirective velocity = new LocationDirective("Velocity", "Fast movers", WorkType.PUT,
+                                                           LocationStrategy.FAST_MOVING, 5);
+        InMemoryLocationDirectiveRepository repository =
+            new InMemoryLocationDirectiveRepository(List.of(nearest, capacity, velocity));
+
+        sequential = new LocationDirectiveService(repository, new LocationDirectivePlanCache(repository),
+                                                  layoutService, new LocationScoringEngine(Integer.MAX_VALUE));
+        parallel = new LocationDirectiveService(repository, new LocationDirectivePlanCache(repository),
+                                                layoutService, new LocationScoringEngine());
+        query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                  null, new HashMap<>(), null);
+        layoutQuery = sequential.attachLayout(query, true);
+    }
+
+    @Benchmark
+    public List<BinLocation> evaluateAndSort() {
+        return layoutQuery.getCandidateLocations().stream()
+            .map(location -> Map.entry(location, sequential.evaluateLocation(layoutQuery, location)))
+            .filter(entry -> entry.getValue().isSuitable())
+            .sorted(Comparator.comparingDouble(entry -> -entry.getValue().getScore()))
+            .limit(MAX_RESULTS)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    @Benchmark
+    public List<BinLocation> topKSequential() {
+        return sequential.findBestLocations(query, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<BinLocation> topKParallel() {
+        return parallel.findBestLocations(query, MAX_RESULTS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(LocationScoringEngineBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private static final class FixedBinMaster implements BinMasterRepository {
+        private final List<BinMasterRecord> records;
+
+        FixedBinMaster(List<BinMasterRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void save(BinMasterRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<BinMasterRecord> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+            return records.stream().filter(record -> record.getLocation().equals(location)).findFirst();
+        }
+
+        @Override
+        public List<BinMasterRecord> findAll() {
+            return records;
+        }
+
+        @Override
+        public long count() {
+            return records.size();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationScoringEngineTest {
+    private static final String[] ZONES = {"FAST_PICK", "MEDIUM_PICK", "BULK", "RESERVE"};
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    private InMemoryLocationDirectiveRepository directiveRepository;
+    private WarehouseLayoutService layoutService;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(11);
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (char aisle = 'A'; aisle <= 'F'; aisle++) {
+            for (int rack = 1; rack <= 100; rack++) {
+                for (int level = 1; level <= 5; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of(String.valueOf(aisle), String.format("%02d", rack), String.valueOf(level)),
+                        ZONES[random.nextInt(ZONES.length)], level <= 2 ? "GROUND" : "LADDER",
+                        random.nextInt(12), random.nextInt(10) == 0, null));
+                }
+            }
+        }
+        lenient().when(binMasterRepository.findAll()).thenReturn(records);
+        layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+
+        LocationDirective nearest = new LocationDirective("Nearest", "Nearest bulk", WorkType.PUT,
+                                                          LocationStrategy.NEAREST_EMPTY, 10);
+        nearest.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "in", "BULK,RESERVE"));
+        LocationDirective capacity = new LocationDirective("Capacity", "Roomy bins", WorkType.PUT,
+                                                           LocationStrategy.CAPACITY_OPTIMIZED, 20);
+        capacity.addConstraint(new LocationConstraint(LocationConstraintType.CAPACITY_REQUIREMENT, "gte", 4.0));
+        capacity.addConstraint(new LocationConstraint(LocationConstraintType.ACCESSIBILITY, "eq", "GROUND"));
+        LocationDirective velocity = new LocationDirective("Velocity", "Fast movers", WorkType.PUT,
+                                                           LocationStrategy.FAST_MOVING, 5);
+        velocity.addConstraint(new LocationConstraint(LocationConstraintType.HAZMAT_COMPATIBLE, "eq", false));
+        directiveRepository = new InMemoryLocationDirectiveRepository(List.of(nearest, capacity, velocity));
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldMatchEvaluateAndSortSequentially() {
+        assertMatchesReference(serviceWith(new LocationScoringEngine(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldMatchEvaluateAndSortOnForkJoinPartitions() {
+        assertMatchesReference(serviceWith(new LocationScoringEngine(pool, 1)));
+    }
+
+    @Test
+    void shouldScoreExplicitCandidatesIncludingBinsOutsideLayout() {
+        LocationDirectiveService service = serviceWith(new LocationScoringEngine(pool, 1));
+        List<BinLocation> candidates = new ArrayList<>();
+        for (int rack = 1; rack <= 120; rack++) {
+            candidates.add(BinLocation.of("C", String.format("%02d", rack), "1"));
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("zone", "BULK");
+        parameters.put("available_capacity", 6.0);
+        parameters.put("accessibility", "GROUND");
+        LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                                null, parameters, candidates);
+
+        assertEquals(reference(service, service.attachLayout(query, true), candidates, 25),
+                     service.findBestLocations(query, 25));
+    }
+
+    @Test
+    void shouldHandleResultLimits() {
+        LocationDirectiveService service = serviceWith(new LocationScoringEngine());
+        LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1));
+
+        assertTrue(service.findBestLocations(query, 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.findBestLocations(query, -1));
+    }
+
+    @Test
+    void shouldKeepBestEntriesInBoundedHeap() {
+        Random random = new Random(5);
+        double[] scores = new double[2000];
+        LocationScoringEngine.TopLocations left = new LocationScoringEngine.TopLocations(10);
+        LocationScoringEngine.TopLocations right = new LocationScoringEngine.TopLocations(10);
+        for (int position = 0; position < scores.length; position++) {
+            scores[position] = random.nextInt(50);
+            (position < 1000 ? left : right).offer(scores[position], position);
+        }
+
+        int[] top = LocationScoringEngine.TopLocations.merge(left, right, 10).sortedPositions();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int position = 0; position < scores.length; position++) {
+            expected.add(position);
+        }
+        expected.sort(Comparator.comparingDouble(position -> -scores[position]));
+        assertArrayEquals(expected.subList(0, 10).stream().mapToInt(Integer::intValue).toArray(), top);
+    }
+
+    private void assertMatchesReference(LocationDirectiveService service) {
+        Random random = new Random(3);
+        for (int round = 0; round < 8; round++) {
+            Map<String, Object> parameters = new HashMap<>();
+            if (random.nextBoolean()) {
+                parameters.put("required_zone", ZONES[random.nextInt(ZONES.length)]);
+            }
+            if (random.nextBoolean()) {
+                parameters.put("minimum_capacity", (double) random.nextInt(8));
+            }
+            LocationQuery query = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                                    null, parameters, null);
+            int maxResults = new int[]{1, 7, 50, 5000}[random.nextInt(4)];
+
+            LocationQuery layoutQuery = service.attachLayout(query, true);
+            List<BinLocation> expected = reference(service, layoutQuery, layoutQuery.getCandidateLocations(),
+                                                   maxResults);
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, service.findBestLocations(query, maxResults), "round " + round);
+        }
+    }
+
+    // The scoring path findBestLocations used before the engine
+    private static List<BinLocation> reference(LocationDirectiveService service, LocationQuery query,
+                                               List<BinLocation> candidates, int maxResults) {
+        return candidates.stream()
+            .map(location -> Map.entry(location, service.evaluateLocation(query, location)))
+            .filter(entry -> entry.getValue().isSuitable())
+            .sorted(Comparator.comparingDouble(entry -> -entry.getValue().getScore()))
+            .limit(maxResults)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private LocationDirectiveService serviceWith(LocationScoringEngine engine) {
+        return new LocationDirectiveService(directiveRepository, new LocationDirectivePlanCache(directiveRepository),
+                                            layoutService, engine);
+    }
+}
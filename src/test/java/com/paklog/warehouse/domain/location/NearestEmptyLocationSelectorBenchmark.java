@@ -0,0 +1,114 @@
+package com.paklog.warehouse.domain.location;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinSpatialIndex;
+import com.paklog.warehouse.domain.layout.LayoutCriteria;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutIndex;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.work.WorkType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NEAREST_EMPTY putaway: the original candidate scan against the spatial index, on
+ * layouts of 10k, 100k and 1M bins. Even levels are occupied in both setups. The scan
+ * compares multi-character aisles by their last character only, so the two paths may
+ * pick different bins; both must find one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NearestEmptyLocationSelectorBenchmark {
+    private static final int RACKS_PER_AISLE = 200;
+    private static final int LEVELS = 5;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bins;
+
+    private NearestEmptyLocationSelector selector;
+    private LocationDirective directive;
+    private LocationQuery scanQuery;
+    private LocationQuery spatialQuery;
+
+    @Setup
+    public void setUp() {
+        int aisles = bins / (RACKS_PER_AISLE * LEVELS);
+        List<BinMasterRecord> records = new ArrayList<>(bins);
+        for (int aisle = 1; aisle <= aisles; aisle++) {
+            String zone = aisle % 4 == 0 ? "BULK" : "FAST_PICK";
+            for (int rack = 1; rack <= RACKS_PER_AISLE; rack++) {
+                for (int level = 1; level <= LEVELS; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of("A" + aisle, String.format("%03d", rack), String.valueOf(level)),
+                        zone, "STANDARD", 10.0, false, null));
+                }
+            }
+        }
+        WarehouseLayoutIndex layout = WarehouseLayoutIndex.build(records, new LocationSymbols(), Instant.now());
+        BinSpatialIndex spatialIndex = new BinSpatialIndex(layout);
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            if (layout.levelAt(ordinal) % 2 == 0) {
+                spatialIndex.markOccupied(ordinal);
+            }
+        }
+
+        selector = new NearestEmptyLocationSelector();
+        directive = new LocationDirective("Nearest bulk", "Nearest empty bulk bin", WorkType.PUT,
+                                          LocationStrategy.NEAREST_EMPTY, 10);
+        directive.addConstraint(new LocationConstraint(LocationConstraintType.ZONE_RESTRICTION, "eq", "BULK"));
+
+        BinLocation reference = BinLocation.of("A" + (aisles / 2 + 1), "100", "1");
+        List<BinLocation> allBins = records.stream().map(BinMasterRecord::getLocation).toList();
+        scanQuery = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                      reference, new HashMap<>(), allBins)
+            .withLayout(layout, null);
+        spatialQuery = new LocationQuery(WorkType.PUT, new SkuCode("SKU001"), new Quantity(1),
+                                         reference, new HashMap<>(), null)
+            .withSpatialIndex(spatialIndex)
+            .withLayout(layout, layout.query(LayoutCriteria.any()));
+
+        if (selector.selectOptimalLocation(scanQuery, directive) == null
+                || selector.selectOptimalLocation(spatialQuery, directive) == null) {
+            throw new IllegalStateException("No empty bulk bin found");
+        }
+    }
+
+    @Benchmark
+    public BinLocation candidateScan() {
+        return selector.selectOptimalLocation(scanQuery, directive);
+    }
+
+    @Benchmark
+    public BinLocation spatialIndex() {
+        return selector.selectOptimalLocation(spatialQuery, directive);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NearestEmptyLocationSelectorBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
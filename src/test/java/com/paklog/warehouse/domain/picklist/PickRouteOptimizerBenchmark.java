@@ -0,0 +1,182 @@
+package com.paklog.warehouse.domain.picklist;
+
+import ch.qos.logback.classic.Level;
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route planning latency per heuristic at 10, 50 and 200 stops on a 30-aisle layout,
+ * against the previous proximity sort. Route lengths of each variant, averaged over
+ * random pick lists, are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PickRouteOptimizerBenchmark {
+    private static final int AISLES = 30;
+    private static final int RACKS = 60;
+    private static final int SAMPLES = 50;
+
+    @Param({"10", "50", "200"})
+    public int stops;
+
+    private PickRouteOptimizer optimizer;
+    private List<PickInstruction> instructions;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= AISLES; aisle++) {
+            for (int rack = 1; rack <= RACKS; rack++) {
+                for (int level = 1; level <= 4; level++) {
+                    records.add(new BinMasterRecord(
+                        BinLocation.of(String.valueOf(aisle), String.format("%02d", rack), String.valueOf(level)),
+                        "FAST_PICK", "STANDARD", 10.0, false, null));
+                }
+            }
+        }
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(new FixedBinMaster(records));
+        layoutService.reload();
+        optimizer = new PickRouteOptimizer(layoutService);
+
+        Random random = new Random(11);
+        double[] totals = new double[RoutingHeuristic.values().length + 2];
+        for (int sample = 0; sample < SAMPLES; sample++) {
+            List<PickInstruction> pickList = randomPickList(random);
+            totals[0] += optimizer.routeLength(proximitySort(pickList));
+            for (RoutingHeuristic heuristic : RoutingHeuristic.values()) {
+                totals[1 + heuristic.ordinal()] += optimizer.planRoute(pickList, heuristic).getRouteLength();
+            }
+            totals[totals.length - 1] += optimizer.planRoute(pickList).getRouteLength();
+            if (sample == 0) {
+                instructions = pickList;
+            }
+        }
+        StringBuilder report = new StringBuilder(String.format("%n%d stops, mean route length: proximity sort %.0f",
+                                                               stops, totals[0] / SAMPLES));
+        for (RoutingHeuristic heuristic : RoutingHeuristic.values()) {
+            report.append(String.format(", %s %.0f", heuristic, totals[1 + heuristic.ordinal()] / SAMPLES));
+        }
+        report.append(String.format(", chosen %.0f (%.1f%% less travel than proximity sort)",
+                                    totals[totals.length - 1] / SAMPLES,
+                                    100.0 * (1 - totals[totals.length - 1] / totals[0])));
+        System.out.println(report);
+    }
+
+    @Benchmark
+    public List<PickInstruction> proximitySort() {
+        return proximitySort(instructions);
+    }
+
+    @Benchmark
+    public PickRoute sShape() {
+        return optimizer.planRoute(instructions, RoutingHeuristic.S_SHAPE);
+    }
+
+    @Benchmark
+    public PickRoute largestGap() {
+        return optimizer.planRoute(instructions, RoutingHeuristic.LARGEST_GAP);
+    }
+
+    @Benchmark
+    public PickRoute nearestNeighborTwoOpt() {
+        return optimizer.planRoute(instructions, RoutingHeuristic.NEAREST_NEIGHBOR_TWO_OPT);
+    }
+
+    @Benchmark
+    public PickRoute planRoute() {
+        return optimizer.planRoute(instructions);
+    }
+
+    // The previous optimizer: Manhattan distance from the origin, numeric aisles only
+    private static List<PickInstruction> proximitySort(List<PickInstruction> instructions) {
+        return instructions.stream()
+            .sorted(Comparator.comparingInt(instruction -> {
+                BinLocation location = instruction.getBinLocation();
+                return Integer.parseInt(location.getAisle()) + Integer.parseInt(location.getRack())
+                    + Integer.parseInt(location.getLevel());
+            }))
+            .toList();
+    }
+
+    private List<PickInstruction> randomPickList(Random random) {
+        List<PickInstruction> pickList = new ArrayList<>(stops);
+        for (int stop = 0; stop < stops; stop++) {
+            pickList.add(new PickInstruction(new SkuCode("SKU" + stop), new Quantity(1), BinLocation.of(
+                String.valueOf(1 + random.nextInt(AISLES)), String.format("%02d", 1 + random.nextInt(RACKS)),
+                String.valueOf(1 + random.nextInt(4)))));
+        }
+        return pickList;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PickRouteOptimizerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private static final class FixedBinMaster implements BinMasterRepository {
+        private final List<BinMasterRecord> records;
+
+        FixedBinMaster(List<BinMasterRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void save(BinMasterRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<BinMasterRecord> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+            return records.stream().filter(record -> record.getLocation().equals(location)).findFirst();
+        }
+
+        @Override
+        public List<BinMasterRecord> findAll() {
+            return records;
+        }
+
+        @Override
+        public long count() {
+            return records.size();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.paklog.warehouse.domain.picklist;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PickRouteOptimizerTest {
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    private final PickRouteOptimizer optimizer = new PickRouteOptimizer();
+
+    @Test
+    void shouldRouteLetterAisles() {
+        PickList pickList = new PickList(OrderId.generate());
+        pickList.addInstruction(instruction("SKU1", "C", "05", "1"));
+        pickList.addInstruction(instruction("SKU2", "A", "03", "2"));
+        pickList.addInstruction(instruction("SKU3", "B", "08", "1"));
+
+        PickRoute route = optimizer.planRoute(pickList);
+
+        assertEquals(3, route.getStopCount());
+        assertEquals(List.of("A", "B", "C"),
+                     route.getInstructions().stream().map(i -> i.getBinLocation().getAisle()).toList());
+        assertTrue(route.getRouteLength() > 0);
+    }
+
+    @Test
+    void shouldPlaceLocationsByTheirOwnCoordinatesWithoutALayout() {
+        BinLocation first = BinLocation.of("A", "R01", "1");
+        BinLocation last = BinLocation.of("A", "R40", "1");
+        BinLocation otherAisle = BinLocation.of("C", "R05", "1");
+        AisleGraph graph = AisleGraph.of(List.of(first, last, otherAisle), 5.0);
+
+        assertEquals(39.0, graph.distance(graph.aisleOf(first), graph.positionOf(first),
+                                          graph.aisleOf(last), graph.positionOf(last)));
+        // Two aisle pitches from A to C, although nothing is picked in B, plus both legs to the front
+        assertEquals(16.0, graph.distance(graph.aisleOf(first), graph.positionOf(first),
+                                          graph.aisleOf(otherAisle), graph.positionOf(otherAisle)));
+    }
+
+    @Test
+    void shouldSkipCompletedInstructions() {
+        PickInstruction done = instruction("SKU1", "A", "01", "1");
+        done.markCompleted();
+        PickList pickList = new PickList(OrderId.generate());
+        pickList.addInstruction(done);
+        pickList.addInstruction(instruction("SKU2", "B", "02", "1"));
+
+        assertEquals(List.of("SKU2"),
+                     optimizer.optimizePickRoute(pickList).stream().map(i -> i.getSku().getValue()).toList());
+    }
+
+    @Test
+    void shouldWalkAislesAlternatelyWithSShape() {
+        List<PickInstruction> instructions = List.of(
+            instruction("SKU1", "2", "09", "1"),
+            instruction("SKU2", "1", "07", "1"),
+            instruction("SKU3", "2", "02", "1"),
+            instruction("SKU4", "1", "01", "1"));
+
+        PickRoute route = optimizer.planRoute(instructions, RoutingHeuristic.S_SHAPE);
+
+        assertEquals(List.of("SKU4", "SKU2", "SKU1", "SKU3"), skus(route));
+        assertEquals(RoutingHeuristic.S_SHAPE, route.getHeuristic());
+    }
+
+    @Test
+    void shouldSplitMiddleAislesAtLargestGap() {
+        when(binMasterRepository.findAll()).thenReturn(grid(3, 20));
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+        PickRouteOptimizer layoutOptimizer = new PickRouteOptimizer(layoutService);
+
+        List<PickInstruction> instructions = List.of(
+            instruction("FIRST", "1", "10", "1"),
+            instruction("MIDDLE_FRONT", "2", "02", "1"),
+            instruction("MIDDLE_BACK", "2", "19", "1"),
+            instruction("LAST", "3", "10", "1"));
+
+        PickRoute route = layoutOptimizer.planRoute(instructions, RoutingHeuristic.LARGEST_GAP);
+
+        // Out along the back cross aisle, back along the front one
+        assertEquals(List.of("FIRST", "MIDDLE_BACK", "LAST", "MIDDLE_FRONT"), skus(route));
+        // Depot at the front of aisle 1, aisles 5 apart, cross aisles at racks 0 and 21
+        assertEquals(10 + (5 + 13) + (5 + 13) + (5 + 12) + (5 + 2), route.getRouteLength(), 1e-9);
+    }
+
+    @Test
+    void shouldNotBeLongerThanProximitySortOrSimpleHeuristics() {
+        when(binMasterRepository.findAll()).thenReturn(grid(20, 40));
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+        PickRouteOptimizer layoutOptimizer = new PickRouteOptimizer(layoutService);
+        Random random = new Random(7);
+
+        for (int round = 0; round < 20; round++) {
+            List<PickInstruction> instructions = new ArrayList<>();
+            for (int stop = 0; stop < 10 + random.nextInt(50); stop++) {
+                instructions.add(instruction("SKU" + stop, String.valueOf(1 + random.nextInt(20)),
+                                             String.format("%02d", 1 + random.nextInt(40)), "1"));
+            }
+            List<PickInstruction> sorted = new ArrayList<>(instructions);
+            sorted.sort((left, right) -> Integer.compare(manhattan(left), manhattan(right)));
+
+            PickRoute route = layoutOptimizer.planRoute(instructions);
+
+            assertEquals(RoutingHeuristic.NEAREST_NEIGHBOR_TWO_OPT, route.getHeuristic());
+            assertEquals(new HashSet<>(instructions), new HashSet<>(route.getInstructions()));
+            assertTrue(route.getRouteLength() <= layoutOptimizer.routeLength(sorted) + 1e-9, "round " + round);
+            assertEquals(route.getRouteLength(), layoutOptimizer.routeLength(route.getInstructions()), 1e-9);
+        }
+    }
+
+    @Test
+    void shouldUseAisleHeuristicsAboveTwoOptLimit() {
+        PickRouteOptimizer limited = new PickRouteOptimizer(null, 5, 5.0);
+        List<PickInstruction> instructions = new ArrayList<>();
+        for (int aisle = 1; aisle <= 4; aisle++) {
+            instructions.add(instruction("SKU" + aisle + "A", "A" + aisle, "02", "1"));
+            instructions.add(instruction("SKU" + aisle + "B", "A" + aisle, "30", "1"));
+        }
+
+        PickRoute route = limited.planRoute(instructions);
+
+        assertNotEquals(RoutingHeuristic.NEAREST_NEIGHBOR_TWO_OPT, route.getHeuristic());
+        assertEquals(Math.min(limited.planRoute(instructions, RoutingHeuristic.S_SHAPE).getRouteLength(),
+                              limited.planRoute(instructions, RoutingHeuristic.LARGEST_GAP).getRouteLength()),
+                     route.getRouteLength(), 1e-9);
+    }
+
+    private static List<BinMasterRecord> grid(int aisles, int racks) {
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= aisles; aisle++) {
+            for (int rack = 1; rack <= racks; rack++) {
+                records.add(new BinMasterRecord(BinLocation.of(String.valueOf(aisle), String.format("%02d", rack), "1"),
+                                                "FAST_PICK", "STANDARD", 10.0, false, null));
+            }
+        }
+        return records;
+    }
+
+    private static int manhattan(PickInstruction instruction) {
+        BinLocation location = instruction.getBinLocation();
+        return Integer.parseInt(location.getAisle()) + Integer.parseInt(location.getRack())
+            + Integer.parseInt(location.getLevel());
+    }
+
+    private static List<String> skus(PickRoute route) {
+        return route.getInstructions().stream().map(instruction -> instruction.getSku().getValue()).toList();
+    }
+
+    private static PickInstruction instruction(String sku, String aisle, String rack, String level) {
+        return new PickInstruction(new SkuCode(sku), new Quantity(1), BinLocation.of(aisle, rack, level));
+    }
+}
@@ -0,0 +1,302 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Four inducts assigning orders to 20 put walls of 50 slots kept 90% occupied, the
+ * oldest order leaving its slot for every one assigned: each induct choosing a wall
+ * itself and trying another when it is full or changed underneath, as callers of the
+ * single-wall assignment must, against the {@link PutWallLoadBalancer} choosing for them.
+ * Each attempt reads the wall's version, waits out a stand-in for the transaction's
+ * round trip and assigns only if the version is unchanged, as the repository's guarded
+ * write does. The attempts made per assigned order are printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class PutWallAssignmentBenchmark {
+
+    private static final int WALLS = 20;
+    private static final int SLOTS = 50;
+    private static final double OCCUPANCY = 0.9;
+    private static final int SKU_RANGE = 200;
+
+    @Param({"0", "500"})
+    private int roundTripMicros;
+
+    private List<PutWall> walls;
+    private PutWallLoadBalancer balancer;
+    private Queue<Occupied> occupied;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder assignments = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<PutWallSlotId> slotIds = IntStream.range(0, SLOTS)
+            .mapToObj(i -> PutWallSlotId.of("S" + i))
+            .toList();
+        walls = new ArrayList<>(WALLS);
+        for (int i = 0; i < WALLS; i++) {
+            walls.add(new PutWall(PutWallId.generate(), slotIds, String.format("%02d-01-1", i)));
+        }
+
+        occupied = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < (int) (WALLS * SLOTS * OCCUPANCY); i++) {
+            PutWall putWall = walls.get(random.nextInt(WALLS));
+            if (putWall.isFull()) {
+                i--;
+                continue;
+            }
+            SkuCode skuCode = SkuCode.of("SKU" + random.nextInt(SKU_RANGE));
+            OrderId orderId = OrderId.generate();
+            PutWallSlotId slotId = putWall.assignOrderToSlot(orderId, Map.of(skuCode, Quantity.of(1))).orElseThrow();
+            putWall.placeItemInSlot(slotId, skuCode, Quantity.of(1));
+            occupied.add(new Occupied(putWall, slotId));
+        }
+        walls.forEach(PutWall::clearDomainEvents);
+
+        balancer = new PutWallLoadBalancer(new WallRepository(walls), Duration.ofHours(1), 1.0, 0.5, 0.5,
+                                           Clock.systemUTC());
+        balancer.refresh();
+        attempts.reset();
+        assignments.reset();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (assignments.sum() > 0) {
+            System.out.printf("%nAttempts per assigned order: %.3f%n", (double) attempts.sum() / assignments.sum());
+        }
+    }
+
+    @Benchmark
+    public PutWallSlotId clientChosenWall() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        OrderId orderId = OrderId.generate();
+        Map<SkuCode, Quantity> requiredItems = nextItems(random);
+        while (true) {
+            PutWall putWall = walls.get(random.nextInt(WALLS));
+            AssignOrderToSlotCommand order = new AssignOrderToSlotCommand(putWall.getPutWallId(), orderId, requiredItems);
+            try {
+                attempts.increment();
+                PutWallSlotId slotId = assign(putWall, order, false);
+                cycle(putWall, slotId, order, false);
+                return slotId;
+            } catch (PutWallException.PutWallCapacityExceededException e) {
+                // Full: the caller tries another wall
+            } catch (PutWallException.PutWallConcurrentModificationException e) {
+                // Lost the race for the wall: the caller tries again
+            }
+        }
+    }
+
+    @Benchmark
+    public PutWallAssignment balancedWall() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        AssignOrderToPutWallCommand order = new AssignOrderToPutWallCommand(OrderId.generate(), nextItems(random));
+        PutWallAssignment assignment = balancer.assign(order, command -> {
+            attempts.increment();
+            return Optional.of(assign(wallOf(command.getPutWallId()), command, true));
+        });
+        PutWall putWall = wallOf(assignment.getPutWallId());
+        cycle(putWall, assignment.getSlotId(),
+              new AssignOrderToSlotCommand(putWall.getPutWallId(), order.getOrderId(), order.getRequiredItems()), true);
+        return assignment;
+    }
+
+    private PutWallSlotId assign(PutWall putWall, AssignOrderToSlotCommand command, boolean balanced) {
+        long version;
+        boolean full;
+        synchronized (putWall) {
+            version = putWall.getVersion();
+            full = putWall.isFull();
+        }
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+        if (full) {
+            throw new PutWallException.PutWallCapacityExceededException();
+        }
+        synchronized (putWall) {
+            if (putWall.getVersion() != version) {
+                throw new PutWallException.PutWallConcurrentModificationException(putWall.getPutWallId());
+            }
+            PutWallSlotId slotId = putWall.assignOrderToSlot(command.getOrderId(), command.getRequiredItems())
+                .orElseThrow();
+            putWall.setVersion(version + 1);
+            publish(putWall, balanced);
+            return slotId;
+        }
+    }
+
+    // Puts the order's item and releases the oldest order, keeping the occupancy steady
+    private void cycle(PutWall putWall, PutWallSlotId slotId, AssignOrderToSlotCommand command, boolean balanced) {
+        assignments.increment();
+        synchronized (putWall) {
+            command.getRequiredItems().forEach((skuCode, quantity) -> putWall.placeItemInSlot(slotId, skuCode, quantity));
+            putWall.setVersion(putWall.getVersion() + 1);
+            publish(putWall, balanced);
+        }
+        occupied.add(new Occupied(putWall, slotId));
+
+        Occupied oldest = occupied.poll();
+        synchronized (oldest.putWall) {
+            oldest.putWall.releaseSlot(oldest.slotId);
+            oldest.putWall.setVersion(oldest.putWall.getVersion() + 1);
+            publish(oldest.putWall, balanced);
+        }
+    }
+
+    // What the synchronous event handler does for the balancer
+    private void publish(PutWall putWall, boolean balanced) {
+        if (balanced) {
+            for (DomainEvent event : putWall.getDomainEvents()) {
+                if (event instanceof OrderAssignedToSlotEvent assigned) {
+                    balancer.orderAssigned(assigned.getPutWallId(), assigned.getOrderId(),
+                                           assigned.getRequiredItems().keySet());
+                } else if (event instanceof OrderConsolidatedInSlotEvent consolidated) {
+                    balancer.orderConsolidated(consolidated.getPutWallId(), consolidated.getOrderId());
+                } else if (event instanceof SlotReleasedEvent released) {
+                    balancer.slotReleased(released.getPutWallId(), released.getReleasedOrderId());
+                }
+            }
+        }
+        putWall.clearDomainEvents();
+    }
+
+    private PutWall wallOf(PutWallId putWallId) {
+        for (PutWall putWall : walls) {
+            if (putWall.getPutWallId().equals(putWallId)) {
+                return putWall;
+            }
+        }
+        throw new PutWallException.PutWallNotFoundException(putWallId);
+    }
+
+    private static Map<SkuCode, Quantity> nextItems(ThreadLocalRandom random) {
+        return Map.of(SkuCode.of("SKU" + random.nextInt(SKU_RANGE)), Quantity.of(1));
+    }
+
+    private static final class Occupied {
+        private final PutWall putWall;
+        private final PutWallSlotId slotId;
+
+        private Occupied(PutWall putWall, PutWallSlotId slotId) {
+            this.putWall = putWall;
+            this.slotId = slotId;
+        }
+    }
+
+    private static final class WallRepository implements PutWallRepository {
+        private final List<PutWall> walls;
+
+        private WallRepository(List<PutWall> walls) {
+            this.walls = walls;
+        }
+
+        @Override
+        public List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity) {
+            List<PutWallCapacity> capacities = new ArrayList<>();
+            for (PutWall putWall : walls) {
+                synchronized (putWall) {
+                    capacities.add(new PutWallCapacity(putWall.getPutWallId(), putWall.getLocation(),
+                                                       putWall.getCapacity(), putWall.getAvailableCapacity()));
+                }
+            }
+            return capacities;
+        }
+
+        @Override
+        public Optional<PutWall> findById(PutWallId putWallId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<PutWall> claim(PutWallId putWallId, String ownerToken) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<PutWall> findByLocation(String location) {
+            return List.of();
+        }
+
+        @Override
+        public List<PutWall> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public void save(PutWall putWall) {
+        }
+
+        @Override
+        public void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+        }
+
+        @Override
+        public void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount,
+                              long sequence, String ownerToken) {
+        }
+
+        @Override
+        public void delete(PutWallId putWallId) {
+        }
+
+        @Override
+        public List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity) {
+            return List.of();
+        }
+
+        @Override
+        public boolean exists(PutWallId putWallId) {
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PutWallAssignmentBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
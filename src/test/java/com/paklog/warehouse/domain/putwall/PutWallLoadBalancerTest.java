@@ -0,0 +1,392 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PutWallLoadBalancerTest {
+
+    private static final SkuCode SKU1 = SkuCode.of("SKU001");
+    private static final SkuCode SKU2 = SkuCode.of("SKU002");
+
+    private Floor floor;
+    private MutableClock clock;
+    private PutWallLoadBalancer balancer;
+
+    @BeforeEach
+    void setUp() {
+        floor = new Floor();
+        clock = new MutableClock(Instant.parse("2026-10-17T08:00:00Z"));
+        balancer = new PutWallLoadBalancer(floor, Duration.ofMinutes(5), 1.0, 0.5, 0.5, clock);
+    }
+
+    @Test
+    void shouldAssignToTheLeastUtilizedWall() {
+        occupy(floor.add("Zone A", 4));
+        PutWall quiet = floor.add("Zone B", 4);
+
+        PutWallAssignment assignment = balancer.assign(order(SKU1), floor::assign);
+
+        assertEquals(quiet.getPutWallId(), assignment.getPutWallId());
+        assertEquals(3, quiet.getAvailableCapacity());
+        assertEquals(3, balancer.freeSlots(quiet.getPutWallId()));
+    }
+
+    @Test
+    void shouldPreferTheWallNearestTheInductPoint() {
+        PutWall far = floor.add("09-01-1", 4);
+        PutWall near = floor.add("02-01-1", 4);
+        PutWall unplaced = floor.add("Zone C", 4);
+
+        PutWallAssignment assignment = balancer.assign(
+            new AssignOrderToPutWallCommand(OrderId.generate(), Map.of(SKU1, Quantity.of(1)), BinLocation.of("01-01-1")),
+            floor::assign);
+
+        assertEquals(near.getPutWallId(), assignment.getPutWallId());
+        assertEquals(4, far.getAvailableCapacity());
+        assertEquals(4, unplaced.getAvailableCapacity());
+    }
+
+    @Test
+    void shouldKeepOrdersSharingSkusOnOneWallUntilConsolidated() {
+        floor.add("Zone A", 10);
+        floor.add("Zone B", 10);
+        PutWallAssignment opened = balancer.assign(order(SKU1), floor::assign);
+
+        PutWallAssignment sharing = balancer.assign(order(SKU1), floor::assign);
+        assertEquals(opened.getPutWallId(), sharing.getPutWallId());
+
+        PutWall wall = floor.get(opened.getPutWallId());
+        floor.place(wall, opened.getSlotId(), SKU1);
+        floor.place(wall, sharing.getSlotId(), SKU1);
+        PutWallAssignment afterwards = balancer.assign(order(SKU1), floor::assign);
+        assertNotEquals(opened.getPutWallId(), afterwards.getPutWallId());
+    }
+
+    @Test
+    void shouldFallBackToTheNextWallWhenTheChosenOneIsFull() {
+        PutWall stale = floor.add("Zone A", 4);
+        PutWall next = floor.add("Zone B", 4);
+        occupy(next);
+        balancer.refresh();
+        // Filled behind the balancer's back, by another instance
+        for (int i = 0; i < 4; i++) {
+            occupy(stale);
+        }
+
+        PutWallAssignment assignment = balancer.assign(order(SKU1), floor::assign);
+
+        assertEquals(next.getPutWallId(), assignment.getPutWallId());
+        assertEquals(0, balancer.freeSlots(stale.getPutWallId()));
+        assertEquals(1, balancer.getStatistics().getFallbacks());
+    }
+
+    @Test
+    void shouldSkipWallsHeldByAnotherInstanceUntilTheNextRefresh() {
+        PutWall elsewhere = floor.add("Zone A", 4);
+        PutWall local = floor.add("Zone B", 4);
+        occupy(local);
+        floor.ownedElsewhere.add(elsewhere.getPutWallId());
+
+        assertEquals(local.getPutWallId(), balancer.assign(order(SKU1), floor::assign).getPutWallId());
+        assertEquals(local.getPutWallId(), balancer.assign(order(SKU1), floor::assign).getPutWallId());
+        assertEquals(1, floor.attempts.get(elsewhere.getPutWallId()).get());
+
+        floor.ownedElsewhere.clear();
+        clock.advance(Duration.ofMinutes(5));
+        assertEquals(elsewhere.getPutWallId(), balancer.assign(order(SKU1), floor::assign).getPutWallId());
+    }
+
+    @Test
+    void shouldRejectOrdersWhenNoWallHasRoom() {
+        PutWall wall = floor.add("Zone A", 1);
+        balancer.assign(order(SKU1), floor::assign);
+
+        assertThrows(PutWallException.PutWallCapacityExceededException.class,
+            () -> balancer.assign(order(SKU1), floor::assign));
+        assertEquals(1, balancer.getStatistics().getRejections());
+        assertEquals(1, floor.refreshes.get());
+
+        // Full walls are re-read at most once a second
+        clock.advance(Duration.ofSeconds(2));
+        PutWallSlotId slotId = wall.getAllSlots().keySet().iterator().next();
+        floor.place(wall, slotId, SKU1);
+        wall.releaseSlot(slotId);
+        wall.clearDomainEvents();
+        assertEquals(wall.getPutWallId(), balancer.assign(order(SKU1), floor::assign).getPutWallId());
+        assertEquals(2, floor.refreshes.get());
+    }
+
+    @Test
+    void shouldCountReleasedSlotsAsFreeAgain() {
+        PutWall wall = floor.add("Zone A", 1);
+        PutWallAssignment assignment = balancer.assign(order(SKU1), floor::assign);
+        assertEquals(0, balancer.freeSlots(wall.getPutWallId()));
+
+        floor.place(wall, assignment.getSlotId(), SKU1);
+        floor.release(wall, assignment.getSlotId());
+
+        assertEquals(1, balancer.freeSlots(wall.getPutWallId()));
+        assertEquals(wall.getPutWallId(), balancer.assign(order(SKU1), floor::assign).getPutWallId());
+        assertEquals(1, floor.refreshes.get());
+    }
+
+    @Test
+    void shouldPassOverAWallBeingAssignedTo() throws Exception {
+        PutWall best = floor.add("Zone A", 10);
+        PutWall other = floor.add("Zone B", 4);
+        occupy(other);
+        CountDownLatch assigning = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<PutWallAssignment> slow = executor.submit(() -> balancer.assign(order(SKU1), command -> {
+                assigning.countDown();
+                await(proceed);
+                return floor.assign(command);
+            }));
+            assertTrue(assigning.await(5, TimeUnit.SECONDS));
+
+            assertEquals(other.getPutWallId(), balancer.assign(order(SKU2), floor::assign).getPutWallId());
+
+            proceed.countDown();
+            assertEquals(best.getPutWallId(), slow.get(5, TimeUnit.SECONDS).getPutWallId());
+        } finally {
+            proceed.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldFillEveryWallExactlyUnderConcurrentInducts() throws Exception {
+        int walls = 5;
+        int slots = 20;
+        for (int i = 0; i < walls; i++) {
+            floor.add("Zone " + i, slots);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<PutWallAssignment>> inducts = new ArrayList<>();
+            for (int i = 0; i < walls * slots; i++) {
+                SkuCode skuCode = SkuCode.of("SKU" + (i % 7));
+                inducts.add(executor.submit(() -> {
+                    await(start);
+                    return balancer.assign(order(skuCode), floor::assign);
+                }));
+            }
+            start.countDown();
+
+            Set<PutWallAssignment> assignments = ConcurrentHashMap.newKeySet();
+            for (Future<PutWallAssignment> induct : inducts) {
+                assignments.add(induct.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(walls * slots, assignments.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (PutWall wall : floor.walls.values()) {
+            assertTrue(wall.isFull());
+            assertEquals(0, balancer.freeSlots(wall.getPutWallId()));
+        }
+        assertEquals(walls * slots, balancer.getStatistics().getAssignments());
+        assertThrows(PutWallException.PutWallCapacityExceededException.class,
+            () -> balancer.assign(order(SKU1), floor::assign));
+    }
+
+    private static AssignOrderToPutWallCommand order(SkuCode skuCode) {
+        return new AssignOrderToPutWallCommand(OrderId.generate(), Map.of(skuCode, Quantity.of(1)));
+    }
+
+    // Takes a slot without the balancer hearing of it
+    private static void occupy(PutWall putWall) {
+        putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU2, Quantity.of(1)));
+        putWall.clearDomainEvents();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Put walls held in memory, publishing their events straight to the balancer as the
+     * synchronous event handler does.
+     */
+    private final class Floor implements PutWallRepository {
+        private final Map<PutWallId, PutWall> walls = new ConcurrentHashMap<>();
+        private final Set<PutWallId> ownedElsewhere = ConcurrentHashMap.newKeySet();
+        private final Map<PutWallId, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        PutWall add(String location, int slots) {
+            List<PutWallSlotId> slotIds = IntStream.range(0, slots)
+                .mapToObj(i -> PutWallSlotId.of("S" + i))
+                .toList();
+            PutWall putWall = new PutWall(PutWallId.generate(), slotIds, location);
+            walls.put(putWall.getPutWallId(), putWall);
+            return putWall;
+        }
+
+        PutWall get(PutWallId putWallId) {
+            return walls.get(putWallId);
+        }
+
+        Optional<PutWallSlotId> assign(AssignOrderToSlotCommand command) {
+            attempts.computeIfAbsent(command.getPutWallId(), id -> new AtomicInteger()).incrementAndGet();
+            if (ownedElsewhere.contains(command.getPutWallId())) {
+                throw new PutWallException.PutWallOwnedElsewhereException(command.getPutWallId());
+            }
+            // Only ever called with the wall's balancer lock held
+            PutWall putWall = walls.get(command.getPutWallId());
+            Optional<PutWallSlotId> slotId = putWall.assignOrderToSlot(command.getOrderId(), command.getRequiredItems());
+            publish(putWall);
+            return slotId;
+        }
+
+        void place(PutWall putWall, PutWallSlotId slotId, SkuCode skuCode) {
+            putWall.placeItemInSlot(slotId, skuCode, Quantity.of(1));
+            publish(putWall);
+        }
+
+        void release(PutWall putWall, PutWallSlotId slotId) {
+            putWall.releaseSlot(slotId);
+            publish(putWall);
+        }
+
+        private void publish(PutWall putWall) {
+            for (DomainEvent event : putWall.getDomainEvents()) {
+                if (event instanceof OrderAssignedToSlotEvent assigned) {
+                    balancer.orderAssigned(assigned.getPutWallId(), assigned.getOrderId(),
+                                           assigned.getRequiredItems().keySet());
+                } else if (event instanceof OrderConsolidatedInSlotEvent consolidated) {
+                    balancer.orderConsolidated(consolidated.getPutWallId(), consolidated.getOrderId());
+                } else if (event instanceof SlotReleasedEvent released) {
+                    balancer.slotReleased(released.getPutWallId(), released.getReleasedOrderId());
+                }
+            }
+            putWall.clearDomainEvents();
+        }
+
+        @Override
+        public List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity) {
+            refreshes.incrementAndGet();
+            return walls.values().stream()
+                .map(wall -> new PutWallCapacity(wall.getPutWallId(), wall.getLocation(), wall.getCapacity(),
+                                                 wall.getAvailableCapacity()))
+                .filter(capacity -> capacity.getAvailableCapacity() > minCapacity)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public Optional<PutWall> findById(PutWallId putWallId) {
+            return Optional.ofNullable(walls.get(putWallId));
+        }
+
+        @Override
+        public Optional<PutWall> claim(PutWallId putWallId, String ownerToken) {
+            return findById(putWallId);
+        }
+
+        @Override
+        public List<PutWall> findByLocation(String location) {
+            return walls.values().stream()
+                .filter(wall -> wall.getLocation().equals(location))
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<PutWall> findAll() {
+            return new ArrayList<>(walls.values());
+        }
+
+        @Override
+        public void save(PutWall putWall) {
+            walls.put(putWall.getPutWallId(), putWall);
+        }
+
+        @Override
+        public void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+        }
+
+        @Override
+        public void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount,
+                              long sequence, String ownerToken) {
+        }
+
+        @Override
+        public void delete(PutWallId putWallId) {
+            walls.remove(putWallId);
+        }
+
+        @Override
+        public List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity) {
+            return walls.values().stream()
+                .filter(wall -> wall.getAvailableCapacity() > minCapacity)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean exists(PutWallId putWallId) {
+            return walls.containsKey(putWallId);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.paklog.warehouse.domain.putwall;
+
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Sortation lookups on a 500-slot wall with 450 orders in progress, through the slot
+ * indexes of {@link PutWall} and through the stream over a copy of every slot that
+ * {@link PutWallService} used before them. The {@code stream} methods reproduce that
+ * earlier code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PutWallSortationBenchmark {
+
+    private static final int SLOTS = 500;
+    private static final int ORDERS = 450;
+    private static final int SKUS_PER_ORDER = 4;
+    private static final int SKU_RANGE = 2_000;
+    private static final int SCANS = 1_024;
+
+    private final PutWallService putWallService = new PutWallService();
+    private PutWall putWall;
+    private SkuCode[] scannedSkus;
+    private OrderId[] orders;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<PutWallSlotId> slotIds = IntStream.range(0, SLOTS)
+            .mapToObj(i -> PutWallSlotId.of("S" + i))
+            .toList();
+        putWall = new PutWall(PutWallId.generate(), slotIds, "Benchmark Zone");
+
+        List<SkuCode> requiredSkus = new ArrayList<>();
+        orders = new OrderId[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            Map<SkuCode, Quantity> requiredItems = new HashMap<>();
+            while (requiredItems.size() < SKUS_PER_ORDER) {
+                requiredItems.put(SkuCode.of("SKU" + random.nextInt(SKU_RANGE)), Quantity.of(1 + random.nextInt(3)));
+            }
+            orders[i] = OrderId.generate();
+            putWall.assignOrderToSlot(orders[i], requiredItems);
+            requiredSkus.addAll(requiredItems.keySet());
+        }
+        putWall.clearDomainEvents();
+
+        scannedSkus = new SkuCode[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            scannedSkus[i] = requiredSkus.get(random.nextInt(requiredSkus.size()));
+        }
+    }
+
+    @Benchmark
+    public PutWallService.SortationResult indexedSortation() {
+        return putWallService.determineSortationTarget(putWall, nextSku());
+    }
+
+    @Benchmark
+    public PutWallService.SortationResult streamSortation() {
+        SkuCode scannedSku = nextSku();
+        Optional<PutWallSlotId> targetSlot = putWall.getAllSlots().entrySet().stream()
+            .filter(entry -> {
+                PutWallSlot slot = entry.getValue();
+                return slot.getStatus() == PutWallSlotStatus.IN_PROGRESS &&
+                       slot.getItemsRequired().containsKey(scannedSku) &&
+                       !isSkuCompleteForSlot(slot, scannedSku);
+            })
+            .map(Map.Entry::getKey)
+            .findFirst();
+
+        if (targetSlot.isPresent()) {
+            PutWallSlot slot = putWall.getSlotById(targetSlot.get());
+            Quantity required = slot.getItemsRequired().get(scannedSku);
+            Quantity placed = slot.getItemsPlaced().getOrDefault(scannedSku, Quantity.of(0));
+            return PutWallService.SortationResult.found(targetSlot.get(), slot.getAssignedOrderId(),
+                                                        required.subtract(placed));
+        }
+        return PutWallService.SortationResult.notFound("No active slot requires SKU: " + scannedSku);
+    }
+
+    @Benchmark
+    public Optional<PutWallSlotId> indexedSlotForOrder() {
+        return putWall.findSlotForOrder(nextOrder());
+    }
+
+    @Benchmark
+    public Optional<PutWallSlotId> streamSlotForOrder() {
+        OrderId orderId = nextOrder();
+        return putWall.getAllSlots().values().stream()
+            .filter(slot -> orderId.equals(slot.getAssignedOrderId()))
+            .map(PutWallSlot::getSlotId)
+            .findFirst();
+    }
+
+    @Benchmark
+    public int indexedAvailableCapacity() {
+        return putWall.getAvailableCapacity();
+    }
+
+    @Benchmark
+    public int streamAvailableCapacity() {
+        return (int) putWall.getAllSlots().values().stream()
+            .filter(PutWallSlot::isFree)
+            .count();
+    }
+
+    private static boolean isSkuCompleteForSlot(PutWallSlot slot, SkuCode skuCode) {
+        Quantity required = slot.getItemsRequired().get(skuCode);
+        Quantity placed = slot.getItemsPlaced().getOrDefault(skuCode, Quantity.of(0));
+        return placed.getValue() >= required.getValue();
+    }
+
+    private SkuCode nextSku() {
+        return scannedSkus[next++ & (SCANS - 1)];
+    }
+
+    private OrderId nextOrder() {
+        return orders[next++ % ORDERS];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PutWallSortationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -156,6 +156,76 @@ class PutWallTest {
         assertEquals(assignedSlot.get(), foundSlot.get());
     }
 
+    @Test
+    void shouldAssignFreeSlotsInWallOrderAndReuseReleasedSlotsLast() {
+        SkuCode skuCode = SkuCode.of("SKU001");
+        Map<SkuCode, Quantity> requiredItems = Map.of(skuCode, Quantity.of(1));
+
+        PutWallSlotId first = putWall.assignOrderToSlot(OrderId.generate(), requiredItems).orElseThrow();
+        assertEquals(PutWallSlotId.of("A1"), first);
+        assertEquals(List.of(PutWallSlotId.of("A2"), PutWallSlotId.of("A3")), putWall.getFreeSlots());
+
+        putWall.placeItemInSlot(first, skuCode, Quantity.of(1));
+        putWall.releaseSlot(first);
+
+        assertEquals(List.of(PutWallSlotId.of("A2"), PutWallSlotId.of("A3"), PutWallSlotId.of("A1")),
+                     putWall.getFreeSlots());
+        assertEquals(PutWallSlotId.of("A2"), putWall.assignOrderToSlot(OrderId.generate(), requiredItems).orElseThrow());
+    }
+
+    @Test
+    void shouldFindSlotForSkuUntilItsQuantityIsPlaced() {
+        SkuCode sharedSku = SkuCode.of("SKU001");
+        SkuCode otherSku = SkuCode.of("SKU002");
+        OrderId firstOrder = OrderId.generate();
+        OrderId secondOrder = OrderId.generate();
+
+        PutWallSlotId firstSlot = putWall.assignOrderToSlot(firstOrder,
+            Map.of(sharedSku, Quantity.of(2), otherSku, Quantity.of(1))).orElseThrow();
+        PutWallSlotId secondSlot = putWall.assignOrderToSlot(secondOrder,
+            Map.of(sharedSku, Quantity.of(1))).orElseThrow();
+
+        assertEquals(firstSlot, putWall.findSlotForSku(sharedSku).orElseThrow().getSlotId());
+
+        putWall.placeItemInSlot(firstSlot, sharedSku, Quantity.of(1));
+        assertEquals(firstSlot, putWall.findSlotForSku(sharedSku).orElseThrow().getSlotId());
+
+        putWall.placeItemInSlot(firstSlot, sharedSku, Quantity.of(1));
+        assertEquals(secondSlot, putWall.findSlotForSku(sharedSku).orElseThrow().getSlotId());
+
+        putWall.placeItemInSlot(secondSlot, sharedSku, Quantity.of(1));
+        assertTrue(putWall.findSlotForSku(sharedSku).isEmpty());
+        assertEquals(firstSlot, putWall.findSlotForSku(otherSku).orElseThrow().getSlotId());
+        assertTrue(putWall.findSlotForSku(SkuCode.of("SKU999")).isEmpty());
+    }
+
+    @Test
+    void shouldForgetOrderOnceItsSlotIsReleased() {
+        OrderId orderId = OrderId.generate();
+        SkuCode skuCode = SkuCode.of("SKU001");
+
+        PutWallSlotId slotId = putWall.assignOrderToSlot(orderId, Map.of(skuCode, Quantity.of(1))).orElseThrow();
+        putWall.placeItemInSlot(slotId, skuCode, Quantity.of(1));
+        putWall.releaseSlot(slotId);
+
+        assertTrue(putWall.findSlotForOrder(orderId).isEmpty());
+        assertTrue(putWall.findSlotForSku(skuCode).isEmpty());
+    }
+
+    @Test
+    void shouldAssignOrderToGivenSlot() {
+        OrderId orderId = OrderId.generate();
+        SkuCode skuCode = SkuCode.of("SKU001");
+
+        putWall.assignOrderToSlot(PutWallSlotId.of("A3"), orderId, Map.of(skuCode, Quantity.of(1)));
+
+        assertEquals(Optional.of(PutWallSlotId.of("A3")), putWall.findSlotForOrder(orderId));
+        assertEquals(List.of(PutWallSlotId.of("A1"), PutWallSlotId.of("A2")), putWall.getFreeSlots());
+        assertEquals(PutWallSlotId.of("A3"), putWall.findSlotForSku(skuCode).orElseThrow().getSlotId());
+        assertThrows(IllegalStateException.class, () ->
+            putWall.assignOrderToSlot(PutWallSlotId.of("A3"), OrderId.generate(), Map.of(skuCode, Quantity.of(1))));
+    }
+
     @Test
     void shouldGetReadyForPackSlots() {
         // Initially no slots ready for pack
@@ -0,0 +1,94 @@
+package com.paklog.warehouse.domain.shared;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and Manhattan distance over 1,000 bins: packed coordinates and the interning
+ * factory against the former split and parseInt code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinLocationBenchmark {
+    private static final int BINS = 1_000;
+
+    private String[] addresses;
+    private BinLocation[] locations;
+    private BinLocation reference;
+
+    @Setup
+    public void setUp() {
+        addresses = new String[BINS];
+        locations = new BinLocation[BINS];
+        for (int i = 0; i < BINS; i++) {
+            addresses[i] = (1 + i % 20) + "-" + String.format("%02d", 1 + i / 20) + "-" + (1 + i % 4);
+            locations[i] = new BinLocation(String.valueOf(1 + i % 20), String.format("%02d", 1 + i / 20),
+                                           String.valueOf(1 + i % 4));
+        }
+        reference = new BinLocation("10", "25", "2");
+    }
+
+    @Benchmark
+    public int parseSplit() {
+        int hash = 0;
+        for (String address : addresses) {
+            String[] parts = address.split("-");
+            hash += new BinLocation(parts[0], parts[1], parts[2]).hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int parseInterned() {
+        int hash = 0;
+        for (String address : addresses) {
+            hash += BinLocation.of(address).hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public long distanceParseInt() {
+        long total = 0;
+        for (BinLocation location : locations) {
+            total += Math.abs(Integer.parseInt(reference.getAisle()) - Integer.parseInt(location.getAisle())) * 10
+                + Math.abs(Integer.parseInt(reference.getRack()) - Integer.parseInt(location.getRack()))
+                + Math.abs(Integer.parseInt(reference.getLevel()) - Integer.parseInt(location.getLevel())) * 2;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long distancePacked() {
+        long total = 0;
+        for (BinLocation location : locations) {
+            total += Math.abs(reference.aisleCoordinate() - location.aisleCoordinate()) * 10
+                + Math.abs(reference.rackCoordinate() - location.rackCoordinate())
+                + Math.abs(reference.levelCoordinate() - location.levelCoordinate()) * 2;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BinLocationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.paklog.warehouse.domain.shared;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Bin Location Domain Tests")
+class BinLocationTest {
+
+    @Nested
+    @DisplayName("Bin Location Parsing")
+    class BinLocationParsing {
+        @Test
+        @DisplayName("Should parse Aisle-Rack-Level format")
+        void shouldParseLocation() {
+            BinLocation location = BinLocation.of("A1-B2-C3");
+
+            assertThat(location.getAisle()).isEqualTo("A1");
+            assertThat(location.getRack()).isEqualTo("B2");
+            assertThat(location.getLevel()).isEqualTo("C3");
+            assertThat(location.getLocation()).isEqualTo("A1-B2-C3");
+        }
+
+        @Test
+        @DisplayName("Should reject locations without exactly three segments")
+        void shouldRejectInvalidFormat() {
+            for (String invalid : List.of("A1", "A1-B2", "A1-B2-C3-D4", "A1-B2-")) {
+                assertThatThrownBy(() -> BinLocation.of(invalid))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid bin location format");
+            }
+        }
+
+        @Test
+        @DisplayName("Should return pooled instances from the factories")
+        void shouldInternLocations() {
+            BinLocation parsed = BinLocation.of("A-07-2");
+
+            assertThat(BinLocation.of("A", "07", "2")).isSameAs(parsed);
+            assertThat(BinLocation.intern(new BinLocation("A", "07", "2"))).isSameAs(parsed);
+            assertThat(new BinLocation("A", "07", "2")).isEqualTo(parsed).hasSameHashCodeAs(parsed);
+        }
+    }
+
+    @Nested
+    @DisplayName("Packed Coordinates")
+    class PackedCoordinates {
+        @Test
+        @DisplayName("Should decode numeric and lettered segments")
+        void shouldDecodeCoordinates() {
+            BinLocation numeric = BinLocation.of("12", "045", "3");
+            BinLocation lettered = BinLocation.of("C", "B02", "L03");
+
+            assertThat(numeric.aisleCoordinate()).isEqualTo(12);
+            assertThat(numeric.rackCoordinate()).isEqualTo(45);
+            assertThat(numeric.levelCoordinate()).isEqualTo(3);
+            assertThat(lettered.aisleCoordinate()).isEqualTo(3);
+            assertThat(lettered.rackCoordinate()).isEqualTo(2);
+            assertThat(lettered.levelCoordinate()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should order by aisle, rack and level")
+        void shouldOrderByCoordinates() {
+            List<BinLocation> locations = new ArrayList<>(List.of(
+                BinLocation.of("2", "01", "1"),
+                BinLocation.of("10", "01", "1"),
+                BinLocation.of("2", "10", "1"),
+                BinLocation.of("2", "9", "2"),
+                BinLocation.of("2", "9", "1"),
+                BinLocation.of("WIDE_AISLE", "1", "1")));
+            Collections.shuffle(locations);
+
+            Collections.sort(locations);
+
+            assertThat(locations).extracting(BinLocation::toString).containsExactly(
+                "2-01-1", "2-9-1", "2-9-2", "2-10-1", "10-01-1", "WIDE_AISLE-1-1");
+        }
+
+        @Test
+        @DisplayName("Should treat unencodable segments as coordinate zero")
+        void shouldTolerateUnencodableSegments() {
+            BinLocation location = BinLocation.of("MEZZ", "99999", "1");
+
+            assertThat(location.aisleCoordinate()).isZero();
+            assertThat(location.rackCoordinate()).isZero();
+            assertThat(location.levelCoordinate()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should persist only the textual segments")
+        void shouldNotPersistDerivedState() {
+            MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+            converter.afterPropertiesSet();
+            BinLocation location = BinLocation.of("A3", "04", "2");
+            location.hashCode();
+
+            Document document = new Document();
+            converter.write(location, document);
+            BinLocation read = converter.read(BinLocation.class, document);
+
+            assertThat(document.keySet()).containsOnly("aisle", "rack", "level", "_class");
+            assertThat(read).isEqualTo(location);
+            assertThat(read.coordinateKey()).isEqualTo(location.coordinateKey());
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.paklog.warehouse.domain.wave;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.WaveReleasedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaveReleaseSchedulerTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T08:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final InMemoryWaveRepository repository = new InMemoryWaveRepository();
+    private final Queue<DomainEvent> events = new ConcurrentLinkedQueue<>();
+    private WaveReleaseScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void shouldReleaseAtCutoffMinusEstimatedPickDuration() {
+        scheduler = scheduler(clock);
+        // 10 + 1 * 2 minutes of picking before a 60 minute cutoff
+        Wave small = planned(1, Duration.ofMinutes(60));
+        // 10 + 5 * 2 minutes of picking before a 65 minute cutoff
+        Wave large = planned(5, Duration.ofMinutes(65));
+        scheduler.rebuild();
+
+        assertEquals(Optional.of(START.plus(Duration.ofMinutes(45))), scheduler.getReleaseTime(large.getId()));
+        clock.advance(Duration.ofMinutes(45));
+        assertEquals(1, scheduler.releaseDue());
+        assertEquals(WaveStatus.RELEASED, repository.findById(large.getId()).orElseThrow().getStatus());
+        assertEquals(WaveStatus.PLANNED, repository.findById(small.getId()).orElseThrow().getStatus());
+
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals(1, scheduler.releaseDue());
+        assertEquals(2, events.stream().filter(WaveReleasedEvent.class::isInstance).count());
+        assertEquals(0, scheduler.getPendingCount());
+
+        WaveReleaseScheduler.Statistics statistics = scheduler.getStatistics();
+        assertEquals(2, statistics.getReleasedWaves());
+        assertEquals(Duration.ofMinutes(1).toMillis(), statistics.getMaxLagMillis());
+        assertEquals(Duration.ofMinutes(1).toMillis(), statistics.getLastLagMillis());
+    }
+
+    @Test
+    void shouldScheduleOnlyPlannedWavesWithCutoff() {
+        scheduler = scheduler(clock);
+        planned(1, Duration.ofHours(2));
+        Wave released = planned(1, Duration.ofHours(2));
+        released.release();
+        repository.save(released);
+        Wave noCutoff = new Wave(List.of(OrderId.generate()));
+        repository.save(noCutoff);
+
+        assertEquals(1, scheduler.rebuild());
+        assertFalse(scheduler.schedule(noCutoff));
+    }
+
+    @Test
+    void shouldSkipWavesReleasedOrCancelledSinceScheduling() {
+        scheduler = scheduler(clock);
+        Wave releasedElsewhere = planned(1, Duration.ofMinutes(30));
+        Wave cancelled = planned(1, Duration.ofMinutes(30));
+        Wave rescheduled = planned(1, Duration.ofMinutes(30));
+        scheduler.rebuild();
+
+        releasedElsewhere.release();
+        repository.save(releasedElsewhere);
+        assertTrue(scheduler.cancel(cancelled.getId()));
+        rescheduled.setCutoffTime(START.plus(Duration.ofHours(3)));
+        repository.save(rescheduled);
+        scheduler.schedule(rescheduled);
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(0, scheduler.releaseDue());
+        assertEquals(1, scheduler.getStatistics().getSkippedReleases());
+        assertEquals(1, scheduler.getPendingCount());
+        assertEquals(WaveStatus.PLANNED, repository.findById(cancelled.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldReleaseAWaveScheduledOnTwoInstancesOnlyOnce() {
+        scheduler = scheduler(clock);
+        WaveReleaseScheduler replica = scheduler(clock);
+        Wave wave = planned(1, Duration.ofMinutes(30));
+        scheduler.rebuild();
+        replica.rebuild();
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(1, scheduler.releaseDue());
+        assertEquals(0, replica.releaseDue());
+
+        assertEquals(WaveStatus.RELEASED, repository.findById(wave.getId()).orElseThrow().getStatus());
+        assertEquals(1, events.stream().filter(WaveReleasedEvent.class::isInstance).count());
+        assertEquals(1, replica.getStatistics().getSkippedReleases());
+    }
+
+    @Test
+    void shouldReleaseOverdueWavesImmediatelyAndReportLag() {
+        scheduler = scheduler(clock);
+        planned(1, Duration.ofMinutes(2));
+        scheduler.rebuild();
+
+        assertEquals(1, scheduler.releaseDue());
+        assertEquals(Duration.ofMinutes(10).toMillis(), scheduler.getStatistics().getLastLagMillis());
+    }
+
+    @Test
+    void shouldWakeUpForTheEarliestReleaseWithoutPolling() throws InterruptedException {
+        scheduler = scheduler(Clock.systemUTC());
+        scheduler.start();
+        Instant now = Instant.now();
+        // Due in about 200 ms; the later wave is scheduled first and must not hold it back
+        Wave later = new Wave(WaveId.generate(), List.of(OrderId.generate()), now,
+                              now.plus(Duration.ofMinutes(13)), null, "STANDARD", 10);
+        Wave sooner = new Wave(WaveId.generate(), List.of(OrderId.generate()), now,
+                               now.plus(Duration.ofMinutes(12)).plusMillis(200), null, "STANDARD", 10);
+        repository.save(later);
+        repository.save(sooner);
+        scheduler.schedule(later);
+        scheduler.schedule(sooner);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (scheduler.getStatistics().getReleasedWaves() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(WaveStatus.RELEASED, repository.findById(sooner.getId()).orElseThrow().getStatus());
+        assertEquals(WaveStatus.PLANNED, repository.findById(later.getId()).orElseThrow().getStatus());
+        assertTrue(scheduler.getStatistics().getMaxLagMillis() < 1_000,
+                   "lag " + scheduler.getStatistics().getMaxLagMillis());
+    }
+
+    @Test
+    void shouldRollBackAndRetryAReleaseWhoseEventsCannotBeRecorded() {
+        AtomicInteger outboxFailures = new AtomicInteger(2);
+        scheduler = transactional(event -> {
+            if (outboxFailures.getAndDecrement() > 0) {
+                throw new IllegalStateException("outbox unavailable");
+            }
+            events.add(event);
+        }, clock);
+        Wave wave = planned(1, Duration.ofMinutes(12));
+        scheduler.rebuild();
+
+        assertEquals(0, scheduler.releaseDue());
+        assertEquals(WaveStatus.PLANNED, repository.findById(wave.getId()).orElseThrow().getStatus());
+        assertEquals(Optional.of(START.plusSeconds(5)), scheduler.getReleaseTime(wave.getId()));
+
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals(0, scheduler.releaseDue());
+        // The second failure doubles the backoff
+        assertEquals(Optional.of(START.plusSeconds(15)), scheduler.getReleaseTime(wave.getId()));
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(1, scheduler.releaseDue());
+        assertEquals(WaveStatus.RELEASED, repository.findById(wave.getId()).orElseThrow().getStatus());
+        assertEquals(1, events.stream().filter(WaveReleasedEvent.class::isInstance).count());
+        assertEquals(2, scheduler.getStatistics().getFailedReleases());
+        // Lag is measured from the original target, not from the retry
+        assertEquals(Duration.ofSeconds(15).toMillis(), scheduler.getStatistics().getLastLagMillis());
+    }
+
+    @Test
+    void shouldKeepRetryBackoffsAndPickUpWavesPlannedElsewhereOnRebuild() {
+        AtomicInteger outboxFailures = new AtomicInteger(1);
+        scheduler = transactional(event -> {
+            if (outboxFailures.getAndDecrement() > 0) {
+                throw new IllegalStateException("outbox unavailable");
+            }
+            events.add(event);
+        }, clock);
+        Wave failing = planned(1, Duration.ofMinutes(12));
+        Wave releasedElsewhere = planned(1, Duration.ofHours(1));
+        scheduler.rebuild();
+        assertEquals(0, scheduler.releaseDue());
+
+        // Created on another instance, which never told this one
+        Wave createdElsewhere = planned(1, Duration.ofHours(2));
+        releasedElsewhere.release();
+        repository.save(releasedElsewhere);
+
+        assertEquals(2, scheduler.rebuild());
+        assertEquals(Optional.of(START.plusSeconds(5)), scheduler.getReleaseTime(failing.getId()));
+        assertTrue(scheduler.getReleaseTime(createdElsewhere.getId()).isPresent());
+        assertTrue(scheduler.getReleaseTime(releasedElsewhere.getId()).isEmpty());
+        assertEquals(2, scheduler.getPendingCount());
+    }
+
+    @Test
+    void shouldPeriodicallyRebuildToReleaseWavesCreatedOnAnotherInstance() throws InterruptedException {
+        scheduler = new WaveReleaseScheduler(repository, wave -> Duration.ZERO, events::add,
+                                             TransactionOperations.withoutTransaction(), Duration.ofSeconds(1),
+                                             Duration.ofMillis(100), Clock.systemUTC());
+        scheduler.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (scheduler.getStatistics().getRebuilds() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // Only in the repository, so only a later rebuild can find it
+        Instant now = Instant.now();
+        Wave wave = new Wave(WaveId.generate(), List.of(OrderId.generate()), now, now, null, "STANDARD", 10);
+        repository.save(wave);
+
+        while (scheduler.getStatistics().getReleasedWaves() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(WaveStatus.RELEASED, repository.findById(wave.getId()).orElseThrow().getStatus());
+        assertTrue(scheduler.getStatistics().getRebuilds() > 1);
+    }
+
+    @Test
+    void shouldReleaseOneHundredThousandWavesInTargetOrder() {
+        List<WaveId> releaseOrder = new ArrayList<>();
+        scheduler = new WaveReleaseScheduler(repository, wave -> Duration.ZERO, event -> {
+            if (event instanceof WaveReleasedEvent released) {
+                releaseOrder.add(released.getWaveId());
+            }
+        }, clock);
+        Random random = new Random(17);
+        for (int i = 0; i < 100_000; i++) {
+            repository.save(new Wave(WaveId.generate(), List.of(OrderId.generate()), START,
+                                     START.plusSeconds(1 + random.nextInt(86_400)), null, "STANDARD", 1));
+        }
+        assertEquals(100_000, scheduler.rebuild());
+
+        int released = 0;
+        for (int hour = 1; hour <= 24; hour++) {
+            clock.advance(Duration.ofHours(1));
+            released += scheduler.releaseDue();
+            assertEquals(100_000 - released, scheduler.getPendingCount());
+        }
+
+        assertEquals(100_000, released);
+        for (int i = 1; i < releaseOrder.size(); i++) {
+            assertFalse(repository.cutoffOf(releaseOrder.get(i)).isBefore(repository.cutoffOf(releaseOrder.get(i - 1))));
+        }
+    }
+
+    private WaveReleaseScheduler scheduler(Clock schedulerClock) {
+        return new WaveReleaseScheduler(repository,
+            WaveReleaseScheduler.linearEstimate(Duration.ofMinutes(10), Duration.ofMinutes(2)),
+            events::add, schedulerClock);
+    }
+
+    private WaveReleaseScheduler transactional(Consumer<DomainEvent> outbox, Clock schedulerClock) {
+        return new WaveReleaseScheduler(repository,
+            WaveReleaseScheduler.linearEstimate(Duration.ofMinutes(10), Duration.ofMinutes(2)),
+            outbox, new RollingBackTransactions(repository), Duration.ofSeconds(5),
+            WaveReleaseScheduler.DEFAULT_REBUILD_INTERVAL, schedulerClock);
+    }
+
+    private Wave planned(int orders, Duration cutoffIn) {
+        List<OrderId> orderIds = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            orderIds.add(OrderId.generate());
+        }
+        Wave wave = new Wave(WaveId.generate(), orderIds, START, START.plus(cutoffIn), null, "STANDARD", 50);
+        repository.save(wave);
+        return wave;
+    }
+
+    // Undoes the wave status changes of a callback that throws, as a database transaction would
+    private static final class RollingBackTransactions implements TransactionOperations {
+        private final InMemoryWaveRepository repository;
+
+        RollingBackTransactions(InMemoryWaveRepository repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            Map<WaveId, Wave> snapshot = repository.snapshot();
+            try {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            } catch (RuntimeException e) {
+                repository.restore(snapshot);
+                throw e;
+            }
+        }
+    }
+
+    private static final class InMemoryWaveRepository implements WaveRepository {
+        private final Map<WaveId, Wave> waves = new ConcurrentHashMap<>();
+
+        synchronized Map<WaveId, Wave> snapshot() {
+            Map<WaveId, Wave> snapshot = new ConcurrentHashMap<>();
+            waves.forEach((id, wave) -> snapshot.put(id, copy(wave)));
+            return snapshot;
+        }
+
+        synchronized void restore(Map<WaveId, Wave> snapshot) {
+            waves.clear();
+            waves.putAll(snapshot);
+        }
+
+        Instant cutoffOf(WaveId waveId) {
+            return waves.get(waveId).getCutoffTime();
+        }
+
+        @Override
+        public void save(Wave wave) {
+            waves.put(wave.getId(), wave);
+        }
+
+        @Override
+        public synchronized boolean markReleased(WaveId waveId, Instant releaseDate) {
+            Wave wave = waves.get(waveId);
+            if (wave == null || wave.getStatus() != WaveStatus.PLANNED) {
+                return false;
+            }
+            wave.setStatus(WaveStatus.RELEASED);
+            wave.setReleaseDate(releaseDate);
+            return true;
+        }
+
+        // A copy, as a read from the database is: releasing it does not touch the stored wave
+        @Override
+        public Optional<Wave> findById(WaveId waveId) {
+            return Optional.ofNullable(waves.get(waveId)).map(InMemoryWaveRepository::copy);
+        }
+
+        private static Wave copy(Wave wave) {
+            Wave copy = new Wave(wave.getId(), wave.getOrderIds(), wave.getPlannedDate(), wave.getCutoffTime(),
+                                 wave.getCarrier(), wave.getShippingSpeedCategory(), wave.getMaxOrders());
+            copy.setStatus(wave.getStatus());
+            copy.setReleaseDate(wave.getReleaseDate());
+            copy.setVersion(wave.getVersion());
+            return copy;
+        }
+
+        @Override
+        public List<Wave> findByStatus(WaveStatus status) {
+            return waves.values().stream().filter(wave -> wave.getStatus() == status).toList();
+        }
+
+        @Override
+        public List<Wave> findByPlannedDate(Instant plannedDate) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Wave> findByCutoffTimeBefore(Instant cutoffTime) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Optional<Wave> findByOrderId(OrderId orderId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Wave> findByCarrier(String carrier) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Wave> findByReleaseDateBetween(Instant start, Instant end) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void deleteById(WaveId waveId) {
+            waves.remove(waveId);
+        }
+
+        @Override
+        public boolean existsById(WaveId waveId) {
+            return waves.containsKey(waveId);
+        }
+
+        @Override
+        public long count() {
+            return waves.size();
+        }
+
+        @Override
+        public long countByStatus(WaveStatus status) {
+            return findByStatus(status).size();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
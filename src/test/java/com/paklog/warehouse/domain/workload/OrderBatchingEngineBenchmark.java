@@ -0,0 +1,156 @@
+package com.paklog.warehouse.domain.workload;
+
+import ch.qos.logback.classic.Level;
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.picklist.PickInstruction;
+import com.paklog.warehouse.domain.picklist.PickRouteOptimizer;
+import com.paklog.warehouse.domain.shared.Address;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.FulfillmentOrder;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.OrderItem;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch planning time for 10,000 orders on a 30-aisle, three-zone layout with skewed SKU
+ * popularity. The travel of the batched routes against routing every order on its own is
+ * printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBatchingEngineBenchmark {
+    private static final int ORDERS = 10_000;
+    private static final int AISLES = 30;
+    private static final int RACKS = 60;
+    private static final int LEVELS = 4;
+
+    @Param({"8", "16"})
+    public int maxTotes;
+
+    private OrderBatchingEngine engine;
+    private List<FulfillmentOrder> orders;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<BinMasterRecord> records = new ArrayList<>();
+        Map<SkuCode, BinLocation> pickFaces = new HashMap<>();
+        for (int aisle = 1; aisle <= AISLES; aisle++) {
+            for (int rack = 1; rack <= RACKS; rack++) {
+                for (int level = 1; level <= LEVELS; level++) {
+                    BinLocation bin = BinLocation.of(String.valueOf(aisle), String.format("%02d", rack),
+                                                     String.valueOf(level));
+                    records.add(new BinMasterRecord(bin, "ZONE-" + (1 + (aisle - 1) / 10), "STANDARD",
+                                                    10.0, false, null));
+                    pickFaces.put(SkuCode.of("SKU-" + pickFaces.size()), bin);
+                }
+            }
+        }
+        WarehouseLayoutService layoutService = new WarehouseLayoutService(new FixedBinMaster(records));
+        layoutService.reload();
+        PickRouteOptimizer routeOptimizer = new PickRouteOptimizer(layoutService);
+        engine = new OrderBatchingEngine(sku -> Optional.ofNullable(pickFaces.get(sku)), layoutService,
+                                         routeOptimizer, maxTotes);
+
+        // Squaring the uniform draw skews demand towards the low SKU numbers
+        Random random = new Random(5);
+        orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int line = 1 + random.nextInt(4); line > 0; line--) {
+                double draw = random.nextDouble();
+                items.add(new OrderItem(SkuCode.of("SKU-" + (int) (draw * draw * pickFaces.size())), Quantity.of(1)));
+            }
+            orders.add(new FulfillmentOrder(OrderId.generate(), random.nextInt(5) == 0 ? "express" : "standard",
+                                            new Address(), items));
+        }
+
+        double singleOrderTravel = 0;
+        for (FulfillmentOrder order : orders) {
+            singleOrderTravel += routeOptimizer.planRoute(order.getItems().stream()
+                .map(item -> new PickInstruction(item.getSkuCode(), item.getQuantity(),
+                                                 pickFaces.get(item.getSkuCode())))
+                .toList()).getRouteLength();
+        }
+        BatchedWorkloadPlan plan = engine.planBatches(orders);
+        System.out.printf("%n%d orders, at most %d totes: %d batches, travel %.0f vs %.0f single-order (%.1f%% less)%n",
+                          ORDERS, maxTotes, plan.getBatches().size(), plan.getTotalRouteLength(), singleOrderTravel,
+                          100.0 * (1 - plan.getTotalRouteLength() / singleOrderTravel));
+    }
+
+    @Benchmark
+    public BatchedWorkloadPlan planBatches() {
+        return engine.planBatches(orders);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OrderBatchingEngineBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+
+    private static final class FixedBinMaster implements BinMasterRepository {
+        private final List<BinMasterRecord> records;
+
+        FixedBinMaster(List<BinMasterRecord> records) {
+            this.records = records;
+        }
+
+        @Override
+        public void save(BinMasterRecord record) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(List<BinMasterRecord> records) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<BinMasterRecord> findByLocation(BinLocation location) {
+            return records.stream().filter(record -> record.getLocation().equals(location)).findFirst();
+        }
+
+        @Override
+        public List<BinMasterRecord> findAll() {
+            return records;
+        }
+
+        @Override
+        public long count() {
+            return records.size();
+        }
+    }
+}
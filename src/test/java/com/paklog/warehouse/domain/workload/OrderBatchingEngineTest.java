@@ -0,0 +1,157 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.layout.BinMasterRecord;
+import com.paklog.warehouse.domain.layout.BinMasterRepository;
+import com.paklog.warehouse.domain.layout.WarehouseLayoutService;
+import com.paklog.warehouse.domain.picklist.PickInstruction;
+import com.paklog.warehouse.domain.picklist.PickListCreatedEvent;
+import com.paklog.warehouse.domain.picklist.PickRouteOptimizer;
+import com.paklog.warehouse.domain.shared.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBatchingEngineTest {
+
+    @Mock
+    private BinMasterRepository binMasterRepository;
+
+    private final Map<SkuCode, BinLocation> pickFaces = new HashMap<>();
+    private WarehouseLayoutService layoutService;
+    private PickRouteOptimizer routeOptimizer;
+
+    @BeforeEach
+    void setUp() {
+        // Aisles 1-4 in zone FAST, 5-8 in zone BULK
+        List<BinMasterRecord> records = new ArrayList<>();
+        for (int aisle = 1; aisle <= 8; aisle++) {
+            for (int rack = 1; rack <= 30; rack++) {
+                BinLocation bin = BinLocation.of(String.valueOf(aisle), String.format("%02d", rack), "1");
+                records.add(new BinMasterRecord(bin, aisle <= 4 ? "FAST" : "BULK", "STANDARD", 10.0, false, null));
+                pickFaces.put(SkuCode.of("SKU-" + aisle + "-" + String.format("%02d", rack)), bin);
+            }
+        }
+        when(binMasterRepository.findAll()).thenReturn(records);
+        layoutService = new WarehouseLayoutService(binMasterRepository);
+        layoutService.reload();
+        routeOptimizer = new PickRouteOptimizer(layoutService);
+    }
+
+    @Test
+    void shouldBatchOrdersSharingBinsUnderToteLimit() {
+        OrderBatchingEngine engine = engine(2);
+        FulfillmentOrder first = order("standard", "SKU-1-05", "SKU-1-06");
+        FulfillmentOrder far = order("standard", "SKU-4-28");
+        FulfillmentOrder sharing = order("standard", "SKU-1-06", "SKU-2-10");
+
+        BatchedWorkloadPlan plan = engine.planBatches(List.of(first, far, sharing));
+
+        assertEquals(2, plan.getBatches().size());
+        assertEquals(List.of(first.getOrderId(), sharing.getOrderId()), plan.getBatches().get(0).getOrderIds());
+        assertEquals(List.of(far.getOrderId()), plan.getBatches().get(1).getOrderIds());
+        assertTrue(plan.getBatches().stream().allMatch(batch -> batch.getToteCount() <= 2));
+    }
+
+    @Test
+    void shouldNotMixZonesOrShippingSpeeds() {
+        OrderBatchingEngine engine = engine(10);
+        List<FulfillmentOrder> orders = List.of(
+            order("standard", "SKU-1-01"), order("standard", "SKU-6-01"),
+            order("express", "SKU-1-02"), order("standard", "SKU-2-01", "SKU-7-01", "SKU-3-01"));
+
+        BatchedWorkloadPlan plan = engine.planBatches(orders);
+
+        assertEquals(3, plan.getBatches().size());
+        for (PickBatch batch : plan.getBatches()) {
+            for (PickBatch.Pick pick : batch.getPickSequence()) {
+                FulfillmentOrder order = orders.stream()
+                    .filter(candidate -> candidate.getOrderId().equals(pick.getOrderId())).findFirst().orElseThrow();
+                assertEquals(batch.getShippingSpeedCategory(), order.getShippingSpeedCategory());
+            }
+        }
+        PickBatch mixed = plan.getBatches().stream()
+            .filter(batch -> batch.getOrderIds().contains(orders.get(3).getOrderId())).findFirst().orElseThrow();
+        assertEquals("FAST", mixed.getZone());
+        assertEquals(List.of(orders.get(0).getOrderId(), orders.get(3).getOrderId()), mixed.getOrderIds());
+    }
+
+    @Test
+    void shouldKeepOrdersWithoutPickFaceOnTheirOwnPickList() {
+        OrderBatchingEngine engine = engine(10);
+        FulfillmentOrder located = order("standard", "SKU-1-01");
+        FulfillmentOrder unlocated = order("standard", "SKU-1-02", "UNKNOWN");
+
+        BatchedWorkloadPlan plan = engine.planBatches(List.of(located, unlocated));
+
+        assertEquals(List.of(unlocated.getOrderId()), plan.getUnbatchedOrderIds());
+        assertEquals(1, plan.getBatches().size());
+        List<PickListCreatedEvent> pickLists = plan.getEvents().stream()
+            .filter(PickListCreatedEvent.class::isInstance).map(PickListCreatedEvent.class::cast).toList();
+        assertEquals(1, pickLists.size());
+        assertEquals(unlocated.getOrderId(), pickLists.get(0).getOrderId());
+        assertEquals(1, plan.getEvents().stream().filter(PickBatchCreatedEvent.class::isInstance).count());
+    }
+
+    @Test
+    void shouldSequenceEveryLineAndTravelLessThanSingleOrderPicking() {
+        OrderBatchingEngine engine = engine(8);
+        Random random = new Random(3);
+        List<FulfillmentOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String[] skus = new String[1 + random.nextInt(3)];
+            for (int line = 0; line < skus.length; line++) {
+                skus[line] = "SKU-" + (1 + random.nextInt(4)) + "-" + String.format("%02d", 1 + random.nextInt(30));
+            }
+            orders.add(order("standard", skus));
+        }
+
+        BatchedWorkloadPlan plan = engine.planBatches(orders);
+
+        Set<OrderId> batched = new HashSet<>();
+        double singleOrderTravel = 0;
+        for (FulfillmentOrder order : orders) {
+            singleOrderTravel += routeOptimizer.planRoute(order.getItems().stream()
+                .map(item -> new PickInstruction(item.getSkuCode(), item.getQuantity(), pickFaces.get(item.getSkuCode())))
+                .toList()).getRouteLength();
+        }
+        for (PickBatch batch : plan.getBatches()) {
+            assertTrue(batch.getToteCount() <= 8);
+            batched.addAll(batch.getOrderIds());
+            int lines = batch.getOrderIds().stream().mapToInt(orderId -> orders.stream()
+                .filter(order -> order.getOrderId().equals(orderId)).findFirst().orElseThrow().getItems().size()).sum();
+            assertEquals(lines, batch.getPickSequence().size());
+        }
+        assertEquals(orders.size(), batched.size());
+        assertEquals(25, plan.getBatches().size());
+        assertTrue(plan.getTotalRouteLength() < singleOrderTravel / 3,
+                   plan.getTotalRouteLength() + " vs " + singleOrderTravel);
+    }
+
+    private OrderBatchingEngine engine(int maxTotes) {
+        return new OrderBatchingEngine(sku -> Optional.ofNullable(pickFaces.get(sku)), layoutService,
+                                       routeOptimizer, maxTotes);
+    }
+
+    private static FulfillmentOrder order(String type, String... skus) {
+        List<OrderItem> items = new ArrayList<>();
+        for (String sku : skus) {
+            items.add(new OrderItem(SkuCode.of(sku), Quantity.of(1)));
+        }
+        return new FulfillmentOrder(OrderId.generate(), type, new Address(), items);
+    }
+}
@@ -0,0 +1,243 @@
+package com.paklog.warehouse.domain.workload;
+
+import com.paklog.warehouse.domain.picklist.PickListCreatedEvent;
+import com.paklog.warehouse.domain.shared.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingWavePlannerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-03-01T08:00:00Z"));
+    private final List<DomainEvent> events = new ArrayList<>();
+
+    @Test
+    void shouldCloseWaveWhenFull() {
+        StreamingWavePlanner planner = planner(3, order -> null);
+
+        planner.accept(order("standard"));
+        planner.accept(order("standard"));
+        assertTrue(waves().isEmpty());
+        assertEquals(1, planner.getOpenWaveCount());
+
+        planner.accept(order("standard"));
+
+        assertEquals(1, waves().size());
+        assertEquals(3, waves().get(0).getOrderCount());
+        assertEquals(3, events.stream().filter(PickListCreatedEvent.class::isInstance).count());
+        assertEquals(0, planner.getOpenWaveCount());
+    }
+
+    @Test
+    void shouldKeepOneOpenWavePerSpeedAndCarrier() {
+        StreamingWavePlanner planner = planner(10, order -> order.getShippingAddress().getState());
+
+        planner.accept(new FulfillmentOrder(OrderId.generate(), "standard", new Address("", "", "UPS", ""), items()));
+        planner.accept(new FulfillmentOrder(OrderId.generate(), "standard", new Address("", "", "FEDEX", ""), items()));
+        planner.accept(new FulfillmentOrder(OrderId.generate(), "express", new Address("", "", "UPS", ""), items()));
+        planner.accept(new FulfillmentOrder(OrderId.generate(), "standard", new Address("", "", "UPS", ""), items()));
+
+        assertEquals(3, planner.getOpenWaveCount());
+        assertEquals(4, planner.getOpenOrderCount());
+        assertEquals(3, planner.flush());
+        assertEquals(List.of(2, 1, 1), waves().stream().map(WaveCreatedEvent::getOrderCount).sorted((a, b) -> b - a).toList());
+    }
+
+    @Test
+    void shouldCloseWavesOnAgeAndCutoffTriggers() {
+        StreamingWavePlanner planner = planner(100, order -> null);
+        planner.accept(order("standard"));
+        planner.accept(order("express"));
+
+        // Express cutoff is two hours out, closed 30 minutes ahead of it
+        clock.advance(Duration.ofMinutes(89));
+        assertEquals(0, planner.closeDueWaves());
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(1, planner.closeDueWaves());
+        assertEquals("EXPRESS", waves().get(0).getShippingSpeedCategory());
+
+        // The standard wave reaches the four hour age limit; the next order closes it
+        clock.advance(Duration.ofMinutes(150));
+        planner.accept(order("standard"));
+
+        assertEquals(2, waves().size());
+        assertEquals(1, waves().get(1).getOrderCount());
+        assertEquals(1, planner.getOpenOrderCount());
+    }
+
+    @Test
+    void shouldPlaceEveryOrderOnceWithConcurrentProducers() throws Exception {
+        Queue<DomainEvent> emitted = new ConcurrentLinkedQueue<>();
+        StreamingWavePlanner planner = new StreamingWavePlanner(7, Duration.ofHours(4), Duration.ofMinutes(30),
+                                                                order -> null, emitted::add, clock);
+        int producers = 8;
+        int ordersPerProducer = 1_000;
+        String[] speeds = {"standard", "express", "priority"};
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            int offset = producer;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerProducer; i++) {
+                    planner.accept(order(speeds[(i + offset) % speeds.length]));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        planner.flush();
+
+        Set<OrderId> waved = new HashSet<>();
+        int waveCount = 0;
+        for (DomainEvent event : emitted) {
+            if (event instanceof WaveCreatedEvent wave) {
+                waveCount++;
+                assertTrue(wave.getOrderCount() <= 7);
+                for (OrderId orderId : wave.getOrderIds()) {
+                    assertTrue(waved.add(orderId), "order placed twice: " + orderId);
+                }
+            }
+        }
+        assertEquals(producers * ordersPerProducer, waved.size());
+        assertTrue(waveCount <= producers * ordersPerProducer / 7 + speeds.length);
+        assertEquals(0, planner.getOpenWaveCount());
+    }
+
+    @Test
+    void shouldRouteOrdersThroughTheSharedPlanner() {
+        StreamingWavePlanner planner = planner(2, order -> null);
+        WaveStrategy strategy = new WaveStrategy(planner);
+
+        WorkloadPlan first = strategy.planWork(List.of(order("standard"), order("express"), order("standard")));
+        WorkloadPlan second = strategy.planWork(List.of(order("express")));
+
+        assertTrue(first.getEvents().isEmpty());
+        assertTrue(second.getEvents().isEmpty());
+        // Orders of both calls shared the planner's open waves
+        assertEquals(List.of(2, 2), waves().stream().map(WaveCreatedEvent::getOrderCount).toList());
+        assertEquals(0, planner.getOpenWaveCount());
+
+        strategy.planWork(List.of(order("standard")));
+        clock.advance(Duration.ofHours(4));
+        assertEquals(1, planner.closeDueWaves());
+        assertEquals(3, waves().size());
+    }
+
+    @Test
+    void shouldCloseDueWavesPeriodicallyOnceStarted() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        StreamingWavePlanner planner = new StreamingWavePlanner(10, Duration.ofHours(4), Duration.ofMinutes(30),
+            order -> null, event -> {
+                if (event instanceof WaveCreatedEvent) {
+                    closed.countDown();
+                }
+            }, clock);
+        planner.accept(order("standard"));
+        clock.advance(Duration.ofHours(4));
+
+        planner.start(Duration.ofMillis(10));
+        try {
+            assertTrue(planner.isRunning());
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+            assertEquals(0, planner.getOpenWaveCount());
+        } finally {
+            planner.stop();
+        }
+        assertFalse(planner.isRunning());
+    }
+
+    @Test
+    void shouldCloseOpenWavesOnStop() {
+        StreamingWavePlanner planner = planner(10, order -> null);
+        planner.start(Duration.ofMinutes(1));
+        planner.accept(order("standard"));
+        planner.accept(order("express"));
+
+        planner.stop();
+
+        assertFalse(planner.isRunning());
+        assertEquals(0, planner.getOpenWaveCount());
+        assertEquals(2, waves().size());
+        assertEquals(2, events.stream().filter(PickListCreatedEvent.class::isInstance).count());
+    }
+
+    @Test
+    void shouldRecoverOnlyOrdersNotInAStoredWave() {
+        StreamingWavePlanner planner = planner(10, order -> null);
+        FulfillmentOrder waved = order("standard");
+        FulfillmentOrder lost = order("standard");
+
+        assertEquals(1, planner.recover(List.of(waved, lost), orderId -> orderId.equals(waved.getOrderId())));
+
+        assertEquals(1, planner.flush());
+        assertEquals(List.of(lost.getOrderId()), waves().get(0).getOrderIds());
+    }
+
+    private StreamingWavePlanner planner(int maxOrders, Function<FulfillmentOrder, String> carrier) {
+        return new StreamingWavePlanner(maxOrders, Duration.ofHours(4), Duration.ofMinutes(30), carrier,
+                                        events::add, clock);
+    }
+
+    private List<WaveCreatedEvent> waves() {
+        return events.stream().filter(WaveCreatedEvent.class::isInstance).map(WaveCreatedEvent.class::cast).toList();
+    }
+
+    private static FulfillmentOrder order(String type) {
+        return new FulfillmentOrder(OrderId.generate(), type, new Address(), items());
+    }
+
+    private static List<OrderItem> items() {
+        return List.of(new OrderItem(SkuCode.of("SKU-001"), Quantity.of(1)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
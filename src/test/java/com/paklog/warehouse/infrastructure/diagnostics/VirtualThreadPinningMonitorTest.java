@@ -0,0 +1,67 @@
+package com.paklog.warehouse.infrastructure.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(5));
+    private final Object monitorLock = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void shouldReportVirtualThreadsBlockingInsideSynchronized() throws InterruptedException {
+        monitor.start();
+
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+        Thread.ofVirtual().start(this::sleepHoldingLock).join();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (monitor.getStatistics().getPinnings() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        // Two pinnings at one site; waiting on a ReentrantLock-guarded sleep unmounts instead
+        VirtualThreadPinningMonitor.Statistics statistics = monitor.getStatistics();
+        assertEquals(2, statistics.getPinnings());
+        assertEquals(1, statistics.getSites());
+        assertTrue(statistics.getMaxPinnedMillis() >= 20, statistics.getMaxPinnedMillis() + " ms");
+        Map.Entry<String, Long> site = monitor.getPinningsBySite().entrySet().iterator().next();
+        assertTrue(site.getKey().startsWith(VirtualThreadPinningMonitorTest.class.getName() + ".sleepHoldingMonitor"),
+                   site.getKey());
+        assertEquals(2L, site.getValue());
+    }
+
+    private void sleepHoldingMonitor() {
+        synchronized (monitorLock) {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sleepHoldingLock() {
+        lock.lock();
+        try {
+            Thread.sleep(30);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
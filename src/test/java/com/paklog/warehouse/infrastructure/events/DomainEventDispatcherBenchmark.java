@@ -0,0 +1,135 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Dispatching a burst of events spread over many aggregates and waiting until all are
+ * handled, by worker count and ordered lane count. One lane serializes every aggregate,
+ * as a single ordered executor would; with more lanes the aggregates are handled in
+ * parallel. The {@code io} handler waits as on a downstream call, the {@code cpu} handler
+ * computes, which scales only with the cores there are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainEventDispatcherBenchmark {
+
+    private static final int AGGREGATES = 256;
+    private static final int EVENTS = 2_000;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({"1", "64"})
+    public int orderedLanes;
+
+    @Param({"io", "cpu"})
+    public String work;
+
+    private DomainEventDispatcher dispatcher;
+    private List<StepEvent> events;
+    private StepHandler handler;
+
+    @Setup
+    public void setUp() {
+        List<UUID> works = IntStream.range(0, AGGREGATES).mapToObj(i -> UUID.randomUUID()).toList();
+        events = IntStream.range(0, EVENTS).mapToObj(i -> new StepEvent(works.get(i % AGGREGATES))).toList();
+        handler = new StepHandler("io".equals(work));
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, workers, EVENTS,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS, orderedLanes);
+        dispatcher.register(handler);
+        dispatcher.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Benchmark
+    public void dispatchAndHandle() throws InterruptedException {
+        CountDownLatch handled = new CountDownLatch(EVENTS);
+        handler.handled = handled;
+        for (StepEvent event : events) {
+            dispatcher.dispatch(event);
+        }
+        handled.await();
+    }
+
+    public static class StepHandler {
+        private final boolean waits;
+        volatile CountDownLatch handled;
+
+        StepHandler(boolean waits) {
+            this.waits = waits;
+        }
+
+        @AsyncEventListener
+        public void handle(StepEvent event) {
+            if (waits) {
+                LockSupport.parkNanos(50_000);
+            } else {
+                Blackhole.consumeCPU(2_000);
+            }
+            handled.countDown();
+        }
+    }
+
+    public static class StepEvent implements DomainEvent {
+        private final UUID eventId = UUID.randomUUID();
+        private final Instant occurredAt = Instant.now();
+        private final UUID workId;
+
+        StepEvent(UUID workId) {
+            this.workId = workId;
+        }
+
+        @Override
+        public UUID getEventId() {
+            return eventId;
+        }
+
+        @Override
+        public Instant getOccurredAt() {
+            return occurredAt;
+        }
+
+        public UUID getWorkId() {
+            return workId;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DomainEventDispatcherBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
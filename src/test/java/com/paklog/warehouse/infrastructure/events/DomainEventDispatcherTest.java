@@ -0,0 +1,424 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.OrderConsolidatedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.work.WorkStartedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventDispatcherTest {
+
+    private DomainEventDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void shouldRunAllHandlersOfAnEventInOneTaskOnTheDispatcherThreads() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 2, 10,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS);
+        RecordingHandler handler = new RecordingHandler(new CountDownLatch(2));
+        assertTrue(DomainEventDispatcher.hasListenerMethods(handler));
+        assertFalse(DomainEventDispatcher.hasListenerMethods(new Object()));
+        dispatcher.register(handler);
+        dispatcher.register(handler);
+        dispatcher.start();
+
+        PickedEvent event = new PickedEvent();
+        dispatcher.dispatch(event);
+
+        assertTrue(handler.done.await(5, TimeUnit.SECONDS));
+        // The specific and the generic handler, each once, on the same worker thread
+        assertEquals(Set.of("picked:" + event.getEventId(), "any:" + event.getEventId()),
+                     Set.copyOf(handler.calls));
+        assertEquals(2, handler.calls.size());
+        assertEquals(1, handler.threads.stream().distinct().count());
+        assertTrue(handler.threads.peek().startsWith("domain-events-"), handler.threads.peek());
+        assertEquals(3, dispatcher.getStatistics().getHandlers());
+        assertEquals(1, dispatcher.getStatistics().getDispatchedEvents());
+    }
+
+    @Test
+    void shouldSkipEventsWithoutHandlers() {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 1, 10,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS);
+        dispatcher.register(new PickedOnlyHandler(new AtomicInteger()));
+        dispatcher.start();
+
+        dispatcher.dispatch(new PackedEvent());
+
+        assertTrue(dispatcher.getQueues().isEmpty());
+    }
+
+    @Test
+    void shouldRunOnThePublishingThreadWhenTheQueueOfTheTypeIsFull() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 1, 2,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS);
+        BlockingHandler handler = new BlockingHandler();
+        dispatcher.register(handler);
+        dispatcher.start();
+
+        dispatcher.dispatch(new PickedEvent());
+        assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(new PickedEvent());
+        dispatcher.dispatch(new PickedEvent());
+        // The worker is busy and the queue full, so this one runs here
+        dispatcher.dispatch(new PickedEvent());
+
+        assertEquals(List.of(Thread.currentThread().getName()), handler.threads);
+        handler.release.countDown();
+        DomainEventDispatcher.EventQueue queue = dispatcher.getQueues().iterator().next();
+        assertEquals("PickedEvent", queue.getEventType());
+        assertEquals(1, queue.getCallerRunsEvents());
+        assertEquals(0, queue.getDroppedEvents());
+        assertEquals(4, queue.getDispatchedEvents());
+    }
+
+    @Test
+    void shouldDropOnlyEventsOfTheTypeWhoseQueueIsFull() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 1, 2,
+                                               DomainEventDispatcher.OverflowPolicy.DROP_OLDEST);
+        BlockingHandler handler = new BlockingHandler();
+        dispatcher.register(handler);
+        dispatcher.start();
+
+        dispatcher.dispatch(new PickedEvent());
+        assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        PickedEvent oldest = new PickedEvent();
+        dispatcher.dispatch(oldest);
+        for (int i = 0; i < 4; i++) {
+            dispatcher.dispatch(new PickedEvent());
+        }
+        PackedEvent packed = new PackedEvent();
+        dispatcher.dispatch(packed);
+        handler.release.countDown();
+        dispatcher.stop(Duration.ofSeconds(5));
+
+        assertEquals(3, dispatcher.getStatistics().getDroppedEvents());
+        assertEquals(0, dispatcher.getStatistics().getQueuedEvents());
+        assertFalse(handler.events.contains(oldest.getEventId()));
+        assertTrue(handler.events.contains(packed.getEventId()));
+        assertEquals(4, handler.events.size());
+    }
+
+    @Test
+    void shouldReportHandlerDurationsAndKeepGoingAfterAFailure() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.VIRTUAL, 2, 10,
+                                               DomainEventDispatcher.OverflowPolicy.DROP_NEWEST);
+        AtomicInteger picked = new AtomicInteger();
+        dispatcher.register(new FailingHandler());
+        dispatcher.register(new PickedOnlyHandler(picked));
+        Map<String, Boolean> completed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(2);
+        dispatcher.setObserver(new DomainEventDispatcher.Observer() {
+            @Override
+            public void handlerCompleted(String handler, long durationNanos, boolean failed) {
+                assertTrue(durationNanos >= 0);
+                completed.put(handler, failed);
+                done.countDown();
+            }
+        });
+        dispatcher.start();
+
+        dispatcher.dispatch(new PickedEvent());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("FailingHandler.handle", true, "PickedOnlyHandler.handle", false), completed);
+        assertEquals(1, picked.get());
+        assertEquals(1, dispatcher.getStatistics().getHandlerFailures());
+    }
+
+    @Test
+    void shouldHandleEventsOnThePublishingThreadOnceStopped() {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 1, 10,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS);
+        AtomicInteger picked = new AtomicInteger();
+        dispatcher.register(new PickedOnlyHandler(picked));
+
+        dispatcher.dispatch(new PickedEvent());
+
+        assertEquals(1, picked.get());
+        assertFalse(dispatcher.isRunning());
+    }
+
+    @Test
+    void shouldHandleTheEventsOfAnAggregateInOrderAndAggregatesInParallel() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 4, 10_000,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS, 8);
+        int aggregates = 32;
+        int eventsPerAggregate = 100;
+        SequenceHandler handler = new SequenceHandler(aggregates * eventsPerAggregate);
+        dispatcher.register(handler);
+        dispatcher.start();
+        List<UUID> works = IntStream.range(0, aggregates).mapToObj(i -> UUID.randomUUID()).toList();
+
+        // Each publisher has aggregates of its own, so every aggregate has one dispatch order
+        ExecutorService publishers = Executors.newFixedThreadPool(4);
+        for (int publisher = 0; publisher < 4; publisher++) {
+            int first = publisher;
+            publishers.execute(() -> {
+                for (int sequence = 0; sequence < eventsPerAggregate; sequence++) {
+                    for (int work = first; work < aggregates; work += 4) {
+                        dispatcher.dispatch(new WorkStepEvent(works.get(work), sequence));
+                    }
+                }
+            });
+        }
+        publishers.shutdown();
+
+        assertTrue(handler.done.await(30, TimeUnit.SECONDS));
+        List<Integer> inOrder = IntStream.range(0, eventsPerAggregate).boxed().toList();
+        for (UUID work : works) {
+            assertEquals(inOrder, handler.sequences.get(work));
+        }
+        assertFalse(handler.overlapped.get(), "two events of one aggregate were handled at once");
+        assertTrue(handler.maxInFlight.get() > 1, "aggregates were not handled in parallel");
+    }
+
+    @Test
+    void shouldHandleTheConsolidationOfAnOrderAfterItsAssignment() throws InterruptedException {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 4, 100,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS);
+        PutWallHandler handler = new PutWallHandler(16);
+        dispatcher.register(handler);
+        dispatcher.start();
+        List<PutWallId> putWalls = IntStream.range(0, 8).mapToObj(i -> PutWallId.generate()).toList();
+
+        for (PutWallId putWall : putWalls) {
+            PutWallSlotId slot = PutWallSlotId.of("A-01");
+            OrderId order = OrderId.generate();
+            dispatcher.dispatch(new OrderAssignedToSlotEvent(putWall, slot, order, Map.of()));
+            dispatcher.dispatch(new OrderConsolidatedInSlotEvent(putWall, slot, order));
+        }
+
+        assertTrue(handler.done.await(10, TimeUnit.SECONDS));
+        for (PutWallId putWall : putWalls) {
+            assertEquals(List.of("assigned", "consolidated"), handler.events.get(putWall));
+        }
+    }
+
+    @Test
+    void shouldKeyEventsByTheirPutWallWorkOrLicensePlate() {
+        PutWallId putWall = PutWallId.generate();
+        UUID work = UUID.randomUUID();
+
+        assertEquals(putWall, DomainEventDispatcher.aggregateId(
+            new OrderConsolidatedInSlotEvent(putWall, PutWallSlotId.of("A-01"), OrderId.generate())));
+        assertEquals(work, DomainEventDispatcher.aggregateId(new WorkStartedEvent(work, "picker-1")));
+        assertNull(DomainEventDispatcher.aggregateId(new PickedEvent()));
+    }
+
+    @Test
+    void shouldHoldThePublisherBackInsteadOfOvertakingQueuedEventsOfTheAggregate() throws Exception {
+        dispatcher = new DomainEventDispatcher(DomainEventDispatcher.ThreadMode.PLATFORM, 1, 2,
+                                               DomainEventDispatcher.OverflowPolicy.CALLER_RUNS, 8);
+        BlockingHandler handler = new BlockingHandler();
+        dispatcher.register(handler);
+        dispatcher.start();
+        UUID work = UUID.randomUUID();
+        List<WorkStepEvent> steps = IntStream.range(0, 4).mapToObj(i -> new WorkStepEvent(work, i)).toList();
+
+        dispatcher.dispatch(steps.get(0));
+        assertTrue(handler.started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(steps.get(1));
+        dispatcher.dispatch(steps.get(2));
+        CompletableFuture<Void> publisher = CompletableFuture.runAsync(() -> dispatcher.dispatch(steps.get(3)));
+
+        Thread.sleep(200);
+        assertFalse(publisher.isDone());
+        handler.release.countDown();
+        publisher.get(5, TimeUnit.SECONDS);
+        dispatcher.stop(Duration.ofSeconds(5));
+
+        assertEquals(steps.stream().map(WorkStepEvent::getEventId).toList(), List.copyOf(handler.events));
+        assertEquals(1, dispatcher.getStatistics().getThrottledEvents());
+        assertEquals(0, dispatcher.getStatistics().getCallerRunsEvents());
+    }
+
+    private static class TestEvent implements DomainEvent {
+        private final UUID eventId = UUID.randomUUID();
+        private final Instant occurredAt = Instant.now();
+
+        @Override
+        public UUID getEventId() {
+            return eventId;
+        }
+
+        @Override
+        public Instant getOccurredAt() {
+            return occurredAt;
+        }
+    }
+
+    private static final class PickedEvent extends TestEvent {
+    }
+
+    private static final class PackedEvent extends TestEvent {
+    }
+
+    private static final class WorkStepEvent extends TestEvent {
+        private final UUID workId;
+        private final int sequence;
+
+        private WorkStepEvent(UUID workId, int sequence) {
+            this.workId = workId;
+            this.sequence = sequence;
+        }
+
+        public UUID getWorkId() {
+            return workId;
+        }
+    }
+
+    static class RecordingHandler {
+        final Queue<String> calls = new ConcurrentLinkedQueue<>();
+        final Queue<String> threads = new ConcurrentLinkedQueue<>();
+        final CountDownLatch done;
+
+        RecordingHandler(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @AsyncEventListener
+        public void handlePicked(PickedEvent event) {
+            record("picked:" + event.getEventId());
+        }
+
+        @AsyncEventListener
+        public void handlePacked(PackedEvent event) {
+            record("packed:" + event.getEventId());
+        }
+
+        @AsyncEventListener
+        public void handleAny(DomainEvent event) {
+            record("any:" + event.getEventId());
+        }
+
+        private void record(String call) {
+            calls.add(call);
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }
+    }
+
+    static class PickedOnlyHandler {
+        private final AtomicInteger picked;
+
+        PickedOnlyHandler(AtomicInteger picked) {
+            this.picked = picked;
+        }
+
+        @AsyncEventListener
+        public void handle(PickedEvent event) {
+            picked.incrementAndGet();
+        }
+    }
+
+    static class FailingHandler {
+        @AsyncEventListener
+        public void handle(PickedEvent event) {
+            throw new IllegalStateException("handler failed");
+        }
+    }
+
+    static class SequenceHandler {
+        final Map<UUID, List<Integer>> sequences = new ConcurrentHashMap<>();
+        final Set<UUID> active = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final CountDownLatch done;
+
+        SequenceHandler(int events) {
+            this.done = new CountDownLatch(events);
+        }
+
+        @AsyncEventListener
+        public void handle(WorkStepEvent event) {
+            if (!active.add(event.getWorkId())) {
+                overlapped.set(true);
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            // Long enough for the workers to overlap, as with a handler waiting on I/O
+            LockSupport.parkNanos(20_000);
+            sequences.computeIfAbsent(event.getWorkId(), work -> new CopyOnWriteArrayList<>()).add(event.sequence);
+            inFlight.decrementAndGet();
+            active.remove(event.getWorkId());
+            done.countDown();
+        }
+    }
+
+    static class PutWallHandler {
+        final Map<PutWallId, List<String>> events = new ConcurrentHashMap<>();
+        final CountDownLatch done;
+
+        PutWallHandler(int events) {
+            this.done = new CountDownLatch(events);
+        }
+
+        @AsyncEventListener
+        public void handleAssigned(OrderAssignedToSlotEvent event) throws InterruptedException {
+            // Slow enough for the consolidation to overtake it if it could
+            Thread.sleep(20);
+            record(event.getPutWallId(), "assigned");
+        }
+
+        @AsyncEventListener
+        public void handleConsolidated(OrderConsolidatedInSlotEvent event) {
+            record(event.getPutWallId(), "consolidated");
+        }
+
+        private void record(PutWallId putWall, String event) {
+            events.computeIfAbsent(putWall, id -> new CopyOnWriteArrayList<>()).add(event);
+            done.countDown();
+        }
+    }
+
+    static class BlockingHandler {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Queue<UUID> events = new ConcurrentLinkedQueue<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @AsyncEventListener
+        public void handle(DomainEvent event) throws InterruptedException {
+            // Holds up the workers only, not a publishing thread running the handler itself
+            if (Thread.currentThread().getName().startsWith("domain-events-")) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            events.add(event.getEventId());
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.SlotReleasedEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.shared.WaveReleasedEvent;
+import com.paklog.warehouse.domain.wave.WaveId;
+import com.paklog.warehouse.infrastructure.messaging.KafkaEventPublisher;
+import com.paklog.warehouse.infrastructure.messaging.KafkaOutboxSender;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
+import com.paklog.warehouse.infrastructure.messaging.OutboxLeaseOperations;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRelay;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class DomainEventPublisherTest {
+
+    private final ApplicationEventPublisher localPublisher = mock(ApplicationEventPublisher.class);
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final OutboxRelay relay = mock(OutboxRelay.class);
+    private final List<OutboxEvent> outbox = new ArrayList<>();
+    private OutboxRelay runningRelay;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (runningRelay != null) {
+            runningRelay.stop();
+        }
+    }
+
+    @Test
+    void shouldNameTopicsAfterEventClasses() {
+        DomainEventTopics topics = new DomainEventTopics();
+
+        assertEquals("wave-released", topics.topicFor(waveReleased()));
+        assertEquals("order-assigned-to-slot", DomainEventTopics.topicName(OrderAssignedToSlotEvent.class));
+        assertSame(topics.topicFor(waveReleased()), topics.topicFor(waveReleased()));
+    }
+
+    @Test
+    void shouldAppendEventsToTheOutboxInOneWriteAndPublishThemLocally() {
+        DomainEventPublisher publisher = publisher(new KafkaEventPublisher(outboxRepository, relay));
+        WaveReleasedEvent first = waveReleased();
+        WaveReleasedEvent second = waveReleased();
+
+        publisher.publishEvents(List.of(first, second));
+
+        verify(localPublisher).publishEvent(first);
+        verify(localPublisher).publishEvent(second);
+        verify(outboxRepository, times(1)).insert(anyList());
+        assertEquals(2, outbox.size());
+        OutboxEvent stored = outbox.get(0);
+        assertEquals("wave-released", stored.getTopic());
+        assertEquals("WaveReleasedEvent", stored.getType());
+        assertEquals(first.getEventId().toString(), stored.getSubject());
+        assertTrue(stored.getData().contains("\"eventId\":\"" + first.getEventId() + "\""), stored.getData());
+        verify(relay).wakeUp();
+    }
+
+    @Test
+    void shouldWakeTheRelayOnlyOnceTheTransactionCommits() {
+        DomainEventPublisher publisher = publisher(new KafkaEventPublisher(outboxRepository, relay));
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publish(waveReleased());
+
+        verify(relay, never()).wakeUp();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(relay).wakeUp();
+    }
+
+    @Test
+    void shouldKeyEventsOfOneAggregateByItsId() {
+        DomainEventPublisher publisher = publisher(new KafkaEventPublisher(outboxRepository, relay));
+        PutWallId putWallId = PutWallId.generate();
+        PutWallSlotId slotId = PutWallSlotId.of("S1");
+        OrderId orderId = OrderId.generate();
+
+        publisher.publishEvents(List.of(
+            new ItemPlacedInSlotEvent(putWallId, slotId, orderId, SkuCode.of("SKU1"), Quantity.of(1)),
+            new SlotReleasedEvent(putWallId, slotId, orderId)));
+
+        OutboxEvent placed = outbox.get(0);
+        OutboxEvent released = outbox.get(1);
+        assertEquals(putWallId.toString(), placed.getSubject());
+        assertEquals(OutboxEvent.shardOf(placed.getSubject()), OutboxEvent.shardOf(released.getSubject()));
+        assertEquals(placed.getShard(), released.getShard());
+        assertEquals(KafkaOutboxSender.messageKey(placed), KafkaOutboxSender.messageKey(released));
+    }
+
+    @Test
+    void shouldStorePutWallChangesWithTheirSequenceNumber() {
+        DomainEventPublisher publisher = publisher(new KafkaEventPublisher(outboxRepository, relay));
+        PutWallId putWallId = PutWallId.generate();
+
+        publisher.publishEvents(List.of(
+            new SlotReleasedEvent(putWallId, PutWallSlotId.of("S1"), OrderId.generate(), 3),
+            new SlotReleasedEvent(putWallId, PutWallSlotId.of("S2"), OrderId.generate()),
+            waveReleased()));
+
+        assertEquals(3L, outbox.get(0).getSequence());
+        assertNull(outbox.get(1).getSequence());
+        assertNull(outbox.get(2).getSequence());
+    }
+
+    @Test
+    void shouldNotWaitForTheBrokerOnTheRequestPath() throws InterruptedException {
+        // A broker that acknowledges nothing until the requests are done
+        CountDownLatch brokerAvailable = new CountDownLatch(1);
+        InMemoryOutbox leases = new InMemoryOutbox();
+        runningRelay = new OutboxRelay(leases, event -> CompletableFuture.runAsync(() -> await(brokerAvailable)),
+                                       Clock.systemUTC(), 100, 4, Duration.ofSeconds(30), Duration.ofSeconds(5),
+                                       Duration.ofMillis(500));
+        DomainEventPublisher publisher = publisher(new KafkaEventPublisher(outboxRepository, runningRelay));
+        when(outboxRepository.insert(anyList())).thenAnswer(invocation -> {
+            List<OutboxEvent> events = invocation.getArgument(0);
+            events.forEach(leases::add);
+            return events;
+        });
+        runningRelay.start();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int request = 0; request < 100; request++) {
+                publisher.publish(waveReleased());
+            }
+        });
+        assertEquals(0, leases.processed.get());
+
+        brokerAvailable.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (leases.processed.get() < 100 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(100, leases.processed.get());
+    }
+
+    private DomainEventPublisher publisher(KafkaEventPublisher kafkaEventPublisher) {
+        when(outboxRepository.insert(anyList())).thenAnswer(invocation -> {
+            List<OutboxEvent> events = invocation.getArgument(0);
+            outbox.addAll(events);
+            return events;
+        });
+        return new DomainEventPublisher(localPublisher, kafkaEventPublisher, new EventSerializer(),
+                                        new DomainEventTopics());
+    }
+
+    private static WaveReleasedEvent waveReleased() {
+        return new WaveReleasedEvent(WaveId.generate(), List.of(OrderId.generate()), Instant.now());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private abstract static class OrderAssignedToSlotEvent implements DomainEvent {
+    }
+
+    private static final class InMemoryOutbox implements OutboxLeaseOperations {
+        private final Map<UUID, OutboxEvent> pending = new ConcurrentHashMap<>();
+        private final Map<UUID, String> claims = new ConcurrentHashMap<>();
+        private final AtomicInteger processed = new AtomicInteger();
+
+        void add(OutboxEvent event) {
+            pending.put(event.getId(), event);
+        }
+
+        @Override
+        public synchronized List<OutboxEvent> claimBatch(String claimId, Collection<Integer> shards, int limit,
+                                                         Instant now, Instant leaseExpiresAt) {
+            List<OutboxEvent> claimed = new ArrayList<>();
+            for (OutboxEvent event : pending.values()) {
+                if (claimed.size() == limit) {
+                    break;
+                }
+                if (claims.putIfAbsent(event.getId(), claimId) == null) {
+                    claimed.add(event);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public synchronized long markProcessed(String claimId, Collection<UUID> eventIds, Instant processedAt) {
+            eventIds.forEach(pending::remove);
+            processed.addAndGet(eventIds.size());
+            return eventIds.size();
+        }
+    }
+}
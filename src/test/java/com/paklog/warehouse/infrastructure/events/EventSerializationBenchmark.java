@@ -0,0 +1,113 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paklog.warehouse.domain.licenseplate.LicensePlateId;
+import com.paklog.warehouse.domain.licenseplate.LicensePlatePickedEvent;
+import com.paklog.warehouse.domain.picklist.ItemPickedEvent;
+import com.paklog.warehouse.domain.picklist.PickListId;
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing and reading one event in the JSON envelope and in the binary format. The
+ * message size of each is printed at setup. The JSON side is read into a tree: the event
+ * classes have no creators Jackson could bind, which is what a consumer without them does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"ItemPicked", "LicensePlatePicked", "OrderAssignedToSlot"})
+    public String eventType;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EventSerializer serializer;
+    private DomainEvent event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        serializer = new EventSerializer();
+        event = event(eventType);
+        json = serializer.serialize(event, JsonEventFormat.CONTENT_TYPE);
+        binary = serializer.serialize(event, BinaryEventFormat.CONTENT_TYPE);
+        System.out.printf("%n%s: json %d bytes, binary %d bytes%n", eventType, json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return serializer.serialize(event, JsonEventFormat.CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public JsonNode jsonRead() throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return serializer.serialize(event, BinaryEventFormat.CONTENT_TYPE);
+    }
+
+    @Benchmark
+    public DomainEvent binaryDeserialize() {
+        return serializer.deserialize(binary, BinaryEventFormat.CONTENT_TYPE);
+    }
+
+    static DomainEvent event(String eventType) {
+        switch (eventType) {
+            case "ItemPicked":
+                return new ItemPickedEvent(PickListId.generate(), SkuCode.of("SKU-100234"), Quantity.of(2),
+                                           BinLocation.of("12", "07", "3"), "picker-0042");
+            case "LicensePlatePicked":
+                return new LicensePlatePickedEvent(LicensePlateId.generate(), "picker-0042", Instant.now());
+            case "OrderAssignedToSlot":
+                Map<SkuCode, Quantity> items = new LinkedHashMap<>();
+                for (int i = 0; i < 4; i++) {
+                    items.put(SkuCode.of("SKU-10023" + i), Quantity.of(1 + i));
+                }
+                return new OrderAssignedToSlotEvent(PutWallId.generate(), PutWallSlotId.of("A-07"),
+                                                    OrderId.generate(), items);
+            default:
+                throw new IllegalArgumentException(eventType);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EventSerializationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
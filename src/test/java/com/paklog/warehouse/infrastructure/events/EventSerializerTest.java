@@ -0,0 +1,144 @@
+package com.paklog.warehouse.infrastructure.events;
+
+import com.paklog.warehouse.domain.licenseplate.LicensePlateId;
+import com.paklog.warehouse.domain.licenseplate.LicensePlatePickedEvent;
+import com.paklog.warehouse.domain.picklist.ItemPickedEvent;
+import com.paklog.warehouse.domain.picklist.PickListId;
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.BinLocation;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.domain.shared.WaveReleasedEvent;
+import com.paklog.warehouse.domain.wave.WaveId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSerializerTest {
+
+    private final EventSerializer serializer = new EventSerializer();
+
+    @Test
+    void shouldRoundTripItemPickedInBinary() {
+        ItemPickedEvent event = new ItemPickedEvent(PickListId.generate(), SkuCode.of("SKU-Ünïcode-42"), Quantity.of(300),
+                                                    BinLocation.of("12", "07", "3"), null);
+
+        ItemPickedEvent read = (ItemPickedEvent) roundTrip(event);
+
+        assertEquals(event.getEventId(), read.getEventId());
+        assertEquals(event.getOccurredAt(), read.getOccurredAt());
+        assertEquals(event.getPickListId(), read.getPickListId());
+        assertEquals(event.getSku(), read.getSku());
+        assertEquals(event.getQuantity(), read.getQuantity());
+        assertEquals(event.getBinLocation(), read.getBinLocation());
+        assertNull(read.getPickerId());
+    }
+
+    @Test
+    void shouldRoundTripLicensePlatePickedInBinary() {
+        LicensePlatePickedEvent event = new LicensePlatePickedEvent(LicensePlateId.generate(), "picker-7",
+                                                                    Instant.parse("1969-12-31T23:59:58.5Z"));
+
+        LicensePlatePickedEvent read = (LicensePlatePickedEvent) roundTrip(event);
+
+        assertEquals(event.getEventId(), read.getEventId());
+        assertEquals(event.getLicensePlateId(), read.getLicensePlateId());
+        assertEquals("picker-7", read.getPickedBy());
+        assertEquals(event.getPickedAt(), read.getPickedAt());
+    }
+
+    @Test
+    void shouldRoundTripOrderAssignedToSlotInBinary() {
+        Map<SkuCode, Quantity> items = new LinkedHashMap<>();
+        items.put(SkuCode.of("SKU-1"), Quantity.of(2));
+        items.put(SkuCode.of("SKU-2"), Quantity.of(1));
+        OrderAssignedToSlotEvent event = new OrderAssignedToSlotEvent(PutWallId.generate(), PutWallSlotId.of("A1"),
+                                                                      OrderId.generate(), items, 300);
+
+        OrderAssignedToSlotEvent read = (OrderAssignedToSlotEvent) roundTrip(event);
+
+        assertEquals(event, read);
+        assertEquals(event.getOccurredAt(), read.getOccurredAt());
+        assertEquals(event.getPutWallId(), read.getPutWallId());
+        assertEquals(event.getSlotId(), read.getSlotId());
+        assertEquals(event.getOrderId(), read.getOrderId());
+        assertEquals(items, read.getRequiredItems());
+        assertEquals(300, read.getSequence());
+    }
+
+    @Test
+    void shouldBeSeveralTimesSmallerThanTheJsonEnvelope() {
+        ItemPickedEvent event = new ItemPickedEvent(PickListId.generate(), SkuCode.of("SKU-100234"), Quantity.of(2),
+                                                    BinLocation.of("12", "07", "3"), "picker-7");
+
+        int binary = serializer.serialize(event, BinaryEventFormat.CONTENT_TYPE).length;
+        int json = serializer.serialize(event).getBytes(StandardCharsets.UTF_8).length;
+
+        assertTrue(binary * 3 < json, "binary " + binary + " bytes, json " + json + " bytes");
+    }
+
+    @Test
+    void shouldRejectTypesWithoutBinaryCodecAndUnknownTypeIds() {
+        WaveReleasedEvent wave = new WaveReleasedEvent(WaveId.generate(), List.of(OrderId.generate()), Instant.now());
+
+        assertThrows(EventSerializer.EventSerializationException.class,
+                     () -> serializer.serialize(wave, BinaryEventFormat.CONTENT_TYPE));
+        assertThrows(EventSerializer.EventDeserializationException.class,
+                     () -> serializer.deserialize(new byte[] {1, 99}, BinaryEventFormat.CONTENT_TYPE));
+        assertThrows(EventSerializer.EventDeserializationException.class,
+                     () -> serializer.deserialize(new byte[] {1, 1, 0}, BinaryEventFormat.CONTENT_TYPE));
+    }
+
+    @Test
+    void shouldOnlyResolveDomainEventTypesFromJson() {
+        String envelope = "{\"eventType\":\"java.lang.ProcessBuilder\",\"eventId\":\"" + UUID.randomUUID()
+            + "\",\"payload\":{}}";
+
+        assertThrows(EventSerializer.EventDeserializationException.class, () -> serializer.deserialize(envelope));
+        assertSame(ItemPickedEvent.class, new EventTypeRegistry().typeOf(ItemPickedEvent.class.getName()));
+    }
+
+    @Test
+    void shouldSelectPluggedInFormatsByContentType() {
+        EventFormat echo = new EventFormat() {
+            @Override
+            public String getContentType() {
+                return "text/plain";
+            }
+
+            @Override
+            public byte[] serialize(DomainEvent event) {
+                return event.getEventId().toString().getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public DomainEvent deserialize(byte[] data) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        EventSerializer pluggable = new EventSerializer(DomainEventCodecs.registry(), List.of(echo));
+        LicensePlatePickedEvent event = new LicensePlatePickedEvent(LicensePlateId.generate(), "picker", null);
+
+        assertEquals(event.getEventId().toString(),
+                     new String(pluggable.serialize(event, "text/plain"), StandardCharsets.UTF_8));
+        assertTrue(pluggable.getContentTypes().containsAll(List.of(JsonEventFormat.CONTENT_TYPE,
+                                                                   BinaryEventFormat.CONTENT_TYPE, "text/plain")));
+        assertThrows(IllegalArgumentException.class, () -> pluggable.serialize(event, "application/avro"));
+    }
+
+    private DomainEvent roundTrip(DomainEvent event) {
+        return serializer.deserialize(serializer.serialize(event, BinaryEventFormat.CONTENT_TYPE),
+                                      BinaryEventFormat.CONTENT_TYPE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KafkaOutboxSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaOutboxSender sender = new KafkaOutboxSender(kafkaTemplate, objectMapper, "warehouse-events");
+
+    @Test
+    void shouldEmbedTheEventDataInTheCloudEventOnce() throws Exception {
+        OutboxEvent event = new OutboxEvent("com.paklog.wave.released", "/fulfillment/warehouse-operations-service",
+                                            "wave-1", "{\"waveId\":\"wave-1\",\"orders\":[1,2]}");
+
+        JsonNode cloudEvent = objectMapper.readTree(sender.toCloudEvent(event));
+
+        assertEquals("1.0", cloudEvent.get("specversion").asText());
+        assertEquals(event.getId().toString(), cloudEvent.get("id").asText());
+        assertEquals("wave-1", cloudEvent.get("subject").asText());
+        assertEquals(event.getCreatedAt().toString(), cloudEvent.get("time").asText());
+        assertTrue(cloudEvent.get("data").isObject());
+        assertEquals(2, cloudEvent.get("data").get("orders").size());
+    }
+
+    @Test
+    void shouldSendEventsWithTheirOwnTopicAsTheyAre() {
+        OutboxEvent event = new OutboxEvent("item-picked", "ItemPickedEvent", "/source", "event-1", "{\"a\":1}");
+
+        sender.send(event);
+
+        verify(kafkaTemplate).send("item-picked", "event-1", "{\"a\":1}");
+    }
+}
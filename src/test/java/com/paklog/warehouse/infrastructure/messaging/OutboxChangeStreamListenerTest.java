@@ -0,0 +1,170 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxChangeStreamListenerTest {
+
+    private static final Duration FALLBACK_POLL = Duration.ofMillis(500);
+    private static final Duration RECOVERY_POLL = Duration.ofSeconds(10);
+    private static final BsonDocument TOKEN = new BsonDocument("_data", new BsonString("8263A1"));
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MongoCollection<Document> outboxCollection;
+    @Mock
+    private MongoCollection<Document> tokenCollection;
+    @Mock
+    private FindIterable<Document> savedTokens;
+    @Mock
+    private ChangeStreamIterable<Document> changes;
+    @Mock
+    private ChangeStreamIterable<Document> resumed;
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    @Mock
+    private OutboxRelay relay;
+
+    private OutboxChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(OutboxEvent.class)).thenReturn("outboxEvent");
+        when(mongoTemplate.getCollection("outboxEvent")).thenReturn(outboxCollection);
+        when(mongoTemplate.getCollection(OutboxChangeStreamListener.TOKEN_COLLECTION)).thenReturn(tokenCollection);
+        when(tokenCollection.find(any(Bson.class))).thenReturn(savedTokens);
+        when(outboxCollection.watch(anyList())).thenReturn(changes);
+        when(changes.maxAwaitTime(anyLong(), any())).thenReturn(changes);
+        when(changes.resumeAfter(any())).thenReturn(changes);
+        when(changes.cursor()).thenReturn(cursor);
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+        when(relay.getIdlePollInterval()).thenReturn(FALLBACK_POLL);
+        when(relay.publishesShard(3)).thenReturn(true);
+
+        listener = new OutboxChangeStreamListener(mongoTemplate, relay, "warehouse-operations-0", RECOVERY_POLL,
+                                                  Duration.ofMillis(20), Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void shouldWakeTheRelayForInsertsIntoItsShardsOnly() {
+        when(cursor.tryNext()).thenReturn(insert(3)).thenReturn(insert(5)).thenReturn(insert(3))
+            .thenThrow(new MongoException("connection reset"));
+
+        listener.start();
+
+        // Once on connecting to catch up, once per insert of shard 3, once on falling back to polling
+        verify(relay, timeout(1_000).atLeast(4)).wakeUp();
+        verify(relay).setIdlePollInterval(RECOVERY_POLL);
+        verify(relay, timeout(1_000).atLeastOnce()).setIdlePollInterval(FALLBACK_POLL);
+        verify(relay, atLeastOnce()).publishesShard(5);
+    }
+
+    @Test
+    void shouldSaveTheResumeTokenUnderTheListenerName() {
+        when(cursor.tryNext()).thenReturn(insert(3)).thenReturn(null);
+
+        listener.start();
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(tokenCollection, timeout(1_000)).replaceOne(any(Bson.class), saved.capture(), any(ReplaceOptions.class));
+        assertEquals("warehouse-operations-0", saved.getValue().get("_id"));
+        assertEquals(TOKEN, saved.getValue().get("token"));
+        assertTrue(listener.isConnected());
+    }
+
+    @Test
+    void shouldResumeAfterTheSavedToken() {
+        when(savedTokens.first()).thenReturn(new Document("_id", "warehouse-operations-0")
+            .append("token", new Document("_data", "8263A1")));
+        when(cursor.tryNext()).thenReturn(null);
+
+        listener.start();
+
+        verify(changes, timeout(1_000)).resumeAfter(TOKEN);
+        // Nothing new since the saved token, so nothing to save
+        verify(tokenCollection, after(100).never()).replaceOne(any(Bson.class), any(Document.class),
+                                                               any(ReplaceOptions.class));
+    }
+
+    @Test
+    void shouldStartFromNowWhenTheSavedTokenFellOffTheOplog() {
+        when(savedTokens.first()).thenReturn(new Document("_id", "warehouse-operations-0")
+            .append("token", new Document("_data", "8263A1")));
+        when(changes.resumeAfter(any())).thenReturn(resumed);
+        MongoCommandException historyLost = commandFailure(286, "Resume of change stream was not possible");
+        when(resumed.cursor()).thenThrow(historyLost);
+        when(cursor.tryNext()).thenReturn(null);
+
+        listener.start();
+
+        verify(changes, timeout(1_000)).cursor();
+        verify(tokenCollection).deleteOne(any(Bson.class));
+        verify(relay, timeout(1_000)).setIdlePollInterval(RECOVERY_POLL);
+    }
+
+    @Test
+    void shouldLeaveTheRelayPollingWithoutAReplicaSet() {
+        MongoCommandException notAReplicaSet =
+            commandFailure(40573, "The $changeStream stage is only supported on replica sets");
+        when(changes.cursor()).thenThrow(notAReplicaSet);
+
+        listener.start();
+
+        verify(relay, timeout(1_000).atLeast(2)).setIdlePollInterval(FALLBACK_POLL);
+        verify(relay, never()).setIdlePollInterval(RECOVERY_POLL);
+        assertFalse(listener.isConnected());
+    }
+
+    private static ChangeStreamDocument<Document> insert(int shard) {
+        return new ChangeStreamDocument<>(OperationType.INSERT.getValue(), TOKEN, null, null,
+                                          new Document("shard", shard), null, null, null, null, null, null, null,
+                                          null);
+    }
+
+    // Mocked, so the test does not depend on how the driver builds one from a server reply
+    private static MongoCommandException commandFailure(int code, String message) {
+        MongoCommandException failure = mock(MongoCommandException.class);
+        when(failure.getCode()).thenReturn(code);
+        when(failure.getMessage()).thenReturn(message);
+        return failure;
+    }
+}
@@ -0,0 +1,393 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxRelayTest {
+
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private final InMemoryOutbox outbox = new InMemoryOutbox();
+    private OutboxRelay relay;
+
+    @AfterEach
+    void tearDown() {
+        if (relay != null) {
+            relay.stop();
+        }
+    }
+
+    @Test
+    void shouldDrainBacklogInBatchesWithOneBulkAcknowledgementEach() {
+        outbox.add(25);
+        relay = relay(event -> CompletableFuture.completedFuture(null), 10, 2);
+
+        assertEquals(25, relay.drain());
+
+        assertEquals(0, outbox.unprocessedCount());
+        assertEquals(3, outbox.claims.get());
+        assertEquals(3, outbox.bulkAcknowledgements.get());
+        OutboxRelay.Statistics statistics = relay.getStatistics();
+        assertEquals(3, statistics.getClaimedBatches());
+        assertEquals(25, statistics.getPublishedEvents());
+        assertEquals(0, statistics.getFailedEvents());
+    }
+
+    @Test
+    void shouldMarkOnlyAcknowledgedEventsAndRetryTheRestAfterTheLease() {
+        List<OutboxEvent> events = outbox.add(10);
+        Set<UUID> failing = Set.of(events.get(2).getId(), events.get(7).getId());
+        relay = relay(event -> failing.contains(event.getId()) && clock.instant().isBefore(outbox.start.plusSeconds(60))
+            ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+            : CompletableFuture.completedFuture(null), 10, 2);
+
+        assertEquals(8, relay.drain());
+        assertEquals(2, outbox.unprocessedCount());
+        assertEquals(2, relay.getStatistics().getFailedEvents());
+
+        // Still leased
+        assertEquals(0, relay.drain());
+
+        clock.advance(Duration.ofSeconds(61));
+        assertEquals(2, relay.drain());
+        assertEquals(0, outbox.unprocessedCount());
+    }
+
+    @Test
+    void shouldSendNextBatchesBeforeEarlierOnesAreAcknowledged() {
+        outbox.add(200);
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger peakOutstanding = new AtomicInteger();
+        Executor delayed = CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS);
+        relay = relay(event -> {
+            peakOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(outstanding::decrementAndGet, delayed);
+        }, 20, 4);
+
+        assertEquals(200, relay.drain());
+
+        assertTrue(peakOutstanding.get() > 20, "peak " + peakOutstanding.get());
+        assertTrue(peakOutstanding.get() <= 80, "peak " + peakOutstanding.get());
+        assertEquals(10, outbox.bulkAcknowledgements.get());
+    }
+
+    @Test
+    void shouldLeaveEventsClaimedByAnotherRelayAlone() {
+        outbox.add(5);
+        Instant now = clock.instant();
+        outbox.claimBatch("other-relay", allShards(), 3, now, now.plusSeconds(60));
+        relay = relay(event -> CompletableFuture.completedFuture(null), 10, 2);
+
+        assertEquals(2, relay.drain());
+        assertEquals(3, outbox.unprocessedCount());
+    }
+
+    @Test
+    void shouldHoldBackLaterEventsOfAnAggregateInTheBatchOfItsFailedEvent() {
+        List<OutboxEvent> sent = new CopyOnWriteArrayList<>();
+        OutboxEvent first = outbox.add("order-1");
+        OutboxEvent second = outbox.add("order-1");
+        OutboxEvent other = outbox.add("order-2");
+        relay = relay(failingOnce(first, sent), 10, 2);
+
+        assertEquals(1, relay.drain());
+        assertTrue(outbox.isProcessed(other));
+        assertFalse(outbox.isProcessed(second));
+        assertEquals(1, relay.getStatistics().getFailedEvents());
+        assertEquals(1, relay.getStatistics().getDeferredEvents());
+
+        clock.advance(Duration.ofSeconds(61));
+        assertEquals(2, relay.drain());
+        assertEquals(List.of(first, other, first, second), sent);
+    }
+
+    @Test
+    void shouldNotClaimLaterEventsOfAnAggregateWhileItsFailedEventIsLeased() {
+        List<OutboxEvent> sent = new CopyOnWriteArrayList<>();
+        OutboxEvent first = outbox.add("order-1");
+        OutboxEvent second = outbox.add("order-1");
+        OutboxEvent other = outbox.add("order-2");
+        // One event per batch, so the second is claimed while the first is in flight
+        relay = relay(failingOnce(first, sent), 1, 4);
+
+        assertEquals(1, relay.drain());
+        assertTrue(outbox.isProcessed(other));
+        assertFalse(outbox.isProcessed(second));
+
+        clock.advance(Duration.ofSeconds(61));
+        assertEquals(2, relay.drain());
+        assertEquals(List.of(first, other, first, second), sent);
+    }
+
+    @Test
+    void shouldSendEventsOfAnAggregateOnlyAfterTheEarlierOneWasAcknowledged() {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(outbox.add("order-1"));
+        }
+        List<OutboxEvent> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicInteger peakOutstanding = new AtomicInteger();
+        Executor delayed = CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS);
+        relay = relay(event -> {
+            sent.add(event);
+            peakOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(outstanding::decrementAndGet, delayed);
+        }, 5, 4);
+
+        assertEquals(20, relay.drain());
+
+        assertEquals(events, sent);
+        assertEquals(1, peakOutstanding.get());
+    }
+
+    // Fails the first send of the event, acknowledges everything else
+    private static OutboxSender failingOnce(OutboxEvent failing, List<OutboxEvent> sent) {
+        return event -> {
+            sent.add(event);
+            return event == failing && sent.indexOf(failing) == sent.lastIndexOf(failing)
+                ? CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"))
+                : CompletableFuture.completedFuture(null);
+        };
+    }
+
+    @Test
+    void shouldOnlyClaimEventsOfHeldShards() {
+        OutboxEvent mine = outbox.add("order-1");
+        OutboxEvent theirs = outbox.add("order-2");
+        while (theirs.getShard() == mine.getShard()) {
+            theirs = outbox.add("order-" + UUID.randomUUID());
+        }
+        OutboxShardAssignment assignment = new OutboxShardAssignment(
+            new SingleShardLeases(mine.getShard()), "relay-1", Duration.ofSeconds(15), clock);
+        relay = new OutboxRelay(outbox, event -> CompletableFuture.completedFuture(null), assignment, clock, 10, 2,
+                                Duration.ofSeconds(60), Duration.ofSeconds(5), Duration.ofMillis(100));
+
+        assertEquals(1, relay.drain());
+        assertTrue(outbox.isProcessed(mine));
+        assertFalse(outbox.isProcessed(theirs));
+        assertEquals(1, relay.getShardCount());
+    }
+
+    @Test
+    void shouldPublishNewEventsContinuouslyOnceStarted() throws InterruptedException {
+        relay = relay(event -> CompletableFuture.completedFuture(null), 50, 2);
+        relay.start();
+
+        for (int round = 0; round < 5; round++) {
+            outbox.add(40);
+            relay.wakeUp();
+            Thread.sleep(20);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (outbox.unprocessedCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, outbox.unprocessedCount());
+        assertEquals(200, relay.getStatistics().getPublishedEvents());
+        assertTrue(relay.getStatistics().getMaxLagMillis() >= 0);
+    }
+
+    @Test
+    void shouldPublishOnAWakeUpWithoutWaitingForTheIdlePoll() throws InterruptedException {
+        Semaphore published = new Semaphore(0);
+        // An idle poll far beyond the wait below: only the wake-up can get each event out in time
+        relay = new OutboxRelay(outbox, event -> {
+            published.release();
+            return CompletableFuture.completedFuture(null);
+        }, clock, 50, 2, Duration.ofSeconds(60), Duration.ofSeconds(5), Duration.ofMinutes(10));
+        relay.start();
+
+        for (int round = 0; round < 5; round++) {
+            // Let the relay back off towards its idle poll, as it would between inserts
+            Thread.sleep(50);
+            outbox.add("order-" + round);
+            relay.wakeUp();
+            assertTrue(published.tryAcquire(10, TimeUnit.SECONDS), "event " + round + " not published");
+        }
+    }
+
+    private OutboxRelay relay(OutboxSender sender, int batchSize, int maxInFlightBatches) {
+        return new OutboxRelay(outbox, sender, clock, batchSize, maxInFlightBatches, Duration.ofSeconds(60),
+                               Duration.ofSeconds(5), Duration.ofMillis(100));
+    }
+
+    private static Set<Integer> allShards() {
+        Set<Integer> shards = new HashSet<>();
+        for (int shard = 0; shard < OutboxEvent.SHARD_COUNT; shard++) {
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    private final class InMemoryOutbox implements OutboxLeaseOperations {
+        private final Instant start = clock.instant();
+        private final Map<UUID, Entry> entries = new LinkedHashMap<>();
+        private final AtomicInteger claims = new AtomicInteger();
+        private final AtomicInteger bulkAcknowledgements = new AtomicInteger();
+
+        synchronized List<OutboxEvent> add(int count) {
+            List<OutboxEvent> added = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                OutboxEvent event = new OutboxEvent("com.paklog.test", "/test", "subject-" + i, "{}");
+                entries.put(event.getId(), new Entry(event));
+                added.add(event);
+            }
+            return added;
+        }
+
+        synchronized OutboxEvent add(String aggregateId) {
+            OutboxEvent event = new OutboxEvent("com.paklog.test", "/test", aggregateId, "{}");
+            entries.put(event.getId(), new Entry(event));
+            return event;
+        }
+
+        synchronized boolean isProcessed(OutboxEvent event) {
+            return entries.get(event.getId()).processed;
+        }
+
+        synchronized long unprocessedCount() {
+            return entries.values().stream().filter(entry -> !entry.processed).count();
+        }
+
+        @Override
+        public synchronized List<OutboxEvent> claimBatch(String claimId, Collection<Integer> shards, int limit,
+                                                         Instant now, Instant leaseExpiresAt) {
+            List<OutboxEvent> claimed = new ArrayList<>();
+            // Aggregates with an event leased, in flight or failed, wait for it
+            Set<String> blocked = new HashSet<>();
+            for (Entry entry : entries.values()) {
+                if (!entry.processed && entry.leaseExpiresAt != null && entry.leaseExpiresAt.isAfter(now)) {
+                    blocked.add(entry.event.getSubject());
+                }
+            }
+            for (Entry entry : entries.values()) {
+                if (claimed.size() == limit) {
+                    break;
+                }
+                if (!entry.processed && shards.contains(entry.event.getShard()) && !blocked.contains(entry.event.getSubject())
+                        && (entry.leaseExpiresAt == null || !entry.leaseExpiresAt.isAfter(now))) {
+                    entry.claimId = claimId;
+                    entry.leaseExpiresAt = leaseExpiresAt;
+                    claimed.add(entry.event);
+                }
+            }
+            if (!claimed.isEmpty()) {
+                claims.incrementAndGet();
+            }
+            return claimed;
+        }
+
+        @Override
+        public synchronized long markProcessed(String claimId, Collection<UUID> eventIds, Instant processedAt) {
+            bulkAcknowledgements.incrementAndGet();
+            long marked = 0;
+            for (UUID eventId : eventIds) {
+                Entry entry = entries.get(eventId);
+                if (entry != null && claimId.equals(entry.claimId)) {
+                    entry.processed = true;
+                    entry.claimId = null;
+                    entry.leaseExpiresAt = null;
+                    marked++;
+                }
+            }
+            return marked;
+        }
+    }
+
+    // Holds one shard; another relay holds the rest
+    private static final class SingleShardLeases implements OutboxShardLeases {
+        private final int shard;
+
+        SingleShardLeases(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void heartbeat(String relayId, Instant expiresAt) {
+        }
+
+        @Override
+        public int countLiveRelays(Instant now) {
+            return OutboxEvent.SHARD_COUNT;
+        }
+
+        @Override
+        public Set<Integer> renew(String relayId, Instant expiresAt) {
+            return Set.of(shard);
+        }
+
+        @Override
+        public boolean acquire(int shard, String relayId, Instant now, Instant expiresAt) {
+            return false;
+        }
+
+        @Override
+        public void release(int shard, String relayId) {
+        }
+
+        @Override
+        public void leave(String relayId) {
+        }
+    }
+
+    private static final class Entry {
+        private final OutboxEvent event;
+        private boolean processed;
+        private String claimId;
+        private Instant leaseExpiresAt;
+
+        Entry(OutboxEvent event) {
+            this.event = event;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.paklog.warehouse.infrastructure.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxShardAssignmentTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(15);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-03-01T08:00:00Z"));
+    private final InMemoryShardLeases leases = new InMemoryShardLeases();
+
+    @Test
+    void shouldTakeEveryShardWhenAlone() {
+        OutboxShardAssignment relay = assignment("relay-1");
+
+        assertEquals(OutboxEvent.SHARD_COUNT, relay.refresh().size());
+    }
+
+    @Test
+    void shouldSplitShardsEvenlyWhenRelaysJoin() {
+        OutboxShardAssignment first = assignment("relay-1");
+        OutboxShardAssignment second = assignment("relay-2");
+        OutboxShardAssignment third = assignment("relay-3");
+        first.refresh();
+        second.refresh();
+        third.refresh();
+
+        // Surplus released on one refresh, taken up on the next
+        for (int round = 0; round < 3; round++) {
+            first.refresh();
+            second.refresh();
+            third.refresh();
+        }
+
+        Set<Integer> all = new HashSet<>();
+        for (OutboxShardAssignment relay : new OutboxShardAssignment[]{first, second, third}) {
+            Set<Integer> owned = relay.getOwnedShards();
+            assertTrue(owned.size() >= 20 && owned.size() <= 22, "owned " + owned.size());
+            for (int shard : owned) {
+                assertTrue(all.add(shard), "shard " + shard + " held twice");
+            }
+        }
+        assertEquals(OutboxEvent.SHARD_COUNT, all.size());
+    }
+
+    @Test
+    void shouldTakeOverShardsOfRelayThatStoppedRenewing() {
+        OutboxShardAssignment first = assignment("relay-1");
+        OutboxShardAssignment second = assignment("relay-2");
+        first.refresh();
+        second.refresh();
+        first.refresh();
+        second.refresh();
+        assertEquals(OutboxEvent.SHARD_COUNT / 2, second.getOwnedShards().size());
+
+        // relay-1 crashes
+        clock.advance(LEASE.plusSeconds(1));
+        second.refresh();
+
+        assertEquals(OutboxEvent.SHARD_COUNT, second.getOwnedShards().size());
+    }
+
+    @Test
+    void shouldHandShardsOverImmediatelyWhenReleased() {
+        OutboxShardAssignment first = assignment("relay-1");
+        OutboxShardAssignment second = assignment("relay-2");
+        first.refresh();
+        second.refresh();
+
+        first.releaseAll();
+        second.refresh();
+
+        assertEquals(OutboxEvent.SHARD_COUNT, second.getOwnedShards().size());
+        assertTrue(first.getOwnedShards().isEmpty());
+    }
+
+    @Test
+    void shouldRefreshOnlyAfterAThirdOfTheLease() {
+        OutboxShardAssignment relay = assignment("relay-1");
+        relay.currentShards();
+        int heartbeats = leases.heartbeats;
+
+        clock.advance(Duration.ofSeconds(4));
+        relay.currentShards();
+        assertEquals(heartbeats, leases.heartbeats);
+
+        clock.advance(Duration.ofSeconds(1));
+        relay.currentShards();
+        assertEquals(heartbeats + 1, leases.heartbeats);
+    }
+
+    private OutboxShardAssignment assignment(String relayId) {
+        return new OutboxShardAssignment(leases, relayId, LEASE, clock);
+    }
+
+    private static final class InMemoryShardLeases implements OutboxShardLeases {
+        private final Map<Integer, String> owners = new HashMap<>();
+        private final Map<Integer, Instant> leaseExpiry = new HashMap<>();
+        private final Map<String, Instant> relays = new HashMap<>();
+        private int heartbeats;
+
+        @Override
+        public void heartbeat(String relayId, Instant expiresAt) {
+            heartbeats++;
+            relays.put(relayId, expiresAt);
+        }
+
+        @Override
+        public int countLiveRelays(Instant now) {
+            return (int) relays.values().stream().filter(expiresAt -> expiresAt.isAfter(now)).count();
+        }
+
+        @Override
+        public Set<Integer> renew(String relayId, Instant expiresAt) {
+            Set<Integer> owned = new HashSet<>();
+            owners.forEach((shard, owner) -> {
+                if (owner.equals(relayId)) {
+                    leaseExpiry.put(shard, expiresAt);
+                    owned.add(shard);
+                }
+            });
+            return owned;
+        }
+
+        @Override
+        public boolean acquire(int shard, String relayId, Instant now, Instant expiresAt) {
+            String owner = owners.get(shard);
+            if (owner != null && !owner.equals(relayId) && leaseExpiry.get(shard).isAfter(now)) {
+                return false;
+            }
+            owners.put(shard, relayId);
+            leaseExpiry.put(shard, expiresAt);
+            return true;
+        }
+
+        @Override
+        public void release(int shard, String relayId) {
+            if (relayId.equals(owners.get(shard))) {
+                owners.remove(shard);
+                leaseExpiry.remove(shard);
+            }
+        }
+
+        @Override
+        public void leave(String relayId) {
+            owners.entrySet().removeIf(entry -> entry.getValue().equals(relayId));
+            relays.remove(relayId);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
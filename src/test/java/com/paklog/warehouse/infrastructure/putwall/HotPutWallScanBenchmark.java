@@ -0,0 +1,208 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.adapter.persistence.mongodb.PutWallDocument;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallCapacity;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallRepository;
+import com.paklog.warehouse.domain.putwall.PutWallService;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * A put wall scan on a 500-slot wall with 450 orders in progress, answered by the
+ * {@link HotPutWallStore} and by rebuilding the wall from its stored document as every
+ * scan did before. The MongoDB round trip the rebuild also paid is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPutWallScanBenchmark {
+
+    private static final int SLOTS = 500;
+    private static final int ORDERS = 450;
+    private static final int SKUS_PER_ORDER = 4;
+    private static final int SKU_RANGE = 2_000;
+    private static final int SCANS = 1_024;
+
+    private final PutWallService putWallService = new PutWallService();
+    private PutWallDocument document;
+    private HotPutWallStore store;
+    private PutWallId putWallId;
+    private SkuCode[] scannedSkus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<PutWallSlotId> slotIds = IntStream.range(0, SLOTS)
+            .mapToObj(i -> PutWallSlotId.of("S" + i))
+            .toList();
+        PutWall putWall = new PutWall(PutWallId.generate(), slotIds, "Benchmark Zone");
+        putWallId = putWall.getPutWallId();
+
+        List<SkuCode> requiredSkus = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Map<SkuCode, Quantity> requiredItems = new HashMap<>();
+            while (requiredItems.size() < SKUS_PER_ORDER) {
+                requiredItems.put(SkuCode.of("SKU" + random.nextInt(SKU_RANGE)), Quantity.of(1 + random.nextInt(3)));
+            }
+            putWall.assignOrderToSlot(OrderId.generate(), requiredItems);
+            requiredSkus.addAll(requiredItems.keySet());
+        }
+        putWall.clearDomainEvents();
+        document = PutWallDocument.fromDomain(putWall);
+
+        scannedSkus = new SkuCode[SCANS];
+        for (int i = 0; i < SCANS; i++) {
+            scannedSkus[i] = requiredSkus.get(random.nextInt(requiredSkus.size()));
+        }
+
+        // Scans publish nothing
+        store = new HotPutWallStore(new DocumentRepository(document), wall -> 0, new LocalLeases(),
+                                    new DomainEventPublisher(null, null, null, null),
+                                    TransactionOperations.withoutTransaction(), "benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.stop();
+    }
+
+    @Benchmark
+    public PutWallService.SortationResult hotScan() {
+        SkuCode scannedSku = nextSku();
+        return store.read(putWallId, putWall -> putWallService.determineSortationTarget(putWall, scannedSku));
+    }
+
+    @Benchmark
+    public PutWallService.SortationResult rebuiltScan() {
+        return putWallService.determineSortationTarget(document.toDomain(), nextSku());
+    }
+
+    private SkuCode nextSku() {
+        return scannedSkus[next++ & (SCANS - 1)];
+    }
+
+    private static final class DocumentRepository implements PutWallRepository {
+        private final PutWallDocument document;
+
+        private DocumentRepository(PutWallDocument document) {
+            this.document = document;
+        }
+
+        @Override
+        public Optional<PutWall> findById(PutWallId putWallId) {
+            return Optional.of(document.toDomain());
+        }
+
+        @Override
+        public void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+        }
+
+        @Override
+        public Optional<PutWall> claim(PutWallId putWallId, String ownerToken) {
+            return Optional.of(document.toDomain());
+        }
+
+        @Override
+        public List<PutWall> findByLocation(String location) {
+            return List.of();
+        }
+
+        @Override
+        public List<PutWall> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public void save(PutWall putWall) {
+        }
+
+        @Override
+        public void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount,
+                              long sequence, String ownerToken) {
+        }
+
+        @Override
+        public void delete(PutWallId putWallId) {
+        }
+
+        @Override
+        public List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity) {
+            return List.of();
+        }
+
+        @Override
+        public List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity) {
+            return List.of();
+        }
+
+        @Override
+        public boolean exists(PutWallId putWallId) {
+            return true;
+        }
+    }
+
+    private static final class LocalLeases implements PutWallLeases {
+
+        @Override
+        public boolean acquire(PutWallId putWallId, String ownerId, Instant now, Instant expiresAt) {
+            return true;
+        }
+
+        @Override
+        public Set<PutWallId> renew(String ownerId, Instant expiresAt) {
+            return Set.of();
+        }
+
+        @Override
+        public void release(PutWallId putWallId, String ownerId) {
+        }
+
+        @Override
+        public void releaseAll(String ownerId) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(HotPutWallScanBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
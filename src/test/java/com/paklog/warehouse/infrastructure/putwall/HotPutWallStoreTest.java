@@ -0,0 +1,472 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.adapter.persistence.mongodb.PutWallDocument;
+import com.paklog.warehouse.domain.putwall.ItemPlacedInSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallCapacity;
+import com.paklog.warehouse.domain.putwall.PutWallException;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallRepository;
+import com.paklog.warehouse.domain.putwall.PutWallService;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotStatus;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.infrastructure.events.DomainEventPublisher;
+import com.paklog.warehouse.infrastructure.events.EventSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPutWallStoreTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+    private static final SkuCode SKU = SkuCode.of("SKU001");
+
+    private final InMemoryPutWallRepository repository = new InMemoryPutWallRepository();
+    private final InMemoryPutWallLeases leases = new InMemoryPutWallLeases();
+    private final RecordingPublisher publisher = new RecordingPublisher();
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private final PutWallService putWallService = new PutWallService();
+    private PutWallId putWallId;
+
+    @BeforeEach
+    void setUp() {
+        PutWall putWall = new PutWall(PutWallId.generate(),
+            List.of(PutWallSlotId.of("A1"), PutWallSlotId.of("A2"), PutWallSlotId.of("A3")), "Zone A");
+        putWallId = putWall.getPutWallId();
+        repository.save(putWall);
+    }
+
+    @Test
+    void shouldApplyChangesInMemoryAndWriteOnlyChangedSlotsBehind() {
+        HotPutWallStore store = store("node-1");
+        OrderId orderId = OrderId.generate();
+
+        PutWallSlotId slotId = store.update(putWallId, putWall ->
+            putWall.assignOrderToSlot(orderId, Map.of(SKU, Quantity.of(2)))).orElseThrow();
+        store.update(putWallId, putWall -> {
+            putWall.placeItemInSlot(slotId, SKU, Quantity.of(1));
+            return null;
+        });
+
+        PutWallService.SortationResult result = store.read(putWallId, putWall ->
+            putWallService.determineSortationTarget(putWall, SKU));
+        assertEquals(slotId, result.getTargetSlotId());
+        assertEquals(1, result.getQuantityNeeded().getValue());
+        // Events are in the outbox, the stored wall is untouched until the flush
+        assertEquals(2, publisher.outbox.size());
+        assertEquals(0, repository.slotWrites);
+        assertEquals(1, repository.snapshotReads);
+        assertTrue(leases.owners.containsKey(putWallId));
+
+        store.flush();
+
+        assertEquals(1, repository.slotWrites);
+        assertEquals(List.of(slotId), repository.lastWrittenSlots);
+        assertEquals(2L, repository.documents.get(putWallId).getSequence());
+        PutWallSlot stored = repository.findById(putWallId).orElseThrow().getSlotById(slotId);
+        assertEquals(orderId, stored.getAssignedOrderId());
+        assertEquals(1, stored.getPlacedQuantity(SKU).getValue());
+        assertEquals(2, repository.documents.get(putWallId).getFreeSlotCount());
+
+        HotPutWallStore.Statistics statistics = store.getStatistics();
+        assertEquals(2, statistics.getChanges());
+        assertEquals(1, statistics.getFlushedSlots());
+        assertEquals(0, statistics.getDirtySlots());
+
+        // Nothing changed since
+        store.flush();
+        assertEquals(1, repository.slotWrites);
+    }
+
+    @Test
+    void shouldRejectWallsLeasedByAnotherInstance() {
+        HotPutWallStore first = store("node-1");
+        HotPutWallStore second = store("node-2");
+        first.read(putWallId, PutWall::getAvailableCapacity);
+
+        assertThrows(PutWallException.PutWallOwnedElsewhereException.class,
+            () -> second.read(putWallId, PutWall::getAvailableCapacity));
+        assertFalse(second.holds(putWallId));
+        assertEquals("node-1", leases.owners.get(putWallId));
+    }
+
+    @Test
+    void shouldRejectUnknownWallsWithoutKeepingTheirLease() {
+        HotPutWallStore store = store("node-1");
+        PutWallId unknown = PutWallId.generate();
+
+        assertThrows(PutWallException.PutWallNotFoundException.class,
+            () -> store.read(unknown, PutWall::getAvailableCapacity));
+        assertFalse(leases.owners.containsKey(unknown));
+        assertFalse(store.holds(unknown));
+    }
+
+    @Test
+    void shouldReplayChangesNotWrittenOutFromTheOutbox() {
+        HotPutWallStore crashed = store("node-1");
+        OrderId orderId = OrderId.generate();
+        PutWallSlotId slotId = crashed.update(putWallId, putWall ->
+            putWall.assignOrderToSlot(orderId, Map.of(SKU, Quantity.of(1)))).orElseThrow();
+        crashed.flush();
+        crashed.update(putWallId, putWall -> {
+            putWall.placeItemInSlot(slotId, SKU, Quantity.of(1));
+            return null;
+        });
+        // Stops without writing the placement out; its lease runs out
+        clock.advance(LEASE.plusSeconds(1));
+        int recorded = publisher.outbox.size();
+
+        HotPutWallStore next = store("node-2");
+        assertEquals(List.of(slotId), next.read(putWallId, PutWall::getReadyForPackSlots));
+        assertEquals(1, next.getStatistics().getReplayedChanges());
+        // Replaying records nothing new
+        assertEquals(recorded, publisher.outbox.size());
+
+        next.flush();
+        assertEquals(PutWallSlotStatus.READY_FOR_PACK,
+                     repository.findById(putWallId).orElseThrow().getSlotById(slotId).getStatus());
+    }
+
+    @Test
+    void shouldNotLoadAWallWhoseChangesCannotBeReplayed() {
+        HotPutWallStore crashed = store("node-1");
+        crashed.update(putWallId, putWall -> putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU, Quantity.of(1))));
+        clock.advance(LEASE.plusSeconds(1));
+        publisher.outbox.add("{\"eventType\":");
+
+        HotPutWallStore next = store("node-2");
+        assertThrows(IllegalStateException.class, () -> next.read(putWallId, PutWall::getAvailableCapacity));
+
+        assertFalse(next.holds(putWallId));
+        assertFalse(leases.owners.containsKey(putWallId));
+        assertEquals(0, next.getStatistics().getLoads());
+    }
+
+    @Test
+    void shouldDropAWallClaimedByAnotherOwnerWithoutWritingOverIt() {
+        HotPutWallStore stale = store("node-1");
+        OrderId orderId = OrderId.generate();
+        PutWallSlotId slotId = stale.update(putWallId, putWall ->
+            putWall.assignOrderToSlot(orderId, Map.of(SKU, Quantity.of(1)))).orElseThrow();
+        // Paused past its lease, while another instance takes the wall over and changes it
+        clock.advance(LEASE.plusSeconds(1));
+        HotPutWallStore next = store("node-2");
+        next.update(putWallId, putWall -> {
+            putWall.placeItemInSlot(slotId, SKU, Quantity.of(1));
+            return null;
+        });
+        next.flush();
+
+        stale.flush();
+
+        assertFalse(stale.holds(putWallId));
+        assertEquals(1, stale.getStatistics().getFlushFailures());
+        assertEquals(1, repository.slotWrites);
+        assertEquals(2L, repository.documents.get(putWallId).getSequence());
+        assertEquals(PutWallSlotStatus.READY_FOR_PACK,
+                     repository.findById(putWallId).orElseThrow().getSlotById(slotId).getStatus());
+        assertEquals("node-2", leases.owners.get(putWallId));
+    }
+
+    @Test
+    void shouldDropTheWallWhenTheOutboxAppendFails() {
+        HotPutWallStore store = store("node-1");
+        OrderId orderId = OrderId.generate();
+        PutWallSlotId slotId = store.update(putWallId, putWall ->
+            putWall.assignOrderToSlot(orderId, Map.of(SKU, Quantity.of(2)))).orElseThrow();
+
+        publisher.failing = true;
+        assertThrows(IllegalStateException.class, () -> store.update(putWallId, putWall -> {
+            putWall.placeItemInSlot(slotId, SKU, Quantity.of(1));
+            return null;
+        }));
+        assertFalse(store.holds(putWallId));
+        publisher.failing = false;
+
+        // Reloaded from the snapshot and the outbox, without the placement that was not recorded
+        PutWallSlot slot = store.read(putWallId, putWall -> putWall.getSlotById(slotId).copy());
+        assertEquals(orderId, slot.getAssignedOrderId());
+        assertEquals(0, slot.getPlacedQuantity(SKU).getValue());
+        assertEquals(2, store.getStatistics().getLoads());
+    }
+
+    @Test
+    void shouldKeepTheWallWhenAChangeIsRejectedBeforeModifyingIt() {
+        HotPutWallStore store = store("node-1");
+
+        assertThrows(IllegalStateException.class, () -> store.update(putWallId, putWall -> {
+            putWall.releaseSlot(PutWallSlotId.of("A1"));
+            return null;
+        }));
+
+        assertTrue(store.holds(putWallId));
+        assertEquals(0, store.getStatistics().getEvictions());
+    }
+
+    @Test
+    void shouldDropWallsWhoseLeaseWasLost() {
+        HotPutWallStore store = store("node-1");
+        store.read(putWallId, PutWall::getAvailableCapacity);
+        clock.advance(Duration.ofSeconds(10));
+
+        leases.owners.put(putWallId, "node-2");
+        store.renewLeases();
+
+        assertFalse(store.holds(putWallId));
+        assertEquals("node-2", leases.owners.get(putWallId));
+        assertThrows(PutWallException.PutWallOwnedElsewhereException.class,
+            () -> store.read(putWallId, PutWall::getAvailableCapacity));
+    }
+
+    @Test
+    void shouldReloadAWallWhoseLeaseRanOutUnrenewed() {
+        HotPutWallStore store = store("node-1");
+        store.read(putWallId, PutWall::getAvailableCapacity);
+
+        clock.advance(LEASE);
+        assertEquals(3, store.read(putWallId, PutWall::getAvailableCapacity));
+
+        assertEquals(2, store.getStatistics().getLoads());
+        assertEquals(2, repository.snapshotReads);
+    }
+
+    @Test
+    void shouldWriteOutAndReleaseIdleWalls() {
+        HotPutWallStore store = store("node-1");
+        store.update(putWallId, putWall -> putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU, Quantity.of(1))));
+
+        clock.advance(IDLE_TIMEOUT.minusSeconds(1));
+        store.releaseIdleWalls();
+        assertTrue(store.holds(putWallId));
+
+        clock.advance(Duration.ofSeconds(2));
+        store.releaseIdleWalls();
+
+        assertFalse(store.holds(putWallId));
+        assertFalse(leases.owners.containsKey(putWallId));
+        assertEquals(1, repository.slotWrites);
+    }
+
+    @Test
+    void shouldWriteOutEverythingAndReleaseLeasesOnStop() {
+        HotPutWallStore store = store("node-1");
+        store.start();
+        store.update(putWallId, putWall -> putWall.assignOrderToSlot(OrderId.generate(), Map.of(SKU, Quantity.of(1))));
+
+        store.stop();
+
+        assertFalse(store.isRunning());
+        assertFalse(store.holds(putWallId));
+        assertTrue(leases.owners.isEmpty());
+        assertEquals(2, repository.findById(putWallId).orElseThrow().getAvailableCapacity());
+    }
+
+    private HotPutWallStore store(String ownerId) {
+        PutWallEventLog eventLog = putWall -> OutboxPutWallEventLog.replay(putWall, publisher.outbox);
+        return new HotPutWallStore(repository, eventLog, leases, publisher, TransactionOperations.withoutTransaction(),
+                                   ownerId, FLUSH_INTERVAL, LEASE, IDLE_TIMEOUT, clock);
+    }
+
+    private static final class RecordingPublisher extends DomainEventPublisher {
+        private final EventSerializer serializer = new EventSerializer();
+        private final List<String> outbox = new ArrayList<>();
+        private final List<DomainEvent> events = new ArrayList<>();
+        private volatile boolean failing;
+
+        RecordingPublisher() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public void publishEvents(List<DomainEvent> published) {
+            if (failing) {
+                throw new IllegalStateException("Outbox unavailable");
+            }
+            for (DomainEvent event : published) {
+                events.add(event);
+                outbox.add(serializer.serialize(event));
+            }
+        }
+
+        DomainEvent lastEvent() {
+            return events.get(events.size() - 1);
+        }
+    }
+
+    // Stores walls as their MongoDB documents, so slots are written and read back as they would be there
+    private static final class InMemoryPutWallRepository implements PutWallRepository {
+        private final Map<PutWallId, PutWallDocument> documents = new HashMap<>();
+        private List<PutWallSlotId> lastWrittenSlots = List.of();
+        private int slotWrites;
+        private int snapshotReads;
+
+        @Override
+        public synchronized Optional<PutWall> findById(PutWallId putWallId) {
+            return Optional.ofNullable(documents.get(putWallId)).map(PutWallDocument::toDomain);
+        }
+
+        @Override
+        public List<PutWall> findByLocation(String location) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PutWall> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized void save(PutWall putWall) {
+            documents.put(putWall.getPutWallId(), PutWallDocument.fromDomain(putWall));
+        }
+
+        @Override
+        public void savePlacements(PutWall putWall, List<ItemPlacedInSlotEvent> placements) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Optional<PutWall> claim(PutWallId putWallId, String ownerToken) {
+            snapshotReads++;
+            PutWallDocument document = documents.get(putWallId);
+            if (document == null) {
+                return Optional.empty();
+            }
+            document.setOwner(ownerToken);
+            return Optional.of(document.toDomain());
+        }
+
+        @Override
+        public synchronized void saveSlots(PutWallId putWallId, Collection<PutWallSlot> slots, int freeSlotCount,
+                                           long sequence, String ownerToken) {
+            PutWallDocument document = documents.get(putWallId);
+            if (!ownerToken.equals(document.getOwner())) {
+                throw new PutWallException.PutWallOwnedElsewhereException(putWallId);
+            }
+            List<PutWallDocument.PutWallSlotDocument> stored = new ArrayList<>(document.getSlots());
+            for (PutWallSlot slot : slots) {
+                for (int i = 0; i < stored.size(); i++) {
+                    if (stored.get(i).getSlotId().equals(slot.getSlotId().getValue())) {
+                        stored.set(i, PutWallDocument.PutWallSlotDocument.fromDomain(slot.getSlotId(), slot));
+                    }
+                }
+            }
+            document.setSlots(stored);
+            document.setFreeSlotCount(freeSlotCount);
+            document.setSequence(sequence);
+            lastWrittenSlots = slots.stream().map(PutWallSlot::getSlotId).toList();
+            slotWrites++;
+        }
+
+        @Override
+        public void delete(PutWallId putWallId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PutWall> findByAvailableCapacityGreaterThan(int minCapacity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PutWallCapacity> findCapacitiesGreaterThan(int minCapacity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean exists(PutWallId putWallId) {
+            return documents.containsKey(putWallId);
+        }
+    }
+
+    private static final class InMemoryPutWallLeases implements PutWallLeases {
+        private final Map<PutWallId, String> owners = new HashMap<>();
+        private final Map<PutWallId, Instant> leaseExpiry = new HashMap<>();
+
+        @Override
+        public synchronized boolean acquire(PutWallId putWallId, String ownerId, Instant now, Instant expiresAt) {
+            String owner = owners.get(putWallId);
+            if (owner != null && !owner.equals(ownerId) && leaseExpiry.get(putWallId).isAfter(now)) {
+                return false;
+            }
+            owners.put(putWallId, ownerId);
+            leaseExpiry.put(putWallId, expiresAt);
+            return true;
+        }
+
+        @Override
+        public synchronized Set<PutWallId> renew(String ownerId, Instant expiresAt) {
+            Set<PutWallId> owned = new HashSet<>();
+            owners.forEach((putWallId, owner) -> {
+                if (owner.equals(ownerId)) {
+                    leaseExpiry.put(putWallId, expiresAt);
+                    owned.add(putWallId);
+                }
+            });
+            return owned;
+        }
+
+        @Override
+        public synchronized void release(PutWallId putWallId, String ownerId) {
+            if (ownerId.equals(owners.get(putWallId))) {
+                owners.remove(putWallId);
+                leaseExpiry.remove(putWallId);
+            }
+        }
+
+        @Override
+        public synchronized void releaseAll(String ownerId) {
+            owners.entrySet().removeIf(entry -> entry.getValue().equals(ownerId));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
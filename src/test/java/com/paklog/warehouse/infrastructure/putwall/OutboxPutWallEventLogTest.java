@@ -0,0 +1,177 @@
+package com.paklog.warehouse.infrastructure.putwall;
+
+import com.paklog.warehouse.domain.putwall.OrderAssignedToSlotEvent;
+import com.paklog.warehouse.domain.putwall.PutWall;
+import com.paklog.warehouse.domain.putwall.PutWallId;
+import com.paklog.warehouse.domain.putwall.PutWallSlot;
+import com.paklog.warehouse.domain.putwall.PutWallSlotId;
+import com.paklog.warehouse.domain.putwall.PutWallSlotStatus;
+import com.paklog.warehouse.domain.shared.DomainEvent;
+import com.paklog.warehouse.domain.shared.OrderId;
+import com.paklog.warehouse.domain.shared.Quantity;
+import com.paklog.warehouse.domain.shared.SkuCode;
+import com.paklog.warehouse.infrastructure.events.EventSerializer;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxPutWallEventLogTest {
+
+    private static final List<PutWallSlotId> SLOT_IDS = List.of(PutWallSlotId.of("A1"), PutWallSlotId.of("A2"));
+    private static final SkuCode SKU1 = SkuCode.of("SKU001");
+    private static final SkuCode SKU2 = SkuCode.of("SKU002");
+
+    private final EventSerializer serializer = new EventSerializer();
+
+    @Test
+    void shouldReplayAssignmentsPlacementsAndReleasesOntoTheStoredWall() {
+        PutWallId putWallId = PutWallId.generate();
+        PutWall live = new PutWall(putWallId, SLOT_IDS, "Zone A");
+        PutWall stored = new PutWall(putWallId, SLOT_IDS, "Zone A");
+        OrderId first = OrderId.generate();
+        OrderId second = OrderId.generate();
+
+        PutWallSlotId firstSlot = live.assignOrderToSlot(first, Map.of(SKU1, Quantity.of(2), SKU2, Quantity.of(1))).orElseThrow();
+        live.placeItemInSlot(firstSlot, SKU1, Quantity.of(2));
+        live.placeItemInSlot(firstSlot, SKU2, Quantity.of(1));
+        live.releaseSlot(firstSlot);
+        PutWallSlotId secondSlot = live.assignOrderToSlot(second, Map.of(SKU1, Quantity.of(3))).orElseThrow();
+        live.placeItemInSlot(secondSlot, SKU1, Quantity.of(1));
+        List<String> outbox = serialize(live.getDomainEvents());
+
+        // The consolidation event is not replayed, it follows from the last placement
+        assertEquals(6, OutboxPutWallEventLog.replay(stored, outbox));
+
+        for (PutWallSlotId slotId : SLOT_IDS) {
+            assertEquals(describe(live.getSlotById(slotId)), describe(stored.getSlotById(slotId)));
+        }
+        assertEquals(secondSlot, stored.findSlotForOrder(second).orElseThrow());
+        assertEquals(2, stored.findSlotForSku(SKU1).orElseThrow().getRemainingQuantity(SKU1));
+        assertEquals(live.getSequence(), stored.getSequence());
+    }
+
+    @Test
+    void shouldOnlyReplayChangesAfterTheStoredSequenceInSequenceOrder() {
+        PutWallId putWallId = PutWallId.generate();
+        PutWall live = new PutWall(putWallId, SLOT_IDS, "Zone A");
+        PutWallSlotId slotId = live.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(1))).orElseThrow();
+        PutWall stored = copyAssignments(live);
+
+        live.placeItemInSlot(slotId, SKU1, Quantity.of(1));
+        live.releaseSlot(slotId);
+        List<String> outbox = new ArrayList<>(serialize(live.getDomainEvents()));
+        Collections.reverse(outbox);
+
+        assertEquals(2, OutboxPutWallEventLog.replay(stored, outbox));
+        assertEquals(PutWallSlotStatus.FREE, stored.getSlotById(slotId).getStatus());
+        assertEquals(3, stored.getSequence());
+    }
+
+    @Test
+    void shouldIgnoreOtherWalls() {
+        PutWall other = new PutWall(PutWallId.generate(), SLOT_IDS, "Zone B");
+        other.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(1)));
+        PutWall putWall = new PutWall(PutWallId.generate(), SLOT_IDS, "Zone A");
+
+        assertEquals(0, OutboxPutWallEventLog.replay(putWall, serialize(other.getDomainEvents())));
+        assertEquals(2, putWall.getAvailableCapacity());
+    }
+
+    @Test
+    void shouldIgnoreEventsWrittenBeforeChangesWereNumbered() {
+        PutWall putWall = new PutWall(PutWallId.generate(), SLOT_IDS, "Zone A");
+        DomainEvent unnumbered = new OrderAssignedToSlotEvent(putWall.getPutWallId(), SLOT_IDS.get(0),
+                                                              OrderId.generate(), Map.of(SKU1, Quantity.of(1)));
+
+        assertEquals(0, OutboxPutWallEventLog.replay(putWall, serialize(List.of(unnumbered))));
+        assertEquals(2, putWall.getAvailableCapacity());
+    }
+
+    @Test
+    void shouldFailOnUnreadableEvents() {
+        PutWall putWall = new PutWall(PutWallId.generate(), SLOT_IDS, "Zone A");
+
+        assertThrows(IllegalStateException.class, () -> OutboxPutWallEventLog.replay(putWall, List.of("{not json")));
+    }
+
+    @Test
+    void shouldFailOnChangesThatNoLongerApply() {
+        PutWallId putWallId = PutWallId.generate();
+        PutWall live = new PutWall(putWallId, SLOT_IDS, "Zone A");
+        PutWallSlotId slotId = live.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(1))).orElseThrow();
+        live.placeItemInSlot(slotId, SKU1, Quantity.of(1));
+        List<String> outbox = serialize(live.getDomainEvents());
+        PutWall stored = new PutWall(putWallId, SLOT_IDS, "Zone A");
+
+        // Without its assignment the placement has no slot to go to
+        assertThrows(IllegalStateException.class,
+            () -> OutboxPutWallEventLog.replay(stored, outbox.subList(1, outbox.size())));
+    }
+
+    @Test
+    void shouldFailOnMissingChanges() {
+        PutWallId putWallId = PutWallId.generate();
+        PutWall live = new PutWall(putWallId, SLOT_IDS, "Zone A");
+        PutWallSlotId slotId = live.assignOrderToSlot(OrderId.generate(), Map.of(SKU1, Quantity.of(2))).orElseThrow();
+        live.placeItemInSlot(slotId, SKU1, Quantity.of(1));
+        live.placeItemInSlot(slotId, SKU1, Quantity.of(1));
+        List<String> outbox = new ArrayList<>(serialize(live.getDomainEvents()));
+        outbox.remove(1);
+        PutWall stored = new PutWall(putWallId, SLOT_IDS, "Zone A");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> OutboxPutWallEventLog.replay(stored, outbox));
+        assertTrue(e.getMessage().contains("missing changes before change 3"), e.getMessage());
+    }
+
+    @Test
+    void shouldOnlyReadTheWallsEventsAfterItsSequence() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        PutWall putWall = new PutWall(PutWallId.generate(), SLOT_IDS, "Zone A");
+        putWall.setSequence(41);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        assertEquals(0, new OutboxPutWallEventLog(mongoTemplate).replay(putWall));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(OutboxEvent.class));
+        assertEquals(new Document("subject", putWall.getPutWallId().toString())
+                         .append("sequence", new Document("$gt", 41L)),
+                     query.getValue().getQueryObject());
+        assertEquals(new Document("sequence", 1), query.getValue().getSortObject());
+    }
+
+    private List<String> serialize(List<DomainEvent> events) {
+        return events.stream().map(serializer::serialize).toList();
+    }
+
+    private static String describe(PutWallSlot slot) {
+        return slot.getStatus() + " " + slot.getAssignedOrderId() + " " + slot.getItemsRequired() + " "
+               + slot.getItemsPlaced();
+    }
+
+    private static PutWall copyAssignments(PutWall putWall) {
+        PutWall copy = new PutWall(putWall.getPutWallId(), SLOT_IDS, putWall.getLocation());
+        putWall.getAllSlots().forEach((slotId, slot) -> {
+            if (slot.getAssignedOrderId() != null) {
+                copy.assignOrderToSlot(slotId, slot.getAssignedOrderId(), slot.getItemsRequired());
+            }
+        });
+        copy.clearDomainEvents();
+        copy.setSequence(putWall.getSequence());
+        return copy;
+    }
+}
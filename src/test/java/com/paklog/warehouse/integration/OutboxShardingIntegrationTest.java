@@ -0,0 +1,245 @@
+package com.paklog.warehouse.integration;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.paklog.warehouse.infrastructure.messaging.MongoOutboxShardLeases;
+import com.paklog.warehouse.infrastructure.messaging.OutboxEvent;
+import com.paklog.warehouse.infrastructure.messaging.OutboxLeaseOperationsImpl;
+import com.paklog.warehouse.infrastructure.messaging.OutboxRelay;
+import com.paklog.warehouse.infrastructure.messaging.OutboxSender;
+import com.paklog.warehouse.infrastructure.messaging.OutboxShardAssignment;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.UuidRepresentation;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Several outbox relays sharing one embedded MongoDB, as replicas of the service would.
+ * Skipped when the MongoDB binaries cannot be started, e.g. without network access to
+ * download them.
+ */
+class OutboxShardingIntegrationTest {
+    private static final int AGGREGATES = 200;
+    private static final int EVENTS_PER_AGGREGATE = 10;
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static String unavailableReason;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private final List<OutboxRelay> relays = new ArrayList<>();
+    private final List<ExecutorService> brokers = new ArrayList<>();
+
+    @BeforeAll
+    static void startMongo() {
+        try {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+        } catch (RuntimeException e) {
+            unavailableReason = e.getMessage();
+        }
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(mongod != null, () -> "Embedded MongoDB unavailable: " + unavailableReason);
+        ServerAddress address = mongod.current().getServerAddress();
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString("mongodb://" + address.getHost() + ":" + address.getPort()))
+            .uuidRepresentation(UuidRepresentation.STANDARD)
+            .build());
+        mongoTemplate = new MongoTemplate(mongoClient, "outbox-sharding-test");
+        mongoTemplate.getDb().drop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relays.forEach(OutboxRelay::stop);
+        brokers.forEach(ExecutorService::shutdownNow);
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+    }
+
+    @Test
+    void shouldPublishEveryEventOnceAndInAggregateOrderAcrossReplicas() throws InterruptedException {
+        Map<String, ConcurrentLinkedQueue<OutboxEvent>> sendsByRelay = new ConcurrentHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            String relayId = "relay-" + i;
+            ConcurrentLinkedQueue<OutboxEvent> sends = new ConcurrentLinkedQueue<>();
+            sendsByRelay.put(relayId, sends);
+            relays.add(relay(relayId, event -> {
+                sends.add(event);
+                return CompletableFuture.completedFuture(null);
+            }));
+        }
+        awaitBalancedShards();
+
+        writeEvents();
+        relays.forEach(OutboxRelay::start);
+        awaitOutboxDrained(Duration.ofSeconds(60));
+
+        Map<String, String> relayByAggregate = new HashMap<>();
+        Map<String, Integer> lastSequence = new HashMap<>();
+        Set<Object> sentIds = new HashSet<>();
+        sendsByRelay.forEach((relayId, sends) -> {
+            for (OutboxEvent event : sends) {
+                assertTrue(sentIds.add(event.getId()), "event " + event.getId() + " sent twice");
+                String previousRelay = relayByAggregate.putIfAbsent(event.getSubject(), relayId);
+                assertTrue(previousRelay == null || previousRelay.equals(relayId),
+                           "aggregate " + event.getSubject() + " published by two relays");
+                int sequence = Integer.parseInt(event.getData());
+                assertTrue(sequence > lastSequence.getOrDefault(event.getSubject(), -1),
+                           "aggregate " + event.getSubject() + " out of order");
+                lastSequence.put(event.getSubject(), sequence);
+            }
+        });
+        assertEquals(AGGREGATES * EVENTS_PER_AGGREGATE, sentIds.size());
+        sendsByRelay.values().forEach(sends -> assertFalse(sends.isEmpty()));
+    }
+
+    @Test
+    void shouldReassignShardsOfAStoppedReplica() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            relays.add(relay("relay-" + i, event -> CompletableFuture.completedFuture(null)));
+        }
+        awaitBalancedShards();
+
+        relays.get(0).stop();
+        writeEvents();
+        relays.get(1).start();
+        awaitOutboxDrained(Duration.ofSeconds(60));
+
+        assertEquals(OutboxEvent.SHARD_COUNT, relays.get(1).getShardCount());
+        assertEquals(AGGREGATES * EVENTS_PER_AGGREGATE, relays.get(1).getStatistics().getPublishedEvents());
+    }
+
+    @Test
+    void shouldScaleThroughputWithReplicas() throws InterruptedException {
+        double single = measureThroughput(1);
+        tearDownRelays();
+        double triple = measureThroughput(3);
+
+        // Each replica has its own broker connection; the outbox reads must not be the bottleneck
+        assertTrue(triple >= 2.0 * single,
+                   String.format("1 replica: %.0f events/s, 3 replicas: %.0f events/s", single, triple));
+    }
+
+    private double measureThroughput(int replicas) throws InterruptedException {
+        mongoTemplate.getDb().drop();
+        for (int i = 0; i < replicas; i++) {
+            // A broker connection that takes about a millisecond per acknowledgement
+            ExecutorService broker = Executors.newSingleThreadExecutor();
+            brokers.add(broker);
+            relays.add(relay("relay-" + i, event -> CompletableFuture.runAsync(() -> {
+                try {
+                    TimeUnit.MICROSECONDS.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, broker)));
+        }
+        awaitBalancedShards();
+        writeEvents();
+
+        long start = System.nanoTime();
+        relays.forEach(OutboxRelay::start);
+        awaitOutboxDrained(Duration.ofSeconds(120));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return AGGREGATES * EVENTS_PER_AGGREGATE / seconds;
+    }
+
+    private void tearDownRelays() {
+        relays.forEach(OutboxRelay::stop);
+        relays.clear();
+        brokers.forEach(ExecutorService::shutdownNow);
+        brokers.clear();
+    }
+
+    private OutboxRelay relay(String relayId, OutboxSender sender) {
+        OutboxShardAssignment assignment = new OutboxShardAssignment(new MongoOutboxShardLeases(mongoTemplate),
+                                                                     relayId, Duration.ofSeconds(3), Clock.systemUTC());
+        return new OutboxRelay(new OutboxLeaseOperationsImpl(mongoTemplate), sender, assignment, Clock.systemUTC(),
+                               100, 4, Duration.ofSeconds(10), Duration.ofSeconds(5), Duration.ofMillis(50));
+    }
+
+    // Refreshes until every relay holds its share, as the relays would over a few lease periods
+    private void awaitBalancedShards() throws InterruptedException {
+        int fairShare = (OutboxEvent.SHARD_COUNT + relays.size() - 1) / relays.size();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            int held = 0;
+            boolean balanced = true;
+            for (OutboxRelay relay : relays) {
+                relay.drain();
+                int shards = relay.getShardCount();
+                held += shards;
+                balanced &= shards >= fairShare - 1;
+            }
+            if (balanced && held == OutboxEvent.SHARD_COUNT) {
+                return;
+            }
+            Thread.sleep(1_100);
+        }
+        fail("Shards not balanced across " + relays.size() + " relays");
+    }
+
+    // One event per aggregate per round, rounds a few milliseconds apart so creation order is unambiguous
+    private void writeEvents() throws InterruptedException {
+        for (int sequence = 0; sequence < EVENTS_PER_AGGREGATE; sequence++) {
+            List<OutboxEvent> round = new ArrayList<>(AGGREGATES);
+            for (int aggregate = 0; aggregate < AGGREGATES; aggregate++) {
+                round.add(new OutboxEvent("com.paklog.test", "/test", "order-" + aggregate, String.valueOf(sequence)));
+            }
+            mongoTemplate.insertAll(round);
+            Thread.sleep(3);
+        }
+    }
+
+    private void awaitOutboxDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Query unprocessed = new Query(Criteria.where("processed").is(false));
+        while (mongoTemplate.exists(unprocessed, OutboxEvent.class)) {
+            if (System.nanoTime() > deadline) {
+                fail(mongoTemplate.count(unprocessed, OutboxEvent.class) + " events left in the outbox");
+            }
+            Thread.sleep(20);
+        }
+    }
+}